@@ -0,0 +1,73 @@
+/*
+ *    Copyright [2007-2025] [wisemapping]
+ *
+ *   Licensed under WiseMapping Public License, Version 1.0 (the "License").
+ *   It is basically the Apache License, Version 2.0 (the "License") plus the
+ *   "powered by wisemapping" text requirement on every single page;
+ *   you may not use this file except in compliance with the License.
+ *   You may obtain a copy of the license at
+ *
+ *       https://github.com/wisemapping/wisemapping-open-source/blob/main/LICENSE.md
+ *
+ *   Unless required by applicable law or agreed to in writing, software
+ *   distributed under the License is distributed on an "AS IS" BASIS,
+ *   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *   See the License for the specific language governing permissions and
+ *   limitations under the License.
+ */
+package com.wisemapping.dao;
+
+import com.wisemapping.model.BatchJobState;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.Calendar;
+import java.util.List;
+
+/**
+ * Data Access Object for the progress and leases of batch jobs.
+ */
+public interface BatchJobManager {
+
+    /**
+     * Find the progress of a job.
+     * @param jobName the job name
+     * @return the job state, or null if the job never ran
+     */
+    @Nullable
+    BatchJobState findJobState(@NotNull String jobName);
+
+    /**
+     * Find the progress of all jobs.
+     * @return the job states ordered by name
+     */
+    @NotNull
+    List<BatchJobState> findAllJobStates();
+
+    /**
+     * Take the lease of a job if no other node holds it or the lease of that node has expired, creating the job
+     * state on its first run. Runs in its own transaction.
+     * @param jobName the job name
+     * @param owner the node taking the lease
+     * @param expiresAt when the lease expires unless renewed
+     * @return the job state with the lease taken, or null if another node holds it
+     */
+    @Nullable
+    BatchJobState acquireLease(@NotNull String jobName, @NotNull String owner, @NotNull Calendar expiresAt);
+
+    /**
+     * Save the progress of a job and renew or release its lease, provided the given node still holds it. Runs in
+     * its own transaction, so the progress is kept if the job fails afterwards.
+     * @param state the progress to save
+     * @param owner the node running the job
+     * @param leaseExpiresAt when the renewed lease expires, or null to release it
+     * @return false if another node took the lease over, in which case nothing is saved
+     */
+    boolean saveProgress(@NotNull BatchJobState state, @NotNull String owner, @Nullable Calendar leaseExpiresAt);
+
+    /**
+     * Remove the progress of a job, so its next run starts from the beginning.
+     * @param jobName the job name
+     */
+    void removeJobState(@NotNull String jobName);
+}
@@ -0,0 +1,126 @@
+/*
+ *    Copyright [2007-2025] [wisemapping]
+ *
+ *   Licensed under WiseMapping Public License, Version 1.0 (the "License").
+ *   It is basically the Apache License, Version 2.0 (the "License") plus the
+ *   "powered by wisemapping" text requirement on every single page;
+ *   you may not use this file except in compliance with the License.
+ *   You may obtain a copy of the license at
+ *
+ *       https://github.com/wisemapping/wisemapping-open-source/blob/main/LICENSE.md
+ *
+ *   Unless required by applicable law or agreed to in writing, software
+ *   distributed under the License is distributed on an "AS IS" BASIS,
+ *   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *   See the License for the specific language governing permissions and
+ *   limitations under the License.
+ */
+package com.wisemapping.dao;
+
+import com.wisemapping.model.BatchJobState;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.Calendar;
+import java.util.List;
+
+/**
+ * Implementation of BatchJobManager on the BATCH_JOB_STATE table. Leases are taken and checked with
+ * conditional updates, so two nodes never both hold one.
+ */
+@Repository
+public class BatchJobManagerImpl implements BatchJobManager {
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Override
+    @Nullable
+    public BatchJobState findJobState(@NotNull String jobName) {
+        return entityManager.find(BatchJobState.class, jobName);
+    }
+
+    @Override
+    @NotNull
+    public List<BatchJobState> findAllJobStates() {
+        return entityManager.createQuery(
+                        "SELECT s FROM com.wisemapping.model.BatchJobState s ORDER BY s.jobName", BatchJobState.class)
+                .getResultList();
+    }
+
+    @Override
+    @Nullable
+    @Transactional(propagation = Propagation.REQUIRES_NEW)
+    public BatchJobState acquireLease(@NotNull String jobName, @NotNull String owner, @NotNull Calendar expiresAt) {
+        BatchJobState state = entityManager.find(BatchJobState.class, jobName);
+        if (state == null) {
+            state = new BatchJobState(jobName);
+            state.setLeaseOwner(owner);
+            state.setLeaseExpiresAt(expiresAt);
+            entityManager.persist(state);
+            // A node creating the state concurrently makes this fail on the primary key
+            entityManager.flush();
+            return state;
+        }
+
+        final Calendar now = Calendar.getInstance();
+        final int updated = entityManager.createQuery(
+                        "UPDATE com.wisemapping.model.BatchJobState s " +
+                                "SET s.leaseOwner = :owner, s.leaseExpiresAt = :expiresAt, s.updatedAt = :now " +
+                                "WHERE s.jobName = :jobName " +
+                                "AND (s.leaseOwner IS NULL OR s.leaseOwner = :owner OR s.leaseExpiresAt < :now)")
+                .setParameter("owner", owner)
+                .setParameter("expiresAt", expiresAt)
+                .setParameter("now", now)
+                .setParameter("jobName", jobName)
+                .executeUpdate();
+        if (updated == 0) {
+            return null;
+        }
+        entityManager.refresh(state);
+        return state;
+    }
+
+    @Override
+    @Transactional(propagation = Propagation.REQUIRES_NEW)
+    public boolean saveProgress(@NotNull BatchJobState state, @NotNull String owner,
+                                @Nullable Calendar leaseExpiresAt) {
+        state.setLeaseOwner(leaseExpiresAt != null ? owner : null);
+        state.setLeaseExpiresAt(leaseExpiresAt);
+        final int updated = entityManager.createQuery(
+                        "UPDATE com.wisemapping.model.BatchJobState s " +
+                                "SET s.lastCursor = :lastCursor, s.status = :status, " +
+                                "s.processedCount = :processedCount, s.affectedCount = :affectedCount, " +
+                                "s.failedChunks = :failedChunks, s.startedAt = :startedAt, s.finishedAt = :finishedAt, " +
+                                "s.leaseOwner = :leaseOwner, s.leaseExpiresAt = :leaseExpiresAt, s.updatedAt = :now " +
+                                "WHERE s.jobName = :jobName AND s.leaseOwner = :owner")
+                .setParameter("lastCursor", state.getLastCursor())
+                .setParameter("status", state.getStatus())
+                .setParameter("processedCount", state.getProcessedCount())
+                .setParameter("affectedCount", state.getAffectedCount())
+                .setParameter("failedChunks", state.getFailedChunks())
+                .setParameter("startedAt", state.getStartedAt())
+                .setParameter("finishedAt", state.getFinishedAt())
+                .setParameter("leaseOwner", state.getLeaseOwner())
+                .setParameter("leaseExpiresAt", leaseExpiresAt)
+                .setParameter("now", Calendar.getInstance())
+                .setParameter("jobName", state.getJobName())
+                .setParameter("owner", owner)
+                .executeUpdate();
+        return updated > 0;
+    }
+
+    @Override
+    @Transactional(propagation = Propagation.REQUIRES_NEW)
+    public void removeJobState(@NotNull String jobName) {
+        final BatchJobState state = entityManager.find(BatchJobState.class, jobName);
+        if (state != null) {
+            entityManager.remove(state);
+        }
+    }
+}
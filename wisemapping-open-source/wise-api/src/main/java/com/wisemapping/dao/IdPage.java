@@ -0,0 +1,73 @@
+/*
+*    Copyright [2007-2025] [wisemapping]
+*
+*   Licensed under WiseMapping Public License, Version 1.0 (the "License").
+*   It is basically the Apache License, Version 2.0 (the "License") plus the
+*   "powered by wisemapping" text requirement on every single page;
+*   you may not use this file except in compliance with the License.
+*   You may obtain a copy of the license at
+*
+*       https://github.com/wisemapping/wisemapping-open-source/blob/main/LICENSE.md
+*
+*   Unless required by applicable law or agreed to in writing, software
+*   distributed under the License is distributed on an "AS IS" BASIS,
+*   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+*   See the License for the specific language governing permissions and
+*   limitations under the License.
+*/
+
+package com.wisemapping.dao;
+
+import jakarta.persistence.TypedQuery;
+import org.jetbrains.annotations.NotNull;
+
+import java.util.List;
+
+/**
+ * Keyset page over ascending ids: at most {@code limit} rows with an id greater than {@code afterId}.
+ * Batch jobs that update or delete the rows they scan page this way, since an offset would skip the rows
+ * that leave the result set. Queries compare their id with the {@value #AFTER_ID} parameter and order by it.
+ */
+public record IdPage(int afterId, int limit) {
+
+    public static final String AFTER_ID = "afterId";
+
+    public IdPage {
+        if (limit <= 0) {
+            throw new IllegalArgumentException("Page limit must be positive: " + limit);
+        }
+    }
+
+    @NotNull
+    public static IdPage first(int limit) {
+        return new IdPage(0, limit);
+    }
+
+    /**
+     * The page that follows the one ending at the given id.
+     */
+    @NotNull
+    public IdPage after(int lastId) {
+        return new IdPage(lastId, limit);
+    }
+
+    /**
+     * The page that follows the given ids, read with this page.
+     */
+    @NotNull
+    public IdPage after(@NotNull List<Integer> ids) {
+        return ids.isEmpty() ? this : after(ids.get(ids.size() - 1));
+    }
+
+    /**
+     * Tells whether the given results filled this page, so a following page may exist.
+     */
+    public boolean isFull(@NotNull List<?> results) {
+        return results.size() >= limit;
+    }
+
+    @NotNull
+    public <T> TypedQuery<T> bind(@NotNull TypedQuery<T> query) {
+        return query.setParameter(AFTER_ID, afterId).setMaxResults(limit);
+    }
+}
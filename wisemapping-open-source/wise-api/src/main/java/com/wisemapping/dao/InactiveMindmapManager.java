@@ -51,6 +51,14 @@ public interface InactiveMindmapManager {
      */
     List<InactiveMindmap> findByCreator(int creatorId);
 
+    /**
+     * Find the ids of the inactive mindmaps of a creator, ordered by id.
+     * @param creatorId the creator's ID
+     * @param page the page to read
+     * @return ids of the inactive mindmaps created by the user
+     */
+    List<Integer> findIdsByCreator(int creatorId, @NotNull IdPage page);
+
     /**
      * Find inactive mindmaps created before a specific date.
      * @param cutoffDate the cutoff date
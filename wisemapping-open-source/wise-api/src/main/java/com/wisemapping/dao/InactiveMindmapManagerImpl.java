@@ -22,6 +22,7 @@ import com.wisemapping.model.Account;
 import com.wisemapping.model.InactiveMindmap;
 import jakarta.persistence.EntityManager;
 import jakarta.persistence.PersistenceContext;
+import jakarta.persistence.TypedQuery;
 import jakarta.persistence.criteria.CriteriaBuilder;
 import jakarta.persistence.criteria.CriteriaDelete;
 import jakarta.persistence.criteria.CriteriaQuery;
@@ -67,6 +68,15 @@ public class InactiveMindmapManagerImpl implements InactiveMindmapManager {
         return entityManager.createQuery(cq).getResultList();
     }
 
+    @Override
+    public List<Integer> findIdsByCreator(int creatorId, @NotNull IdPage page) {
+        final TypedQuery<Integer> query = entityManager.createQuery(
+                "SELECT i.id FROM com.wisemapping.model.InactiveMindmap i " +
+                        "WHERE i.creator.id = :creatorId AND i.id > :afterId ORDER BY i.id ASC", Integer.class);
+        query.setParameter("creatorId", creatorId);
+        return page.bind(query).getResultList();
+    }
+
     @Override
     public List<InactiveMindmap> findCreatedBefore(@NotNull Calendar cutoffDate) {
         assert cutoffDate != null : "cutoffDate is null";
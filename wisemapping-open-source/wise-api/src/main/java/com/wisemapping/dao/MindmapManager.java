@@ -23,7 +23,9 @@ import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
 
 import java.util.Calendar;
+import java.util.Collection;
 import java.util.List;
+import java.util.Set;
 
 public interface MindmapManager {
 
@@ -34,6 +36,26 @@ public interface MindmapManager {
     @Nullable
     Mindmap getMindmapById(int mindmapId);
 
+    /**
+     * Loads the map row only, served from the second-level cache when available.
+     * Collaborations, labels and the XML content are resolved lazily.
+     */
+    @Nullable
+    Mindmap getMindmapMetadataById(int mindmapId);
+
+    /**
+     * Drops the cached metadata and spam info of the given maps, now and again when the current transaction
+     * completes. Writes that bypass the entity manager, such as JDBC batches or bulk SQL, must call it for
+     * the maps they change; changes made through the entity manager are invalidated by Hibernate.
+     */
+    void evictMindmapMetadata(@NotNull Collection<Integer> mindmapIds);
+
+    /**
+     * Sets the public flag of a map without loading it, for changes made outside a request.
+     * @return true if the map exists
+     */
+    boolean updateMindmapPublicState(int mindmapId, boolean isPublic);
+
     Mindmap getMindmapByTitle(final String name, final Account user);
 
     void addCollaborator(Collaborator collaborator);
@@ -46,6 +68,11 @@ public interface MindmapManager {
 
     void updateMindmapSpamInfo(@NotNull com.wisemapping.model.MindmapSpamInfo spamInfo);
 
+    /**
+     * Upserts the spam info of several maps in a single transaction using a JDBC batch.
+     */
+    void updateMindmapSpamInfoBatch(@NotNull Collection<com.wisemapping.model.MindmapSpamInfo> spamInfos);
+
     void removeCollaborator(@NotNull Collaborator collaborator);
 
     void removeMindmap(Mindmap mindmap);
@@ -167,11 +194,10 @@ public interface MindmapManager {
      * Find users with high public spam ratio (spam maps / total public maps >= threshold)
      * @param spamRatioThreshold minimum spam ratio (0.0 to 1.0) to consider for suspension
      * @param monthsBack number of months to look back for account creation
-     * @param offset starting position for pagination
-     * @param limit maximum number of results to return
-     * @return list of users with their spam ratios for public maps
+     * @param page the page of user ids
+     * @return list of users with their spam ratios for public maps, ordered by user id
      */
-    List<SpamRatioUserResult> findUsersWithHighPublicSpamRatio(double spamRatioThreshold, int monthsBack, int offset, int limit);
+    List<SpamRatioUserResult> findUsersWithHighPublicSpamRatio(double spamRatioThreshold, int monthsBack, @NotNull IdPage page);
 
     /**
      * Count users with high public spam ratio
@@ -185,11 +211,10 @@ public interface MindmapManager {
      * Find users with minimum number of spam maps (public or private)
      * @param minSpamCount minimum number of spam maps required
      * @param monthsBack number of months to look back for account creation
-     * @param offset starting position for pagination
-     * @param limit maximum number of results to return
-     * @return list of users with their total spam counts
+     * @param page the page of user ids
+     * @return list of users with their total spam counts, ordered by user id
      */
-    List<SpamUserResult> findUsersWithAnySpamMaps(int minSpamCount, int monthsBack, int offset, int limit);
+    List<SpamUserResult> findUsersWithAnySpamMaps(int minSpamCount, int monthsBack, @NotNull IdPage page);
 
     /**
      * Count users with minimum number of spam maps (public or private)
@@ -236,22 +261,28 @@ public interface MindmapManager {
     long countAllPublicMindmapsSince(java.util.Calendar cutoffDate);
 
     /**
-     * Find public mindmaps that need spam detection (version < current version)
+     * Find public mindmaps that need spam detection (version < current version, or strategy versions other than
+     * the current ones), ordered by id, with their spam info loaded.
+     * Processing a page removes its rows from the result set, so pages are keyset based.
      * @param cutoffDate only return mindmaps created after this date
      * @param currentVersion only return mindmaps with version less than this
-     * @param offset starting position for pagination
-     * @param limit maximum number of results to return
+     * @param strategyVersions the strategy versions currently applied
+     * @param page the page to read
      * @return list of public mindmaps needing spam detection
      */
-    List<Mindmap> findPublicMindmapsNeedingSpamDetection(java.util.Calendar cutoffDate, int currentVersion, int offset, int limit);
+    List<Mindmap> findPublicMindmapsNeedingSpamDetection(java.util.Calendar cutoffDate, int currentVersion,
+            @NotNull String strategyVersions, @NotNull IdPage page);
 
     /**
-     * Count public mindmaps that need spam detection (version < current version)
+     * Count public mindmaps that need spam detection (version < current version, or strategy versions other than
+     * the current ones)
      * @param cutoffDate only count mindmaps created after this date
      * @param currentVersion only count mindmaps with version less than this
+     * @param strategyVersions the strategy versions currently applied
      * @return total count of public mindmaps needing spam detection
      */
-    long countPublicMindmapsNeedingSpamDetection(java.util.Calendar cutoffDate, int currentVersion);
+    long countPublicMindmapsNeedingSpamDetection(java.util.Calendar cutoffDate, int currentVersion,
+            @NotNull String strategyVersions);
 
     /**
      * Find users with public spam mindmaps detected by specific spam type strategies
@@ -272,22 +303,31 @@ public interface MindmapManager {
     long countUsersWithPublicSpamMapsByType(String[] spamTypeCodes, int monthsBack);
 
     /**
-     * Get all mindmap IDs that have history entries, for batch processing
+     * Get all mindmap IDs that have history entries, for batch processing, ordered by id.
      * 
-     * @param offset starting position for pagination
-     * @param batchSize maximum number of IDs to return
+     * @param page the page to read
      * @return list of mindmap IDs that have history
      */
-    List<Integer> getMindmapIdsWithHistory(int offset, int batchSize);
+    List<Integer> getMindmapIdsWithHistory(@NotNull IdPage page);
 
     /**
-     * Get the last modification time of a mindmap
-     * 
-     * @param mindmapId the mindmap ID
-     * @return the last modification time, or null if not found
+     * Get the IDs of the mindmaps with history entries last modified in a date range, ordered by id.
+     *
+     * @param editedAfter  exclusive lower bound of the last modification time
+     * @param editedBefore exclusive upper bound of the last modification time
+     * @param maxId        inclusive upper bound of the mindmap IDs
+     * @param page         the page to read
+     * @return list of mindmap IDs
      */
-    @Nullable
-    Calendar getMindmapLastModificationTime(int mindmapId);
+    List<Integer> findMindmapIdsWithHistoryEditedBetween(@NotNull Calendar editedAfter, @NotNull Calendar editedBefore,
+                                                         int maxId, @NotNull IdPage page);
+
+    /**
+     * Get the highest mindmap ID, to split the id space of a batch job into ranges.
+     *
+     * @return the highest mindmap ID, 0 if there are no mindmaps
+     */
+    int getMaxMindmapId();
 
     /**
      * Get all mindmaps (admin only)
@@ -393,13 +433,34 @@ public interface MindmapManager {
     List<Mindmap> findByCreator(int userId);
 
     /**
-     * Find mindmap IDs created by a specific user (memory-efficient for batch processing)
+     * Find mindmap IDs created by a specific user (memory-efficient for batch processing), ordered by id.
      * @param userId the user ID
-     * @param offset pagination offset
-     * @param limit pagination limit
+     * @param page the page to read
      * @return list of mindmap IDs created by the user
      */
-    List<Integer> findMindmapIdsByCreator(int userId, int offset, int limit);
+    List<Integer> findMindmapIdsByCreator(int userId, @NotNull IdPage page);
+
+    /**
+     * Move maps of a creator to MINDMAP_INACTIVE_USER with set-based statements: the maps and their content are
+     * copied with one INSERT ... SELECT, then their history, labels, collaborations and the maps themselves are
+     * deleted, all in one transaction. Content externalized to the blob store is moved by reference.
+     * @param creatorId the creator of the maps
+     * @param mindmapIds the maps to move; maps that no longer exist or belong to someone else are skipped
+     * @param migrationReason the reason recorded on the inactive rows
+     * @return the ids of the maps moved
+     */
+    List<Integer> moveMindmapsToInactive(int creatorId, @NotNull Collection<Integer> mindmapIds,
+                                         @NotNull String migrationReason);
+
+    /**
+     * Restore inactive maps of a creator under their original ids with set-based statements, in one transaction.
+     * The creator becomes the last editor and the maps are marked as modified now.
+     * @param creatorId the creator of the maps
+     * @param inactiveMindmapIds the inactive rows to restore
+     * @return the ids of the inactive rows restored; rows whose original id is taken by another map are left
+     *         for the caller to restore as new maps
+     */
+    List<Integer> restoreInactiveMindmaps(int creatorId, @NotNull Collection<Integer> inactiveMindmapIds);
 
     /**
      * Remove history entries for a specific mindmap
@@ -409,12 +470,29 @@ public interface MindmapManager {
     int removeHistoryByMindmapId(int mindmapId);
 
     /**
-     * Remove excess history entries for a mindmap, keeping only the most recent ones
-     * @param mindmapId the mindmap ID
-     * @param maxEntries maximum number of entries to keep
+     * Remove all history entries of the mindmaps in an id range that are still last modified in a date range,
+     * in one statement.
+     * @param afterId exclusive lower bound of the mindmap IDs
+     * @param toId inclusive upper bound of the mindmap IDs
+     * @param editedAfter exclusive lower bound of the last modification time
+     * @param editedBefore exclusive upper bound of the last modification time
      * @return number of history entries removed
      */
-    int removeExcessHistoryByMindmapId(int mindmapId, int maxEntries);
+    int removeHistoryOfMindmapsEditedBetween(int afterId, int toId, @NotNull Calendar editedAfter,
+                                             @NotNull Calendar editedBefore);
+
+    /**
+     * Remove the history entries of the mindmaps in an id range that are still last modified in a date range,
+     * keeping only the most recent ones of each mindmap, in one statement.
+     * @param afterId exclusive lower bound of the mindmap IDs
+     * @param toId inclusive upper bound of the mindmap IDs
+     * @param editedAfter exclusive lower bound of the last modification time
+     * @param editedBefore exclusive upper bound of the last modification time
+     * @param maxEntries maximum number of entries to keep per mindmap
+     * @return number of history entries removed
+     */
+    int removeExcessHistoryOfMindmapsEditedBetween(int afterId, int toId, @NotNull Calendar editedAfter,
+                                                   @NotNull Calendar editedBefore, int maxEntries);
 
     /**
      * Search collaborators by email (searches both Collaborator and Account tables)
@@ -424,4 +502,63 @@ public interface MindmapManager {
      * @return list of collaborators matching the search term
      */
     List<Collaborator> searchCollaborators(String searchTerm, int offset, int limit);
+
+    /**
+     * Find mindmap IDs whose XML is still stored inline in MINDMAP_XML, ordered by ID.
+     * @param lastMindmapId only IDs greater than this one are returned
+     * @param limit maximum number of IDs to return
+     * @return list of mindmap IDs with inline XML
+     */
+    List<Integer> findMindmapIdsWithInlineXml(int lastMindmapId, int limit);
+
+    /**
+     * Find history IDs whose XML is still stored inline in MINDMAP_HISTORY, ordered by ID.
+     * @param lastHistoryId only IDs greater than this one are returned
+     * @param limit maximum number of IDs to return
+     * @return list of history IDs with inline XML
+     */
+    List<Integer> findHistoryIdsWithInlineXml(int lastHistoryId, int limit);
+
+    /**
+     * Move the inline XML of the given mindmaps to the blob store, keeping only a pointer in the row.
+     * @param mindmapIds the mindmap IDs
+     * @return number of rows externalized
+     */
+    int externalizeMindmapXml(@NotNull List<Integer> mindmapIds);
+
+    /**
+     * Move the inline XML of the given history entries to the blob store, keeping only a pointer in the row.
+     * @param historyIds the history IDs
+     * @return number of rows externalized
+     */
+    int externalizeHistoryXml(@NotNull List<Integer> historyIds);
+
+    /**
+     * Filter the given blob store pointers, keeping only those still referenced by MINDMAP_XML, MINDMAP_HISTORY or
+     * MINDMAP_INACTIVE_USER.
+     * @param contentRefs candidate pointers
+     * @return the subset of pointers still in use
+     */
+    Set<String> findReferencedContentRefs(@NotNull Collection<String> contentRefs);
+
+    /**
+     * Insert or replace the document statistics of a mindmap.
+     */
+    void saveMindmapStats(@NotNull MindmapStats stats);
+
+    /**
+     * Load the document statistics of the given mindmaps, maps without statistics are not included.
+     */
+    List<MindmapStats> findMindmapStats(@NotNull Collection<Integer> mindmapIds);
+
+    /**
+     * Load the spam verdict stored for the given content hash, null if the content has not been checked yet.
+     */
+    @Nullable
+    SpamVerdict findSpamVerdict(@NotNull String contentHash);
+
+    /**
+     * Insert or replace the spam verdict of a content hash.
+     */
+    void saveSpamVerdict(@NotNull SpamVerdict verdict);
 }
@@ -18,6 +18,7 @@
 package com.wisemapping.dao;
 
 import com.wisemapping.model.*;
+import com.wisemapping.service.blob.MindmapBlobStore;
 import jakarta.persistence.EntityManager;
 import jakarta.persistence.Query;
 import jakarta.persistence.TypedQuery;
@@ -34,10 +35,17 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Repository;
 import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.io.IOException;
 import java.util.ArrayList;
 import java.util.Calendar;
+import java.util.Collection;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Optional;
+import java.util.Set;
 
 @Repository("mindmapManager")
 public class MindmapManagerImpl
@@ -47,6 +55,10 @@ public class MindmapManagerImpl
     private EntityManager entityManager;
     @Autowired
     private jakarta.persistence.EntityManagerFactory entityManagerFactory; 
+    @Autowired(required = false)
+    private MindmapBlobStore mindmapBlobStore;
+    private volatile String spamInfoUpsertSql;
+    private volatile HistoryPurgeSql historyPurgeSql;
 
     @Override
     public Collaborator findCollaborator(@NotNull final String email) {
@@ -140,6 +152,7 @@ public class MindmapManagerImpl
         // Create new collaboration - this is safe because we verified it doesn't exist
         Collaboration newCollaboration = new Collaboration(role, collaborator, mindmap);
         entityManager.persist(newCollaboration);
+        evictFromCache(Mindmap.class, List.of(mindmap.getId()));
         return newCollaboration;
     }
 
@@ -204,9 +217,11 @@ public class MindmapManagerImpl
         // The collaboration entity may have been modified in the current transaction
         Collaboration managedCollaboration = entityManager.find(Collaboration.class, collaboration.getId());
         if (managedCollaboration != null) {
+            final int mindmapId = managedCollaboration.getMindMap().getId();
             try {
                 entityManager.remove(managedCollaboration);
                 entityManager.flush(); // Force immediate deletion to catch concurrent modification
+                evictFromCache(Mindmap.class, List.of(mindmapId));
             } catch (org.hibernate.StaleObjectStateException | jakarta.persistence.OptimisticLockException e) {
                 // The collaboration was already deleted by another transaction
                 // This is acceptable - the desired state (collaboration removed) is achieved
@@ -245,6 +260,13 @@ public class MindmapManagerImpl
         return results.isEmpty() ? null : results.get(0);
     }
 
+    @Override
+    @Nullable
+    public Mindmap getMindmapMetadataById(int id) {
+        // Primary key lookup so the second-level cache can answer without touching the database
+        return entityManager.find(Mindmap.class, id);
+    }
+
     @Override
     public Mindmap getMindmapByTitle(final String title, final Account user) {
         // Use Criteria API with JOIN FETCH to explicitly load Account creator (not
@@ -276,6 +298,7 @@ public class MindmapManagerImpl
     @Override
     public void saveMindmap(Mindmap mindMap) {
         assert mindMap != null : "Save Mindmap: Mindmap is required!";
+        externalizeXml(mindMap.getMindmapXml());
         entityManager.persist(mindMap);
         // Flush to ensure the mindmap is persisted and has an ID
         entityManager.flush();
@@ -284,7 +307,7 @@ public class MindmapManagerImpl
         if (spamInfo != null) {
             // Ensure the spam info has the correct mindmap ID
             spamInfo.setMindmapId(mindMap.getId());
-            updateMindmapSpamInfo(spamInfo);
+            updateMindmapSpamInfoBatch(List.of(spamInfo));
         }
     }
 
@@ -295,9 +318,19 @@ public class MindmapManagerImpl
         // violations
         MindmapSpamInfo spamInfo = mindMap.getSpamInfo();
         if (spamInfo != null) {
-            updateMindmapSpamInfo(spamInfo);
+            updateMindmapSpamInfoBatch(List.of(spamInfo));
+        }
+        final MindmapXml mindmapXml = mindMap.getMindmapXml();
+        // Skip content that was not loaded in this session: it has not changed and reading it would fetch the LOB
+        if (org.hibernate.Hibernate.isInitialized(mindmapXml)
+                && org.hibernate.Hibernate.isPropertyInitialized(mindmapXml, "zippedXml")) {
+            externalizeXml(mindmapXml);
+        }
+        final Mindmap merged = entityManager.merge(mindMap);
+        if (merged != mindMap && merged.getMindmapXml() != null && mindmapBlobStore != null) {
+            // Transient state is not merged, the managed copy must be able to resolve its content
+            merged.getMindmapXml().attachBlobStore(mindmapBlobStore);
         }
-        entityManager.merge(mindMap);
         if (saveHistory) {
             saveHistory(mindMap);
         }
@@ -307,36 +340,106 @@ public class MindmapManagerImpl
     @Transactional(propagation = Propagation.REQUIRES_NEW)
     public void updateMindmapSpamInfo(@NotNull com.wisemapping.model.MindmapSpamInfo spamInfo) {
         assert spamInfo != null : "Update MindmapSpamInfo: SpamInfo is required!";
-        // Validate that we have a valid mindmap ID
-        if (spamInfo.getMindmapId() == null || spamInfo.getMindmapId() < 0) {
-            throw new IllegalArgumentException("Invalid mindmap ID for spam info: " + spamInfo.getMindmapId());
+        upsertSpamInfos(List.of(spamInfo));
+    }
+
+    @Override
+    @Transactional(propagation = Propagation.REQUIRES_NEW)
+    public void updateMindmapSpamInfoBatch(@NotNull Collection<MindmapSpamInfo> spamInfos) {
+        upsertSpamInfos(spamInfos);
+    }
+
+    /**
+     * Writes the spam info rows in the current transaction as a single JDBC batch.
+     * "Last Win" strategy: native SQL forces the update regardless of conflicts, so the latest data always
+     * wins, even in high concurrency scenarios, and no JPA merge can fail with optimistic locking.
+     */
+    private void upsertSpamInfos(@NotNull Collection<MindmapSpamInfo> spamInfos) {
+        if (spamInfos.isEmpty()) {
+            return;
         }
-        // "Last Win" strategy: Use native SQL to force update regardless of conflicts
-        // This ensures the latest data always wins, even in high concurrency scenarios
+        // Validate that we have valid mindmap IDs
+        for (MindmapSpamInfo spamInfo : spamInfos) {
+            if (spamInfo.getMindmapId() == null || spamInfo.getMindmapId() < 0) {
+                throw new IllegalArgumentException("Invalid mindmap ID for spam info: " + spamInfo.getMindmapId());
+            }
+        }
+        final String sql = getSpamInfoUpsertSql();
+        // Use one timestamp for the whole batch for consistent handling across all databases
+        final java.sql.Timestamp now = new java.sql.Timestamp(System.currentTimeMillis());
         try {
-            // Use Java Calendar for consistent timestamp handling across all databases
-            Calendar now = Calendar.getInstance();
-            // Get database-specific SQL based on database product name
-            String sql = getUpsertSqlForDatabase();
-            // Convert SpamStrategyType enum to Character for native SQL
-            Character spamTypeCode = spamInfo.getSpamTypeCode() != null ? spamInfo.getSpamTypeCode().getCode() : null;
-            entityManager.createNativeQuery(sql)
-                    .setParameter(1, spamInfo.getMindmapId())
-                    .setParameter(2, spamInfo.isSpamDetected())
-                    .setParameter(3, spamInfo.getSpamDetectionVersion())
-                    .setParameter(4, spamTypeCode) // Convert enum to char
-                    .setParameter(5, spamInfo.getSpamDescription())
-                    .setParameter(6, now) // created_at
-                    .setParameter(7, now) // updated_at
-                    .setParameter(8, now) // updated_at for UPDATE clause
-                    .executeUpdate();
+            entityManager.unwrap(org.hibernate.Session.class).doWork(connection -> {
+                try (java.sql.PreparedStatement statement = connection.prepareStatement(sql)) {
+                    for (MindmapSpamInfo spamInfo : spamInfos) {
+                        statement.setInt(1, spamInfo.getMindmapId());
+                        statement.setBoolean(2, spamInfo.isSpamDetected());
+                        statement.setInt(3, spamInfo.getSpamDetectionVersion());
+                        // Convert SpamStrategyType enum to its code for native SQL
+                        if (spamInfo.getSpamTypeCode() != null) {
+                            statement.setString(4, String.valueOf(spamInfo.getSpamTypeCode().getCode()));
+                        } else {
+                            statement.setNull(4, java.sql.Types.CHAR);
+                        }
+                        if (spamInfo.getSpamDescription() != null) {
+                            statement.setString(5, spamInfo.getSpamDescription());
+                        } else {
+                            statement.setNull(5, java.sql.Types.VARCHAR);
+                        }
+                        if (spamInfo.getStrategyVersions() != null) {
+                            statement.setString(6, spamInfo.getStrategyVersions());
+                        } else {
+                            statement.setNull(6, java.sql.Types.VARCHAR);
+                        }
+                        statement.setTimestamp(7, now); // created_at
+                        statement.setTimestamp(8, now); // updated_at
+                        statement.setTimestamp(9, now); // updated_at for UPDATE clause
+                        statement.addBatch();
+                    }
+                    statement.executeBatch();
+                }
+            });
         } catch (Exception e) {
-            // If native SQL fails, log the error and throw a runtime exception
+            // If native SQL fails, throw a runtime exception
             // This ensures we don't fall back to JPA merge which causes optimistic locking
             // issues
-            throw new RuntimeException("Failed to update MindmapSpamInfo for mindmap ID: " +
-                    spamInfo.getMindmapId() + " (native SQL failed)", e);
+            throw new RuntimeException("Failed to update MindmapSpamInfo for mindmap IDs: " +
+                    spamInfos.stream().map(MindmapSpamInfo::getMindmapId).toList() + " (native SQL failed)", e);
+        }
+        // JDBC work bypasses Hibernate, so the cached rows have to be dropped explicitly
+        evictFromCache(MindmapSpamInfo.class, spamInfos.stream().map(MindmapSpamInfo::getMindmapId).toList());
+    }
+
+    /**
+     * The dialect does not change at runtime, so the upsert statement is resolved once.
+     */
+    @jakarta.annotation.PostConstruct
+    void initSpamInfoUpsertSql() {
+        spamInfoUpsertSql = getUpsertSqlForDatabase();
+    }
+
+    private String getSpamInfoUpsertSql() {
+        String result = spamInfoUpsertSql;
+        if (result == null) {
+            result = getUpsertSqlForDatabase();
+            spamInfoUpsertSql = result;
         }
+        return result;
+    }
+
+    /**
+     * Gets the simple class name of the Hibernate dialect, for statements that differ between databases.
+     */
+    private String getDialectName() {
+        // Use entityManagerFactory which is already autowired, as unwrapping
+        // entityManager to EMF might fail
+        return entityManagerFactory
+                .unwrap(org.hibernate.SessionFactory.class)
+                .getSessionFactoryOptions()
+                .getServiceRegistry()
+                .getService(org.hibernate.engine.jdbc.env.spi.JdbcEnvironment.class)
+                .getDialect()
+                .getClass()
+                .getSimpleName();
     }
 
     /**
@@ -347,56 +450,49 @@ public class MindmapManagerImpl
      */
     private String getUpsertSqlForDatabase() {
         try {
-            // Get database dialect name
-            // Use entityManagerFactory which is already autowired, as unwrapping
-            // entityManager to EMF might fail
-            String dialectName = entityManagerFactory
-                    .unwrap(org.hibernate.SessionFactory.class)
-                    .getSessionFactoryOptions()
-                    .getServiceRegistry()
-                    .getService(org.hibernate.engine.jdbc.env.spi.JdbcEnvironment.class)
-                    .getDialect()
-                    .getClass()
-                    .getSimpleName();
+            final String dialectName = getDialectName();
 
             // Determine SQL based on Hibernate dialect class name
             if (dialectName.contains("PostgreSQL")) {
                 // PostgreSQL uses ON CONFLICT
                 return """
-                        INSERT INTO MINDMAP_SPAM_INFO (mindmap_id, spam_detected, spam_detection_version, spam_type_code, spam_description, created_at, updated_at)
-                        VALUES (?, ?, ?, ?, ?, ?, ?)
+                        INSERT INTO MINDMAP_SPAM_INFO (mindmap_id, spam_detected, spam_detection_version, spam_type_code, spam_description, strategy_versions, created_at, updated_at)
+                        VALUES (?, ?, ?, ?, ?, ?, ?, ?)
                         ON CONFLICT (mindmap_id) DO UPDATE SET
                             spam_detected = EXCLUDED.spam_detected,
                             spam_detection_version = EXCLUDED.spam_detection_version,
                             spam_type_code = EXCLUDED.spam_type_code,
                             spam_description = EXCLUDED.spam_description,
+                            strategy_versions = EXCLUDED.strategy_versions,
                             updated_at = ?
                         """;
             } else if (dialectName.contains("HSQL")) {
                 // HSQLDB uses MERGE
                 return """
                         MERGE INTO MINDMAP_SPAM_INFO AS t
-                        USING (VALUES(?, ?, ?, ?, ?, ?, ?)) AS s(mindmap_id, spam_detected, spam_detection_version, spam_type_code, spam_description, created_at, updated_at)
+                        USING (VALUES(?, ?, ?, ?, ?, ?, ?, ?)) AS s(mindmap_id, spam_detected, spam_detection_version, spam_type_code, spam_description, strategy_versions, created_at, updated_at)
                         ON t.mindmap_id = s.mindmap_id
                         WHEN MATCHED THEN UPDATE SET
                             spam_detected = s.spam_detected,
                             spam_detection_version = s.spam_detection_version,
                             spam_type_code = s.spam_type_code,
                             spam_description = s.spam_description,
+                            strategy_versions = s.strategy_versions,
                             updated_at = ?
-                        WHEN NOT MATCHED THEN INSERT (mindmap_id, spam_detected, spam_detection_version, spam_type_code, spam_description, created_at, updated_at)
-                            VALUES (s.mindmap_id, s.spam_detected, s.spam_detection_version, s.spam_type_code, s.spam_description, s.created_at, s.updated_at)
+                        WHEN NOT MATCHED THEN INSERT (mindmap_id, spam_detected, spam_detection_version, spam_type_code, spam_description, strategy_versions, created_at, updated_at)
+                            VALUES (s.mindmap_id, s.spam_detected, s.spam_detection_version, s.spam_type_code, s.spam_description, s.strategy_versions, s.created_at, s.updated_at)
                         """;
             } else {
                 // MySQL uses ON DUPLICATE KEY UPDATE
                 return """
-                        INSERT INTO MINDMAP_SPAM_INFO (mindmap_id, spam_detected, spam_detection_version, spam_type_code, spam_description, created_at, updated_at)
-                        VALUES (?, ?, ?, ?, ?, ?, ?)
+                        INSERT INTO MINDMAP_SPAM_INFO (mindmap_id, spam_detected, spam_detection_version, spam_type_code, spam_description, strategy_versions, created_at, updated_at)
+                        VALUES (?, ?, ?, ?, ?, ?, ?, ?)
                         ON DUPLICATE KEY UPDATE
                             spam_detected = VALUES(spam_detected),
                             spam_detection_version = VALUES(spam_detection_version),
                             spam_type_code = VALUES(spam_type_code),
                             spam_description = VALUES(spam_description),
+                            strategy_versions = VALUES(strategy_versions),
                             updated_at = ?
                         """;
             }
@@ -404,13 +500,14 @@ public class MindmapManagerImpl
             // Fallback to MySQL syntax if detection fails
             logger.warn("Failed to detect database dialect, using MySQL syntax: {}", e.getMessage());
             return """
-                    INSERT INTO MINDMAP_SPAM_INFO (mindmap_id, spam_detected, spam_detection_version, spam_type_code, spam_description, created_at, updated_at)
-                    VALUES (?, ?, ?, ?, ?, ?, ?)
+                    INSERT INTO MINDMAP_SPAM_INFO (mindmap_id, spam_detected, spam_detection_version, spam_type_code, spam_description, strategy_versions, created_at, updated_at)
+                    VALUES (?, ?, ?, ?, ?, ?, ?, ?)
                     ON DUPLICATE KEY UPDATE
                         spam_detected = VALUES(spam_detected),
                         spam_detection_version = VALUES(spam_detection_version),
                         spam_type_code = VALUES(spam_type_code),
                         spam_description = VALUES(spam_description),
+                        strategy_versions = VALUES(strategy_versions),
                         updated_at = ?
                     """;
         }
@@ -478,9 +575,47 @@ public class MindmapManagerImpl
         entityManager.flush();
         // Evict caches after the delete is safely flushed
         evictCollaboratorCache(collaboratorIdsToEvict);
-        entityManager.getEntityManagerFactory().getCache().evict(Mindmap.class, mindmapId);
+        evictFromCache(Mindmap.class, List.of(mindmapId));
     }
 
+    @Override
+    public void evictMindmapMetadata(@NotNull Collection<Integer> mindmapIds) {
+        evictFromCache(Mindmap.class, mindmapIds);
+        evictFromCache(MindmapSpamInfo.class, mindmapIds);
+    }
+
+    @Override
+    @Transactional(propagation = Propagation.REQUIRES_NEW)
+    public boolean updateMindmapPublicState(int mindmapId, boolean isPublic) {
+        final int updated = entityManager.createQuery(
+                        "UPDATE com.wisemapping.model.Mindmap m SET m.isPublic = :isPublic WHERE m.id = :mindmapId")
+                .setParameter("isPublic", isPublic)
+                .setParameter("mindmapId", mindmapId)
+                .executeUpdate();
+        evictMindmapMetadata(List.of(mindmapId));
+        return updated > 0;
+    }
+
+    /**
+     * Evicts cached rows for state Hibernate does not track as part of the entity, such as the collaborator
+     * count formula or rows written through JDBC. The entries are evicted right away and once more when
+     * the transaction completes, so a concurrent reader cannot re-cache the pre-commit state.
+     */
+    private void evictFromCache(@NotNull Class<?> entityClass, @NotNull Collection<Integer> ids) {
+        if (ids.isEmpty()) {
+            return;
+        }
+        final jakarta.persistence.Cache cache = entityManagerFactory.getCache();
+        ids.forEach(id -> cache.evict(entityClass, id));
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    ids.forEach(id -> cache.evict(entityClass, id));
+                }
+            });
+        }
+    }
     @Override
     public List<SpamUserResult> findUsersWithSpamMindmaps(int spamThreshold) {
         final TypedQuery<Object[]> query = entityManager.createQuery(
@@ -757,7 +892,7 @@ public class MindmapManagerImpl
 
     @Override
     public List<SpamRatioUserResult> findUsersWithHighPublicSpamRatio(double spamRatioThreshold, int monthsBack,
-            int offset, int limit) {
+            @NotNull IdPage page) {
         // Optimized: Select Account ID instead of full Account entity to avoid eager
         // loading of large fields
         // This prevents loading oauthToken (TEXT), password, and other unnecessary data
@@ -770,6 +905,7 @@ public class MindmapManagerImpl
                         "LEFT JOIN m.spamInfo s " +
                         "WHERE c.creationDate >= :cutoffDate " +
                         "  AND m.isPublic = true " +
+                        "  AND c.id > :afterId " +
                         "GROUP BY c.id " +
                         "HAVING COUNT(m.id) > 0 " +
                         "   AND (COUNT(CASE WHEN s.spamDetected = true THEN 1 END) * 1.0 / COUNT(m.id)) >= :spamRatioThreshold "
@@ -781,10 +917,8 @@ public class MindmapManagerImpl
         cutoffDate.add(Calendar.MONTH, -monthsBack);
         query.setParameter("spamRatioThreshold", spamRatioThreshold);
         query.setParameter("cutoffDate", cutoffDate);
-        query.setFirstResult(offset);
-        query.setMaxResults(limit);
         // Get query results first
-        List<Object[]> results = query.getResultList();
+        List<Object[]> results = page.bind(query).getResultList();
         // Batch load Account entities to avoid N+1 queries
         List<Integer> accountIds = results.stream()
                 .map(result -> (Integer) result[0])
@@ -852,7 +986,7 @@ public class MindmapManagerImpl
     }
 
     @Override
-    public List<SpamUserResult> findUsersWithAnySpamMaps(int minSpamCount, int monthsBack, int offset, int limit) {
+    public List<SpamUserResult> findUsersWithAnySpamMaps(int minSpamCount, int monthsBack, @NotNull IdPage page) {
         // Optimized: Select Account ID instead of full Account entity to avoid eager
         // loading of large fields
         // This prevents loading oauthToken (TEXT), password, and other unnecessary data
@@ -863,6 +997,7 @@ public class MindmapManagerImpl
                         "JOIN m.creator c " +
                         "LEFT JOIN m.spamInfo s " +
                         "WHERE c.creationDate >= :cutoffDate " +
+                        "  AND c.id > :afterId " +
                         "GROUP BY c.id " +
                         "HAVING COUNT(CASE WHEN s.spamDetected = true THEN 1 END) >= :minSpamCount " +
                         "ORDER BY c.id",
@@ -872,10 +1007,8 @@ public class MindmapManagerImpl
         cutoffDate.add(Calendar.MONTH, -monthsBack);
         query.setParameter("minSpamCount", (long) minSpamCount);
         query.setParameter("cutoffDate", cutoffDate);
-        query.setFirstResult(offset);
-        query.setMaxResults(limit);
         // Get query results first
-        List<Object[]> results = query.getResultList();
+        List<Object[]> results = page.bind(query).getResultList();
         // Batch load Account entities to avoid N+1 queries
         List<Integer> accountIds = results.stream()
                 .map(result -> (Integer) result[0])
@@ -976,34 +1109,39 @@ public class MindmapManagerImpl
     }
 
     @Override
-    public List<Mindmap> findPublicMindmapsNeedingSpamDetection(Calendar cutoffDate, int currentVersion, int offset,
-            int limit) {
+    public List<Mindmap> findPublicMindmapsNeedingSpamDetection(Calendar cutoffDate, int currentVersion,
+            @NotNull String strategyVersions, @NotNull IdPage page) {
+        // The batch reads the previous verdict and strategy versions of every map of the page
         final TypedQuery<Mindmap> query = entityManager.createQuery(
                 "SELECT m FROM com.wisemapping.model.Mindmap m " +
-                        "LEFT JOIN m.spamInfo s " +
+                        "LEFT JOIN FETCH m.spamInfo s " +
                         "WHERE m.isPublic = true " +
+                        "  AND m.id > :afterId " +
                         "  AND m.creationTime >= :cutoffDate " +
-                        "  AND (s.spamDetectionVersion < :currentVersion OR s.spamDetectionVersion IS NULL) " +
-                        "ORDER BY m.creationTime ASC",
+                        "  AND (s.spamDetectionVersion < :currentVersion OR s.spamDetectionVersion IS NULL " +
+                        "       OR s.strategyVersions IS NULL OR s.strategyVersions <> :strategyVersions) " +
+                        "ORDER BY m.id ASC",
                 Mindmap.class);
         query.setParameter("cutoffDate", cutoffDate);
         query.setParameter("currentVersion", currentVersion);
-        query.setFirstResult(offset);
-        query.setMaxResults(limit);
-        return query.getResultList();
+        query.setParameter("strategyVersions", strategyVersions);
+        return page.bind(query).getResultList();
     }
 
     @Override
-    public long countPublicMindmapsNeedingSpamDetection(Calendar cutoffDate, int currentVersion) {
+    public long countPublicMindmapsNeedingSpamDetection(Calendar cutoffDate, int currentVersion,
+            @NotNull String strategyVersions) {
         final TypedQuery<Long> query = entityManager.createQuery(
                 "SELECT COUNT(m) FROM com.wisemapping.model.Mindmap m " +
                         "LEFT JOIN m.spamInfo s " +
                         "WHERE m.isPublic = true " +
                         "  AND m.creationTime >= :cutoffDate " +
-                        "  AND (s.spamDetectionVersion < :currentVersion OR s.spamDetectionVersion IS NULL)",
+                        "  AND (s.spamDetectionVersion < :currentVersion OR s.spamDetectionVersion IS NULL " +
+                        "       OR s.strategyVersions IS NULL OR s.strategyVersions <> :strategyVersions)",
                 Long.class);
         query.setParameter("cutoffDate", cutoffDate);
         query.setParameter("currentVersion", currentVersion);
+        query.setParameter("strategyVersions", strategyVersions);
         return query.getSingleResult();
     }
 
@@ -1111,7 +1249,16 @@ public class MindmapManagerImpl
 
     private void saveHistory(@NotNull final Mindmap mindMap) {
         final MindMapHistory history = new MindMapHistory();
-        history.setZippedXml(mindMap.getZippedXml());
+        final MindmapXml mindmapXml = mindMap.getMindmapXml();
+        if (mindmapXml != null && mindmapXml.getContentRef() != null && mindmapBlobStore != null) {
+            // Blobs are immutable, the history entry can point to the same content as the mindmap
+            history.externalize(new MindmapBlobStore.BlobPointer(mindmapXml.getContentRef(),
+                    mindmapXml.getContentChecksum()), null);
+            history.attachBlobStore(mindmapBlobStore);
+        } else {
+            history.setZippedXml(mindMap.getZippedXml());
+            externalizeXml(history);
+        }
         history.setCreationTime(Calendar.getInstance());
         history.setEditor(mindMap.getLastEditor());
         history.setMindmapId(mindMap.getId());
@@ -1133,63 +1280,131 @@ public class MindmapManagerImpl
      * @return total number of history entries deleted
      */
     @Override
-    public List<Integer> getMindmapIdsWithHistory(int offset, int batchSize) {
+    public List<Integer> getMindmapIdsWithHistory(@NotNull IdPage page) {
         final TypedQuery<Integer> mindmapIdsQuery = entityManager.createQuery(
-                "SELECT DISTINCT h.mindmapId FROM com.wisemapping.model.MindMapHistory h", Integer.class);
-        mindmapIdsQuery.setFirstResult(offset);
-        mindmapIdsQuery.setMaxResults(batchSize);
-        return mindmapIdsQuery.getResultList();
+                "SELECT DISTINCT h.mindmapId FROM com.wisemapping.model.MindMapHistory h " +
+                        "WHERE h.mindmapId > :afterId " +
+                        "ORDER BY h.mindmapId ASC", Integer.class);
+        return page.bind(mindmapIdsQuery).getResultList();
     }
 
     @Override
-    public Calendar getMindmapLastModificationTime(int mindmapId) {
-        final TypedQuery<Calendar> lastModQuery = entityManager.createQuery(
-                "SELECT m.lastModificationTime FROM com.wisemapping.model.Mindmap m " +
-                        "WHERE m.id = :mindmapId",
-                Calendar.class);
-        lastModQuery.setParameter("mindmapId", mindmapId);
-        List<Calendar> results = lastModQuery.getResultList();
-        return results.isEmpty() ? null : results.get(0);
+    public List<Integer> findMindmapIdsWithHistoryEditedBetween(@NotNull Calendar editedAfter,
+                                                                @NotNull Calendar editedBefore, int maxId,
+                                                                @NotNull IdPage page) {
+        final TypedQuery<Integer> query = entityManager.createQuery(
+                "SELECT m.id FROM com.wisemapping.model.Mindmap m " +
+                        "WHERE m.lastModificationTime > :editedAfter AND m.lastModificationTime < :editedBefore " +
+                        "AND m.id > :afterId AND m.id <= :maxId " +
+                        "AND EXISTS (SELECT 1 FROM com.wisemapping.model.MindMapHistory h WHERE h.mindmapId = m.id) " +
+                        "ORDER BY m.id ASC", Integer.class);
+        query.setParameter("editedAfter", editedAfter);
+        query.setParameter("editedBefore", editedBefore);
+        query.setParameter("maxId", maxId);
+        return page.bind(query).getResultList();
+    }
+
+    @Override
+    public int getMaxMindmapId() {
+        final Integer result = entityManager.createQuery(
+                "SELECT MAX(m.id) FROM com.wisemapping.model.Mindmap m", Integer.class).getSingleResult();
+        return result != null ? result : 0;
     }
 
-    /**
-     * Remove excess history entries for a mindmap, keeping only the most recent
-     * ones
-     * 
-     * @param mindmapId  the mindmap ID
-     * @param maxEntries maximum number of entries to keep
-     * @return number of entries deleted
-     */
     @Override
     @Transactional
-    public int removeExcessHistoryByMindmapId(int mindmapId, int maxEntries) {
-        // First, count total entries
-        final TypedQuery<Long> countQuery = entityManager.createQuery(
-                "SELECT COUNT(h) FROM com.wisemapping.model.MindMapHistory h " +
-                        "WHERE h.mindmapId = :mindmapId",
-                Long.class);
-        countQuery.setParameter("mindmapId", mindmapId);
-        long totalCount = countQuery.getSingleResult();
-        // If we don't have excess entries, nothing to do
-        if (totalCount <= maxEntries) {
-            return 0;
+    public int removeHistoryOfMindmapsEditedBetween(int afterId, int toId, @NotNull Calendar editedAfter,
+                                                    @NotNull Calendar editedBefore) {
+        return executeHistoryPurge(getHistoryPurgeSql().removeAll(), afterId, toId, editedAfter, editedBefore);
+    }
+
+    @Override
+    @Transactional
+    public int removeExcessHistoryOfMindmapsEditedBetween(int afterId, int toId, @NotNull Calendar editedAfter,
+                                                          @NotNull Calendar editedBefore, int maxEntries) {
+        return executeHistoryPurge(getHistoryPurgeSql().removeExcess(), afterId, toId, editedAfter, editedBefore,
+                maxEntries);
+    }
+
+    /**
+     * Runs a statement of {@link HistoryPurgeSql}. History entries are not in the second-level cache, so the
+     * statement goes straight to JDBC.
+     */
+    private int executeHistoryPurge(@NotNull String sql, int afterId, int toId, @NotNull Calendar editedAfter,
+                                    @NotNull Calendar editedBefore, int... extraParameters) {
+        return entityManager.unwrap(org.hibernate.Session.class).doReturningWork(connection -> {
+            try (java.sql.PreparedStatement statement = connection.prepareStatement(sql)) {
+                statement.setInt(1, afterId);
+                statement.setInt(2, toId);
+                statement.setTimestamp(3, new java.sql.Timestamp(editedAfter.getTimeInMillis()));
+                statement.setTimestamp(4, new java.sql.Timestamp(editedBefore.getTimeInMillis()));
+                for (int i = 0; i < extraParameters.length; i++) {
+                    statement.setInt(5 + i, extraParameters[i]);
+                }
+                return statement.executeUpdate();
+            }
+        });
+    }
+
+    private HistoryPurgeSql getHistoryPurgeSql() {
+        HistoryPurgeSql result = historyPurgeSql;
+        if (result == null) {
+            result = HistoryPurgeSql.forDialect(getDialectName());
+            historyPurgeSql = result;
+        }
+        return result;
+    }
+
+    /**
+     * Set-based history purge statements. Both take the mindmap id range and the last modification range as
+     * their first parameters; the excess one then takes the number of entries to keep. The entries of a mindmap
+     * are ranked newest first, an entry without creation date being the oldest and ties going to the higher id.
+     */
+    private record HistoryPurgeSql(String removeAll, String removeExcess) {
+
+        private static final String MAPS_IN_RANGE =
+                "m.id > ? AND m.id <= ? AND m.edition_date > ? AND m.edition_date < ?";
+
+        static HistoryPurgeSql forDialect(@NotNull String dialectName) {
+            if (dialectName.contains("PostgreSQL")) {
+                return new HistoryPurgeSql(
+                        "DELETE FROM MINDMAP_HISTORY h USING MINDMAP m " +
+                                "WHERE m.id = h.mindmap_id AND " + MAPS_IN_RANGE,
+                        "DELETE FROM MINDMAP_HISTORY WHERE id IN (" +
+                                "SELECT ranked.id FROM (" +
+                                "SELECT h.id, ROW_NUMBER() OVER (PARTITION BY h.mindmap_id " +
+                                "ORDER BY h.creation_date DESC NULLS LAST, h.id DESC) AS rn " +
+                                "FROM MINDMAP_HISTORY h JOIN MINDMAP m ON m.id = h.mindmap_id " +
+                                "WHERE " + MAPS_IN_RANGE + ") ranked " +
+                                "WHERE ranked.rn > ?)");
+            } else if (dialectName.contains("HSQL")) {
+                // HSQLDB has no PARTITION BY, an entry is ranked by counting the newer ones
+                final String creationDate = "COALESCE(%s.creation_date, TIMESTAMP '1970-01-01 00:00:00')";
+                final String newer = creationDate.formatted("n") + " > " + creationDate.formatted("h") +
+                        " OR (" + creationDate.formatted("n") + " = " + creationDate.formatted("h") +
+                        " AND n.id > h.id)";
+                return new HistoryPurgeSql(
+                        "DELETE FROM MINDMAP_HISTORY WHERE mindmap_id IN (" +
+                                "SELECT m.id FROM MINDMAP m WHERE " + MAPS_IN_RANGE + ")",
+                        "DELETE FROM MINDMAP_HISTORY WHERE id IN (" +
+                                "SELECT h.id FROM MINDMAP_HISTORY h JOIN MINDMAP m ON m.id = h.mindmap_id " +
+                                "WHERE " + MAPS_IN_RANGE + " AND (" +
+                                "SELECT COUNT(*) FROM MINDMAP_HISTORY n " +
+                                "WHERE n.mindmap_id = h.mindmap_id AND (" + newer + ")) >= ?)");
+            }
+            // MySQL sorts NULL last in descending order. The ranked ids are a derived table, which MySQL
+            // materializes before deleting from the same table.
+            return new HistoryPurgeSql(
+                    "DELETE h FROM MINDMAP_HISTORY h JOIN MINDMAP m ON m.id = h.mindmap_id " +
+                            "WHERE " + MAPS_IN_RANGE,
+                    "DELETE h FROM MINDMAP_HISTORY h JOIN (" +
+                            "SELECT ranked.id FROM (" +
+                            "SELECT h2.id, ROW_NUMBER() OVER (PARTITION BY h2.mindmap_id " +
+                            "ORDER BY h2.creation_date DESC, h2.id DESC) AS rn " +
+                            "FROM MINDMAP_HISTORY h2 JOIN MINDMAP m ON m.id = h2.mindmap_id " +
+                            "WHERE " + MAPS_IN_RANGE + ") ranked " +
+                            "WHERE ranked.rn > ?) excess ON excess.id = h.id");
         }
-        // Get the IDs of the most recent entries we want to keep
-        final TypedQuery<Integer> keepQuery = entityManager.createQuery(
-                "SELECT h.id FROM com.wisemapping.model.MindMapHistory h " +
-                        "WHERE h.mindmapId = :mindmapId " +
-                        "ORDER BY h.creationTime DESC",
-                Integer.class);
-        keepQuery.setParameter("mindmapId", mindmapId);
-        keepQuery.setMaxResults(maxEntries);
-        List<Integer> keepIds = keepQuery.getResultList();
-        // Delete all entries except the ones we want to keep
-        final Query deleteQuery = entityManager.createQuery(
-                "DELETE FROM com.wisemapping.model.MindMapHistory h " +
-                        "WHERE h.mindmapId = :mindmapId AND h.id NOT IN :keepIds");
-        deleteQuery.setParameter("mindmapId", mindmapId);
-        deleteQuery.setParameter("keepIds", keepIds);
-        return deleteQuery.executeUpdate();
     }
 
     @Override
@@ -1571,19 +1786,166 @@ public class MindmapManagerImpl
     }
 
     @Override
-    public List<Integer> findMindmapIdsByCreator(int userId, int offset, int limit) {
-        // Use Criteria API for type-safe query
-        final CriteriaBuilder cb = entityManager.getCriteriaBuilder();
-        final CriteriaQuery<Integer> cq = cb.createQuery(Integer.class);
-        final Root<Mindmap> root = cq.from(Mindmap.class);
-        final jakarta.persistence.criteria.Join<Mindmap, Account> creatorJoin = root.join("creator", JoinType.INNER);
-        cq.select(root.get("id"))
-                .where(cb.equal(creatorJoin.get("id"), userId))
-                .orderBy(cb.asc(root.get("id")));
-        return entityManager.createQuery(cq)
-                .setFirstResult(offset)
-                .setMaxResults(limit)
-                .getResultList();
+    public List<Integer> findMindmapIdsByCreator(int userId, @NotNull IdPage page) {
+        final TypedQuery<Integer> query = entityManager.createQuery(
+                "SELECT m.id FROM com.wisemapping.model.Mindmap m " +
+                        "WHERE m.creator.id = :userId " +
+                        "  AND m.id > :afterId " +
+                        "ORDER BY m.id ASC", Integer.class);
+        query.setParameter("userId", userId);
+        return page.bind(query).getResultList();
+    }
+
+    @Override
+    @Transactional
+    public List<Integer> moveMindmapsToInactive(int creatorId, @NotNull Collection<Integer> mindmapIds,
+                                                @NotNull String migrationReason) {
+        if (mindmapIds.isEmpty()) {
+            return List.of();
+        }
+        // Pending changes must reach the database before the statements read it
+        entityManager.flush();
+        final java.sql.Timestamp now = new java.sql.Timestamp(System.currentTimeMillis());
+        final Set<Integer> collaboratorIds = new HashSet<>();
+        final List<Integer> moved = entityManager.unwrap(org.hibernate.Session.class).doReturningWork(connection -> {
+            // Maps without content cannot be inserted, the XML is required on the inactive row
+            final List<Integer> ids = new ArrayList<>();
+            try (java.sql.PreparedStatement statement = connection.prepareStatement(
+                    "SELECT m.id FROM MINDMAP m JOIN MINDMAP_XML x ON x.mindmap_id = m.id " +
+                            "WHERE m.creator_id = ? AND m.id IN (" + placeholders(mindmapIds.size()) + ")")) {
+                statement.setInt(1, creatorId);
+                bindIds(statement, 2, mindmapIds);
+                try (java.sql.ResultSet resultSet = statement.executeQuery()) {
+                    while (resultSet.next()) {
+                        ids.add(resultSet.getInt(1));
+                    }
+                }
+            }
+            if (ids.isEmpty()) {
+                return ids;
+            }
+            final String inIds = "(" + placeholders(ids.size()) + ")";
+            try (java.sql.PreparedStatement statement = connection.prepareStatement(
+                    "INSERT INTO MINDMAP_INACTIVE_USER (original_mindmap_id, creation_date, edition_date, " +
+                            "creator_id, last_editor_id, description, public, title, xml, content_ref, " +
+                            "content_checksum, migration_date, migration_reason) " +
+                            "SELECT m.id, m.creation_date, m.edition_date, m.creator_id, m.last_editor_id, " +
+                            "m.description, m.public, m.title, x.xml, x.content_ref, x.content_checksum, ?, ? " +
+                            "FROM MINDMAP m JOIN MINDMAP_XML x ON x.mindmap_id = m.id WHERE m.id IN " + inIds)) {
+                statement.setTimestamp(1, now);
+                statement.setString(2, migrationReason);
+                bindIds(statement, 3, ids);
+                statement.executeUpdate();
+            }
+            // Properties are referenced by the collaborations, they are not removed with them
+            final List<Integer> propertiesIds = new ArrayList<>();
+            try (java.sql.PreparedStatement statement = connection.prepareStatement(
+                    "SELECT collaborator_id, properties_id FROM COLLABORATION WHERE mindmap_id IN " + inIds)) {
+                bindIds(statement, 1, ids);
+                try (java.sql.ResultSet resultSet = statement.executeQuery()) {
+                    while (resultSet.next()) {
+                        collaboratorIds.add(resultSet.getInt(1));
+                        final int propertiesId = resultSet.getInt(2);
+                        if (!resultSet.wasNull()) {
+                            propertiesIds.add(propertiesId);
+                        }
+                    }
+                }
+            }
+            executeForIds(connection, "DELETE FROM MINDMAP_HISTORY WHERE mindmap_id IN " + inIds, ids);
+            executeForIds(connection, "DELETE FROM R_LABEL_MINDMAP WHERE mindmap_id IN " + inIds, ids);
+            if (!propertiesIds.isEmpty()) {
+                executeForIds(connection, "DELETE FROM COLLABORATION_PROPERTIES WHERE id IN (" +
+                        placeholders(propertiesIds.size()) + ")", propertiesIds);
+            }
+            executeForIds(connection, "DELETE FROM COLLABORATION WHERE mindmap_id IN " + inIds, ids);
+            // Content, spam info and stats cascade from the map
+            executeForIds(connection, "DELETE FROM MINDMAP WHERE id IN " + inIds, ids);
+            return ids;
+        });
+        evictCollaboratorCache(collaboratorIds);
+        evictMindmapMetadata(moved);
+        return moved;
+    }
+
+    @Override
+    @Transactional
+    public List<Integer> restoreInactiveMindmaps(int creatorId, @NotNull Collection<Integer> inactiveMindmapIds) {
+        if (inactiveMindmapIds.isEmpty()) {
+            return List.of();
+        }
+        entityManager.flush();
+        final java.sql.Timestamp now = new java.sql.Timestamp(System.currentTimeMillis());
+        final List<Integer> restoredMindmapIds = new ArrayList<>();
+        final List<Integer> restored = entityManager.unwrap(org.hibernate.Session.class).doReturningWork(connection -> {
+            // Rows are restored under their original id unless another map has taken it since
+            final java.util.Map<Integer, Integer> idsByOriginalId = new java.util.LinkedHashMap<>();
+            try (java.sql.PreparedStatement statement = connection.prepareStatement(
+                    "SELECT i.id, i.original_mindmap_id FROM MINDMAP_INACTIVE_USER i " +
+                            "WHERE i.creator_id = ? AND i.id IN (" + placeholders(inactiveMindmapIds.size()) + ") " +
+                            "AND NOT EXISTS (SELECT 1 FROM MINDMAP m WHERE m.id = i.original_mindmap_id) " +
+                            "ORDER BY i.id")) {
+                statement.setInt(1, creatorId);
+                bindIds(statement, 2, inactiveMindmapIds);
+                try (java.sql.ResultSet resultSet = statement.executeQuery()) {
+                    while (resultSet.next()) {
+                        idsByOriginalId.putIfAbsent(resultSet.getInt(2), resultSet.getInt(1));
+                    }
+                }
+            }
+            final List<Integer> ids = new ArrayList<>(idsByOriginalId.values());
+            if (ids.isEmpty()) {
+                return ids;
+            }
+            restoredMindmapIds.addAll(idsByOriginalId.keySet());
+            final String inIds = "(" + placeholders(ids.size()) + ")";
+            try (java.sql.PreparedStatement statement = connection.prepareStatement(
+                    "INSERT INTO MINDMAP (id, title, description, public, creation_date, edition_date, creator_id, " +
+                            "last_editor_id) " +
+                            "SELECT i.original_mindmap_id, i.title, i.description, i.public, i.creation_date, ?, " +
+                            "i.creator_id, i.creator_id FROM MINDMAP_INACTIVE_USER i WHERE i.id IN " + inIds)) {
+                statement.setTimestamp(1, now);
+                bindIds(statement, 2, ids);
+                statement.executeUpdate();
+            }
+            // Maps are listed through their collaborations, the creator gets back the owner one
+            try (java.sql.PreparedStatement statement = connection.prepareStatement(
+                    "INSERT INTO COLLABORATION (collaborator_id, mindmap_id, role_id) " +
+                            "SELECT i.creator_id, i.original_mindmap_id, ? FROM MINDMAP_INACTIVE_USER i " +
+                            "WHERE i.id IN " + inIds)) {
+                statement.setInt(1, CollaborationRole.OWNER.ordinal());
+                bindIds(statement, 2, ids);
+                statement.executeUpdate();
+            }
+            executeForIds(connection, "INSERT INTO MINDMAP_XML (mindmap_id, xml, content_ref, content_checksum) " +
+                    "SELECT i.original_mindmap_id, i.xml, i.content_ref, i.content_checksum " +
+                    "FROM MINDMAP_INACTIVE_USER i WHERE i.id IN " + inIds, ids);
+            executeForIds(connection, "DELETE FROM MINDMAP_INACTIVE_USER WHERE id IN " + inIds, ids);
+            return ids;
+        });
+        evictCollaboratorCache(Set.of(creatorId));
+        evictMindmapMetadata(restoredMindmapIds);
+        return restored;
+    }
+
+    private static String placeholders(int count) {
+        return String.join(", ", java.util.Collections.nCopies(count, "?"));
+    }
+
+    private static void bindIds(@NotNull java.sql.PreparedStatement statement, int firstIndex,
+                                @NotNull Collection<Integer> ids) throws java.sql.SQLException {
+        int index = firstIndex;
+        for (Integer id : ids) {
+            statement.setInt(index++, id);
+        }
+    }
+
+    private static int executeForIds(@NotNull java.sql.Connection connection, @NotNull String sql,
+                                     @NotNull Collection<Integer> ids) throws java.sql.SQLException {
+        try (java.sql.PreparedStatement statement = connection.prepareStatement(sql)) {
+            bindIds(statement, 1, ids);
+            return statement.executeUpdate();
+        }
     }
 
     @Override
@@ -1614,4 +1976,146 @@ public class MindmapManagerImpl
         
         return query.getResultList();
     }
+
+    @Override
+    public List<Integer> findMindmapIdsWithInlineXml(int lastMindmapId, int limit) {
+        final TypedQuery<Integer> query = entityManager.createQuery(
+                "SELECT x.mindmapId FROM com.wisemapping.model.MindmapXml x " +
+                        "WHERE x.contentRef IS NULL AND x.mindmapId > :lastMindmapId " +
+                        "ORDER BY x.mindmapId",
+                Integer.class);
+        query.setParameter("lastMindmapId", lastMindmapId);
+        query.setMaxResults(limit);
+        return query.getResultList();
+    }
+
+    @Override
+    public List<Integer> findHistoryIdsWithInlineXml(int lastHistoryId, int limit) {
+        final TypedQuery<Integer> query = entityManager.createQuery(
+                "SELECT h.id FROM com.wisemapping.model.MindMapHistory h " +
+                        "WHERE h.contentRef IS NULL AND h.id > :lastHistoryId " +
+                        "ORDER BY h.id",
+                Integer.class);
+        query.setParameter("lastHistoryId", lastHistoryId);
+        query.setMaxResults(limit);
+        return query.getResultList();
+    }
+
+    @Override
+    @Transactional
+    public int externalizeMindmapXml(@NotNull List<Integer> mindmapIds) {
+        int externalized = 0;
+        for (Integer mindmapId : mindmapIds) {
+            final MindmapXml mindmapXml = entityManager.find(MindmapXml.class, mindmapId);
+            if (externalizeXml(mindmapXml)) {
+                externalized++;
+            }
+        }
+        entityManager.flush();
+        return externalized;
+    }
+
+    @Override
+    @Transactional
+    public int externalizeHistoryXml(@NotNull List<Integer> historyIds) {
+        int externalized = 0;
+        for (Integer historyId : historyIds) {
+            final MindMapHistory history = entityManager.find(MindMapHistory.class, historyId);
+            if (externalizeXml(history)) {
+                externalized++;
+            }
+        }
+        entityManager.flush();
+        return externalized;
+    }
+
+    @Override
+    public Set<String> findReferencedContentRefs(@NotNull Collection<String> contentRefs) {
+        final Set<String> result = new HashSet<>();
+        if (contentRefs.isEmpty()) {
+            return result;
+        }
+        result.addAll(entityManager.createQuery(
+                        "SELECT x.contentRef FROM com.wisemapping.model.MindmapXml x WHERE x.contentRef IN :refs",
+                        String.class)
+                .setParameter("refs", contentRefs)
+                .getResultList());
+        result.addAll(entityManager.createQuery(
+                        "SELECT DISTINCT h.contentRef FROM com.wisemapping.model.MindMapHistory h WHERE h.contentRef IN :refs",
+                        String.class)
+                .setParameter("refs", contentRefs)
+                .getResultList());
+        result.addAll(entityManager.createQuery(
+                        "SELECT DISTINCT i.contentRef FROM com.wisemapping.model.InactiveMindmap i WHERE i.contentRef IN :refs",
+                        String.class)
+                .setParameter("refs", contentRefs)
+                .getResultList());
+        return result;
+    }
+
+    @Override
+    @Transactional(propagation = Propagation.REQUIRES_NEW)
+    public void saveMindmapStats(@NotNull MindmapStats stats) {
+        final MindmapStats existing = entityManager.find(MindmapStats.class, stats.getMindmapId());
+        if (existing != null) {
+            existing.copyFrom(stats);
+        } else {
+            entityManager.persist(stats);
+        }
+    }
+
+    @Override
+    public List<MindmapStats> findMindmapStats(@NotNull Collection<Integer> mindmapIds) {
+        if (mindmapIds.isEmpty()) {
+            return new ArrayList<>();
+        }
+        return entityManager.createQuery(
+                        "SELECT s FROM com.wisemapping.model.MindmapStats s WHERE s.mindmapId IN :ids",
+                        MindmapStats.class)
+                .setParameter("ids", mindmapIds)
+                .getResultList();
+    }
+
+    @Override
+    @Nullable
+    @Transactional(readOnly = true)
+    public SpamVerdict findSpamVerdict(@NotNull String contentHash) {
+        return entityManager.find(SpamVerdict.class, contentHash);
+    }
+
+    @Override
+    @Transactional(propagation = Propagation.REQUIRES_NEW)
+    public void saveSpamVerdict(@NotNull SpamVerdict verdict) {
+        final SpamVerdict existing = entityManager.find(SpamVerdict.class, verdict.getContentHash());
+        if (existing != null) {
+            existing.copyFrom(verdict);
+        } else {
+            entityManager.persist(verdict);
+        }
+    }
+
+    /**
+     * Moves inline XML content to the blob store when it is enabled for writes.
+     * Failures are logged and the content is kept inline, so saving never depends on the blob store.
+     *
+     * @return true if the content was externalized
+     */
+    private boolean externalizeXml(@Nullable BlobBackedContent content) {
+        if (content == null || mindmapBlobStore == null || !mindmapBlobStore.isWriteEnabled()
+                || content.getContentRef() != null) {
+            return false;
+        }
+        final byte[] zippedXml = content.getInlineZippedXml();
+        if (zippedXml.length == 0) {
+            return false;
+        }
+        try {
+            content.externalize(mindmapBlobStore.write(zippedXml), zippedXml);
+            content.attachBlobStore(mindmapBlobStore);
+            return true;
+        } catch (IOException e) {
+            logger.warn("Mindmap content could not be written to the blob store, keeping it inline: {}", e.getMessage());
+            return false;
+        }
+    }
 }
@@ -27,6 +27,7 @@ import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
 
 import java.util.Calendar;
+import java.util.Collection;
 import java.util.List;
 
 public interface UserManager {
@@ -41,6 +42,12 @@ public interface UserManager {
 
     void auditLogin(@NotNull AccessAuditory accessAuditory);
 
+    /**
+     * Write login audit entries as one JDBC batch, adding them to the daily login rollup of their users.
+     * @param accessAuditories the logins to audit
+     */
+    void auditLogins(@NotNull Collection<AccessAuditory> accessAuditories);
+
     void updateUser(Account user);
 
     Account getUserByActivationCode(long code);
@@ -91,7 +98,15 @@ public interface UserManager {
      */
     List<Account> findUsersInactiveSince(Calendar cutoffDate, Calendar creationCutoffDate, int offset, int limit);
     
-    List<InactiveUserResult> findInactiveUsersWithActivity(Calendar cutoffDate, Calendar creationCutoffDate, int offset, int limit);
+    /**
+     * Find users who are inactive since a specific date, with their last login and content activity. Paged by
+     * user id, so users suspended while a job walks the pages do not make it skip others.
+     * @param cutoffDate users with no activity since this date
+     * @param creationCutoffDate only check users created before this date
+     * @param page the page of user ids
+     * @return list of inactive users ordered by id
+     */
+    List<InactiveUserResult> findInactiveUsersWithActivity(Calendar cutoffDate, Calendar creationCutoffDate, @NotNull IdPage page);
 
     /**
      * Find suspended users for mindmap migration
@@ -102,12 +117,11 @@ public interface UserManager {
     List<Account> findSuspendedUsers(int offset, int limit);
 
     /**
-     * Find users suspended for inactivity with pagination.
-     * @param offset starting position
-     * @param limit maximum number of results
-     * @return list of users suspended for inactivity
+     * Find users suspended for inactivity, paged by user id.
+     * @param page the page of user ids
+     * @return list of users suspended for inactivity ordered by id
      */
-    List<Account> findUsersSuspendedForInactivity(int offset, int limit);
+    List<Account> findUsersSuspendedForInactivity(@NotNull IdPage page);
 
     /**
      * Count users who are inactive since a specific date
@@ -117,6 +131,34 @@ public interface UserManager {
      */
     long countUsersInactiveSince(Calendar cutoffDate, Calendar creationCutoffDate);
 
+    /**
+     * Record activity of accounts, skipping those whose recorded activity is already after a given date.
+     * Runs in its own transaction through JDBC: the cached accounts are not evicted, the column is only read
+     * by queries.
+     * @param accountIds the accounts that were active
+     * @param activityDate the time of the activity
+     * @param recordedBefore only accounts without activity recorded since this date are updated
+     * @return number of accounts updated
+     */
+    int recordActivity(@NotNull Collection<Integer> accountIds, @NotNull Calendar activityDate,
+                       @NotNull Calendar recordedBefore);
+
+    /**
+     * Find account ids, paged by id.
+     * @param page the page of ids
+     * @return account ids in ascending order
+     */
+    List<Integer> findAccountIds(@NotNull IdPage page);
+
+    /**
+     * Raise the last activity of the accounts in an id range to their last login and last map change, for
+     * accounts created before the column was maintained.
+     * @param afterId accounts with a greater id
+     * @param toId accounts up to this id
+     * @return number of account updates
+     */
+    int backfillLastActivity(int afterId, int toId);
+
     /**
      * Find the last login date for a user
      * @param userId the user ID
@@ -132,6 +174,16 @@ public interface UserManager {
      */
     void suspendUser(@NotNull Account user, @NotNull SuspensionReason reason);
 
+    /**
+     * Suspend accounts with a specific reason, with one update per chunk of ids. The statements go through JDBC:
+     * accounts already loaded in the persistence context keep their previous state, and the Account cache is
+     * evicted once per chunk.
+     * @param accountIds the accounts to suspend
+     * @param reason the suspension reason
+     * @return the ids of the accounts suspended, those already suspended being left unchanged
+     */
+    List<Integer> suspendUsers(@NotNull Collection<Integer> accountIds, @NotNull SuspensionReason reason);
+
     /**
      * Unsuspend a user and restore their mindmaps if they were suspended for inactivity
      * @param user the user to unsuspend
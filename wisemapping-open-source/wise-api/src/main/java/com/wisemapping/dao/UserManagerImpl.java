@@ -38,10 +38,19 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.context.annotation.Lazy;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 
+import java.time.LocalDate;
+import java.util.ArrayList;
 import java.util.Calendar;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Set;
 import java.util.concurrent.CopyOnWriteArraySet;
 
@@ -49,6 +58,11 @@ import java.util.concurrent.CopyOnWriteArraySet;
 public class UserManagerImpl
         implements UserManager {
     private static final Logger logger = LoggerFactory.getLogger(UserManagerImpl.class);
+    // Ids bound to a single suspension statement
+    private static final int SUSPENSION_CHUNK_SIZE = 500;
+
+    // Resolved on first use, the dialect does not change at runtime
+    private volatile String loginDayUpsertSql;
     
     @Autowired
     private EntityManager entityManager;
@@ -176,7 +190,88 @@ public class UserManagerImpl
     @Transactional
     public void auditLogin(@NotNull AccessAuditory accessAuditory) {
         assert accessAuditory != null : "accessAuditory is null";
-        entityManager.persist(accessAuditory);
+        auditLogins(List.of(accessAuditory));
+    }
+
+    @Override
+    @Transactional
+    public void auditLogins(@NotNull Collection<AccessAuditory> accessAuditories) {
+        if (accessAuditories.isEmpty()) {
+            return;
+        }
+        // Logins of a user on the same day are added to the rollup as one row
+        final Map<LoginDay, Integer> loginsByDay = new LinkedHashMap<>();
+        for (AccessAuditory accessAuditory : accessAuditories) {
+            final Calendar loginDate = accessAuditory.getLoginDate();
+            if (loginDate != null) {
+                final LocalDate loginDay = LocalDate.ofInstant(loginDate.toInstant(), loginDate.getTimeZone().toZoneId());
+                loginsByDay.merge(new LoginDay(accessAuditory.getUser().getId(), loginDay), 1, Integer::sum);
+            }
+        }
+        final String loginDayUpsertSql = getLoginDayUpsertSql();
+        // Audit rows are not cached or read back through the entity, so they are written straight to JDBC
+        entityManager.unwrap(org.hibernate.Session.class).doWork(connection -> {
+            try (java.sql.PreparedStatement statement = connection.prepareStatement(
+                    "INSERT INTO ACCESS_AUDITORY (user_id, login_date) VALUES (?, ?)")) {
+                for (AccessAuditory accessAuditory : accessAuditories) {
+                    statement.setInt(1, accessAuditory.getUser().getId());
+                    if (accessAuditory.getLoginDate() != null) {
+                        statement.setTimestamp(2, new java.sql.Timestamp(accessAuditory.getLoginDate().getTimeInMillis()));
+                    } else {
+                        statement.setNull(2, java.sql.Types.TIMESTAMP);
+                    }
+                    statement.addBatch();
+                }
+                statement.executeBatch();
+            }
+            if (loginsByDay.isEmpty()) {
+                return;
+            }
+            try (java.sql.PreparedStatement statement = connection.prepareStatement(loginDayUpsertSql)) {
+                for (Map.Entry<LoginDay, Integer> entry : loginsByDay.entrySet()) {
+                    statement.setInt(1, entry.getKey().userId());
+                    statement.setDate(2, java.sql.Date.valueOf(entry.getKey().day()));
+                    statement.setInt(3, entry.getValue());
+                    statement.addBatch();
+                }
+                statement.executeBatch();
+            }
+        });
+    }
+
+    private record LoginDay(int userId, LocalDate day) {
+    }
+
+    private String getLoginDayUpsertSql() {
+        String result = loginDayUpsertSql;
+        if (result == null) {
+            final String dialectName = entityManagerFactory
+                    .unwrap(SessionFactory.class)
+                    .getSessionFactoryOptions()
+                    .getServiceRegistry()
+                    .getService(org.hibernate.engine.jdbc.env.spi.JdbcEnvironment.class)
+                    .getDialect()
+                    .getClass()
+                    .getSimpleName();
+            if (dialectName.contains("PostgreSQL")) {
+                result = "INSERT INTO ACCESS_AUDITORY_DAY (user_id, login_day, login_count) VALUES (?, ?, ?) " +
+                        "ON CONFLICT (user_id, login_day) DO UPDATE SET " +
+                        "login_count = ACCESS_AUDITORY_DAY.login_count + EXCLUDED.login_count";
+            } else if (dialectName.contains("HSQL")) {
+                result = "MERGE INTO ACCESS_AUDITORY_DAY AS t " +
+                        "USING (VALUES(CAST(? AS INTEGER), CAST(? AS DATE), CAST(? AS INTEGER))) " +
+                        "AS s(user_id, login_day, login_count) " +
+                        "ON t.user_id = s.user_id AND t.login_day = s.login_day " +
+                        "WHEN MATCHED THEN UPDATE SET login_count = t.login_count + s.login_count " +
+                        "WHEN NOT MATCHED THEN INSERT (user_id, login_day, login_count) " +
+                        "VALUES (s.user_id, s.login_day, s.login_count)";
+            } else {
+                result = "INSERT INTO ACCESS_AUDITORY_DAY (user_id, login_day, login_count) VALUES (?, ?, ?) " +
+                        "ON DUPLICATE KEY UPDATE login_count = login_count + VALUES(login_count)";
+            }
+            loginDayUpsertSql = result;
+        }
+        return result;
     }
 
     /**
@@ -272,18 +367,11 @@ public class UserManagerImpl
     @Override
     public List<Account> findUsersInactiveSince(Calendar cutoffDate, Calendar creationCutoffDate, int offset, int limit) {
         final TypedQuery<Account> query = entityManager.createQuery(
-            "SELECT DISTINCT a FROM com.wisemapping.model.Account a " +
+            "SELECT a FROM com.wisemapping.model.Account a " +
             "WHERE a.suspended = false " +
             "  AND a.activationDate IS NOT NULL " +
             "  AND a.creationDate <= :creationCutoffDate " +
-            "  AND a.id NOT IN (" +
-            "      SELECT DISTINCT aa.user.id FROM com.wisemapping.model.AccessAuditory aa " +
-            "      WHERE aa.loginDate >= :cutoffDate" +
-            "  ) " +
-            "  AND a.id NOT IN (" +
-            "      SELECT DISTINCT m.creator.id FROM com.wisemapping.model.Mindmap m " +
-            "      WHERE m.lastModificationTime >= :cutoffDate" +
-            "  ) " +
+            "  AND (a.lastActivityDate IS NULL OR a.lastActivityDate < :cutoffDate) " +
             "ORDER BY a.id", 
             Account.class);
         query.setParameter("cutoffDate", cutoffDate);
@@ -302,12 +390,10 @@ public class UserManagerImpl
     }
 
     @Override
-    public List<Account> findUsersSuspendedForInactivity(int offset, int limit) {
+    public List<Account> findUsersSuspendedForInactivity(@NotNull IdPage page) {
         final TypedQuery<Account> query = entityManager.createNamedQuery("Account.findUsersSuspendedForInactivity", Account.class);
         query.setParameter("inactivityCode", SuspensionReason.INACTIVITY.getCode().charAt(0));
-        query.setFirstResult(offset);
-        query.setMaxResults(limit);
-        return query.getResultList();
+        return page.bind(query).getResultList();
     }
 
     @Override
@@ -438,29 +524,81 @@ public class UserManagerImpl
     @Override
     public long countUsersInactiveSince(Calendar cutoffDate, Calendar creationCutoffDate) {
         final TypedQuery<Long> query = entityManager.createQuery(
-            "SELECT COUNT(DISTINCT a) FROM com.wisemapping.model.Account a " +
+            "SELECT COUNT(a) FROM com.wisemapping.model.Account a " +
             "WHERE a.suspended = false " +
             "  AND a.activationDate IS NOT NULL " +
             "  AND a.creationDate <= :creationCutoffDate " +
-            "  AND a.id NOT IN (" +
-            "      SELECT DISTINCT aa.user.id FROM com.wisemapping.model.AccessAuditory aa " +
-            "      WHERE aa.loginDate >= :cutoffDate" +
-            "  ) " +
-            "  AND a.id NOT IN (" +
-            "      SELECT DISTINCT m.creator.id FROM com.wisemapping.model.Mindmap m " +
-            "      WHERE m.lastModificationTime >= :cutoffDate" +
-            "  )",
+            "  AND (a.lastActivityDate IS NULL OR a.lastActivityDate < :cutoffDate)",
             Long.class);
         query.setParameter("cutoffDate", cutoffDate);
         query.setParameter("creationCutoffDate", creationCutoffDate);
         return query.getSingleResult();
     }
 
+    @Override
+    @Transactional(propagation = Propagation.REQUIRES_NEW)
+    public int recordActivity(@NotNull Collection<Integer> accountIds, @NotNull Calendar activityDate,
+                              @NotNull Calendar recordedBefore) {
+        if (accountIds.isEmpty()) {
+            return 0;
+        }
+        final String sql = "UPDATE ACCOUNT SET last_activity_at = ? WHERE collaborator_id IN (" +
+                String.join(", ", Collections.nCopies(accountIds.size(), "?")) + ") " +
+                "AND (last_activity_at IS NULL OR last_activity_at < ?)";
+        // JDBC keeps Hibernate from invalidating the whole Account cache region for a column only queries read
+        return entityManager.unwrap(org.hibernate.Session.class).doReturningWork(connection -> {
+            try (java.sql.PreparedStatement statement = connection.prepareStatement(sql)) {
+                int index = 1;
+                statement.setTimestamp(index++, new java.sql.Timestamp(activityDate.getTimeInMillis()));
+                for (Integer accountId : accountIds) {
+                    statement.setInt(index++, accountId);
+                }
+                statement.setTimestamp(index, new java.sql.Timestamp(recordedBefore.getTimeInMillis()));
+                return statement.executeUpdate();
+            }
+        });
+    }
+
+    @Override
+    public List<Integer> findAccountIds(@NotNull IdPage page) {
+        final TypedQuery<Integer> query = entityManager.createQuery(
+                "SELECT a.id FROM com.wisemapping.model.Account a WHERE a.id > :afterId ORDER BY a.id", Integer.class);
+        return page.bind(query).getResultList();
+    }
+
+    @Override
+    @Transactional
+    public int backfillLastActivity(int afterId, int toId) {
+        // Each statement only raises the column, so activity recorded meanwhile is kept
+        final String inRange = "collaborator_id > ? AND collaborator_id <= ? AND ";
+        final String fromLogins = "UPDATE ACCOUNT SET last_activity_at = (" +
+                "SELECT MAX(d.login_day) FROM ACCESS_AUDITORY_DAY d WHERE d.user_id = ACCOUNT.collaborator_id) " +
+                "WHERE " + inRange + "EXISTS (SELECT 1 FROM ACCESS_AUDITORY_DAY d " +
+                "WHERE d.user_id = ACCOUNT.collaborator_id " +
+                "AND (ACCOUNT.last_activity_at IS NULL OR d.login_day > ACCOUNT.last_activity_at))";
+        final String fromMindmaps = "UPDATE ACCOUNT SET last_activity_at = (" +
+                "SELECT MAX(m.edition_date) FROM MINDMAP m WHERE m.creator_id = ACCOUNT.collaborator_id) " +
+                "WHERE " + inRange + "EXISTS (SELECT 1 FROM MINDMAP m " +
+                "WHERE m.creator_id = ACCOUNT.collaborator_id " +
+                "AND (ACCOUNT.last_activity_at IS NULL OR m.edition_date > ACCOUNT.last_activity_at))";
+        return entityManager.unwrap(org.hibernate.Session.class).doReturningWork(connection -> {
+            int updated = 0;
+            for (String sql : List.of(fromLogins, fromMindmaps)) {
+                try (java.sql.PreparedStatement statement = connection.prepareStatement(sql)) {
+                    statement.setInt(1, afterId);
+                    statement.setInt(2, toId);
+                    updated += statement.executeUpdate();
+                }
+            }
+            return updated;
+        });
+    }
+
     @Override
     @Nullable
     public Calendar findLastLoginDate(int userId) {
         try {
-            final TypedQuery<Calendar> query = entityManager.createNamedQuery("AccessAuditory.findLastLoginDate", Calendar.class);
+            final TypedQuery<Calendar> query = entityManager.createNamedQuery("AccessAuditoryDay.findLastLoginDate", Calendar.class);
             query.setParameter("userId", userId);
             return query.getSingleResult();
         } catch (Exception e) {
@@ -469,33 +607,26 @@ public class UserManagerImpl
     }
 
     @Override
-    public List<InactiveUserResult> findInactiveUsersWithActivity(Calendar cutoffDate, Calendar creationCutoffDate, int offset, int limit) {
+    public List<InactiveUserResult> findInactiveUsersWithActivity(Calendar cutoffDate, Calendar creationCutoffDate, @NotNull IdPage page) {
         final TypedQuery<InactiveUserResult> query = entityManager.createQuery(
+            // Only the accounts of the page look up their last login and map change, for the suspension log
             "SELECT new com.wisemapping.model.InactiveUserResult(" +
             "    a," +
-            "    (SELECT MAX(aa.loginDate) FROM com.wisemapping.model.AccessAuditory aa WHERE aa.user.id = a.id)," +
+            "    (SELECT MAX(d.loginDay) FROM com.wisemapping.model.AccessAuditoryDay d WHERE d.userId = a.id)," +
             "    (SELECT MAX(m.lastModificationTime) FROM com.wisemapping.model.Mindmap m WHERE m.creator.id = a.id)" +
             ") " +
             "FROM com.wisemapping.model.Account a " +
             "WHERE a.suspended = false " +
             "  AND a.activationDate IS NOT NULL " +
             "  AND a.creationDate <= :creationCutoffDate " +
-            "  AND a.id NOT IN (" +
-            "      SELECT DISTINCT aa.user.id FROM com.wisemapping.model.AccessAuditory aa " +
-            "      WHERE aa.loginDate >= :cutoffDate" +
-            "  ) " +
-            "  AND a.id NOT IN (" +
-            "      SELECT DISTINCT m.creator.id FROM com.wisemapping.model.Mindmap m " +
-            "      WHERE m.lastModificationTime >= :cutoffDate" +
-            "  ) " +
+            "  AND a.id > :afterId " +
+            "  AND (a.lastActivityDate IS NULL OR a.lastActivityDate < :cutoffDate) " +
             "ORDER BY a.id",
             InactiveUserResult.class);
         
         query.setParameter("cutoffDate", cutoffDate);
         query.setParameter("creationCutoffDate", creationCutoffDate);
-        query.setFirstResult(offset);
-        query.setMaxResults(limit);
-        return query.getResultList();
+        return page.bind(query).getResultList();
     }
 
     @Override
@@ -510,6 +641,101 @@ public class UserManagerImpl
         evictAccountCache(user.getId());
     }
 
+    @Override
+    @Transactional
+    public List<Integer> suspendUsers(@NotNull Collection<Integer> accountIds, @NotNull SuspensionReason reason) {
+        final List<Integer> ids = accountIds.stream().distinct().toList();
+        final List<Integer> result = new ArrayList<>();
+        if (ids.isEmpty()) {
+            return result;
+        }
+        // Changes pending on loaded accounts are written first, the updates below would hide them otherwise
+        entityManager.flush();
+        final java.sql.Timestamp suspendedDate = new java.sql.Timestamp(System.currentTimeMillis());
+        for (int from = 0; from < ids.size(); from += SUSPENSION_CHUNK_SIZE) {
+            final List<Integer> chunk = ids.subList(from, Math.min(ids.size(), from + SUSPENSION_CHUNK_SIZE));
+            final List<Integer> suspended = suspendChunk(chunk, reason, suspendedDate);
+            if (!suspended.isEmpty()) {
+                result.addAll(suspended);
+                evictAccountCache();
+            }
+        }
+        if (!result.isEmpty()) {
+            evictAccountCacheOnCompletion();
+        }
+        return result;
+    }
+
+    /**
+     * Suspends the accounts of a chunk that are not suspended yet. The rows to suspend are locked while read, so
+     * the ids returned are the ones updated.
+     */
+    private List<Integer> suspendChunk(@NotNull List<Integer> accountIds, @NotNull SuspensionReason reason,
+                                       @NotNull java.sql.Timestamp suspendedDate) {
+        final String inChunk =
+                "collaborator_id IN (" + String.join(", ", Collections.nCopies(accountIds.size(), "?")) + ")";
+        return entityManager.unwrap(org.hibernate.Session.class).doReturningWork(connection -> {
+            final List<Integer> toSuspend = new ArrayList<>();
+            try (java.sql.PreparedStatement statement = connection.prepareStatement(
+                    "SELECT collaborator_id FROM ACCOUNT WHERE " + inChunk + " AND suspended = ? FOR UPDATE")) {
+                int index = 1;
+                for (Integer accountId : accountIds) {
+                    statement.setInt(index++, accountId);
+                }
+                statement.setBoolean(index, false);
+                try (java.sql.ResultSet resultSet = statement.executeQuery()) {
+                    while (resultSet.next()) {
+                        toSuspend.add(resultSet.getInt(1));
+                    }
+                }
+            }
+            if (toSuspend.isEmpty()) {
+                return toSuspend;
+            }
+            try (java.sql.PreparedStatement statement = connection.prepareStatement(
+                    "UPDATE ACCOUNT SET suspended = ?, suspension_reason = ?, suspended_date = ? " +
+                            "WHERE collaborator_id IN (" +
+                            String.join(", ", Collections.nCopies(toSuspend.size(), "?")) + ")")) {
+                int index = 1;
+                statement.setBoolean(index++, true);
+                statement.setString(index++, reason.getCode().substring(0, 1));
+                statement.setTimestamp(index++, suspendedDate);
+                for (Integer accountId : toSuspend) {
+                    statement.setInt(index++, accountId);
+                }
+                statement.executeUpdate();
+            }
+            return toSuspend;
+        });
+    }
+
+    /**
+     * Evicts every Account from the second-level cache once more when the transaction completes, so an
+     * account loaded by a concurrent reader before the commit is not served stale until it expires.
+     */
+    private void evictAccountCacheOnCompletion() {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    evictAccountCache();
+                }
+            });
+        }
+    }
+
+    /**
+     * Evicts every Account from the second-level cache, for updates made outside of Hibernate.
+     */
+    private void evictAccountCache() {
+        try {
+            entityManagerFactory.unwrap(SessionFactory.class).getCache().evictEntityData(Account.class);
+        } catch (Exception e) {
+            // Log but don't fail the operation - cache eviction is best effort
+            logger.warn("Failed to evict Account cache: {}", e.getMessage());
+        }
+    }
+
     @Override
     @Transactional
     public int unsuspendUser(@NotNull Account user) {
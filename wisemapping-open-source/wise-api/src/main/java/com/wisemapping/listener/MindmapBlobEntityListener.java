@@ -0,0 +1,42 @@
+/*
+ *    Copyright [2007-2025] [wisemapping]
+ *
+ *   Licensed under WiseMapping Public License, Version 1.0 (the "License").
+ *   It is basically the Apache License, Version 2.0 (the "License") plus the
+ *   "powered by wisemapping" text requirement on every single page;
+ *   you may not use this file except in compliance with the License.
+ *   You may obtain a copy of the license at
+ *
+ *       https://github.com/wisemapping/wisemapping-open-source/blob/main/LICENSE.md
+ *
+ *   Unless required by applicable law or agreed to in writing, software
+ *   distributed under the License is distributed on an "AS IS" BASIS,
+ *   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *   See the License for the specific language governing permissions and
+ *   limitations under the License.
+ */
+
+package com.wisemapping.listener;
+
+import com.wisemapping.model.BlobBackedContent;
+import com.wisemapping.service.blob.MindmapBlobStore;
+import jakarta.persistence.PostLoad;
+import org.springframework.beans.factory.annotation.Autowired;
+
+/**
+ * JPA listener attaching the blob store to loaded entities, so content externalized to the
+ * store can be resolved lazily the first time the XML is read.
+ * Instantiated by Hibernate through the Spring bean container.
+ */
+public class MindmapBlobEntityListener {
+
+    @Autowired(required = false)
+    private MindmapBlobStore blobStore;
+
+    @PostLoad
+    public void attachBlobStore(Object entity) {
+        if (blobStore != null && entity instanceof BlobBackedContent content && content.getContentRef() != null) {
+            content.attachBlobStore(blobStore);
+        }
+    }
+}
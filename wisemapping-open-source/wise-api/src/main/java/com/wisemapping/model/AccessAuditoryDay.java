@@ -0,0 +1,87 @@
+/*
+ *    Copyright [2007-2025] [wisemapping]
+ *
+ *   Licensed under WiseMapping Public License, Version 1.0 (the "License").
+ *   It is basically the Apache License, Version 2.0 (the "License") plus the
+ *   "powered by wisemapping" text requirement on every single page;
+ *   you may not use this file except in compliance with the License.
+ *   You may obtain a copy of the license at
+ *
+ *       https://github.com/wisemapping/wisemapping-open-source/blob/main/LICENSE.md
+ *
+ *   Unless required by applicable law or agreed to in writing, software
+ *   distributed under the License is distributed on an "AS IS" BASIS,
+ *   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *   See the License for the specific language governing permissions and
+ *   limitations under the License.
+ */
+
+package com.wisemapping.model;
+
+import jakarta.persistence.*;
+
+import java.io.Serializable;
+import java.util.Calendar;
+import java.util.Objects;
+
+/**
+ * Logins of a user on a day, rolled up from the login audit as it is written. Queries about when users logged in
+ * read this table instead of scanning {@link AccessAuditory} rows.
+ */
+@Entity
+@Table(name = "ACCESS_AUDITORY_DAY")
+@IdClass(AccessAuditoryDay.Key.class)
+@NamedQueries({
+    @NamedQuery(
+        name = "AccessAuditoryDay.findLastLoginDate",
+        query = "SELECT MAX(d.loginDay) FROM AccessAuditoryDay d WHERE d.userId = :userId"
+    )
+})
+public class AccessAuditoryDay
+        implements Serializable {
+
+    @Id
+    @Column(name = "user_id")
+    private int userId;
+
+    @Id
+    @Temporal(TemporalType.DATE)
+    @Column(name = "login_day")
+    private Calendar loginDay;
+
+    @Column(name = "login_count")
+    private int loginCount;
+
+    public int getUserId() {
+        return userId;
+    }
+
+    public Calendar getLoginDay() {
+        return loginDay;
+    }
+
+    public int getLoginCount() {
+        return loginCount;
+    }
+
+    public static class Key
+            implements Serializable {
+        private int userId;
+        private Calendar loginDay;
+
+        public Key() {
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) return true;
+            if (!(o instanceof Key key)) return false;
+            return userId == key.userId && Objects.equals(loginDay, key.loginDay);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(userId, loginDay);
+        }
+    }
+}
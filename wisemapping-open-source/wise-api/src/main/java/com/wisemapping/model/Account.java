@@ -48,7 +48,7 @@ import java.util.Calendar;
     ),
     @NamedQuery(
         name = "Account.findUsersSuspendedForInactivity",
-        query = "SELECT a FROM Account a WHERE a.suspended = true AND a.suspensionReasonCode = :inactivityCode ORDER BY a.id"
+        query = "SELECT a FROM Account a WHERE a.suspended = true AND a.suspensionReasonCode = :inactivityCode AND a.id > :afterId ORDER BY a.id"
     ),
     @NamedQuery(
         name = "Account.searchUsers",
@@ -104,6 +104,10 @@ public class Account
     @Column(name = "suspension_reason")
     private Character suspensionReasonCode;
 
+    // Written with SQL on login and map save, never through the entity: a cached copy may lag behind
+    @Column(name = "last_activity_at", insertable = false, updatable = false)
+    private Calendar lastActivityDate;
+
 
     public Account() {
     }
@@ -279,6 +283,13 @@ public class Account
         this.suspendedDate = suspendedDate;
     }
 
+    /**
+     * Last login or map save of the account, recorded at most once per debounce window.
+     */
+    public Calendar getLastActivityDate() {
+        return lastActivityDate;
+    }
+
     public SuspensionReason getSuspensionReason() {
         return suspensionReasonCode != null ? SuspensionReason.fromCode(suspensionReasonCode.toString()) : null;
     }
@@ -0,0 +1,162 @@
+/*
+ *    Copyright [2007-2025] [wisemapping]
+ *
+ *   Licensed under WiseMapping Public License, Version 1.0 (the "License").
+ *   It is basically the Apache License, Version 2.0 (the "License") plus the
+ *   "powered by wisemapping" text requirement on every single page;
+ *   you may not use this file except in compliance with the License.
+ *   You may obtain a copy of the license at
+ *
+ *       https://github.com/wisemapping/wisemapping-open-source/blob/main/LICENSE.md
+ *
+ *   Unless required by applicable law or agreed to in writing, software
+ *   distributed under the License is distributed on an "AS IS" BASIS,
+ *   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *   See the License for the specific language governing permissions and
+ *   limitations under the License.
+ */
+package com.wisemapping.model;
+
+import jakarta.persistence.*;
+import org.hibernate.annotations.UpdateTimestamp;
+
+import java.util.Calendar;
+
+/**
+ * Progress of a batch job that works through ids in order. The cursor is the id up to which all the work is
+ * done, so a job that stops before completing resumes after it instead of starting over.
+ *
+ * A job runs on one node at a time: the node holding the lease, until it expires. A node that stops without
+ * releasing its lease leaves the job RUNNING, and the next node to take the lease over resumes it.
+ */
+@Entity
+@Table(name = "BATCH_JOB_STATE")
+public class BatchJobState {
+
+    @Id
+    @Column(name = "job_name", length = 64)
+    private String jobName;
+
+    @Column(name = "last_cursor", nullable = false)
+    private long lastCursor;
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "status", length = 16)
+    private BatchJobStatus status;
+
+    @Column(name = "lease_owner", length = 128)
+    private String leaseOwner;
+
+    @Column(name = "lease_expires_at")
+    private Calendar leaseExpiresAt;
+
+    @Column(name = "processed_count", nullable = false)
+    private long processedCount;
+
+    @Column(name = "affected_count", nullable = false)
+    private long affectedCount;
+
+    @Column(name = "failed_chunks", nullable = false)
+    private int failedChunks;
+
+    @Column(name = "started_at")
+    private Calendar startedAt;
+
+    @Column(name = "finished_at")
+    private Calendar finishedAt;
+
+    @UpdateTimestamp
+    @Column(name = "updated_at", nullable = false)
+    private Calendar updatedAt;
+
+    public BatchJobState() {
+    }
+
+    public BatchJobState(String jobName) {
+        this.jobName = jobName;
+    }
+
+    public String getJobName() {
+        return jobName;
+    }
+
+    public void setJobName(String jobName) {
+        this.jobName = jobName;
+    }
+
+    public long getLastCursor() {
+        return lastCursor;
+    }
+
+    public void setLastCursor(long lastCursor) {
+        this.lastCursor = lastCursor;
+    }
+
+    public BatchJobStatus getStatus() {
+        return status;
+    }
+
+    public void setStatus(BatchJobStatus status) {
+        this.status = status;
+    }
+
+    public String getLeaseOwner() {
+        return leaseOwner;
+    }
+
+    public void setLeaseOwner(String leaseOwner) {
+        this.leaseOwner = leaseOwner;
+    }
+
+    public Calendar getLeaseExpiresAt() {
+        return leaseExpiresAt;
+    }
+
+    public void setLeaseExpiresAt(Calendar leaseExpiresAt) {
+        this.leaseExpiresAt = leaseExpiresAt;
+    }
+
+    public long getProcessedCount() {
+        return processedCount;
+    }
+
+    public void setProcessedCount(long processedCount) {
+        this.processedCount = processedCount;
+    }
+
+    public long getAffectedCount() {
+        return affectedCount;
+    }
+
+    public void setAffectedCount(long affectedCount) {
+        this.affectedCount = affectedCount;
+    }
+
+    public int getFailedChunks() {
+        return failedChunks;
+    }
+
+    public void setFailedChunks(int failedChunks) {
+        this.failedChunks = failedChunks;
+    }
+
+    public Calendar getStartedAt() {
+        return startedAt;
+    }
+
+    public void setStartedAt(Calendar startedAt) {
+        this.startedAt = startedAt;
+    }
+
+    public Calendar getFinishedAt() {
+        return finishedAt;
+    }
+
+    public void setFinishedAt(Calendar finishedAt) {
+        this.finishedAt = finishedAt;
+    }
+
+    public Calendar getUpdatedAt() {
+        return updatedAt;
+    }
+}
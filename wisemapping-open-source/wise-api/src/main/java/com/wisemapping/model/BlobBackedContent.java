@@ -0,0 +1,72 @@
+/*
+ *    Copyright [2007-2025] [wisemapping]
+ *
+ *   Licensed under WiseMapping Public License, Version 1.0 (the "License").
+ *   It is basically the Apache License, Version 2.0 (the "License") plus the
+ *   "powered by wisemapping" text requirement on every single page;
+ *   you may not use this file except in compliance with the License.
+ *   You may obtain a copy of the license at
+ *
+ *       https://github.com/wisemapping/wisemapping-open-source/blob/main/LICENSE.md
+ *
+ *   Unless required by applicable law or agreed to in writing, software
+ *   distributed under the License is distributed on an "AS IS" BASIS,
+ *   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *   See the License for the specific language governing permissions and
+ *   limitations under the License.
+ */
+
+package com.wisemapping.model;
+
+import com.wisemapping.service.blob.MindmapBlobStore;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.io.IOException;
+
+/**
+ * Entity whose compressed XML can live either inline in its LOB column or in a {@link MindmapBlobStore}.
+ * When externalized, the row keeps only the content pointer and checksum, and the LOB is left empty.
+ */
+public interface BlobBackedContent {
+
+    @Nullable
+    String getContentRef();
+
+    @Nullable
+    String getContentChecksum();
+
+    /**
+     * Gets the content stored in the LOB column, ignoring any externalized content.
+     *
+     * @return inline compressed XML, empty if there is none
+     */
+    @NotNull
+    byte[] getInlineZippedXml();
+
+    /**
+     * Makes the blob store available to resolve externalized content. Called once the entity is loaded.
+     *
+     * @param blobStore store holding the content
+     */
+    void attachBlobStore(@NotNull MindmapBlobStore blobStore);
+
+    /**
+     * Replaces the inline content with a pointer to the blob store.
+     *
+     * @param pointer   pointer returned by the store
+     * @param zippedXml the content that was stored, kept in memory for the rest of the session. If null, it is read on demand.
+     */
+    void externalize(@NotNull MindmapBlobStore.BlobPointer pointer, @Nullable byte[] zippedXml);
+
+    static byte[] readExternalXml(@Nullable MindmapBlobStore blobStore, @NotNull String contentRef, @Nullable String checksum) {
+        if (blobStore == null) {
+            throw new IllegalStateException("Content " + contentRef + " is externalized but no blob store is available");
+        }
+        try {
+            return blobStore.read(contentRef, checksum);
+        } catch (IOException e) {
+            throw new IllegalStateException("Content " + contentRef + " could not be read from the blob store", e);
+        }
+    }
+}
@@ -19,10 +19,14 @@
 package com.wisemapping.model;
 
 import com.fasterxml.jackson.annotation.JsonIgnore;
+import com.wisemapping.listener.MindmapBlobEntityListener;
+import com.wisemapping.service.blob.MindmapBlobStore;
 import jakarta.persistence.*;
 import org.hibernate.annotations.LazyGroup;
 import org.hibernate.annotations.NotFound;
 import org.hibernate.annotations.NotFoundAction;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
 
 import java.io.Serializable;
 import java.util.Calendar;
@@ -30,10 +34,12 @@ import java.util.Calendar;
 /**
  * Entity representing mindmaps that have been moved from inactive users.
  * These mindmaps are no longer accessible through normal application flows.
+ * Content externalized to the blob store is moved by reference, the row keeps the pointer of the original map.
  */
 @Entity
 @Table(name = "MINDMAP_INACTIVE_USER")
-public class InactiveMindmap implements Serializable {
+@EntityListeners(MindmapBlobEntityListener.class)
+public class InactiveMindmap implements Serializable, BlobBackedContent {
 
     @Id
     @GeneratedValue(strategy = GenerationType.IDENTITY)
@@ -74,6 +80,18 @@ public class InactiveMindmap implements Serializable {
     @org.hibernate.annotations.JdbcTypeCode(java.sql.Types.VARBINARY)
     private byte[] zippedXml;
 
+    @Column(name = "content_ref", length = 64)
+    private String contentRef;
+
+    @Column(name = "content_checksum", length = 8)
+    private String contentChecksum;
+
+    @Transient
+    private transient MindmapBlobStore blobStore;
+
+    @Transient
+    private transient byte[] externalXml;
+
     @Column(name = "migration_date")
     private Calendar migrationDate;
 
@@ -92,7 +110,15 @@ public class InactiveMindmap implements Serializable {
         this.description = originalMindmap.getDescription();
         this.isPublic = originalMindmap.isPublic();
         this.title = originalMindmap.getTitle();
-        this.zippedXml = originalMindmap.getZippedXml();
+        final MindmapXml mindmapXml = originalMindmap.getMindmapXml();
+        if (mindmapXml != null && mindmapXml.getContentRef() != null) {
+            // Keep pointing at the stored content instead of reading it back
+            this.contentRef = mindmapXml.getContentRef();
+            this.contentChecksum = mindmapXml.getContentChecksum();
+            this.zippedXml = new byte[]{};
+        } else {
+            this.zippedXml = originalMindmap.getZippedXml();
+        }
         this.migrationDate = Calendar.getInstance();
         this.migrationReason = migrationReason;
     }
@@ -171,11 +197,51 @@ public class InactiveMindmap implements Serializable {
     }
 
     public byte[] getZippedXml() {
+        if (contentRef != null) {
+            if (externalXml == null) {
+                externalXml = BlobBackedContent.readExternalXml(blobStore, contentRef, contentChecksum);
+            }
+            return externalXml;
+        }
         return zippedXml;
     }
 
     public void setZippedXml(byte[] zippedXml) {
         this.zippedXml = zippedXml;
+        this.contentRef = null;
+        this.contentChecksum = null;
+        this.externalXml = null;
+    }
+
+    @NotNull
+    @Override
+    public byte[] getInlineZippedXml() {
+        return zippedXml != null ? zippedXml : new byte[]{};
+    }
+
+    @Nullable
+    @Override
+    public String getContentRef() {
+        return contentRef;
+    }
+
+    @Nullable
+    @Override
+    public String getContentChecksum() {
+        return contentChecksum;
+    }
+
+    @Override
+    public void attachBlobStore(@NotNull MindmapBlobStore blobStore) {
+        this.blobStore = blobStore;
+    }
+
+    @Override
+    public void externalize(@NotNull MindmapBlobStore.BlobPointer pointer, @Nullable byte[] zippedXml) {
+        this.contentRef = pointer.contentRef();
+        this.contentChecksum = pointer.checksum();
+        this.externalXml = zippedXml;
+        this.zippedXml = new byte[]{};
     }
 
     public Calendar getMigrationDate() {
@@ -18,6 +18,8 @@
 
 package com.wisemapping.model;
 
+import com.wisemapping.listener.MindmapBlobEntityListener;
+import com.wisemapping.service.blob.MindmapBlobStore;
 import com.wisemapping.util.ZipUtils;
 import org.hibernate.annotations.LazyGroup;
 import org.jetbrains.annotations.NotNull;
@@ -29,7 +31,8 @@ import java.util.Calendar;
 
 @Entity
 @Table(name = "MINDMAP_HISTORY")
-public class MindMapHistory {
+@EntityListeners(MindmapBlobEntityListener.class)
+public class MindMapHistory implements BlobBackedContent {
     @Id
     @GeneratedValue(strategy = GenerationType.IDENTITY)
     private int id;
@@ -51,6 +54,18 @@ public class MindMapHistory {
     @Column(name = "mindmap_id")
     private int mindmapId;
 
+    @Column(name = "content_ref", length = 64)
+    private String contentRef;
+
+    @Column(name = "content_checksum", length = 8)
+    private String contentChecksum;
+
+    @Transient
+    private transient MindmapBlobStore blobStore;
+
+    @Transient
+    private transient byte[] externalXml;
+
     public MindMapHistory() {
 
     }
@@ -90,11 +105,51 @@ public class MindMapHistory {
     }
 
     public byte[] getZippedXml() {
+        if (contentRef != null) {
+            if (externalXml == null) {
+                externalXml = BlobBackedContent.readExternalXml(blobStore, contentRef, contentChecksum);
+            }
+            return externalXml;
+        }
         return zippedXml;
     }
 
     public void setZippedXml(byte[] value) {
         zippedXml = value;
+        contentRef = null;
+        contentChecksum = null;
+        externalXml = null;
+    }
+
+    @NotNull
+    @Override
+    public byte[] getInlineZippedXml() {
+        return zippedXml != null ? zippedXml : new byte[]{};
+    }
+
+    @Nullable
+    @Override
+    public String getContentRef() {
+        return contentRef;
+    }
+
+    @Nullable
+    @Override
+    public String getContentChecksum() {
+        return contentChecksum;
+    }
+
+    @Override
+    public void attachBlobStore(@NotNull MindmapBlobStore blobStore) {
+        this.blobStore = blobStore;
+    }
+
+    @Override
+    public void externalize(@NotNull MindmapBlobStore.BlobPointer pointer, @Nullable byte[] zippedXml) {
+        this.contentRef = pointer.contentRef();
+        this.contentChecksum = pointer.checksum();
+        this.externalXml = zippedXml;
+        this.zippedXml = new byte[]{};
     }
 
     public byte[] getUnzipXml() throws IOException {
@@ -60,6 +60,8 @@ import java.util.*;
         query = "SELECT COUNT(m) FROM Mindmap m"
     )
 })
+@Cacheable
+@org.hibernate.annotations.Cache(usage = org.hibernate.annotations.CacheConcurrencyStrategy.READ_WRITE)
 public class Mindmap implements Serializable {
 
     @Id
@@ -28,11 +28,13 @@ import java.util.Calendar;
  * Entity representing spam detection information for a mindmap.
  * This table is separate from the main MINDMAP table to denormalize it.
  * 
- * IMPORTANT: Caching is DISABLED for this entity to prevent inconsistencies.
- * Mindmap data changes frequently and must always reflect the latest state.
+ * Cached in the second-level cache together with Mindmap. Spam info is written through JDBC
+ * upserts that Hibernate does not see, so the writer evicts the affected rows explicitly.
  */
 @Entity
 @Table(name = "MINDMAP_SPAM_INFO")
+@Cacheable
+@org.hibernate.annotations.Cache(usage = org.hibernate.annotations.CacheConcurrencyStrategy.READ_WRITE)
 public class MindmapSpamInfo {
     
     @Id
@@ -56,6 +58,10 @@ public class MindmapSpamInfo {
     @Convert(converter = SpamStrategyTypeConverter.class)
     @Column(name = "spam_type_code", columnDefinition = "CHAR(1)")
     private SpamStrategyType spamTypeCode;
+
+    // Strategy type codes and versions applied by the last batch check, such as "F1,H1,L2"
+    @Column(name = "strategy_versions")
+    private String strategyVersions;
     
     @CreationTimestamp
     @Column(name = "created_at", nullable = false, updatable = false)
@@ -125,6 +131,14 @@ public class MindmapSpamInfo {
         this.spamTypeCode = spamTypeCode;
     }
     
+    public String getStrategyVersions() {
+        return strategyVersions;
+    }
+
+    public void setStrategyVersions(String strategyVersions) {
+        this.strategyVersions = strategyVersions;
+    }
+
     public Calendar getCreatedAt() {
         return createdAt;
     }
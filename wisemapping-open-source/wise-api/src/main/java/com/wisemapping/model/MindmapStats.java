@@ -0,0 +1,160 @@
+/*
+ *    Copyright [2007-2025] [wisemapping]
+ *
+ *   Licensed under WiseMapping Public License, Version 1.0 (the "License").
+ *   It is basically the Apache License, Version 2.0 (the "License") plus the
+ *   "powered by wisemapping" text requirement on every single page;
+ *   you may not use this file except in compliance with the License.
+ *   You may obtain a copy of the license at
+ *
+ *       https://github.com/wisemapping/wisemapping-open-source/blob/main/LICENSE.md
+ *
+ *   Unless required by applicable law or agreed to in writing, software
+ *   distributed under the License is distributed on an "AS IS" BASIS,
+ *   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *   See the License for the specific language governing permissions and
+ *   limitations under the License.
+ */
+
+package com.wisemapping.model;
+
+import com.wisemapping.mindmap.model.MapModel;
+import com.wisemapping.mindmap.model.Topic;
+import jakarta.persistence.*;
+import org.hibernate.annotations.UpdateTimestamp;
+import org.jetbrains.annotations.NotNull;
+
+import java.util.Calendar;
+import java.util.List;
+import java.util.function.Predicate;
+
+/**
+ * Document statistics of the current revision of a mindmap, computed once when the map is saved
+ * so listings and batch jobs do not need to inflate and parse the XML to obtain them.
+ */
+@Entity
+@Table(name = "MINDMAP_STATS")
+public class MindmapStats {
+
+    @Id
+    @Column(name = "mindmap_id")
+    private Integer mindmapId;
+
+    @Column(name = "topic_count", nullable = false)
+    private int topicCount;
+
+    @Column(name = "note_count", nullable = false)
+    private int noteCount;
+
+    @Column(name = "link_count", nullable = false)
+    private int linkCount;
+
+    @Column(name = "max_depth", nullable = false)
+    private int maxDepth;
+
+    @Column(name = "raw_bytes", nullable = false)
+    private int rawBytes;
+
+    @Column(name = "compressed_bytes", nullable = false)
+    private int compressedBytes;
+
+    @Column(name = "html_notes", nullable = false)
+    private boolean htmlNotes;
+
+    @UpdateTimestamp
+    @Column(name = "updated_at", nullable = false)
+    private Calendar updatedAt;
+
+    public MindmapStats() {
+    }
+
+    /**
+     * Computes the statistics of a parsed document.
+     *
+     * @param isHtmlNote decides whether a note is stored as HTML
+     */
+    @NotNull
+    public static MindmapStats compute(int mindmapId, @NotNull MapModel model, int rawBytes, int compressedBytes,
+                                       @NotNull Predicate<String> isHtmlNote) {
+        final MindmapStats result = new MindmapStats();
+        result.mindmapId = mindmapId;
+        result.topicCount = model.getTotalTopicCount();
+        result.noteCount = model.countTopicsWithNotes();
+        result.linkCount = model.countTopicsWithLinks();
+        result.maxDepth = maxDepth(model.getTopics());
+        result.rawBytes = rawBytes;
+        result.compressedBytes = compressedBytes;
+        result.htmlNotes = model.getAllNoteContent().stream().anyMatch(isHtmlNote);
+        return result;
+    }
+
+    private static int maxDepth(@NotNull List<Topic> topics) {
+        int result = 0;
+        for (Topic topic : topics) {
+            result = Math.max(result, 1 + maxDepth(topic.getChildren()));
+        }
+        return result;
+    }
+
+    /**
+     * Tells whether these statistics describe the current revision of the map. Statistics are written after the
+     * map is saved, so statistics older than the last edition belong to a previous revision.
+     */
+    public boolean describes(@NotNull Mindmap mindmap) {
+        final Calendar edited = mindmap.getLastModificationTime();
+        return mindmapId != null && mindmapId == mindmap.getId() && updatedAt != null && edited != null
+                && !updatedAt.before(edited);
+    }
+
+    public void copyFrom(@NotNull MindmapStats other) {
+        this.topicCount = other.topicCount;
+        this.noteCount = other.noteCount;
+        this.linkCount = other.linkCount;
+        this.maxDepth = other.maxDepth;
+        this.rawBytes = other.rawBytes;
+        this.compressedBytes = other.compressedBytes;
+        this.htmlNotes = other.htmlNotes;
+        // Mark the row as rewritten even if the numbers did not change, it now describes a newer revision
+        this.updatedAt = Calendar.getInstance();
+    }
+
+    public Integer getMindmapId() {
+        return mindmapId;
+    }
+
+    public void setMindmapId(Integer mindmapId) {
+        this.mindmapId = mindmapId;
+    }
+
+    public int getTopicCount() {
+        return topicCount;
+    }
+
+    public int getNoteCount() {
+        return noteCount;
+    }
+
+    public int getLinkCount() {
+        return linkCount;
+    }
+
+    public int getMaxDepth() {
+        return maxDepth;
+    }
+
+    public int getRawBytes() {
+        return rawBytes;
+    }
+
+    public int getCompressedBytes() {
+        return compressedBytes;
+    }
+
+    public boolean hasHtmlNotes() {
+        return htmlNotes;
+    }
+
+    public Calendar getUpdatedAt() {
+        return updatedAt;
+    }
+}
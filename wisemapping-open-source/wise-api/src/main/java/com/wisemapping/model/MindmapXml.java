@@ -22,19 +22,28 @@ import com.fasterxml.jackson.annotation.JsonIgnore;
 import jakarta.persistence.Basic;
 import jakarta.persistence.Column;
 import jakarta.persistence.Entity;
+import jakarta.persistence.EntityListeners;
 import jakarta.persistence.FetchType;
 import jakarta.persistence.Id;
 import jakarta.persistence.JoinColumn;
 import jakarta.persistence.Lob;
 import jakarta.persistence.MapsId;
 import jakarta.persistence.OneToOne;
+import jakarta.persistence.PostPersist;
+import jakarta.persistence.PostUpdate;
 import jakarta.persistence.Table;
+import jakarta.persistence.Transient;
 import java.io.Serializable;
+
+import com.wisemapping.listener.MindmapBlobEntityListener;
+import com.wisemapping.service.blob.MindmapBlobStore;
 import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
 
 @Entity
 @Table(name = "MINDMAP_XML")
-public class MindmapXml implements Serializable {
+@EntityListeners(MindmapBlobEntityListener.class)
+public class MindmapXml implements Serializable, BlobBackedContent {
 
     @Id
     @Column(name = "mindmap_id")
@@ -52,6 +61,22 @@ public class MindmapXml implements Serializable {
     @org.hibernate.annotations.JdbcTypeCode(java.sql.Types.VARBINARY)
     private byte[] zippedXml = new byte[] {};
 
+    @Column(name = "content_ref", length = 64)
+    private String contentRef;
+
+    @Column(name = "content_checksum", length = 8)
+    private String contentChecksum;
+
+    @Transient
+    private transient MindmapBlobStore blobStore;
+
+    @Transient
+    private transient byte[] externalXml;
+
+    // Content set on this instance and not written yet, it may differ from the stored revision.
+    @Transient
+    private transient boolean modified;
+
     public MindmapXml() {
     }
 
@@ -78,10 +103,65 @@ public class MindmapXml implements Serializable {
 
     @NotNull
     public byte[] getZippedXml() {
-        return zippedXml != null ? zippedXml : new byte[] {};
+        if (contentRef != null) {
+            if (externalXml == null) {
+                externalXml = BlobBackedContent.readExternalXml(blobStore, contentRef, contentChecksum);
+            }
+            return externalXml;
+        }
+        return getInlineZippedXml();
     }
 
     public void setZippedXml(@NotNull byte[] zippedXml) {
         this.zippedXml = zippedXml;
+        this.contentRef = null;
+        this.contentChecksum = null;
+        this.externalXml = null;
+        this.modified = true;
+    }
+
+    /**
+     * Returns true if the content was set on this instance and has not been written to the database yet.
+     */
+    public boolean isModified() {
+        return modified;
+    }
+
+    @PostPersist
+    @PostUpdate
+    public void markStored() {
+        this.modified = false;
+    }
+
+    @NotNull
+    @Override
+    public byte[] getInlineZippedXml() {
+        return zippedXml != null ? zippedXml : new byte[] {};
+    }
+
+    @Nullable
+    @Override
+    public String getContentRef() {
+        return contentRef;
+    }
+
+    @Nullable
+    @Override
+    public String getContentChecksum() {
+        return contentChecksum;
+    }
+
+    @Override
+    public void attachBlobStore(@NotNull MindmapBlobStore blobStore) {
+        this.blobStore = blobStore;
+    }
+
+    @Override
+    public void externalize(@NotNull MindmapBlobStore.BlobPointer pointer, @Nullable byte[] zippedXml) {
+        this.contentRef = pointer.contentRef();
+        this.contentChecksum = pointer.checksum();
+        this.externalXml = zippedXml;
+        // The LOB column is not nullable, keep it empty once the content lives in the blob store.
+        this.zippedXml = new byte[] {};
     }
 }
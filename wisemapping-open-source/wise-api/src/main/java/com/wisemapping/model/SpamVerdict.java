@@ -0,0 +1,119 @@
+/*
+ *    Copyright [2007-2025] [wisemapping]
+ *
+ *   Licensed under WiseMapping Public License, Version 1.0 (the "License").
+ *   It is basically the Apache License, Version 2.0 (the "License") plus the
+ *   "powered by wisemapping" text requirement on every single page;
+ *   you may not use this file except in compliance with the License.
+ *   You may obtain a copy of the license at
+ *
+ *       https://github.com/wisemapping/wisemapping-open-source/blob/main/LICENSE.md
+ *
+ *   Unless required by applicable law or agreed to in writing, software
+ *   distributed under the License is distributed on an "AS IS" BASIS,
+ *   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *   See the License for the specific language governing permissions and
+ *   limitations under the License.
+ */
+
+package com.wisemapping.model;
+
+import jakarta.persistence.*;
+import org.hibernate.annotations.UpdateTimestamp;
+
+import java.util.Calendar;
+
+/**
+ * Outcome of running the spam detection strategies on a given content. Verdicts are keyed by a hash of the
+ * map document, title and description, so maps with the same content, such as duplicates or maps re-checked
+ * without changes, reuse it instead of being analyzed again. The strategy set records which strategies, and
+ * which version of them, produced it; a verdict of another set is not reused.
+ */
+@Entity
+@Table(name = "SPAM_VERDICT")
+public class SpamVerdict {
+
+    @Id
+    @Column(name = "content_hash", columnDefinition = "CHAR(64)")
+    private String contentHash;
+
+    @Column(name = "strategy_set", nullable = false)
+    private String strategySet;
+
+    @Column(name = "spam_detected", nullable = false)
+    private boolean spamDetected;
+
+    @Column(name = "spam_reason")
+    private String spamReason;
+
+    @Column(name = "spam_description", columnDefinition = "TEXT")
+    private String spamDescription;
+
+    @Convert(converter = SpamStrategyTypeConverter.class)
+    @Column(name = "spam_type_code", columnDefinition = "CHAR(1)")
+    private SpamStrategyType spamTypeCode;
+
+    @UpdateTimestamp
+    @Column(name = "updated_at", nullable = false)
+    private Calendar updatedAt;
+
+    public SpamVerdict() {
+    }
+
+    public SpamVerdict(String contentHash, String strategySet) {
+        this.contentHash = contentHash;
+        this.strategySet = strategySet;
+    }
+
+    public void copyFrom(SpamVerdict other) {
+        this.strategySet = other.strategySet;
+        this.spamDetected = other.spamDetected;
+        this.spamReason = other.spamReason;
+        this.spamDescription = other.spamDescription;
+        this.spamTypeCode = other.spamTypeCode;
+    }
+
+    public String getContentHash() {
+        return contentHash;
+    }
+
+    public String getStrategySet() {
+        return strategySet;
+    }
+
+    public boolean isSpamDetected() {
+        return spamDetected;
+    }
+
+    public void setSpamDetected(boolean spamDetected) {
+        this.spamDetected = spamDetected;
+    }
+
+    public String getSpamReason() {
+        return spamReason;
+    }
+
+    public void setSpamReason(String spamReason) {
+        this.spamReason = spamReason;
+    }
+
+    public String getSpamDescription() {
+        return spamDescription;
+    }
+
+    public void setSpamDescription(String spamDescription) {
+        this.spamDescription = spamDescription;
+    }
+
+    public SpamStrategyType getSpamTypeCode() {
+        return spamTypeCode;
+    }
+
+    public void setSpamTypeCode(SpamStrategyType spamTypeCode) {
+        this.spamTypeCode = spamTypeCode;
+    }
+
+    public Calendar getUpdatedAt() {
+        return updatedAt;
+    }
+}
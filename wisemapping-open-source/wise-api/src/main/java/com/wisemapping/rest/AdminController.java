@@ -33,9 +33,12 @@ import com.wisemapping.metrics.AccountListingMetricsRecorder.Segment;
 import com.wisemapping.metrics.MindmapListingMetricsRecorder;
 import com.wisemapping.rest.model.RestUser;
 import com.wisemapping.rest.model.PaginatedResponse;
+import com.wisemapping.service.MindmapDocumentCache;
 import com.wisemapping.service.MindmapService;
 import com.wisemapping.service.MetricsService;
 import com.wisemapping.service.UserService;
+import com.wisemapping.service.batch.BatchJobRunner;
+import com.wisemapping.service.blob.MindmapBlobStoreMaintenanceService;
 import jakarta.persistence.EntityManagerFactory;
 import jakarta.servlet.http.HttpServletResponse;
 import org.hibernate.SessionFactory;
@@ -93,6 +96,15 @@ public class AdminController {
     @Autowired
     private EntityManagerFactory entityManagerFactory;
 
+    @Autowired
+    private MindmapBlobStoreMaintenanceService blobStoreMaintenanceService;
+
+    @Autowired
+    private MindmapDocumentCache documentCache;
+
+    @Autowired
+    private BatchJobRunner batchJobRunner;
+
     @Value("${app.admin.user:}")
     private String adminUser;
 
@@ -685,12 +697,64 @@ public class AdminController {
         
         try {
             // Return the XML content of the mindmap
-            return mindmap.getXmlStr();
+            return documentCache.getXmlStr(mindmap);
         } catch (Exception e) {
             throw new RuntimeException("Failed to retrieve map XML content", e);
         }
     }
 
+    @RequestMapping(method = RequestMethod.POST, value = "/system/blob-store/migration", produces = {"application/json"})
+    @ResponseBody
+    public Map<String, Object> migrateContentToBlobStore() {
+        final Map<String, Object> result = new HashMap<>();
+        result.put("externalized", blobStoreMaintenanceService.migrateInlineContent());
+        return result;
+    }
+
+    @RequestMapping(method = RequestMethod.POST, value = "/system/blob-store/gc", produces = {"application/json"})
+    @ResponseBody
+    public Map<String, Object> collectBlobStoreGarbage() {
+        final Map<String, Object> result = new HashMap<>();
+        result.put("deleted", blobStoreMaintenanceService.collectGarbage());
+        return result;
+    }
+
+    @RequestMapping(method = RequestMethod.GET, value = "/system/batch-jobs", produces = {"application/json"})
+    @ResponseBody
+    public List<Map<String, Object>> getBatchJobs() {
+        final long now = System.currentTimeMillis();
+        return batchJobRunner.getJobStates().stream().map(state -> {
+            final Map<String, Object> job = new HashMap<>();
+            job.put("name", state.getJobName());
+            job.put("status", state.getStatus());
+            job.put("leaseOwner", state.getLeaseOwner());
+            job.put("leaseExpiresAt", toMillis(state.getLeaseExpiresAt()));
+            job.put("lastCursor", state.getLastCursor());
+            job.put("processed", state.getProcessedCount());
+            job.put("affected", state.getAffectedCount());
+            job.put("failedChunks", state.getFailedChunks());
+            job.put("startedAt", toMillis(state.getStartedAt()));
+            job.put("finishedAt", toMillis(state.getFinishedAt()));
+            job.put("updatedAt", toMillis(state.getUpdatedAt()));
+
+            // Items processed per second by the current or last run, up to its last saved progress
+            final Long startedAt = toMillis(state.getStartedAt());
+            final Long until = state.getFinishedAt() != null ? toMillis(state.getFinishedAt()) : toMillis(state.getUpdatedAt());
+            double throughput = 0;
+            if (startedAt != null && until != null && until > startedAt) {
+                throughput = state.getProcessedCount() * 1000.0 / (until - startedAt);
+            }
+            job.put("throughputPerSecond", Math.round(throughput * 100) / 100.0);
+            job.put("leaseActive", state.getLeaseOwner() != null && state.getLeaseExpiresAt() != null
+                    && state.getLeaseExpiresAt().getTimeInMillis() > now);
+            return job;
+        }).collect(Collectors.toList());
+    }
+
+    private static Long toMillis(java.util.Calendar calendar) {
+        return calendar != null ? calendar.getTimeInMillis() : null;
+    }
+
     @RequestMapping(method = RequestMethod.GET, value = "/system/info", produces = {"application/json"})
     @ResponseBody
     public Map<String, Object> getSystemInfo() {
@@ -76,6 +76,9 @@ public class MindmapController {
     @Autowired
     private SpamDetectionService spamDetectionService;
 
+    @Autowired
+    private SpamAnalysisQueue spamAnalysisQueue;
+
     @Autowired
     private HtmlContentValidator htmlContentValidator;
 
@@ -97,6 +100,12 @@ public class MindmapController {
     @Autowired
     private MetricsService metricsService;
 
+    @Autowired
+    private MindmapDocumentCache documentCache;
+
+    @Autowired
+    private MindmapStatsService mindmapStatsService;
+
     @Value("${app.accounts.max-inactive:10}")
     private int maxAccountsInactive;
 
@@ -232,6 +241,14 @@ public class MindmapController {
 
         stepStart = System.currentTimeMillis();
         final RestMindmapList response = new RestMindmapList(mindmaps, user, collaborationsByMap);
+        final Map<Integer, MindmapStats> statsByMap = mindmapStatsService
+                .findByMindmapIds(mindmaps.stream().map(Mindmap::getId).toList());
+        for (RestMindmapInfo info : response.getMindmapsInfo()) {
+            final MindmapStats stats = statsByMap.get(info.getId());
+            if (stats != null) {
+                info.setStats(new RestMindmapStats(stats));
+            }
+        }
         // com_userinfo.USER_NM으로 creator, lastModifier 표시명 치환 (Account.firstname = USER_ID)
         if (comUserinfoService != null) {
             for (RestMindmapInfo info : response.getMindmapsInfo()) {
@@ -364,7 +381,7 @@ public class MindmapController {
      */
     private String getMapXmlString(Mindmap mindmap) throws WiseMappingException {
         try {
-            return mindmap.getXmlStr();
+            return documentCache.getXmlStr(mindmap);
         } catch (Exception e) {
             throw new WiseMappingException("Failed to retrieve map XML", e);
         }
@@ -754,8 +771,14 @@ public class MindmapController {
 
         // Check for spam content when trying to make public
         if (isPublic) {
-            SpamDetectionResult spamResult = spamDetectionService.detectSpam(mindMap, "publish");
-            if (spamResult.isSpam()) {
+            final SpamAnalysisQueue.Analysis analysis = spamAnalysisQueue.submit(mindMap, "publish");
+            final SpamDetectionResult spamResult = analysis.awaitWithinSla();
+            if (spamResult == null) {
+                // The analysis is still running: a private map stays private and is published once it passes,
+                // a map that is already public stays online and gets its verdict when the analysis completes
+                analysis.applyWhenDone(id, user);
+                return;
+            } else if (spamResult.isSpam()) {
                 // Mark the map as spam detected and throw exception
                 mindMap.setSpamDetected(true);
                 mindMap.setSpamDescription(spamResult.getDetails());
@@ -766,6 +789,11 @@ public class MindmapController {
                 // Track spam prevention using MetricsService
                 metricsService.trackSpamPrevention(mindMap, "publish");
 
+                throw new SpamContentException(mindMap, true);
+            } else if (spamResult.needsReview()) {
+                // The check did not complete, keep the map private until a later check or a review clears it
+                keepPrivateForReview(mindMap, spamResult);
+                mindmapService.updateMindmap(mindMap, false);
                 throw new SpamContentException(mindMap, true);
             } else {
                 // Making public and no spam detected - clear spam flag and make public
@@ -778,6 +806,7 @@ public class MindmapController {
             }
         } else {
             // Making private - only update public flag, preserve existing spam flag
+            spamAnalysisQueue.cancel(id);
             mindMap.setPublic(false);
         }
 
@@ -941,9 +970,15 @@ public class MindmapController {
         htmlContentValidator.validateHtmlContent(mindmap);
 
         // Check for spam content during creation
+        SpamAnalysisQueue.Analysis pendingAnalysis = null;
         if (mindmap.isPublic()) {
-            SpamDetectionResult spamResult = spamDetectionService.detectSpam(mindmap, "creation");
-            if (spamResult.isSpam()) {
+            final SpamAnalysisQueue.Analysis analysis = spamAnalysisQueue.submit(mindmap, "creation");
+            final SpamDetectionResult spamResult = analysis.awaitWithinSla();
+            if (spamResult == null) {
+                // Created private, it is published once the analysis passes
+                mindmap.setPublic(false);
+                pendingAnalysis = analysis;
+            } else if (spamResult.isSpam()) {
                 mindmap.setSpamDetected(true);
                 mindmap.setSpamDescription(spamResult.getDetails());
                 // Get strategy name as enum
@@ -951,6 +986,8 @@ public class MindmapController {
 
                 // Track spam detection during creation
                 metricsService.trackSpamDetection(mindmap, spamResult, "creation");
+            } else if (spamResult.needsReview()) {
+                keepPrivateForReview(mindmap, spamResult);
             } else {
                 mindmap.setSpamDetected(false);
                 mindmap.setSpamDescription(null);
@@ -960,6 +997,9 @@ public class MindmapController {
 
         // Add new mindmap ...
         mindmapService.addMindmap(mindmap, user);
+        if (pendingAnalysis != null) {
+            pendingAnalysis.applyWhenDone(mindmap.getId(), user);
+        }
 
         // Track mindmap creation
         metricsService.trackMindmapCreation(mindmap, user, "new");
@@ -997,12 +1037,17 @@ public class MindmapController {
         clonedMap.setDescription(restMindmap.getDescription());
 
         // Check for spam content in the duplicated map
-        SpamDetectionResult spamResult = spamDetectionService.detectSpam(clonedMap, "duplicate");
-        if (spamResult.isSpam()) {
+        final SpamAnalysisQueue.Analysis analysis = spamAnalysisQueue.submit(clonedMap, "duplicate");
+        final SpamDetectionResult spamResult = analysis.awaitWithinSla();
+        if (spamResult == null) {
+            // The copy is private, its verdict is recorded once the analysis completes
+        } else if (spamResult.isSpam()) {
             clonedMap.setSpamDetected(true);
             clonedMap.setSpamDescription(spamResult.getDetails());
             // Get strategy name as enum
             clonedMap.setSpamTypeCode(spamResult.getStrategyType());
+        } else if (spamResult.needsReview()) {
+            keepPrivateForReview(clonedMap, spamResult);
         } else {
             clonedMap.setSpamDetected(false);
             clonedMap.setSpamDescription(null);
@@ -1011,6 +1056,9 @@ public class MindmapController {
 
         // Add new mindmap ...
         mindmapService.addMindmap(clonedMap, user);
+        if (spamResult == null) {
+            analysis.applyWhenDone(clonedMap.getId(), null);
+        }
 
         // Track mindmap duplication
         metricsService.trackMindmapCreation(clonedMap, user, "duplicate");
@@ -1116,9 +1164,27 @@ public class MindmapController {
                 mindMap.setSpamDescription(spamResult.getDetails());
                 // Get strategy name as enum
                 mindMap.setSpamTypeCode(spamResult.getStrategyType());
+            } else if (spamResult.needsReview()) {
+                keepPrivateForReview(mindMap, spamResult);
             }
         }
         mindmapService.updateMindmap(mindMap, !minor);
+
+        // A publish waiting on the analysis of the previous content checks the saved content instead
+        if (spamAnalysisQueue.isDeferred(mindMap.getId())) {
+            spamAnalysisQueue.submit(mindMap, "publish").applyWhenDone(mindMap.getId(), user);
+        }
+    }
+
+    /**
+     * A map whose spam check did not complete is not published. It is not flagged as spam either: an existing
+     * verdict is kept, otherwise the reason is stored as its spam description. The next publish checks it again.
+     */
+    private void keepPrivateForReview(@NotNull Mindmap mindmap, @NotNull SpamDetectionResult spamResult) {
+        mindmap.setPublic(false);
+        if (!mindmap.isSpamDetected()) {
+            mindmap.setSpamDescription(spamResult.getDescription());
+        }
     }
 
     private ValidationException buildValidationException(@NotNull String message) throws WiseMappingException {
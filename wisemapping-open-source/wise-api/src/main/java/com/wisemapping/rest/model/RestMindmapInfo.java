@@ -67,6 +67,7 @@ public class RestMindmapInfo {
     private Boolean cachedSpamDetected;
     private Boolean cachedStarred;
     private Integer cachedCollaboratorCount;
+    private RestMindmapStats stats;
 
     public RestMindmapInfo() {
         this(new Mindmap(), null, null);
@@ -235,6 +236,18 @@ public class RestMindmapInfo {
         this.cachedCollaboratorCount = value;
     }
 
+    /**
+     * Document statistics of the current revision, or null if they have not been computed yet.
+     */
+    @Nullable
+    public RestMindmapStats getStats() {
+        return stats;
+    }
+
+    public void setStats(@Nullable RestMindmapStats stats) {
+        this.stats = stats;
+    }
+
     @JsonIgnore
     public Mindmap getDelegated() {
         return this.mindmap;
@@ -0,0 +1,83 @@
+/*
+ *    Copyright [2007-2025] [wisemapping]
+ *
+ *   Licensed under WiseMapping Public License, Version 1.0 (the "License").
+ *   It is basically the Apache License, Version 2.0 (the "License") plus the
+ *   "powered by wisemapping" text requirement on every single page;
+ *   you may not use this file except in compliance with the License.
+ *   You may obtain a copy of the license at
+ *
+ *       https://github.com/wisemapping/wisemapping-open-source/blob/main/LICENSE.md
+ *
+ *   Unless required by applicable law or agreed to in writing, software
+ *   distributed under the License is distributed on an "AS IS" BASIS,
+ *   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *   See the License for the specific language governing permissions and
+ *   limitations under the License.
+ */
+
+package com.wisemapping.rest.model;
+
+
+import com.fasterxml.jackson.annotation.JsonAutoDetect;
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+import com.wisemapping.model.MindmapStats;
+import org.jetbrains.annotations.NotNull;
+
+@JsonAutoDetect(
+        fieldVisibility = JsonAutoDetect.Visibility.NONE,
+        getterVisibility = JsonAutoDetect.Visibility.PUBLIC_ONLY,
+        isGetterVisibility = JsonAutoDetect.Visibility.NONE)
+@JsonIgnoreProperties(ignoreUnknown = true)
+public class RestMindmapStats {
+
+    private int topicCount;
+    private int noteCount;
+    private int linkCount;
+    private int maxDepth;
+    private int rawBytes;
+    private int compressedBytes;
+    private boolean htmlNotes;
+
+    public RestMindmapStats() {
+
+    }
+
+    public RestMindmapStats(@NotNull MindmapStats stats) {
+        this.topicCount = stats.getTopicCount();
+        this.noteCount = stats.getNoteCount();
+        this.linkCount = stats.getLinkCount();
+        this.maxDepth = stats.getMaxDepth();
+        this.rawBytes = stats.getRawBytes();
+        this.compressedBytes = stats.getCompressedBytes();
+        this.htmlNotes = stats.hasHtmlNotes();
+    }
+
+    public int getTopicCount() {
+        return topicCount;
+    }
+
+    public int getNoteCount() {
+        return noteCount;
+    }
+
+    public int getLinkCount() {
+        return linkCount;
+    }
+
+    public int getMaxDepth() {
+        return maxDepth;
+    }
+
+    public int getRawBytes() {
+        return rawBytes;
+    }
+
+    public int getCompressedBytes() {
+        return compressedBytes;
+    }
+
+    public boolean getHtmlNotes() {
+        return htmlNotes;
+    }
+}
@@ -0,0 +1,51 @@
+/*
+ *    Copyright [2007-2025] [wisemapping]
+ *
+ *   Licensed under WiseMapping Public License, Version 1.0 (the "License").
+ *   It is basically the Apache License, Version 2.0 (the "License") plus the
+ *   "powered by wisemapping" text requirement on every single page;
+ *   you may not use this file except in compliance with the License.
+ *   You may obtain a copy of the license at
+ *
+ *       https://github.com/wisemapping/wisemapping-open-source/blob/main/LICENSE.md
+ *
+ *   Unless required by applicable law or agreed to in writing, software
+ *   distributed under the License is distributed on an "AS IS" BASIS,
+ *   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *   See the License for the specific language governing permissions and
+ *   limitations under the License.
+ */
+
+package com.wisemapping.scheduler;
+
+import com.wisemapping.service.DisposableEmailService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnExpression;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+/**
+ * Reloads the external disposable email domains list when it changes, so it can be updated without a restart.
+ * Only active when app.registration.disposable-email.domains-file is set.
+ */
+@Component
+@ConditionalOnExpression("'${app.registration.disposable-email.domains-file:}' != ''")
+public class DisposableEmailDomainsReloadScheduler {
+
+    private static final Logger logger = LoggerFactory.getLogger(DisposableEmailDomainsReloadScheduler.class);
+
+    @Autowired
+    private DisposableEmailService disposableEmailService;
+
+    @Scheduled(fixedDelayString = "${app.registration.disposable-email.reload-interval-ms:60000}",
+            initialDelayString = "${app.registration.disposable-email.reload-interval-ms:60000}")
+    public void reloadDisposableDomains() {
+        try {
+            disposableEmailService.reloadIfChanged();
+        } catch (Exception e) {
+            logger.error("Disposable email domains reload failed", e);
+        }
+    }
+}
@@ -18,6 +18,7 @@
 
 package com.wisemapping.service;
 
+import com.wisemapping.util.DomainSuffixIndex;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 import org.springframework.beans.factory.annotation.Value;
@@ -28,18 +29,31 @@ import java.io.BufferedReader;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.InputStreamReader;
-import java.util.HashSet;
-import java.util.Set;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.util.ArrayList;
+import java.util.List;
 
 @Service
 public class DisposableEmailService {
 
     private static final Logger logger = LogManager.getLogger();
-    private Set<String> disposableDomains = new HashSet<>();
+    private static final String BUNDLED_DOMAINS = "/disposable-email-domains.txt";
+
+    // Listed domains and their subdomains, so x.mailinator.com is blocked along with mailinator.com.
+    // Replaced as a whole when the external list changes.
+    private volatile DomainSuffixIndex disposableDomains = DomainSuffixIndex.empty();
 
     @Value("${app.registration.disposable-email.blocking.enabled:false}")
     private boolean blockingEnabled; // true if disposable email blocking is enabled
 
+    @Value("${app.registration.disposable-email.domains-file:}")
+    private String domainsFile = ""; // external list replacing the bundled one, reloaded when it changes
+
+    private FileTime domainsFileModified;
+
     @PostConstruct
     public void loadDisposableDomains() {
         if (!blockingEnabled) {
@@ -47,29 +61,75 @@ public class DisposableEmailService {
             return;
         }
 
-        try (InputStream inputStream = getClass().getResourceAsStream("/disposable-email-domains.txt");
-             BufferedReader reader = new BufferedReader(new InputStreamReader(inputStream))) {
-            
-            String domain;
-            while ((domain = reader.readLine()) != null) {
-                domain = domain.trim().toLowerCase();
-                if (!domain.isEmpty() && !domain.startsWith("#")) {
-                    disposableDomains.add(domain);
-                }
+        if (!domainsFile.isBlank()) {
+            reloadIfChanged();
+            if (domainsFileModified != null) {
+                return;
             }
+            logger.warn("Falling back to the bundled disposable email domains list");
+        }
+
+        try (InputStream inputStream = getClass().getResourceAsStream(BUNDLED_DOMAINS)) {
+            disposableDomains = readDomains(inputStream);
             logger.info("Loaded {} disposable email domains", disposableDomains.size());
         } catch (IOException e) {
             logger.warn("Could not load disposable email domains list: {}", e.getMessage());
         }
     }
 
+    /**
+     * Loads the external domains list again if its modification time changed. A list that cannot be read leaves the
+     * current one in place.
+     *
+     * @return true if the list was reloaded
+     */
+    public synchronized boolean reloadIfChanged() {
+        if (!blockingEnabled || domainsFile.isBlank()) {
+            return false;
+        }
+
+        final Path path = Path.of(domainsFile);
+        try {
+            final FileTime modified = Files.getLastModifiedTime(path);
+            if (modified.equals(domainsFileModified)) {
+                return false;
+            }
+            try (InputStream inputStream = Files.newInputStream(path)) {
+                disposableDomains = readDomains(inputStream);
+            }
+            domainsFileModified = modified;
+            logger.info("Loaded {} disposable email domains from {}", disposableDomains.size(), path);
+            return true;
+        } catch (IOException e) {
+            logger.warn("Could not load disposable email domains from {}: {}", path, e.getMessage());
+            return false;
+        }
+    }
+
     public boolean isDisposableEmail(String email) {
         if (!blockingEnabled || email == null) {
             return false;
         }
 
         String domain = extractDomain(email);
-        return domain != null && disposableDomains.contains(domain.toLowerCase());
+        return domain != null && disposableDomains.matches(domain);
+    }
+
+    private static DomainSuffixIndex readDomains(InputStream inputStream) throws IOException {
+        if (inputStream == null) {
+            throw new IOException("Domains list not found");
+        }
+        final List<String> domains = new ArrayList<>();
+        try (BufferedReader reader = new BufferedReader(new InputStreamReader(inputStream, StandardCharsets.UTF_8))) {
+            String domain;
+            while ((domain = reader.readLine()) != null) {
+                domain = domain.trim();
+                if (!domain.isEmpty() && !domain.startsWith("#")) {
+                    domains.add(domain);
+                }
+            }
+        }
+        return DomainSuffixIndex.of(domains);
     }
 
     private String extractDomain(String email) {
@@ -79,4 +139,4 @@ public class DisposableEmailService {
         }
         return null;
     }
-}
\ No newline at end of file
+}
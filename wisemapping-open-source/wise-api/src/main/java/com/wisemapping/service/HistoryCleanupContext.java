@@ -1,9 +1,8 @@
 package com.wisemapping.service;
 
-import java.util.Calendar;
-
 /**
  * Context object that holds configuration and state for history cleanup operations.
+ * The statistics are updated by the workers of the cleanup concurrently.
  */
 public class HistoryCleanupContext {
     
@@ -13,11 +12,11 @@ public class HistoryCleanupContext {
     private final int phase2MaxEntries;
     private final int batchSize;
     
-    private int totalDeleted = 0;
-    private int totalProcessed = 0;
-    private int totalSkipped = 0;
-    private int phase1Processed = 0;
-    private int phase2Processed = 0;
+    // Statistics
+    private int phase1Maps = 0;
+    private int phase2Maps = 0;
+    private int phase1Deleted = 0;
+    private int phase2Deleted = 0;
     
     public HistoryCleanupContext(int lowerBoundaryYears, int upperBoundaryYears, 
                                int phase2StartingPointYears, int phase2MaxEntries, int batchSize) {
@@ -36,18 +35,19 @@ public class HistoryCleanupContext {
     public int getBatchSize() { return batchSize; }
     
     // Getters and setters for statistics
-    public int getTotalDeleted() { return totalDeleted; }
-    public void addDeleted(int count) { this.totalDeleted += count; }
-    
-    public int getTotalProcessed() { return totalProcessed; }
-    public void incrementProcessed() { this.totalProcessed++; }
-    
-    public int getTotalSkipped() { return totalSkipped; }
-    public void incrementSkipped() { this.totalSkipped++; }
+    public synchronized int getTotalDeleted() { return phase1Deleted + phase2Deleted; }
     
-    public int getPhase1Processed() { return phase1Processed; }
-    public void incrementPhase1Processed() { this.phase1Processed++; }
+    public synchronized int getPhase1Maps() { return phase1Maps; }
+    public synchronized int getPhase1Deleted() { return phase1Deleted; }
+    public synchronized void addPhase1Batch(int maps, int deleted) {
+        this.phase1Maps += maps;
+        this.phase1Deleted += deleted;
+    }
     
-    public int getPhase2Processed() { return phase2Processed; }
-    public void incrementPhase2Processed() { this.phase2Processed++; }
+    public synchronized int getPhase2Maps() { return phase2Maps; }
+    public synchronized int getPhase2Deleted() { return phase2Deleted; }
+    public synchronized void addPhase2Batch(int maps, int deleted) {
+        this.phase2Maps += maps;
+        this.phase2Deleted += deleted;
+    }
 }
@@ -1,14 +1,26 @@
 package com.wisemapping.service;
 
+import com.wisemapping.dao.IdPage;
 import com.wisemapping.dao.MindmapManager;
+import com.wisemapping.service.batch.BatchJob;
+import com.wisemapping.service.batch.BatchJobRun;
+import com.wisemapping.service.batch.BatchJobRunner;
+import com.wisemapping.util.AdaptiveThrottle;
+import jakarta.annotation.PreDestroy;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 
+import java.util.ArrayList;
 import java.util.Calendar;
 import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
 
 /**
  * Service responsible for purging old mindmap history entries using a two-phase
@@ -18,7 +30,12 @@ import java.util.List;
  * Phase 2: For maps newer than lower boundary, keeps only a limited number of
  * recent entries
  * 
- * Uses batch processing to prevent memory issues with large datasets.
+ * The mindmap id space is split into ranges purged in parallel by the configured
+ * workers. Within a range each phase walks the maps of its age range in batches
+ * of ids and purges the history of a whole batch with one set-based statement.
+ * The statements are paced by an {@link AdaptiveThrottle}. The purge runs as a
+ * {@link BatchJob}, a chunk being one range per worker, so an interrupted run
+ * resumes after the last chunk completed.
  */
 @Service
 public class HistoryPurgeService {
@@ -26,10 +43,14 @@ public class HistoryPurgeService {
     private static final Logger logger = LoggerFactory.getLogger(HistoryPurgeService.class);
     private static final int MIN_BATCH_SIZE = 1;
     private static final int MAX_BATCH_SIZE = 500;
+    private static final String JOB_NAME = "history-cleanup";
 
     @Autowired
     private MindmapManager mindmapManager;
 
+    @Autowired
+    private BatchJobRunner batchJobRunner;
+
     @Value("${app.batch.history-cleanup.enabled:true}")
     private boolean enabled;
 
@@ -51,6 +72,29 @@ public class HistoryPurgeService {
     @Value("${app.batch.history-cleanup.batch-size:100}")
     private int batchSize;
 
+    @Value("${app.batch.history-cleanup.workers:1}")
+    private int workers;
+
+    @Value("${app.batch.history-cleanup.range-size:10000}")
+    private int rangeSize;
+
+    @Value("${app.batch.history-cleanup.throttle-target-latency-ms:500}")
+    private long throttleTargetLatencyMs;
+
+    @Value("${app.batch.history-cleanup.throttle-max-pause-ms:5000}")
+    private long throttleMaxPauseMs;
+
+    private volatile ExecutorService runningExecutor;
+
+    @PreDestroy
+    public void shutdown() {
+        final ExecutorService executor = runningExecutor;
+        if (executor != null) {
+            // The job state keeps the chunks purged so far, the next run resumes after them
+            executor.shutdownNow();
+        }
+    }
+
     /**
      * Purge old mindmap history entries using two-phase approach.
      *
@@ -73,51 +117,117 @@ public class HistoryPurgeService {
                 phase1UpperBoundaryYears, phase1LowerBoundaryYears, phase2MaxEntries, phase2UpperBoundaryYears, phase2LowerBoundaryYears, safeBatchSize);
 
         try {
-            // Create context for the cleanup operation
-            HistoryCleanupContext context = new HistoryCleanupContext(phase1LowerBoundaryYears,
-                    phase1UpperBoundaryYears,
-                    phase2LowerBoundaryYears, phase2MaxEntries, safeBatchSize);
-
-            // Set up the chain of responsibility
-            final AbstractHistoryCleanupHandler phase1Handler = new Phase1HistoryCleanupHandler(
-                    mindmapManager, phase1LowerBoundaryYears, phase1UpperBoundaryYears);
-            final AbstractHistoryCleanupHandler phase2Handler = new Phase2HistoryCleanupHandler(
-                    mindmapManager, phase2LowerBoundaryYears, phase2UpperBoundaryYears, phase2MaxEntries);
+            final HistoryCleanupContext context = new HistoryCleanupContext(phase1LowerBoundaryYears,
+                    phase1UpperBoundaryYears, phase2LowerBoundaryYears, phase2MaxEntries, safeBatchSize);
+
+            final Calendar phase1EditedBefore = Calendar.getInstance();
+            phase1EditedBefore.add(Calendar.YEAR, -phase1LowerBoundaryYears);
+            final Calendar phase1EditedAfter = Calendar.getInstance();
+            phase1EditedAfter.add(Calendar.YEAR, -phase1UpperBoundaryYears);
+            final Calendar phase2EditedBefore = Calendar.getInstance();
+            phase2EditedBefore.add(Calendar.YEAR, -phase2LowerBoundaryYears);
+            final Calendar phase2EditedAfter = Calendar.getInstance();
+            phase2EditedAfter.add(Calendar.MONTH, -(int) (phase2UpperBoundaryYears * 12)); // Convert years to months
+
+            final AdaptiveThrottle throttle = new AdaptiveThrottle(throttleTargetLatencyMs, throttleMaxPauseMs);
+            final RangeWorker worker = (afterId, toId, counts) -> {
+                // Phase 1 runs first, so a map in both ranges loses all its history
+                purgePhase(context, counts, 1, afterId, toId, phase1EditedAfter, phase1EditedBefore, throttle,
+                        (fromId, lastId) -> mindmapManager.removeHistoryOfMindmapsEditedBetween(fromId, lastId,
+                                phase1EditedAfter, phase1EditedBefore));
+                purgePhase(context, counts, 2, afterId, toId, phase2EditedAfter, phase2EditedBefore, throttle,
+                        (fromId, lastId) -> mindmapManager.removeExcessHistoryOfMindmapsEditedBetween(fromId, lastId,
+                                phase2EditedAfter, phase2EditedBefore, phase2MaxEntries));
+            };
+            final BatchJobRun run = purgeRanges(worker);
+            if (run.outcome() == BatchJobRun.Outcome.FAILED) {
+                throw run.error();
+            }
 
-            // Chain the handlers: Phase1 -> Phase2
-            phase1Handler.setNext(phase2Handler);
+            logger.info("History cleanup completed: Phase 1 removed {} history entries of {} maps, Phase 2 removed {} history entries of {} maps, {} history entries deleted total",
+                    context.getPhase1Deleted(), context.getPhase1Maps(), context.getPhase2Deleted(),
+                    context.getPhase2Maps(), context.getTotalDeleted());
+            return context.getTotalDeleted();
+        } catch (Exception e) {
+            if (e instanceof InterruptedException) {
+                Thread.currentThread().interrupt();
+            }
+            logger.error("History cleanup failed", e);
+            throw new RuntimeException("History cleanup failed", e);
+        }
+    }
 
-        // First, let's check if there are any mindmaps with history at all
+    /**
+     * Purges the mindmap ids in chunks of one range per worker, the workers purging the ranges of a chunk in
+     * parallel. A chunk is complete once all its ranges are, so the job cursor never passes a range not purged.
+     */
+    private BatchJobRun purgeRanges(RangeWorker worker) {
+        final int maxId = mindmapManager.getMaxMindmapId();
+        final int safeRangeSize = Math.max(1, rangeSize);
+        final int threads = Math.max(1, workers);
+        logger.info("Purging history of mindmap ids up to {} in ranges of {} ids on {} workers", maxId,
+                safeRangeSize, threads);
+
+        ExecutorService executor = null;
+        if (threads > 1) {
+            final AtomicInteger threadCount = new AtomicInteger();
+            executor = Executors.newFixedThreadPool(threads, runnable -> {
+                final Thread thread = new Thread(runnable, "HistoryPurge-" + threadCount.incrementAndGet());
+                thread.setDaemon(true);
+                return thread;
+            });
+            runningExecutor = executor;
+        }
+        final ExecutorService chunkExecutor = executor;
         try {
-            List<Integer> sampleMindmapIds = mindmapManager.getMindmapIdsWithHistory(0, 5);
-            logger.debug("Found {} mindmaps with history entries (sample of first 5: {})", 
-                       sampleMindmapIds.size(), sampleMindmapIds);
-            
-            // Also check total mindmaps for debugging
-            long totalMindmaps = mindmapManager.countAllMindmaps();
-            logger.debug("Database stats: {} total mindmaps", totalMindmaps);
-            
-            if (sampleMindmapIds.isEmpty()) {
-                logger.warn("No mindmaps with history found - this is unexpected if history tracking is enabled!");
-                logger.debug("Phase 1 would normally process old mindmaps (3-17 years old), but they need history entries to exist first");
-                logger.debug("Phase 2 would normally process recent mindmaps (newer than 1 year) to limit history entries");
-                return 0;
+            return batchJobRunner.run(JOB_NAME, afterCursor -> {
+                final List<int[]> ranges = new ArrayList<>();
+                for (long afterId = afterCursor; afterId < maxId && ranges.size() < threads; afterId += safeRangeSize) {
+                    ranges.add(new int[]{(int) afterId, (int) Math.min(afterId + safeRangeSize, maxId)});
+                }
+                if (ranges.isEmpty()) {
+                    return BatchJob.Chunk.done(afterCursor);
+                }
+                final int toId = ranges.get(ranges.size() - 1)[1];
+                final RangeCounts counts = new RangeCounts();
+                purgeChunk(ranges, worker, chunkExecutor, counts);
+                return new BatchJob.Chunk(toId, counts.maps.get(), counts.deleted.get(), toId < maxId);
+            });
+        } finally {
+            if (executor != null) {
+                executor.shutdownNow();
+                runningExecutor = null;
             }
-        } catch (Exception e) {
-            logger.error("Error querying mindmaps with history", e);
-            return 0;
         }
-
-        // Process mindmaps in batches using the composed strategies
-        int totalDeleted = processMindmapsWithStrategies(context, phase1Handler);
-        logger.info("History cleanup completed: {} total maps processed, {} Phase 1 maps (history removed), {} Phase 2 maps (history limited), {} maps skipped, {} history entries deleted total", 
-                context.getTotalProcessed(), context.getPhase1Processed(), context.getPhase2Processed(), context.getTotalSkipped(), totalDeleted);
-        return totalDeleted;
-
-    } catch (Exception e) {
-        logger.error("History cleanup failed", e);
-        throw new RuntimeException("History cleanup failed", e);
     }
+
+    private void purgeChunk(List<int[]> ranges, RangeWorker worker, ExecutorService executor, RangeCounts counts)
+            throws Exception {
+        if (executor == null) {
+            for (int[] range : ranges) {
+                worker.purge(range[0], range[1], counts);
+            }
+            return;
+        }
+        if (executor.isShutdown()) {
+            throw new InterruptedException("History cleanup is shutting down");
+        }
+        final List<Future<?>> futures = new ArrayList<>();
+        for (int[] range : ranges) {
+            futures.add(executor.submit(() -> {
+                worker.purge(range[0], range[1], counts);
+                return null;
+            }));
+        }
+        try {
+            for (Future<?> future : futures) {
+                future.get();
+            }
+        } catch (ExecutionException e) {
+            // The whole chunk is retried, purging a range again removes nothing more
+            futures.forEach(future -> future.cancel(true));
+            throw e.getCause() instanceof Exception cause ? cause : e;
+        }
     }
 
     /**
@@ -167,92 +277,60 @@ public class HistoryPurgeService {
     }
 
     /**
-     * Process mindmaps in batches using the composed strategies
-     * 
-     * @param context      the cleanup context
-     * @param firstHandler the first handler in the chain
-     * @return total number of history entries deleted
+     * Purges the history of the maps of an id range last modified in a date range, a batch of map ids at a time.
+     * Each batch is one query for the next ids and one delete for their history, whatever the number of maps and
+     * entries.
+     *
+     * @param phase        the phase number, for logging and statistics
+     * @param afterId      exclusive lower bound of the id range
+     * @param toId         inclusive upper bound of the id range
+     * @param editedAfter  exclusive lower bound of the last modification time
+     * @param editedBefore exclusive upper bound of the last modification time
+     * @param purge        deletes the history of the maps in an id range, returning the number of entries removed
      */
-    private int processMindmapsWithStrategies(HistoryCleanupContext context, HistoryCleanupHandler firstHandler) {
-        int offset = 0;
+    private void purgePhase(HistoryCleanupContext context, RangeCounts counts, int phase, int afterId, int toId,
+                            Calendar editedAfter, Calendar editedBefore, AdaptiveThrottle throttle, BatchPurge purge)
+            throws InterruptedException {
+        IdPage page = new IdPage(afterId, context.getBatchSize());
         List<Integer> mindmapIds;
-
         do {
-            // Get a batch of unique mindmap IDs that have history
-            logger.debug("Fetching batch of mindmaps with history - offset: {}, batchSize: {}", offset, context.getBatchSize());
-            mindmapIds = mindmapManager.getMindmapIdsWithHistory(offset, context.getBatchSize());
-            logger.debug("Retrieved {} mindmap IDs in this batch", mindmapIds.size());
-
-            for (Integer mindmapId : mindmapIds) {
-                context.incrementProcessed();
-
-                Calendar lastModificationTime = mindmapManager.getMindmapLastModificationTime(mindmapId);
-
-                if (lastModificationTime != null) {
-                    logger.debug("Processing mindmap {} with lastModificationTime: {}", mindmapId, lastModificationTime.getTime());
-                    // Process through the chain of responsibility
-                    int deleted = processMindmapThroughChain(context, firstHandler, mindmapId, lastModificationTime);
-                    context.addDeleted(deleted);
-                    if (deleted > 0) {
-                        logger.debug("Deleted {} history entries for mindmap {}", deleted, mindmapId);
-                    } else {
-                        logger.debug("No history entries deleted for mindmap {} - no phase could handle it", mindmapId);
-                    }
+            // Paged by id, a map whose history is removed in this batch must not shift the next page
+            mindmapIds = mindmapManager.findMindmapIdsWithHistoryEditedBetween(editedAfter, editedBefore, toId, page);
+            if (!mindmapIds.isEmpty()) {
+                throttle.acquire();
+                final long start = System.nanoTime();
+                final int deleted = purge.apply(page.afterId(), mindmapIds.get(mindmapIds.size() - 1));
+                throttle.record(System.nanoTime() - start);
+                counts.maps.addAndGet(mindmapIds.size());
+                counts.deleted.addAndGet(deleted);
+                if (phase == 1) {
+                    context.addPhase1Batch(mindmapIds.size(), deleted);
                 } else {
-                    logger.debug("Skipping mindmap {} - no lastModificationTime", mindmapId);
-                    context.incrementSkipped();
+                    context.addPhase2Batch(mindmapIds.size(), deleted);
                 }
+                logger.debug("Phase {} batch: {} maps after id {}, {} history entries deleted, next pause {}ms",
+                        phase, mindmapIds.size(), page.afterId(), deleted, throttle.getPauseMs());
             }
+            page = page.after(mindmapIds);
+        } while (page.isFull(mindmapIds));
+    }
 
-            // Log progress after each batch
-            logger.info("Batch completed: {} total maps processed so far, {} Phase 1, {} Phase 2, {} skipped, {} history entries deleted", 
-                    context.getTotalProcessed(), context.getPhase1Processed(), context.getPhase2Processed(), 
-                    context.getTotalSkipped(), context.getTotalDeleted());
-
-            offset += context.getBatchSize();
-        } while (mindmapIds.size() == context.getBatchSize()); // Continue while we get a full batch
-
-        logger.debug("Two-phase history cleanup batch processing completed: processed={}, skipped={}, deleted={}",
-                context.getTotalProcessed(), context.getTotalSkipped(), context.getTotalDeleted());
+    @FunctionalInterface
+    private interface BatchPurge {
+        int apply(int afterId, int toId);
+    }
 
-        return context.getTotalDeleted();
+    @FunctionalInterface
+    private interface RangeWorker {
+        void purge(int afterId, int toId, RangeCounts counts) throws InterruptedException;
     }
 
     /**
-     * Process a mindmap through the chain of responsibility handlers.
-     * 
-     * @param context              the cleanup context
-     * @param firstHandler         the first handler in the chain
-     * @param mindmapId            the mindmap ID
-     * @param lastModificationTime the last modification time
-     * @return number of history entries deleted
+     * Maps and history entries purged by the ranges of a chunk.
      */
-    private int processMindmapThroughChain(HistoryCleanupContext context, HistoryCleanupHandler firstHandler, int mindmapId,
-            Calendar lastModificationTime) {
-        HistoryCleanupHandler currentHandler = firstHandler;
-        int handlerIndex = 1; // 1 for Phase1, 2 for Phase2
-
-        while (currentHandler != null) {
-            if (currentHandler.canHandle(mindmapId, lastModificationTime)) {
-                int deleted = currentHandler.processCleanup(mindmapId, lastModificationTime);
-                // Track which phase processed this map
-                if (handlerIndex == 1) {
-                    context.incrementPhase1Processed();
-                } else if (handlerIndex == 2) {
-                    context.incrementPhase2Processed();
-                }
-                return deleted;
-            }
-            // Move to next handler in the chain
-            if (currentHandler instanceof AbstractHistoryCleanupHandler) {
-                currentHandler = ((AbstractHistoryCleanupHandler) currentHandler).getNext();
-                handlerIndex++;
-            } else {
-                break; // No more handlers in the chain
-            }
-        }
-
-        return 0; // No handler could process this mindmap
+    private static final class RangeCounts {
+        private final AtomicInteger maps = new AtomicInteger();
+        private final AtomicInteger deleted = new AtomicInteger();
     }
 
     private int resolveBatchSize() {
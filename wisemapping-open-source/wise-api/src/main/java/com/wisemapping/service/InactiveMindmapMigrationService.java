@@ -19,11 +19,15 @@
 package com.wisemapping.service;
 
 import com.wisemapping.dao.InactiveMindmapManager;
+import com.wisemapping.dao.IdPage;
 import com.wisemapping.dao.MindmapManager;
 import com.wisemapping.dao.UserManager;
 import com.wisemapping.model.Account;
 import com.wisemapping.model.InactiveMindmap;
 import com.wisemapping.model.Mindmap;
+import com.wisemapping.service.batch.BatchJob;
+import com.wisemapping.service.batch.BatchJobRun;
+import com.wisemapping.service.batch.BatchJobRunner;
 import org.jetbrains.annotations.NotNull;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -31,7 +35,6 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
-import org.springframework.transaction.support.TransactionTemplate;
 
 import java.util.Calendar;
 import java.util.List;
@@ -44,10 +47,14 @@ import java.util.List;
 public class InactiveMindmapMigrationService {
 
     private static final Logger logger = LoggerFactory.getLogger(InactiveMindmapMigrationService.class);
+    private static final String JOB_NAME = "inactive-mindmap-migration";
 
     @Autowired
     private MindmapManager mindmapManager;
 
+    @Autowired
+    private BatchJobRunner batchJobRunner;
+
     @Autowired
     private UserManager userManager;
 
@@ -57,9 +64,6 @@ public class InactiveMindmapMigrationService {
     @Autowired
     private MetricsService metricsService;
 
-    @Autowired
-    private TransactionTemplate transactionTemplate;
-
     @Autowired
     private jakarta.persistence.EntityManager entityManager;
 
@@ -93,38 +97,31 @@ public class InactiveMindmapMigrationService {
                 "Starting inactive mindmap migration process - user batch size: {}, mindmap batch size: {}, dry run: {}",
                 batchSize, mindmapBatchSize, dryRun);
 
-        // Process suspended users in memory-efficient batches
-        int offset = 0;
-        int totalMigrated = 0;
-        int totalUsersProcessed = 0;
-        int batchNumber = 1;
-
         logger.info("Starting memory-efficient batch processing of users suspended for inactivity (batch size: {})",
                 batchSize);
 
-        while (true) {
+        // Process suspended users in memory-efficient batches, paged by user id, each batch being a chunk of the job
+        final BatchJobRun run = batchJobRunner.run(JOB_NAME, afterCursor -> {
             // Load only the current batch of users suspended for inactivity to minimize
             // memory usage
-            List<Account> batch = userManager.findUsersSuspendedForInactivity(offset, batchSize);
+            final IdPage page = new IdPage((int) afterCursor, batchSize);
+            List<Account> batch = userManager.findUsersSuspendedForInactivity(page);
 
             if (batch.isEmpty()) {
-                break; // No more users to process
+                return BatchJob.Chunk.done(afterCursor); // No more users to process
             }
 
-            logger.debug("Processing batch {}: {} users suspended for inactivity (offset: {})", batchNumber,
-                    batch.size(), offset);
+            logger.debug("Processing batch: {} users suspended for inactivity (after user id: {})",
+                    batch.size(), page.afterId());
 
             int batchMigrated = processBatch(batch);
-            totalMigrated += batchMigrated;
-            totalUsersProcessed += batch.size();
-
-            logger.debug("Completed batch {}: migrated {} mindmaps from {} users",
-                    batchNumber, batchMigrated, batch.size());
 
-            // Move to next batch
-            offset += batchSize;
-            batchNumber++;
-        }
+            logger.debug("Completed batch: migrated {} mindmaps from {} users", batchMigrated, batch.size());
+            return new BatchJob.Chunk(batch.get(batch.size() - 1).getId(), batch.size(), batchMigrated,
+                    page.isFull(batch));
+        });
+        int totalMigrated = (int) run.affected();
+        int totalUsersProcessed = (int) run.processed();
 
         if (totalUsersProcessed == 0) {
             logger.info("No users suspended for inactivity found for mindmap migration");
@@ -182,106 +179,55 @@ public class InactiveMindmapMigrationService {
 
     /**
      * Process mindmaps for a single user using ID-based pagination to prevent OOM.
-     * Loads mindmap IDs first, then loads entities in small batches as needed.
+     * Each batch of IDs is moved with set-based statements in its own transaction, without loading the maps.
      * 
      * @param user the user whose mindmaps are being migrated
      * @return number of mindmaps migrated for this user
      */
     private int processUserMindmapsByPagination(Account user) {
         int userMigrated = 0;
-        int offset = 0;
+        IdPage page = IdPage.first(mindmapBatchSize);
+        final String migrationReason = "User suspended for at least " + minimumSuspensionDays + " days";
 
-        // Process mindmap IDs in batches to avoid loading all entities into memory
+        // Migrated maps are deleted from the table being paged, so batches are paged by id instead of offset.
         while (true) {
-            List<Integer> mindmapIds = mindmapManager.findMindmapIdsByCreator(user.getId(), offset, mindmapBatchSize);
+            List<Integer> mindmapIds = mindmapManager.findMindmapIdsByCreator(user.getId(), page);
 
             if (mindmapIds.isEmpty()) {
                 break; // No more mindmaps to process
             }
 
-            logger.debug("Processing mindmap batch {}-{} ({} IDs) for user {} (ID: {})",
-                    offset + 1, offset + mindmapIds.size(), mindmapIds.size(), user.getEmail(), user.getId());
+            logger.debug("Processing mindmap batch after ID {} ({} IDs) for user {} (ID: {})",
+                    page.afterId(), mindmapIds.size(), user.getEmail(), user.getId());
 
-            // Load and migrate mindmaps for this batch of IDs
-            for (Integer mindmapId : mindmapIds) {
+            if (!dryRun) {
                 try {
-                    Mindmap mindmap = mindmapManager.getMindmapById(mindmapId);
-                    if (mindmap == null) {
-                        logger.debug("Mindmap {} no longer exists, skipping", mindmapId);
-                        continue;
-                    }
-
-                    // Migrate this mindmap
-                    if (!dryRun) {
-                        boolean migrated = migrateSingleMindmap(mindmap, user);
-                        if (migrated) {
-                            userMigrated++;
-                        }
-                    } else {
-                        logger.debug("DRY RUN: Would migrate mindmap '{}' (ID: {}) for inactive user {}",
-                                mindmap.getTitle(), mindmapId, user.getEmail());
-                        userMigrated++;
-                    }
+                    final List<Integer> migrated = mindmapManager.moveMindmapsToInactive(user.getId(), mindmapIds,
+                            migrationReason);
+                    userMigrated += migrated.size();
+                    logger.debug("Migrated mindmaps {} for inactive user {}", migrated, user.getEmail());
                 } catch (Exception e) {
-                    logger.error("Failed to migrate mindmap {} for user {} - continuing",
-                            mindmapId, user.getEmail(), e);
+                    logger.error("Failed to migrate mindmaps {} for user {} - continuing",
+                            mindmapIds, user.getEmail(), e);
                 }
+            } else {
+                logger.debug("DRY RUN: Would migrate mindmaps {} for inactive user {}", mindmapIds, user.getEmail());
+                userMigrated += mindmapIds.size();
             }
 
-            offset += mindmapBatchSize;
+            page = page.after(mindmapIds);
         }
 
         return userMigrated;
     }
 
-    /**
-     * Migrate a single mindmap for an inactive user.
-     * 
-     * @param mindmap the mindmap to migrate
-     * @param user    the inactive user
-     * @return true if migration was successful
-     */
-    private boolean migrateSingleMindmap(Mindmap mindmap, Account user) {
-        final int mindmapId = mindmap.getId();
-        final String mindmapTitle = mindmap.getTitle();
-
-        Boolean migrated = transactionTemplate.execute(status -> {
-            // Reload the mindmap within the transaction to avoid detached entity issues
-            Mindmap managedMindmap = mindmapManager.getMindmapById(mindmapId);
-
-            // Check if mindmap still exists (may have been deleted by another process)
-            if (managedMindmap == null) {
-                logger.warn("Mindmap with ID {} no longer exists, skipping migration", mindmapId);
-                return false;
-            }
-
-            // Create inactive mindmap record using InactiveMindmapManager
-            InactiveMindmap inactiveMindmap = new InactiveMindmap(
-                    managedMindmap,
-                    "User suspended for at least " + minimumSuspensionDays + " days");
-            inactiveMindmapManager.addInactiveMindmap(inactiveMindmap);
-
-            // Remove the original mindmap using MindmapManager
-            mindmapManager.removeMindmap(managedMindmap);
-
-            return true;
-        });
-
-        // Only count and log if migration was successful
-        if (Boolean.TRUE.equals(migrated)) {
-            logger.debug("Migrated mindmap '{}' (ID: {}) for inactive user {}",
-                    mindmapTitle, mindmapId, user.getEmail());
-            return true;
-        }
-
-        return false;
-    }
-
     /**
      * Restore mindmaps for a reactivated user by moving them back from inactive
      * table to active table.
      * This method should be called when an admin reactivates a previously suspended
-     * user.
+     * user. Batches of inactive mindmaps are restored under their original IDs with
+     * set-based statements; a mindmap whose original ID has been taken since is
+     * restored as a new mindmap.
      * 
      * @param user the user being reactivated
      * @return number of mindmaps restored
@@ -292,49 +238,69 @@ public class InactiveMindmapMigrationService {
 
         logger.info("Restoring mindmaps for reactivated user: email={}, id={}", user.getEmail(), user.getId());
 
-        // Find all inactive mindmaps for this user
-        List<InactiveMindmap> inactiveMindmaps = inactiveMindmapManager.findByCreator(user);
-
-        if (inactiveMindmaps.isEmpty()) {
-            logger.debug("User {} has no inactive mindmaps to restore", user.getEmail());
-            return 0;
-        }
-
         int restoredCount = 0;
+        IdPage page = IdPage.first(mindmapBatchSize);
 
-        for (InactiveMindmap inactiveMindmap : inactiveMindmaps) {
-            try {
-                // Create a new active mindmap from the inactive one
-                Mindmap restoredMindmap = createMindmapFromInactive(inactiveMindmap, user);
-
-                // Save the restored mindmap using MindmapManager
-                mindmapManager.addMindmap(user, restoredMindmap);
+        // Restored rows are deleted from the table being paged, so batches are paged by id
+        while (true) {
+            final List<Integer> inactiveMindmapIds = inactiveMindmapManager.findIdsByCreator(user.getId(), page);
+            if (inactiveMindmapIds.isEmpty()) {
+                break;
+            }
 
-                // Remove the inactive mindmap record
-                inactiveMindmapManager.removeInactiveMindmap(inactiveMindmap);
+            final List<Integer> restored = mindmapManager.restoreInactiveMindmaps(user.getId(), inactiveMindmapIds);
+            restoredCount += restored.size();
+            logger.debug("Restored inactive mindmaps {} for reactivated user {}", restored, user.getEmail());
 
-                restoredCount++;
+            for (Integer inactiveMindmapId : inactiveMindmapIds) {
+                if (!restored.contains(inactiveMindmapId) && restoreAsNewMindmap(inactiveMindmapId, user)) {
+                    restoredCount++;
+                }
+            }
 
-                logger.debug("Restored mindmap '{}' (original ID: {}) for reactivated user {}",
-                        restoredMindmap.getTitle(), inactiveMindmap.getOriginalMindmapId(), user.getEmail());
+            page = page.after(inactiveMindmapIds);
+        }
 
-            } catch (Exception e) {
-                logger.error("Failed to restore mindmap '{}' for user {} - continuing with other mindmaps",
-                        inactiveMindmap.getTitle(), user.getEmail(), e);
-            }
+        if (restoredCount == 0) {
+            logger.debug("User {} has no inactive mindmaps to restore", user.getEmail());
+            return 0;
         }
 
         logger.info("Restored {} mindmaps for reactivated user: email={}, id={}",
                 restoredCount, user.getEmail(), user.getId());
 
         // Track telemetry for restoration
-        if (restoredCount > 0) {
-            metricsService.trackInactiveMindmapMigration(1, -restoredCount); // Negative count indicates restoration
-        }
+        metricsService.trackInactiveMindmapMigration(1, -restoredCount); // Negative count indicates restoration
 
         return restoredCount;
     }
 
+    /**
+     * Restore an inactive mindmap whose original ID is no longer available as a new mindmap.
+     * 
+     * @return true if the mindmap was restored
+     */
+    private boolean restoreAsNewMindmap(int inactiveMindmapId, @NotNull Account user) {
+        final InactiveMindmap inactiveMindmap = entityManager.find(InactiveMindmap.class, inactiveMindmapId);
+        if (inactiveMindmap == null) {
+            return false;
+        }
+        try {
+            Mindmap restoredMindmap = createMindmapFromInactive(inactiveMindmap, user);
+            mindmapManager.addMindmap(user, restoredMindmap);
+            inactiveMindmapManager.removeInactiveMindmap(inactiveMindmap);
+
+            logger.debug("Restored mindmap '{}' (original ID: {}) as new mindmap {} for reactivated user {}",
+                    restoredMindmap.getTitle(), inactiveMindmap.getOriginalMindmapId(), restoredMindmap.getId(),
+                    user.getEmail());
+            return true;
+        } catch (Exception e) {
+            logger.error("Failed to restore mindmap '{}' for user {} - continuing with other mindmaps",
+                    inactiveMindmap.getTitle(), user.getEmail(), e);
+            return false;
+        }
+    }
+
     /**
      * Create a new active Mindmap from an InactiveMindmap record.
      * 
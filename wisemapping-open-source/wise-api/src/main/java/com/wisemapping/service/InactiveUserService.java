@@ -18,11 +18,18 @@
 
 package com.wisemapping.service;
 
+import com.wisemapping.dao.BatchJobManager;
+import com.wisemapping.dao.IdPage;
 import com.wisemapping.dao.MindmapManager;
 import com.wisemapping.dao.UserManager;
 import com.wisemapping.model.Account;
+import com.wisemapping.model.BatchJobState;
+import com.wisemapping.model.BatchJobStatus;
 import com.wisemapping.model.InactiveUserResult;
 import com.wisemapping.model.SuspensionReason;
+import com.wisemapping.service.batch.BatchJob;
+import com.wisemapping.service.batch.BatchJobRun;
+import com.wisemapping.service.batch.BatchJobRunner;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -33,13 +40,18 @@ import org.springframework.transaction.annotation.Transactional;
 import jakarta.persistence.EntityManager;
 import jakarta.persistence.TypedQuery;
 
+import java.util.ArrayList;
 import java.util.Calendar;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Set;
 
 @Service
 public class InactiveUserService {
 
     private static final Logger logger = LoggerFactory.getLogger(InactiveUserService.class);
+    private static final String JOB_NAME = "inactive-user-suspension";
+    private static final String BACKFILL_JOB_NAME = "account-activity-backfill";
 
     @Autowired
     private EntityManager entityManager;
@@ -53,6 +65,12 @@ public class InactiveUserService {
     @Autowired
     private MetricsService metricsService;
 
+    @Autowired
+    private BatchJobRunner batchJobRunner;
+
+    @Autowired
+    private BatchJobManager batchJobManager;
+
     @Value("${app.batch.inactive-user-suspension.inactivity-years:7}")
     private int inactivityYears;
 
@@ -69,6 +87,11 @@ public class InactiveUserService {
         logger.info("Starting inactive user suspension process - inactivity threshold: {} years, grace period: {} years, batch size: {}, dry run: {}",
                 inactivityYears, gracePeriodYears, batchSize, dryRun);
 
+        if (!backfillLastActivity()) {
+            logger.warn("Inactive user suspension skipped: the last activity of existing accounts is not filled yet");
+            return;
+        }
+
         Calendar cutoffDate = Calendar.getInstance();
         cutoffDate.add(Calendar.YEAR, -inactivityYears);
 
@@ -93,29 +116,21 @@ public class InactiveUserService {
             logger.warn("Could not compute count of inactive users prior to processing", e);
         }
 
-        int totalProcessed = 0;
-        int totalSuspended = 0;
-        int offset = 0;
-
-        while (true) {
-            List<InactiveUserResult> inactiveUsers = userManager.findInactiveUsersWithActivity(cutoffDate, creationCutoffDate, offset, batchSize);
+        // Paged by user id, so the same paging works whether the users of a batch are suspended or, in dry run
+        // mode, left in the result set
+        final BatchJobRun run = batchJobRunner.run(JOB_NAME, afterCursor -> {
+            final IdPage page = new IdPage((int) afterCursor, batchSize);
+            List<InactiveUserResult> inactiveUsers = userManager.findInactiveUsersWithActivity(cutoffDate, creationCutoffDate, page);
             if (inactiveUsers.isEmpty()) {
-                break;
+                return BatchJob.Chunk.done(afterCursor);
             }
 
             BatchResult result = processBatch(inactiveUsers);
-            totalProcessed += result.processed;
-            totalSuspended += result.suspended;
-
-            // Only increment offset if in dry run mode, otherwise suspended users are filtered out
-            if (dryRun) {
-                offset += batchSize;
-            }
-
-            if (inactiveUsers.size() < batchSize) {
-                break;
-            }
-        }
+            return new BatchJob.Chunk(inactiveUsers.get(inactiveUsers.size() - 1).getUser().getId(),
+                    result.processed, result.suspended, page.isFull(inactiveUsers));
+        });
+        int totalProcessed = (int) run.processed();
+        int totalSuspended = (int) run.affected();
 
         logger.info("Inactive user suspension process completed - Total processed: {}, Total suspended: {}",
                 totalProcessed, totalSuspended);
@@ -127,52 +142,45 @@ public class InactiveUserService {
 
     @Transactional
     public BatchResult processBatch(List<InactiveUserResult> inactiveUsers) {
-        int batchProcessed = 0;
-        int batchSuspended = 0;
+        if (dryRun) {
+            for (InactiveUserResult result : inactiveUsers) {
+                logInactiveUser("DRY RUN - Would suspend user due to inactivity", result);
+            }
+            metricsService.trackInactiveUserDryRunCandidates(inactiveUsers.size());
+            logger.debug("Batch completed - Processed: {}, Would suspend: {}", inactiveUsers.size(), inactiveUsers.size());
+            return new BatchResult(inactiveUsers.size(), inactiveUsers.size());
+        }
 
+        // One update for the whole batch; a user suspended meanwhile is left as is
+        final Set<Integer> suspendedIds = new HashSet<>(userManager.suspendUsers(
+                inactiveUsers.stream().map(result -> result.getUser().getId()).toList(),
+                SuspensionReason.INACTIVITY));
+        final List<Account> suspendedUsers = new ArrayList<>();
         for (InactiveUserResult result : inactiveUsers) {
-            try {
-                Account user = result.getUser();
-                Calendar lastLogin = result.getLastLogin();
-                Calendar lastContentActivity = result.getLastActivity();
-
-                if (dryRun) {
-                    logger.info(
-                            "DRY RUN - Would suspend user due to inactivity: email={}, id={}, creationDate={}, lastLogin={}, lastContentActivity={}",
-                            user.getEmail(), user.getId(),
-                            user.getCreationDate() != null ? user.getCreationDate().getTime() : null,
-                            lastLogin != null ? lastLogin.getTime() : null,
-                            lastContentActivity != null ? lastContentActivity.getTime() : null);
-                    
-                    // Track dry run telemetry
-                    metricsService.trackInactiveUserDryRunCandidates(1);
-                    batchSuspended++; // Count as would-be suspended for dry run metrics
-                } else {
-                    suspendInactiveUser(user);
-
-                    metricsService.trackUserSuspension(user, "inactivity");
-                    logger.info(
-                            "Suspended user due to inactivity: email={}, id={}, creationDate={}, lastLogin={}, lastContentActivity={}",
-                            user.getEmail(), user.getId(),
-                            user.getCreationDate() != null ? user.getCreationDate().getTime() : null,
-                            lastLogin != null ? lastLogin.getTime() : null,
-                            lastContentActivity != null ? lastContentActivity.getTime() : null);
-                    batchSuspended++;
-                }
-                batchProcessed++;
-            } catch (Exception e) {
-                logger.error("Failed to process inactive user: {} (ID: {}) - continuing with batch",
-                        result.getUser().getEmail(), result.getUser().getId(), e);
-                // Continue processing other users in the batch rather than failing the entire batch
+            if (suspendedIds.contains(result.getUser().getId())) {
+                suspendedUsers.add(result.getUser());
+                logInactiveUser("Suspended user due to inactivity", result);
             }
         }
+        metricsService.trackUserSuspensions(suspendedUsers, "inactivity");
+
+        logger.debug("Batch completed - Processed: {}, Suspended: {}", inactiveUsers.size(), suspendedUsers.size());
 
-        logger.debug("Batch completed - Processed: {}, Suspended: {}", batchProcessed, batchSuspended);
-        
         // Track batch-level telemetry
-        metricsService.trackInactiveUserBatchSuspension(batchSuspended);
-        
-        return new BatchResult(batchProcessed, batchSuspended);
+        metricsService.trackInactiveUserBatchSuspension(suspendedUsers.size());
+
+        return new BatchResult(inactiveUsers.size(), suspendedUsers.size());
+    }
+
+    private void logInactiveUser(String message, InactiveUserResult result) {
+        final Account user = result.getUser();
+        final Calendar lastLogin = result.getLastLogin();
+        final Calendar lastContentActivity = result.getLastActivity();
+        logger.info("{}: email={}, id={}, creationDate={}, lastLogin={}, lastContentActivity={}",
+                message, user.getEmail(), user.getId(),
+                user.getCreationDate() != null ? user.getCreationDate().getTime() : null,
+                lastLogin != null ? lastLogin.getTime() : null,
+                lastContentActivity != null ? lastContentActivity.getTime() : null);
     }
 
     public static class BatchResult {
@@ -197,7 +205,38 @@ public class InactiveUserService {
         logger.debug("User {} suspended due to inactivity", user.getEmail());
     }
 
+    /**
+     * Fills the last activity of the accounts that existed before it was recorded, from their logins and maps.
+     * Runs once: until it completes those accounts look inactive, so the inactivity queries wait for it.
+     *
+     * @return true if the last activity of every account is filled
+     */
+    public boolean backfillLastActivity() {
+        final BatchJobState state = batchJobManager.findJobState(BACKFILL_JOB_NAME);
+        if (state != null && state.getStatus() == BatchJobStatus.COMPLETED) {
+            return true;
+        }
+        logger.info("Filling the last activity of existing accounts (batch size: {})", batchSize);
+        final BatchJobRun run = batchJobRunner.run(BACKFILL_JOB_NAME, afterCursor -> {
+            final IdPage page = new IdPage((int) afterCursor, batchSize);
+            final List<Integer> accountIds = userManager.findAccountIds(page);
+            if (accountIds.isEmpty()) {
+                return BatchJob.Chunk.done(afterCursor);
+            }
+            final int lastId = accountIds.get(accountIds.size() - 1);
+            final int updated = userManager.backfillLastActivity(page.afterId(), lastId);
+            return new BatchJob.Chunk(lastId, accountIds.size(), updated, page.isFull(accountIds));
+        });
+        logger.info("Last activity backfill {}: {} accounts checked, {} updates", run.outcome(), run.processed(),
+                run.affected());
+        return run.isCompleted();
+    }
+
     public void previewInactiveUsers() {
+        if (!backfillLastActivity()) {
+            logger.warn("Inactive user preview skipped: the last activity of existing accounts is not filled yet");
+            return;
+        }
         Calendar cutoffDate = Calendar.getInstance();
         cutoffDate.add(Calendar.YEAR, -inactivityYears);
 
@@ -265,23 +304,22 @@ public class InactiveUserService {
     }
 
     /**
-     * Enhanced JPA approach: Bulk update using entity state management
-     * This method demonstrates JPA's ability to handle bulk operations efficiently
+     * Suspends a batch of inactive users with a single update per chunk of ids. Nothing is suspended until the
+     * last activity of existing accounts is filled, as every old account would look inactive before that.
      */
     @Transactional
     public int bulkSuspendInactiveUsers(Calendar cutoffDate, Calendar creationCutoffDate, int batchSize) {
+        if (!backfillLastActivity()) {
+            logger.warn("Bulk inactive user suspension skipped: the last activity of existing accounts is not filled yet");
+            return 0;
+        }
         // Use UserManager for JPA-oriented data access
         List<Account> usersToSuspend = userManager.findUsersInactiveSince(cutoffDate, creationCutoffDate, 0, batchSize);
-        
-        int suspendedCount = 0;
-        for (Account user : usersToSuspend) {
-            // Use userManager.updateUser for reliable entity state management
-            user.setSuspended(true);
-            user.setSuspensionReason(SuspensionReason.INACTIVITY);
-            userManager.updateUser(user);
-            suspendedCount++;
-        }
-        
-        return suspendedCount;
+
+        final Set<Integer> suspendedIds = new HashSet<>(userManager.suspendUsers(
+                usersToSuspend.stream().map(Account::getId).toList(), SuspensionReason.INACTIVITY));
+        metricsService.trackUserSuspensions(
+                usersToSuspend.stream().filter(user -> suspendedIds.contains(user.getId())).toList(), "inactivity");
+        return suspendedIds.size();
     }
 }
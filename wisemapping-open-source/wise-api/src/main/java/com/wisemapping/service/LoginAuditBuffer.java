@@ -0,0 +1,171 @@
+/*
+ *    Copyright [2007-2025] [wisemapping]
+ *
+ *   Licensed under WiseMapping Public License, Version 1.0 (the "License").
+ *   It is basically the Apache License, Version 2.0 (the "License") plus the
+ *   "powered by wisemapping" text requirement on every single page;
+ *   you may not use this file except in compliance with the License.
+ *   You may obtain a copy of the license at
+ *
+ *       https://github.com/wisemapping/wisemapping-open-source/blob/main/LICENSE.md
+ *
+ *   Unless required by applicable law or agreed to in writing, software
+ *   distributed under the License is distributed on an "AS IS" BASIS,
+ *   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *   See the License for the specific language governing permissions and
+ *   limitations under the License.
+ */
+
+package com.wisemapping.service;
+
+import com.wisemapping.dao.UserManager;
+import com.wisemapping.model.AccessAuditory;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.jetbrains.annotations.NotNull;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Buffers the login audit entries and writes them in batches, so a login does not wait for its audit row. The
+ * buffer is flushed every configured interval, as soon as it holds a batch of entries, and when the node stops.
+ *
+ * The buffer is bounded: above its capacity the login thread writes the buffered entries itself. Once the node
+ * stops, logins are written right away. A batch that cannot be written is retried one entry at a time, so one
+ * bad entry does not lose the others; entries that still fail are dropped with a warning, auditing being best
+ * effort.
+ */
+@Service
+public class LoginAuditBuffer {
+
+    private static final Logger logger = LoggerFactory.getLogger(LoginAuditBuffer.class);
+
+    @Value("${app.accounts.login-audit.write-behind:true}")
+    private boolean enabled;
+
+    @Value("${app.accounts.login-audit.flush-interval-ms:2000}")
+    private long flushIntervalMs;
+
+    @Value("${app.accounts.login-audit.flush-size:200}")
+    private int flushSize;
+
+    @Value("${app.accounts.login-audit.capacity:10000}")
+    private int capacity;
+
+    @Autowired
+    private UserManager userManager;
+
+    private ScheduledExecutorService executor;
+    private volatile boolean stopped;
+
+    private final Queue<AccessAuditory> pending = new ConcurrentLinkedQueue<>();
+    private final AtomicInteger pendingCount = new AtomicInteger();
+    // Flushes run one at a time, so entries are written in the order of the logins
+    private final Object flushLock = new Object();
+
+    @PostConstruct
+    public void init() {
+        if (!enabled) {
+            return;
+        }
+        executor = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            final Thread thread = new Thread(runnable, "LoginAudit");
+            thread.setDaemon(true);
+            return thread;
+        });
+        final long interval = Math.max(1, flushIntervalMs);
+        executor.scheduleWithFixedDelay(this::flush, interval, interval, TimeUnit.MILLISECONDS);
+        logger.info("Login audit is written behind: flushIntervalMs={}, flushSize={}, capacity={}", interval,
+                flushSize, capacity);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        stopped = true;
+        if (executor != null) {
+            executor.shutdown();
+            try {
+                executor.awaitTermination(5, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+        flush();
+    }
+
+    /**
+     * Audits a login, writing it right away when the buffer is disabled or stopped.
+     */
+    public void add(@NotNull AccessAuditory accessAuditory) {
+        if (executor == null || stopped) {
+            userManager.auditLogin(accessAuditory);
+            return;
+        }
+        pending.add(accessAuditory);
+        final int count = pendingCount.incrementAndGet();
+        if (stopped || count >= capacity) {
+            // The writes fall behind the logins, or the node stopped while adding and its last flush may be
+            // over already: the login thread writes them
+            flush();
+        } else if (count == flushSize) {
+            try {
+                executor.execute(this::flush);
+            } catch (RejectedExecutionException e) {
+                // Stopping, the shutdown flush writes it
+            }
+        }
+    }
+
+    /**
+     * Writes the buffered entries, one batch at a time.
+     */
+    public void flush() {
+        synchronized (flushLock) {
+            final int batchSize = Math.max(1, flushSize);
+            while (true) {
+                final List<AccessAuditory> batch = new ArrayList<>(Math.min(batchSize, pendingCount.get()));
+                for (AccessAuditory entry = pending.poll(); entry != null; entry = pending.poll()) {
+                    batch.add(entry);
+                    if (batch.size() == batchSize) {
+                        break;
+                    }
+                }
+                if (batch.isEmpty()) {
+                    return;
+                }
+                pendingCount.addAndGet(-batch.size());
+                try {
+                    userManager.auditLogins(batch);
+                } catch (Exception e) {
+                    logger.debug("Batched login audit write failed, writing {} entries one by one: {}", batch.size(),
+                            e.getMessage(), e);
+                    for (AccessAuditory entry : batch) {
+                        try {
+                            userManager.auditLogin(entry);
+                        } catch (Exception entryException) {
+                            logger.warn("Could not write the login audit entry of user {}: {}",
+                                    entry.getUser().getId(), entryException.getMessage());
+                        }
+                    }
+                }
+            }
+        }
+    }
+
+    int getPendingCount() {
+        return pendingCount.get();
+    }
+}
@@ -20,9 +20,12 @@ package com.wisemapping.service;
 
 import com.wisemapping.model.Account;
 import com.wisemapping.model.Mindmap;
+import com.wisemapping.model.SpamStrategyType;
 import com.wisemapping.service.spam.SpamDetectionResult;
 import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
 import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
 import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
 import org.slf4j.Logger;
@@ -30,6 +33,13 @@ import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
+
 /**
  * Centralized service for managing application telemetry metrics using Micrometer with OpenTelemetry.
  * This service provides methods to track key business metrics including:
@@ -61,12 +71,21 @@ public class MetricsService {
     private static final String SPAM_ANALYZED = "wisemapping.api.spam.analyzed";
     private static final String SPAM_DETECTED = "wisemapping.api.spam.detected";
     private static final String SPAM_PREVENTED = "wisemapping.api.spam.prevented";
+    private static final String SPAM_BUDGET_EXCEEDED = "wisemapping.api.spam.budget_exceeded";
     private static final String INACTIVE_USERS_PROCESSED = "wisemapping.api.inactive_users.processed";
     private static final String INACTIVE_USERS_SUSPENDED = "wisemapping.api.inactive_users.suspended";
     private static final String INACTIVE_USERS_BATCH_SUSPENDED = "wisemapping.api.inactive_users.batch_suspended";
     private static final String INACTIVE_USERS_DRY_RUN_CANDIDATES = "wisemapping.api.inactive_users.dry_run_candidates";
     private static final String INACTIVE_MINDMAPS_MIGRATED = "wisemapping.api.inactive_mindmaps.migrated";
     private static final String INACTIVE_MINDMAPS_USERS_PROCESSED = "wisemapping.api.inactive_mindmaps.users_processed";
+    private static final String MINDMAP_DOCUMENT_READS = "wisemapping.api.mindmaps.document_reads";
+    private static final String SPAM_BATCH_MAPS = "wisemapping.api.spam.batch.maps";
+    private static final String SPAM_BATCH_DURATION = "wisemapping.api.spam.batch.duration";
+    private static final String SPAM_STRATEGY_DURATION = "wisemapping.api.spam.strategy.duration";
+    private static final String SPAM_STRATEGY_HITS = "wisemapping.api.spam.strategy.hits";
+    private static final String SPAM_ASYNC_ANALYSES = "wisemapping.api.spam.async.analyses";
+    private static final String SPAM_ASYNC_WAIT = "wisemapping.api.spam.async.wait";
+    private static final String SPAM_ASYNC_QUEUE_SIZE = "wisemapping.api.spam.async.queue_size";
     
     /**
      * Track a user login event
@@ -202,6 +221,31 @@ public class MetricsService {
         }
     }
 
+    /**
+     * Track a batch of suspended users, with one counter increment per user type and email provider
+     * @param users The users who were suspended
+     * @param reason The suspension reason
+     */
+    public void trackUserSuspensions(@NotNull Collection<Account> users, @NotNull String reason) {
+        try {
+            final Map<List<String>, Long> counts = users.stream().collect(Collectors.groupingBy(
+                    user -> List.of(String.valueOf(user.getAuthenticationType().getCode()),
+                            extractEmailProvider(user.getEmail())),
+                    Collectors.counting()));
+            counts.forEach((tags, count) -> Counter.builder(USER_SUSPENSIONS)
+                    .description("Total number of users suspended")
+                    .tag("reason", reason.toLowerCase())
+                    .tag("user_type", tags.get(0))
+                    .tag("email_provider", tags.get(1))
+                    .register(meterRegistry)
+                    .increment(count));
+
+            logger.debug("Tracked {} user suspensions for reason {}", users.size(), reason);
+        } catch (Exception e) {
+            logger.warn("Failed to track user suspension metric for {} users: {}", users.size(), e.getMessage());
+        }
+    }
+
     /**
      * Track when a mindmap is made public
      * @param mindmap The mindmap that was made public
@@ -302,6 +346,28 @@ public class MetricsService {
         }
     }
 
+    /**
+     * Track a spam check that ran out of its CPU budget and was left for review
+     * @param mindmap The mindmap that was being checked
+     * @param strategy The strategy that was running when the budget was exceeded
+     * @param context The context where spam was checked (e.g., "creation", "update", "batch_scan")
+     */
+    public void trackSpamBudgetExceeded(@NotNull Mindmap mindmap, @NotNull SpamStrategyType strategy, @NotNull String context) {
+        try {
+            Counter.builder(SPAM_BUDGET_EXCEEDED)
+                    .description("Total number of spam checks aborted because they exceeded their CPU budget")
+                    .tag("context", context)
+                    .tag("strategy", strategy.name())
+                    .register(meterRegistry)
+                    .increment();
+
+            logger.debug("Tracked spam budget exceeded: mindmap {} in context {} during strategy {}",
+                mindmap.getId(), context, strategy);
+        } catch (Exception e) {
+            logger.warn("Failed to track spam budget metric for mindmap {}: {}", mindmap.getId(), e.getMessage());
+        }
+    }
+
     /**
      * Track when spam prevention blocks an action
      * @param mindmap The mindmap that was blocked
@@ -411,6 +477,77 @@ public class MetricsService {
         }
     }
 
+    /**
+     * Track how a map document read was served. The coalescing ratio is coalesced / (loaded + coalesced).
+     * @param outcome "cache_hit", "loaded" when the content was fetched and inflated, or "coalesced" when
+     *                the read shared an in-flight load started by a concurrent request
+     */
+    public void trackDocumentRead(@NotNull String outcome) {
+        try {
+            Counter.builder(MINDMAP_DOCUMENT_READS)
+                    .description("Total number of mindmap document reads by outcome")
+                    .tag("outcome", outcome)
+                    .register(meterRegistry)
+                    .increment();
+        } catch (Exception e) {
+            logger.warn("Failed to track document read metric: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * Track a processed spam detection batch. The processing rate of each mode is maps / duration.
+     * @param mode "serial" or "parallel"
+     * @param processed Number of maps processed in the batch
+     * @param elapsedNanos Time spent processing the batch, including the page read and the write back
+     */
+    public void trackSpamBatch(@NotNull String mode, int processed, long elapsedNanos) {
+        try {
+            Counter.builder(SPAM_BATCH_MAPS)
+                    .description("Total number of maps processed by the spam detection batch")
+                    .tag("mode", mode)
+                    .register(meterRegistry)
+                    .increment(processed);
+
+            Timer.builder(SPAM_BATCH_DURATION)
+                    .description("Time spent processing spam detection batches")
+                    .tag("mode", mode)
+                    .register(meterRegistry)
+                    .record(elapsedNanos, TimeUnit.NANOSECONDS);
+
+            logger.debug("Tracked spam detection batch: {} maps in {} ms ({})", processed,
+                    TimeUnit.NANOSECONDS.toMillis(elapsedNanos), mode);
+        } catch (Exception e) {
+            logger.warn("Failed to track spam detection batch metrics: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * Track one run of a spam detection strategy. The timer count is the number of runs, so hits / runs is
+     * the strategy's yield.
+     * @param strategy The strategy that ran
+     * @param elapsedNanos Time the strategy took on the map
+     * @param hit Whether the strategy flagged the map as spam
+     */
+    public void trackSpamStrategy(@NotNull SpamStrategyType strategy, long elapsedNanos, boolean hit) {
+        try {
+            Timer.builder(SPAM_STRATEGY_DURATION)
+                    .description("Time spent running each spam detection strategy on a map")
+                    .tag("strategy", strategy.name())
+                    .register(meterRegistry)
+                    .record(elapsedNanos, TimeUnit.NANOSECONDS);
+
+            if (hit) {
+                Counter.builder(SPAM_STRATEGY_HITS)
+                        .description("Total number of maps flagged as spam by each strategy")
+                        .tag("strategy", strategy.name())
+                        .register(meterRegistry)
+                        .increment();
+            }
+        } catch (Exception e) {
+            logger.warn("Failed to track spam strategy metric for {}: {}", strategy, e.getMessage());
+        }
+    }
+
     /**
      * Extract email provider from email address
      * @param email The email address
@@ -455,4 +592,41 @@ public class MetricsService {
                 }
         }
     }
+
+    /**
+     * Track how a request waited for its spam analysis.
+     * @param outcome "within_sla" when the result was ready in time, "deferred" when it is applied later, or
+     *                "caller_runs" when the queue was full and the request thread ran the analysis itself
+     * @param waitedNanos Time the request waited for the result
+     */
+    public void trackSpamAnalysisWait(@NotNull String outcome, long waitedNanos) {
+        try {
+            Counter.builder(SPAM_ASYNC_ANALYSES)
+                    .description("Total number of spam analyses requested off the request thread by outcome")
+                    .tag("outcome", outcome)
+                    .register(meterRegistry)
+                    .increment();
+
+            Timer.builder(SPAM_ASYNC_WAIT)
+                    .description("Time requests waited for their spam analysis")
+                    .tag("outcome", outcome)
+                    .register(meterRegistry)
+                    .record(waitedNanos, TimeUnit.NANOSECONDS);
+        } catch (Exception e) {
+            logger.warn("Failed to track spam analysis wait metric: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * Publish the number of spam analyses waiting for a worker.
+     */
+    public void registerSpamAnalysisQueue(@NotNull Supplier<Number> queueSize) {
+        try {
+            Gauge.builder(SPAM_ASYNC_QUEUE_SIZE, queueSize)
+                    .description("Number of spam analyses waiting for a worker")
+                    .register(meterRegistry);
+        } catch (Exception e) {
+            logger.warn("Failed to register spam analysis queue metric: {}", e.getMessage());
+        }
+    }
 }
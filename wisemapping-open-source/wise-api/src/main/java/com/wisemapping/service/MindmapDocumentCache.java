@@ -0,0 +1,313 @@
+/*
+ *    Copyright [2007-2025] [wisemapping]
+ *
+ *   Licensed under WiseMapping Public License, Version 1.0 (the "License").
+ *   It is basically the Apache License, Version 2.0 (the "License") plus the
+ *   "powered by wisemapping" text requirement on every single page;
+ *   you may not use this file except in compliance with the License.
+ *   You may obtain a copy of the license at
+ *
+ *       https://github.com/wisemapping/wisemapping-open-source/blob/main/LICENSE.md
+ *
+ *   Unless required by applicable law or agreed to in writing, software
+ *   distributed under the License is distributed on an "AS IS" BASIS,
+ *   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *   See the License for the specific language governing permissions and
+ *   limitations under the License.
+ */
+
+package com.wisemapping.service;
+
+import com.wisemapping.model.Mindmap;
+import com.wisemapping.model.MindmapXml;
+import jakarta.annotation.PostConstruct;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.Calendar;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Keeps the decompressed XML of recently read maps so popular maps are not inflated on every request.
+ *
+ * Entries are keyed by map id and revision. The revision combines the edition date with the blob reference
+ * when the content is externalized. Inline content has no fingerprint of its own and checksumming it would
+ * mean reading the LOB on every hit, so its edition date stands for the revision. Content set on the entity
+ * and not saved yet is never cached, so an in-flight modification never serves or stores a stale document.
+ * The cache is bounded by the total size of the cached documents and evicts the least recently used maps first.
+ * In off-heap mode documents are kept in direct buffers to keep large maps out of the collected heap.
+ *
+ * Concurrent misses for the same map revision are coalesced: the first reader loads and inflates the
+ * content and the others wait for its result instead of repeating the work. Loading the map row, permission
+ * checks and response shaping still run for every request.
+ */
+@Component
+public class MindmapDocumentCache {
+
+    private static final Logger logger = LoggerFactory.getLogger(MindmapDocumentCache.class);
+
+    @Value("${app.mindmap.document-cache.enabled:true}")
+    private boolean enabled;
+
+    @Value("${app.mindmap.document-cache.max-size-mb:64}")
+    private int maxSizeMb;
+
+    @Value("${app.mindmap.document-cache.off-heap:false}")
+    private boolean offHeap;
+
+    @Value("${app.mindmap.document-cache.coalesce-reads:true}")
+    private boolean coalesceReads;
+
+    @Autowired(required = false)
+    private MetricsService metricsService;
+
+    private long maxBytes;
+    private long maxEntryBytes;
+    private long usedBytes;
+
+    private final LinkedHashMap<Integer, Entry> entries = new LinkedHashMap<>(64, 0.75f, true);
+    private final ConcurrentHashMap<String, CompletableFuture<Entry>> inFlight = new ConcurrentHashMap<>();
+
+    public MindmapDocumentCache() {
+    }
+
+    MindmapDocumentCache(long maxBytes, boolean offHeap) {
+        this.enabled = true;
+        this.coalesceReads = true;
+        this.offHeap = offHeap;
+        configure(maxBytes);
+    }
+
+    @PostConstruct
+    public void init() {
+        configure(Math.max(0, maxSizeMb) * 1024L * 1024L);
+        if (enabled) {
+            logger.info("Mindmap document cache enabled: maxSize={}MB, offHeap={}", maxSizeMb, offHeap);
+        }
+    }
+
+    private void configure(long maxBytes) {
+        this.maxBytes = maxBytes;
+        // A single document must not be able to flush the whole cache.
+        this.maxEntryBytes = maxBytes / 4;
+    }
+
+    /**
+     * Returns the decompressed XML of the map, inflating and caching it on a miss.
+     * The returned array is a private copy and can be modified by the caller.
+     */
+    @NotNull
+    public byte[] getUnzipXml(@NotNull Mindmap mindmap) {
+        return load(mindmap).copy();
+    }
+
+    /**
+     * Returns the decompressed XML of the map as a string, inflating and caching it on a miss.
+     */
+    @NotNull
+    public String getXmlStr(@NotNull Mindmap mindmap) {
+        return load(mindmap).decode();
+    }
+
+    /**
+     * Stores the document that has just been saved, so the next read does not need to inflate it.
+     */
+    public void put(@NotNull Mindmap mindmap, @NotNull byte[] unzipXml) {
+        final String revision = revisionOf(mindmap, true);
+        if (revision != null) {
+            store(mindmap.getId(), revision, unzipXml);
+        }
+    }
+
+    public synchronized void evict(int mindmapId) {
+        final Entry removed = entries.remove(mindmapId);
+        if (removed != null) {
+            usedBytes -= removed.size();
+        }
+    }
+
+    public synchronized long getUsedBytes() {
+        return usedBytes;
+    }
+
+    public synchronized int size() {
+        return entries.size();
+    }
+
+    @NotNull
+    private Entry load(@NotNull Mindmap mindmap) {
+        final String flightKey = flightKeyOf(mindmap);
+        if (flightKey == null) {
+            return loadAndDecode(mindmap);
+        }
+
+        final CompletableFuture<Entry> flight = new CompletableFuture<>();
+        final CompletableFuture<Entry> leader = inFlight.putIfAbsent(flightKey, flight);
+        if (leader != null) {
+            try {
+                final Entry entry = leader.join();
+                trackRead("coalesced");
+                return entry;
+            } catch (CompletionException | CancellationException e) {
+                // The shared load failed, retry on our own so the error surfaces with this request.
+                return loadAndDecode(mindmap);
+            }
+        }
+
+        try {
+            final Entry entry = loadAndDecode(mindmap);
+            flight.complete(entry);
+            return entry;
+        } catch (RuntimeException | Error e) {
+            // Release the waiting readers, they retry on their own.
+            flight.completeExceptionally(e);
+            throw e;
+        } finally {
+            inFlight.remove(flightKey, flight);
+        }
+    }
+
+    @NotNull
+    private Entry loadAndDecode(@NotNull Mindmap mindmap) {
+        final String revision = revisionOf(mindmap, false);
+        if (revision != null) {
+            final Entry cached = lookup(mindmap.getId(), revision);
+            if (cached != null) {
+                trackRead("cache_hit");
+                return cached;
+            }
+        }
+        final byte[] xml = mindmap.getUnzipXml();
+        trackRead("loaded");
+        if (revision != null) {
+            store(mindmap.getId(), revision, xml);
+        }
+        return new Entry(revision != null ? revision : "", xml, null);
+    }
+
+    /**
+     * Identifies a load that concurrent readers can share without observing a different document than the one
+     * their own entity points to, or null if the content may differ from the stored revision.
+     */
+    @Nullable
+    private String flightKeyOf(@NotNull Mindmap mindmap) {
+        if (!coalesceReads) {
+            return null;
+        }
+        final String revision = fingerprintOf(mindmap, false);
+        return revision != null ? mindmap.getId() + ":" + revision : null;
+    }
+
+    private void trackRead(@NotNull String outcome) {
+        if (metricsService != null) {
+            metricsService.trackDocumentRead(outcome);
+        }
+    }
+
+    @Nullable
+    private String revisionOf(@NotNull Mindmap mindmap, boolean saved) {
+        if (!enabled || maxEntryBytes == 0) {
+            return null;
+        }
+        return fingerprintOf(mindmap, saved);
+    }
+
+    /**
+     * Describes the stored revision of the content without reading it, or null if the entity may hold content
+     * that has not been saved. Saved content has just been written, so it matches the stored revision.
+     */
+    @Nullable
+    private String fingerprintOf(@NotNull Mindmap mindmap, boolean saved) {
+        final MindmapXml mindmapXml = mindmap.getMindmapXml();
+        if (mindmap.getId() == 0 || mindmapXml == null || (!saved && mindmapXml.isModified())) {
+            return null;
+        }
+        final String contentRef = mindmapXml.getContentRef();
+        final Calendar lastModificationTime = mindmap.getLastModificationTime();
+        final long edited = lastModificationTime != null ? lastModificationTime.getTimeInMillis() : 0;
+        return edited + ":" + (contentRef != null ? contentRef : "inline");
+    }
+
+    @Nullable
+    private synchronized Entry lookup(int mindmapId, @NotNull String revision) {
+        final Entry entry = entries.get(mindmapId);
+        if (entry == null) {
+            return null;
+        }
+        if (!entry.revision().equals(revision)) {
+            // The map has changed since it was cached, the old revision is not going to be read again.
+            entries.remove(mindmapId);
+            usedBytes -= entry.size();
+            return null;
+        }
+        return entry;
+    }
+
+    private void store(int mindmapId, @NotNull String revision, @NotNull byte[] xml) {
+        if (xml.length == 0 || xml.length > maxEntryBytes) {
+            return;
+        }
+        // Copy outside of the lock, entries are immutable once published.
+        final Entry entry = offHeap ? Entry.offHeap(revision, xml) : Entry.onHeap(revision, xml);
+        synchronized (this) {
+            final Entry previous = entries.put(mindmapId, entry);
+            if (previous != null) {
+                usedBytes -= previous.size();
+            }
+            usedBytes += entry.size();
+
+            final Iterator<Map.Entry<Integer, Entry>> it = entries.entrySet().iterator();
+            while (usedBytes > maxBytes && it.hasNext()) {
+                final Map.Entry<Integer, Entry> eldest = it.next();
+                usedBytes -= eldest.getValue().size();
+                it.remove();
+            }
+        }
+    }
+
+    private record Entry(@NotNull String revision, @Nullable byte[] heap, @Nullable ByteBuffer direct) {
+
+        static Entry onHeap(@NotNull String revision, @NotNull byte[] xml) {
+            return new Entry(revision, xml.clone(), null);
+        }
+
+        static Entry offHeap(@NotNull String revision, @NotNull byte[] xml) {
+            final ByteBuffer buffer = ByteBuffer.allocateDirect(xml.length);
+            buffer.put(xml).flip();
+            return new Entry(revision, null, buffer.asReadOnlyBuffer());
+        }
+
+        int size() {
+            return heap != null ? heap.length : direct.capacity();
+        }
+
+        byte[] copy() {
+            if (heap != null) {
+                return heap.clone();
+            }
+            final byte[] result = new byte[direct.capacity()];
+            direct.duplicate().get(result);
+            return result;
+        }
+
+        String decode() {
+            if (heap != null) {
+                return new String(heap, StandardCharsets.UTF_8);
+            }
+            return StandardCharsets.UTF_8.decode(direct.duplicate()).toString();
+        }
+    }
+}
@@ -31,7 +31,8 @@ import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
 import jakarta.annotation.PreDestroy;
-import java.io.UnsupportedEncodingException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
 import java.util.Calendar;
 import java.util.List;
 import java.util.Optional;
@@ -47,6 +48,10 @@ public class MindmapServiceImpl
     private UserService userService;
     @Autowired
     private NotificationService notificationService;
+    @Autowired(required = false)
+    private MindmapDocumentCache documentCache;
+    @Autowired(required = false)
+    private MindmapStatsService mindmapStatsService;
     @Value("${app.admin.user}")
     private String adminUser;
     final private LockManager lockManager;
@@ -57,13 +62,13 @@ public class MindmapServiceImpl
 
     @Override
     public boolean hasPermissions(@Nullable Account user, int mapId, @NotNull CollaborationRole grantedRole) {
-        final Mindmap map = mindmapManager.getMindmapById(mapId);
+        final Mindmap map = mindmapManager.getMindmapMetadataById(mapId);
         return hasPermissions(user, map, grantedRole);
     }
 
     @Override
     public boolean isMindmapPublic(int mapId) {
-        final Mindmap map = mindmapManager.getMindmapById(mapId);
+        final Mindmap map = mindmapManager.getMindmapMetadataById(mapId);
         return map != null && map.isPublic();
     }
 
@@ -116,16 +121,20 @@ public class MindmapServiceImpl
             throw new WiseMappingException("The title can not be empty");
         }
         // Check that what we received a valid mindmap...
-        final String xml;
-        try {
-            xml = mindmap.getXmlStr().trim();
-        } catch (UnsupportedEncodingException e) {
-            throw new WiseMappingException("Could not be decoded.", e);
-        }
+        final byte[] unzipXml = mindmap.getUnzipXml();
+        final String xml = new String(unzipXml, StandardCharsets.UTF_8).trim();
         if (!xml.endsWith("</map>")) {
             throw new WiseMappingException("Map seems not to be a valid mindmap: '" + xml + "'");
         }
         mindmapManager.updateMindmap(mindmap, saveHistory);
+        recordActivity(mindmap);
+        if (documentCache != null) {
+            // The document has just been inflated, keep it for the readers of the new revision.
+            documentCache.put(mindmap, unzipXml);
+        }
+        if (mindmapStatsService != null) {
+            mindmapStatsService.record(mindmap, unzipXml);
+        }
     }
 
     @Override
@@ -156,6 +165,9 @@ public class MindmapServiceImpl
         if (mindmap.getCreator().identityEquality(user)) {
             mindmapManager.removeHistoryByMindmapId(mindmap.getId());
             mindmapManager.removeMindmap(mindmap);
+            if (documentCache != null) {
+                documentCache.evict(mindmap.getId());
+            }
         } else {
             final Optional<Collaboration> collaboration = mindmap.findCollaboration(user);
             if (collaboration.isPresent()) {
@@ -191,6 +203,24 @@ public class MindmapServiceImpl
         final Collaboration collaboration = new Collaboration(CollaborationRole.OWNER, dbUser, mindmap);
         mindmap.getCollaborations().add(collaboration);
         mindmapManager.addMindmap(dbUser, mindmap);
+        recordActivity(mindmap);
+        if (mindmapStatsService != null) {
+            mindmapStatsService.record(mindmap, mindmap.getUnzipXml());
+        }
+    }
+
+    /**
+     * A saved map keeps both its creator and the user saving it from being suspended for inactivity.
+     */
+    private void recordActivity(@NotNull Mindmap mindmap) {
+        final List<Integer> accountIds = new ArrayList<>(2);
+        if (mindmap.getCreator() != null) {
+            accountIds.add(mindmap.getCreator().getId());
+        }
+        if (mindmap.getLastEditor() != null) {
+            accountIds.add(mindmap.getLastEditor().getId());
+        }
+        userService.recordActivity(accountIds);
     }
 
     @Override
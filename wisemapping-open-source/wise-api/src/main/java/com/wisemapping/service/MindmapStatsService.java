@@ -0,0 +1,103 @@
+/*
+ *    Copyright [2007-2025] [wisemapping]
+ *
+ *   Licensed under WiseMapping Public License, Version 1.0 (the "License").
+ *   It is basically the Apache License, Version 2.0 (the "License") plus the
+ *   "powered by wisemapping" text requirement on every single page;
+ *   you may not use this file except in compliance with the License.
+ *   You may obtain a copy of the license at
+ *
+ *       https://github.com/wisemapping/wisemapping-open-source/blob/main/LICENSE.md
+ *
+ *   Unless required by applicable law or agreed to in writing, software
+ *   distributed under the License is distributed on an "AS IS" BASIS,
+ *   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *   See the License for the specific language governing permissions and
+ *   limitations under the License.
+ */
+
+package com.wisemapping.service;
+
+import com.wisemapping.dao.MindmapManager;
+import com.wisemapping.mindmap.model.MapModel;
+import com.wisemapping.mindmap.parser.MindmapParser;
+import com.wisemapping.model.Mindmap;
+import com.wisemapping.model.MindmapStats;
+import com.wisemapping.service.spam.SpamContentExtractor;
+import org.jetbrains.annotations.NotNull;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Maintains the MINDMAP_STATS row of each map. Statistics are computed from the document being saved,
+ * so readers never need to inflate and parse the XML to know its size and structure.
+ */
+@Service
+public class MindmapStatsService {
+
+    private static final Logger logger = LoggerFactory.getLogger(MindmapStatsService.class);
+
+    @Autowired
+    private MindmapManager mindmapManager;
+
+    @Autowired
+    private SpamContentExtractor spamContentExtractor;
+
+    /**
+     * Computes and stores the statistics of the given document. Failures are logged and never
+     * prevent the map from being saved. Inside a transaction the row is written in its own transaction
+     * after the map has been committed, so a stats failure cannot roll the save back.
+     *
+     * @param unzipXml the decompressed document that has just been saved
+     */
+    public void record(@NotNull Mindmap mindmap, @NotNull byte[] unzipXml) {
+        if (mindmap.getId() == 0) {
+            return;
+        }
+        try {
+            final MapModel model = unzipXml.length > 0
+                    ? MindmapParser.parseXml(new String(unzipXml, StandardCharsets.UTF_8))
+                    : new MapModel();
+            final MindmapStats stats = MindmapStats.compute(mindmap.getId(), model, unzipXml.length,
+                    mindmap.getZippedXml().length, spamContentExtractor::isHtmlContent);
+            if (TransactionSynchronizationManager.isSynchronizationActive()) {
+                TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                    @Override
+                    public void afterCommit() {
+                        save(stats);
+                    }
+                });
+            } else {
+                save(stats);
+            }
+        } catch (Exception e) {
+            logger.warn("Could not compute statistics for mindmap {}: {}", mindmap.getId(), e.getMessage());
+        }
+    }
+
+    private void save(@NotNull MindmapStats stats) {
+        try {
+            mindmapManager.saveMindmapStats(stats);
+        } catch (Exception e) {
+            logger.warn("Could not store statistics for mindmap {}: {}", stats.getMindmapId(), e.getMessage());
+        }
+    }
+
+    @NotNull
+    public Map<Integer, MindmapStats> findByMindmapIds(@NotNull Collection<Integer> mindmapIds) {
+        final Map<Integer, MindmapStats> result = new HashMap<>();
+        for (MindmapStats stats : mindmapManager.findMindmapStats(mindmapIds)) {
+            result.put(stats.getMindmapId(), stats);
+        }
+        return result;
+    }
+}
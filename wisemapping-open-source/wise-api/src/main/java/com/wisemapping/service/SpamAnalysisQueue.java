@@ -0,0 +1,331 @@
+/*
+ *    Copyright [2007-2025] [wisemapping]
+ *
+ *   Licensed under WiseMapping Public License, Version 1.0 (the "License").
+ *   It is basically the Apache License, Version 2.0 (the "License") plus the
+ *   "powered by wisemapping" text requirement on every single page;
+ *   you may not use this file except in compliance with the License.
+ *   You may obtain a copy of the license at
+ *
+ *       https://github.com/wisemapping/wisemapping-open-source/blob/main/LICENSE.md
+ *
+ *   Unless required by applicable law or agreed to in writing, software
+ *   distributed under the License is distributed on an "AS IS" BASIS,
+ *   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *   See the License for the specific language governing permissions and
+ *   limitations under the License.
+ */
+
+package com.wisemapping.service;
+
+import com.wisemapping.dao.MindmapManager;
+import com.wisemapping.model.Account;
+import com.wisemapping.model.Mindmap;
+import com.wisemapping.model.MindmapSpamInfo;
+import com.wisemapping.service.spam.SpamDetectionResult;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Runs the spam analysis of user requests on a pool of workers, so requests do not wait for large maps to be
+ * parsed and checked. A request waits for its result up to the configured SLA and applies a result that is
+ * ready in time as before. Otherwise the request keeps the map private and the result is written when the
+ * analysis completes: the spam info through the batched upsert, and the public flag when the map was being
+ * published and passed.
+ *
+ * The queue is bounded. When it is full or stopped the request thread runs the analysis itself, so requests
+ * slow down instead of the backlog growing. Deferred analyses are tracked in memory: if the node stops before
+ * one completes, its analysis fails, the map stays private and the user publishes it again.
+ */
+@Service
+public class SpamAnalysisQueue {
+
+    private static final Logger logger = LoggerFactory.getLogger(SpamAnalysisQueue.class);
+
+    @Value("${app.batch.spam-detection.async.enabled:true}")
+    private boolean enabled;
+
+    @Value("${app.batch.spam-detection.async.workers:2}")
+    private int workers;
+
+    @Value("${app.batch.spam-detection.async.queue-capacity:100}")
+    private int queueCapacity;
+
+    @Value("${app.batch.spam-detection.async.sla-ms:1500}")
+    private long slaMs;
+
+    @Autowired
+    private SpamDetectionService spamDetectionService;
+
+    @Autowired
+    private SpamDetectionBatchService spamDetectionBatchService;
+
+    @Autowired
+    private MindmapManager mindmapManager;
+
+    @Autowired
+    private MetricsService metricsService;
+
+    private ThreadPoolExecutor executor;
+
+    // Latest deferred analysis of each map; an analysis replaced by a newer request is not applied
+    private final Map<Integer, Analysis> deferred = new ConcurrentHashMap<>();
+    private final Queue<MindmapSpamInfo> pendingWrites = new ConcurrentLinkedQueue<>();
+
+    @PostConstruct
+    public void init() {
+        if (!enabled) {
+            return;
+        }
+        final int threads = Math.max(1, workers);
+        final AtomicInteger threadCount = new AtomicInteger();
+        executor = new ThreadPoolExecutor(threads, threads, 60, TimeUnit.SECONDS,
+                new ArrayBlockingQueue<>(Math.max(1, queueCapacity)), runnable -> {
+                    final Thread thread = new Thread(runnable, "SpamAnalysis-" + threadCount.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                }, (task, pool) -> {
+                    // Full queue or stopping: CallerRunsPolicy would drop the task once stopped, leaving its
+                    // future pending, so the caller always runs it
+                    task.run();
+                });
+        executor.allowCoreThreadTimeOut(true);
+        metricsService.registerSpamAnalysisQueue(() -> executor.getQueue().size());
+        logger.info("Spam analysis of requests runs on {} workers: queueCapacity={}, slaMs={}", threads,
+                queueCapacity, slaMs);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        if (executor != null) {
+            // Analyses that never started fail, so requests and deferred maps do not wait for them
+            for (Runnable task : executor.shutdownNow()) {
+                if (task instanceof AnalysisTask analysisTask) {
+                    analysisTask.future.completeExceptionally(
+                            new RejectedExecutionException("Spam analysis queue stopped"));
+                }
+            }
+        }
+    }
+
+    /**
+     * Starts the analysis of a map. Workers check a copy, so the map may be changed and saved meanwhile. A new
+     * analysis of a saved map replaces its deferred one.
+     */
+    @NotNull
+    public Analysis submit(@NotNull Mindmap mindmap, @NotNull String context) {
+        cancel(mindmap.getId());
+        if (executor == null) {
+            return new Analysis(mindmap, context,
+                    CompletableFuture.completedFuture(spamDetectionService.detectSpam(mindmap, context)), null);
+        }
+        final Mindmap snapshot = SpamDetectionService.snapshotForDetection(mindmap);
+        final CompletableFuture<SpamDetectionResult> future = new CompletableFuture<>();
+        final Thread requestThread = Thread.currentThread();
+        final Thread[] runner = new Thread[1];
+        executor.execute(new AnalysisTask(future, () -> {
+            runner[0] = Thread.currentThread();
+            try {
+                future.complete(spamDetectionService.detectSpam(snapshot, context));
+            } catch (Throwable e) {
+                future.completeExceptionally(e);
+            }
+        }));
+        // A full queue makes the request thread run the analysis before execute returns
+        final boolean ranOnRequestThread = future.isDone() && runner[0] == requestThread;
+        return new Analysis(snapshot, context, future, ranOnRequestThread ? "caller_runs" : "queued");
+    }
+
+    /**
+     * Drops the deferred analysis of a map, for example when it is made private again before it completes.
+     */
+    public void cancel(int mindmapId) {
+        if (mindmapId != 0) {
+            deferred.remove(mindmapId);
+        }
+    }
+
+    public boolean isDeferred(int mindmapId) {
+        return deferred.containsKey(mindmapId);
+    }
+
+    public long getSlaMs() {
+        return slaMs;
+    }
+
+    private void apply(int mindmapId, @Nullable Account publishedBy, @NotNull Analysis analysis,
+                       @Nullable SpamDetectionResult result, @Nullable Throwable error) {
+        if (!deferred.remove(mindmapId, analysis)) {
+            logger.debug("Deferred spam analysis of mindmap {} was replaced, not applying it", mindmapId);
+            return;
+        }
+        if (error != null) {
+            logger.warn("Deferred spam analysis of mindmap {} failed, it stays private: {}", mindmapId,
+                    error.getMessage());
+            return;
+        }
+        if (result.needsReview()) {
+            logger.warn("Mindmap {} needs review, it stays private: {} ({})", mindmapId, result.getReason(),
+                    result.getDetails());
+            return;
+        }
+
+        final MindmapSpamInfo spamInfo = new MindmapSpamInfo();
+        spamInfo.setMindmapId(mindmapId);
+        spamInfo.setSpamDetected(result.isSpam());
+        spamInfo.setSpamTypeCode(result.isSpam() ? result.getStrategyType() : null);
+        spamInfo.setSpamDescription(result.getDescription());
+        // The map was just checked with every current strategy
+        spamInfo.setSpamDetectionVersion(spamDetectionBatchService.getCurrentSpamDetectionVersion());
+        spamInfo.setStrategyVersions(spamDetectionService.getStrategyVersions());
+        pendingWrites.add(spamInfo);
+        flushWrites();
+
+        final Mindmap mindmap = analysis.mindmap;
+        mindmap.setId(mindmapId);
+        if (result.isSpam()) {
+            logger.warn("Deferred spam analysis flagged mindmap {} as spam with type: {}", mindmapId,
+                    result.getStrategyType());
+            metricsService.trackSpamDetection(mindmap, result, analysis.context);
+            if (publishedBy != null) {
+                metricsService.trackSpamPrevention(mindmap, analysis.context);
+            }
+        } else if (publishedBy != null) {
+            try {
+                if (mindmapManager.updateMindmapPublicState(mindmapId, true)) {
+                    metricsService.trackMindmapMadePublic(mindmap, publishedBy);
+                }
+            } catch (Exception e) {
+                logger.warn("Could not publish mindmap {} after its spam analysis: {}", mindmapId, e.getMessage());
+            }
+        }
+    }
+
+    /**
+     * Writes the spam info of the analyses completed so far in one batch.
+     */
+    private void flushWrites() {
+        final List<MindmapSpamInfo> spamInfos = new ArrayList<>();
+        for (MindmapSpamInfo spamInfo = pendingWrites.poll(); spamInfo != null; spamInfo = pendingWrites.poll()) {
+            spamInfos.add(spamInfo);
+        }
+        if (spamInfos.isEmpty()) {
+            return;
+        }
+        try {
+            mindmapManager.updateMindmapSpamInfoBatch(spamInfos);
+        } catch (Exception e) {
+            logger.warn("Could not write the spam info of mindmaps {}: {}",
+                    spamInfos.stream().map(MindmapSpamInfo::getMindmapId).toList(), e.getMessage());
+        }
+    }
+
+    /**
+     * A queued analysis, with the future to fail if the queue stops before it runs.
+     */
+    private record AnalysisTask(CompletableFuture<SpamDetectionResult> future, Runnable analysis) implements Runnable {
+        @Override
+        public void run() {
+            analysis.run();
+        }
+    }
+
+    /**
+     * A spam analysis started by a request.
+     */
+    public final class Analysis {
+        private final Mindmap mindmap;
+        private final String context;
+        private final CompletableFuture<SpamDetectionResult> future;
+        // Null when the analysis ran inline because the queue is disabled
+        private final String submitOutcome;
+
+        private Analysis(@NotNull Mindmap mindmap, @NotNull String context,
+                         @NotNull CompletableFuture<SpamDetectionResult> future, @Nullable String submitOutcome) {
+            this.mindmap = mindmap;
+            this.context = context;
+            this.future = future;
+            this.submitOutcome = submitOutcome;
+        }
+
+        /**
+         * Waits for the result up to the SLA.
+         *
+         * @return the result, null if the analysis is still running, see {@link #applyWhenDone(int, Account)}
+         */
+        @Nullable
+        public SpamDetectionResult awaitWithinSla() {
+            final long start = System.nanoTime();
+            try {
+                final SpamDetectionResult result = future.get(slaMs, TimeUnit.MILLISECONDS);
+                track("caller_runs".equals(submitOutcome) ? "caller_runs" : "within_sla", start);
+                return result;
+            } catch (TimeoutException e) {
+                track("deferred", start);
+                return null;
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                track("deferred", start);
+                return null;
+            } catch (ExecutionException e) {
+                if (e.getCause() instanceof RuntimeException runtimeException) {
+                    throw runtimeException;
+                }
+                throw new IllegalStateException("Spam analysis failed", e.getCause());
+            }
+        }
+
+        /**
+         * Writes the result of an analysis that did not complete within the SLA once it does, after the current
+         * transaction commits so the map exists.
+         *
+         * @param publishedBy the user making the map public, which is published if it passes; null to only
+         *                    record the verdict
+         */
+        public void applyWhenDone(int mindmapId, @Nullable Account publishedBy) {
+            deferred.put(mindmapId, this);
+            final Runnable attach = () -> future.whenComplete(
+                    (result, error) -> apply(mindmapId, publishedBy, this, result, error));
+            if (TransactionSynchronizationManager.isSynchronizationActive()) {
+                TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                    @Override
+                    public void afterCommit() {
+                        attach.run();
+                    }
+                });
+            } else {
+                attach.run();
+            }
+        }
+
+        private void track(@NotNull String outcome, long start) {
+            if (submitOutcome != null) {
+                metricsService.trackSpamAnalysisWait(outcome, System.nanoTime() - start);
+            }
+        }
+    }
+}
@@ -18,21 +18,38 @@
 
 package com.wisemapping.service;
 
+import com.wisemapping.dao.IdPage;
 import com.wisemapping.dao.MindmapManager;
 import com.wisemapping.model.Mindmap;
 import com.wisemapping.model.MindmapSpamInfo;
+import com.wisemapping.model.MindmapStats;
 import com.wisemapping.model.SpamStrategyType;
+import com.wisemapping.service.batch.BatchJob;
+import com.wisemapping.service.batch.BatchJobRun;
+import com.wisemapping.service.batch.BatchJobRunner;
 import com.wisemapping.service.spam.SpamDetectionResult;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
-import org.springframework.transaction.annotation.Propagation;
-import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 
+import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
 
 @Service
 public class SpamDetectionBatchService {
@@ -40,6 +57,7 @@ public class SpamDetectionBatchService {
     private static final Logger logger = LoggerFactory.getLogger(SpamDetectionBatchService.class);
     private static final int MIN_BATCH_SIZE = 1;
     private static final int MAX_BATCH_SIZE = 500;
+    private static final String JOB_NAME = "spam-detection";
 
     @Autowired
     private MindmapManager mindmapManager;
@@ -50,6 +68,12 @@ public class SpamDetectionBatchService {
     @Autowired
     private MetricsService metricsService;
 
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Autowired
+    private BatchJobRunner batchJobRunner;
+
     @Value("${app.batch.spam-detection.enabled:true}")
     private boolean enabled;
 
@@ -62,6 +86,39 @@ public class SpamDetectionBatchService {
     @Value("${app.batch.spam-detection.version:5}")
     private int currentSpamDetectionVersion;
 
+    @Value("${app.batch.spam-detection.parallelism:1}")
+    private int parallelism;
+
+    @Value("${app.batch.spam-detection.queue-capacity:100}")
+    private int queueCapacity;
+
+    private ThreadPoolExecutor detectionExecutor;
+
+    @PostConstruct
+    public void init() {
+        if (parallelism > 1) {
+            // Bounded queue with caller-runs: when the workers fall behind the batch thread detects the next map
+            // itself instead of reading further ahead.
+            final AtomicInteger threadCount = new AtomicInteger();
+            detectionExecutor = new ThreadPoolExecutor(parallelism, parallelism, 60, TimeUnit.SECONDS,
+                    new ArrayBlockingQueue<>(Math.max(1, queueCapacity)), runnable -> {
+                        final Thread thread = new Thread(runnable, "SpamDetection-" + threadCount.incrementAndGet());
+                        thread.setDaemon(true);
+                        return thread;
+                    }, new ThreadPoolExecutor.CallerRunsPolicy());
+            detectionExecutor.allowCoreThreadTimeOut(true);
+            logger.info("Spam detection batch runs in parallel: parallelism={}, queueCapacity={}", parallelism,
+                    queueCapacity);
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        if (detectionExecutor != null) {
+            detectionExecutor.shutdownNow();
+        }
+    }
+
     /**
      * Process all public maps and mark them as spam if they match spam detection
      * rules
@@ -86,63 +143,72 @@ public class SpamDetectionBatchService {
             // Get total count for logging
             long totalMaps = getTotalMapsCount(cutoffDate);
             logger.info(
-                    "Starting spam detection for {} public maps created since {} in batches of {} (current version: {})",
-                    totalMaps, cutoffDate.getTime(), safeBatchSize, currentSpamDetectionVersion);
-
-            int processedCount = 0;
-            int spamDetectedCount = 0;
-            int offset = 0;
-
-            // Process maps in batches, each batch in its own transaction
-            while (offset < totalMaps) {
-                try {
-                    BatchResult result = processBatch(cutoffDate, offset, safeBatchSize);
-                    processedCount += result.processedCount;
-                    spamDetectedCount += result.spamDetectedCount;
-
-                    if (result.processedCount == 0) {
-                        break; // No more maps to process
-                    }
-
-                    offset += safeBatchSize;
-                    logger.debug("Processed batch: offset={}, batchSize={}, totalProcessed={}",
-                            offset - safeBatchSize, safeBatchSize, processedCount);
-                } catch (Exception e) {
-                    logger.debug("Error processing batch at offset {}: {}", offset, e.getMessage(), e);
-                    // Continue with next batch instead of failing completely
-                    offset += safeBatchSize;
-                }
+                    "Starting spam detection for {} public maps created since {} in batches of {} (current version: {}, strategy versions: {})",
+                    totalMaps, cutoffDate.getTime(), safeBatchSize, currentSpamDetectionVersion,
+                    spamDetectionService.getStrategyVersions());
+
+            // Processed maps leave the result set, so batches are paged by id instead of offset. Each batch is a
+            // chunk of the job, run in its own transaction.
+            final BatchJobRun run = batchJobRunner.run(JOB_NAME, afterCursor -> {
+                final IdPage page = new IdPage((int) afterCursor, safeBatchSize);
+                final BatchResult result = processBatch(cutoffDate, page);
+                logger.debug("Processed batch: afterId={}, batchSize={}, processed={}",
+                        page.afterId(), safeBatchSize, result.processedCount);
+                final boolean hasMore = result.processedCount >= safeBatchSize && result.lastMindmapId > page.afterId();
+                return new BatchJob.Chunk(hasMore ? result.lastMindmapId : page.afterId(), result.processedCount,
+                        result.spamDetectedCount, hasMore);
+            });
+
+            if (run.isCompleted()) {
+                logger.info("Spam detection batch task completed. Processed {} public maps, marked {} as spam",
+                        run.processed(), run.affected());
             }
 
-            logger.info("Spam detection batch task completed. Processed {} public maps, marked {} as spam",
-                    processedCount, spamDetectedCount);
-
         } catch (Exception e) {
             logger.debug("Error during spam detection batch task", e);
         }
     }
 
     /**
-     * Process a single batch of mindmaps in its own transaction
+     * Process a single batch of mindmaps. Serial batches run in their own transaction, parallel batches only
+     * read the page in one. Transactions are opened with the transaction template, so they also apply when
+     * this method is called from within the service.
      */
-    @Transactional(propagation = Propagation.REQUIRES_NEW)
-    public BatchResult processBatch(java.util.Calendar cutoffDate, int offset, int batchSize) {
+    public BatchResult processBatch(java.util.Calendar cutoffDate, IdPage page) {
+        final long startTime = System.nanoTime();
+        final BatchResult result = detectionExecutor != null
+                ? processBatchInParallel(cutoffDate, page)
+                : transactionTemplate.execute(status -> processBatchSerially(cutoffDate, page));
+        metricsService.trackSpamBatch(detectionExecutor != null ? "parallel" : "serial", result.processedCount,
+                System.nanoTime() - startTime);
+        return result;
+    }
+
+    private BatchResult processBatchSerially(java.util.Calendar cutoffDate, IdPage page) {
         List<Mindmap> publicMaps = mindmapManager.findPublicMindmapsNeedingSpamDetection(cutoffDate,
-                currentSpamDetectionVersion, offset, batchSize);
+                currentSpamDetectionVersion, spamDetectionService.getStrategyVersions(), page);
 
         if (publicMaps.isEmpty()) {
             return new BatchResult(0, 0);
         }
+        final Map<Integer, MindmapStats> statsByMap = findStats(publicMaps);
 
         int processedCount = 0;
         int spamDetectedCount = 0;
+        final List<MindmapSpamInfo> spamInfos = new ArrayList<>(publicMaps.size());
 
         for (Mindmap mindmap : publicMaps) {
             try {
                 SpamStrategyType spamTypeCode = null;
 
                 // Check for spam content only if not already marked as spam
-                SpamDetectionResult spamResult = spamDetectionService.detectSpam(mindmap, "batch_scan");
+                SpamDetectionResult spamResult = spamDetectionService.detectSpam(mindmap, "batch_scan",
+                        statsByMap.get(mindmap.getId()), strategiesToRun(mindmap));
+                if (spamResult.needsReview()) {
+                    leaveForNextRun(mindmap, spamResult);
+                    processedCount++;
+                    continue;
+                }
                 if (spamResult.isSpam()) {
                     // Get strategy name as enum
                     spamTypeCode = spamResult.getStrategyType();
@@ -159,8 +225,7 @@ public class SpamDetectionBatchService {
                 }
 
                 // Always update spam info to track processing version
-                String spamDescription = spamResult.isSpam() ? spamResult.getDetails() : null;
-                updateSpamInfo(mindmap, spamTypeCode, spamDescription);
+                spamInfos.add(createSpamInfo(mindmap, spamTypeCode, spamResult.getDescription()));
                 processedCount++;
             } catch (Exception e) {
                 logger.debug("Error processing mindmap '{}' (ID: {}): {}",
@@ -170,52 +235,187 @@ public class SpamDetectionBatchService {
             }
         }
 
-        return new BatchResult(processedCount, spamDetectedCount);
+        updateSpamInfos(spamInfos);
+        return new BatchResult(processedCount, spamDetectedCount, publicMaps.get(publicMaps.size() - 1).getId());
     }
 
     /**
-     * Helper method to update spam info for a mindmap
-     * Handles both new and existing MindmapSpamInfo entities
+     * Reads the page in a transaction on the batch thread and copies what detection reads into plain, unmanaged
+     * mindmaps. Workers decode, parse and run the strategies on the copies, so they never touch a closed
+     * session; the strategies that query the database open their own transaction. Results are written back in
+     * one batch.
      */
-    protected void updateSpamInfo(Mindmap mindmap, @Nullable SpamStrategyType spamTypeCode,
-            @Nullable String description) {
+    private BatchResult processBatchInParallel(java.util.Calendar cutoffDate, IdPage page) {
+        final Map<Integer, Set<SpamStrategyType>> strategiesByMap = new HashMap<>();
+        final List<Mindmap> publicMaps = transactionTemplate.execute(status -> {
+            final List<Mindmap> mindmaps = mindmapManager.findPublicMindmapsNeedingSpamDetection(cutoffDate,
+                    currentSpamDetectionVersion, spamDetectionService.getStrategyVersions(), page);
+            final List<Mindmap> snapshots = new ArrayList<>(mindmaps.size());
+            for (Mindmap mindmap : mindmaps) {
+                snapshots.add(SpamDetectionService.snapshotForDetection(mindmap));
+                strategiesByMap.put(mindmap.getId(), strategiesToRun(mindmap));
+            }
+            return snapshots;
+        });
+        if (publicMaps == null || publicMaps.isEmpty()) {
+            return new BatchResult(0, 0);
+        }
+        final Map<Integer, MindmapStats> statsByMap = findStats(publicMaps);
+
+        final List<Future<SpamDetectionResult>> detections = new ArrayList<>(publicMaps.size());
+        for (Mindmap mindmap : publicMaps) {
+            final MindmapStats stats = statsByMap.get(mindmap.getId());
+            final Set<SpamStrategyType> strategies = strategiesByMap.get(mindmap.getId());
+            detections.add(detectionExecutor.submit(
+                    () -> spamDetectionService.detectSpam(mindmap, "batch_scan", stats, strategies)));
+        }
+
+        int processedCount = 0;
+        int spamDetectedCount = 0;
+        final List<MindmapSpamInfo> spamInfos = new ArrayList<>(publicMaps.size());
+        for (int i = 0; i < publicMaps.size(); i++) {
+            final Mindmap mindmap = publicMaps.get(i);
+            processedCount++;
+            final SpamDetectionResult spamResult;
+            try {
+                spamResult = detections.get(i).get();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                detections.forEach(detection -> detection.cancel(true));
+                throw new IllegalStateException("Spam detection batch interrupted", e);
+            } catch (ExecutionException e) {
+                logger.debug("Error processing mindmap '{}' (ID: {}): {}",
+                        mindmap.getTitle(), mindmap.getId(), e.getCause().getMessage(), e.getCause());
+                continue;
+            }
+            if (spamResult.needsReview()) {
+                leaveForNextRun(mindmap, spamResult);
+                continue;
+            }
+
+            SpamStrategyType spamTypeCode = null;
+            if (spamResult.isSpam()) {
+                spamTypeCode = spamResult.getStrategyType();
+                spamDetectedCount++;
+                logger.warn("Marked public mindmap '{}' (ID: {}) as spam with type: {} (strategy: {}) (last win)",
+                        mindmap.getTitle(), mindmap.getId(), spamTypeCode, spamResult.getStrategyType());
+                metricsService.trackSpamDetection(mindmap, spamResult, "batch_scan");
+            }
+            spamInfos.add(createSpamInfo(mindmap, spamTypeCode, spamResult.getDescription()));
+        }
+
+        updateSpamInfos(spamInfos);
+        return new BatchResult(processedCount, spamDetectedCount, publicMaps.get(publicMaps.size() - 1).getId());
+    }
+
+    /**
+     * Maps that passed their last check with the current detection version are only checked again by the
+     * strategies that changed since, see app.batch.spam-detection.strategy-versions. Other maps, including maps
+     * marked as spam, run all the strategies.
+     *
+     * @return the strategies to run, null for all of them
+     */
+    @Nullable
+    private Set<SpamStrategyType> strategiesToRun(@NotNull Mindmap mindmap) {
+        final MindmapSpamInfo spamInfo = mindmap.getSpamInfo();
+        if (spamInfo == null || spamInfo.isSpamDetected() || spamInfo.getStrategyVersions() == null
+                || spamInfo.getSpamDetectionVersion() < currentSpamDetectionVersion) {
+            return null;
+        }
+        final Set<SpamStrategyType> result = spamDetectionService.changedStrategies(spamInfo.getStrategyVersions());
+        logger.debug("Mindmap {} passed with strategy versions {}, checking it again with {}", mindmap.getId(),
+                spamInfo.getStrategyVersions(), result);
+        return result;
+    }
+
+    /**
+     * Stored statistics of a page, one query for the whole page. Strategies fall back to the parsed document
+     * for maps without statistics or with statistics of an older revision.
+     */
+    private Map<Integer, MindmapStats> findStats(List<Mindmap> mindmaps) {
+        final List<Integer> ids = new ArrayList<>(mindmaps.size());
+        mindmaps.forEach(mindmap -> ids.add(mindmap.getId()));
+        final Map<Integer, MindmapStats> result = new HashMap<>();
         try {
-            // Avoid touching the lazy spamInfo association on Mindmap; only pass the ID to
-            // the upsert
-            MindmapSpamInfo spamInfo = new MindmapSpamInfo();
-            spamInfo.setMindmapId(mindmap.getId());
-
-            // Set spam detection status and version
-            boolean isSpamDetected = (spamTypeCode != null);
-            spamInfo.setSpamDetected(isSpamDetected);
-            spamInfo.setSpamDetectionVersion(currentSpamDetectionVersion);
-
-            // Set spam type code if provided (only when spam is detected)
-            if (isSpamDetected) {
-                spamInfo.setSpamTypeCode(spamTypeCode);
-                spamInfo.setSpamDescription(description);
-            } else {
-                spamInfo.setSpamTypeCode(null);
-                spamInfo.setSpamDescription(null);
+            for (MindmapStats stats : mindmapManager.findMindmapStats(ids)) {
+                result.put(stats.getMindmapId(), stats);
             }
+        } catch (Exception e) {
+            logger.debug("Could not load statistics of the page: {}", e.getMessage(), e);
+        }
+        return result;
+    }
 
-            mindmapManager.updateMindmapSpamInfo(spamInfo);
-        } catch (Exception updateException) {
-            logger.debug("Failed to update spam info for mindmap '{}' (ID: {}): {}",
-                    mindmap.getTitle(), mindmap.getId(), updateException.getMessage(), updateException);
+    /**
+     * Helper method to write the spam info of a page in one batch
+     * Handles both new and existing MindmapSpamInfo entities. If the batch fails, each
+     * map is written on its own so one bad row does not lose the rest of the page.
+     */
+    protected void updateSpamInfos(List<MindmapSpamInfo> spamInfos) {
+        if (spamInfos.isEmpty()) {
+            return;
+        }
+        try {
+            mindmapManager.updateMindmapSpamInfoBatch(spamInfos);
+        } catch (Exception e) {
+            logger.debug("Batched spam info update failed, updating {} mindmaps one by one: {}", spamInfos.size(),
+                    e.getMessage(), e);
+            for (MindmapSpamInfo spamInfo : spamInfos) {
+                try {
+                    mindmapManager.updateMindmapSpamInfo(spamInfo);
+                } catch (Exception updateException) {
+                    logger.debug("Failed to update spam info for mindmap ID {}: {}", spamInfo.getMindmapId(),
+                            updateException.getMessage(), updateException);
+                }
+            }
         }
     }
 
+    private MindmapSpamInfo createSpamInfo(Mindmap mindmap, @Nullable SpamStrategyType spamTypeCode,
+            @Nullable String description) {
+        // Avoid touching the lazy spamInfo association on Mindmap; only pass the ID to
+        // the upsert
+        MindmapSpamInfo spamInfo = new MindmapSpamInfo();
+        spamInfo.setMindmapId(mindmap.getId());
+
+        // Set spam detection status and version
+        boolean isSpamDetected = (spamTypeCode != null);
+        spamInfo.setSpamDetected(isSpamDetected);
+        spamInfo.setSpamDetectionVersion(currentSpamDetectionVersion);
+        spamInfo.setStrategyVersions(spamDetectionService.getStrategyVersions());
+
+        // Set spam type code if provided (only when spam is detected)
+        spamInfo.setSpamTypeCode(isSpamDetected ? spamTypeCode : null);
+        spamInfo.setSpamDescription(description);
+        return spamInfo;
+    }
+
+    /**
+     * A map whose check did not complete keeps its spam info, including the previous verdict and version, so the
+     * next run checks it again instead of recording it as clean.
+     */
+    private void leaveForNextRun(Mindmap mindmap, SpamDetectionResult spamResult) {
+        logger.warn("Mindmap '{}' (ID: {}) needs review, it will be checked again on the next run: {} ({})",
+                mindmap.getTitle(), mindmap.getId(), spamResult.getReason(), spamResult.getDetails());
+    }
+
     /**
      * Result class for batch processing
      */
     public static class BatchResult {
         public final int processedCount;
         public final int spamDetectedCount;
+        /** Id of the last mindmap of the page, the cursor for the next page. */
+        public final int lastMindmapId;
 
         public BatchResult(int processedCount, int spamDetectedCount) {
+            this(processedCount, spamDetectedCount, 0);
+        }
+
+        public BatchResult(int processedCount, int spamDetectedCount, int lastMindmapId) {
             this.processedCount = processedCount;
             this.spamDetectedCount = spamDetectedCount;
+            this.lastMindmapId = lastMindmapId;
         }
     }
 
@@ -223,7 +423,8 @@ public class SpamDetectionBatchService {
      * Get total count of public mindmaps since cutoff date (transactional)
      */
     public long getTotalMapsCount(java.util.Calendar cutoffDate) {
-        return mindmapManager.countPublicMindmapsNeedingSpamDetection(cutoffDate, currentSpamDetectionVersion);
+        return mindmapManager.countPublicMindmapsNeedingSpamDetection(cutoffDate, currentSpamDetectionVersion,
+                spamDetectionService.getStrategyVersions());
     }
 
     /**
@@ -240,6 +441,13 @@ public class SpamDetectionBatchService {
         return clampBatchSize(false);
     }
 
+    /**
+     * Get the number of worker threads used for detection, 1 when batches are processed serially
+     */
+    public int getParallelism() {
+        return detectionExecutor != null ? parallelism : 1;
+    }
+
     /**
      * Get the current spam detection version
      */
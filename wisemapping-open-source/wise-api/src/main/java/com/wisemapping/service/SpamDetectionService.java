@@ -3,24 +3,50 @@ package com.wisemapping.service;
 import com.wisemapping.mindmap.model.MapModel;
 import com.wisemapping.mindmap.parser.MindmapParser;
 import com.wisemapping.mindmap.utils.MindmapValidationException;
+import com.wisemapping.model.Account;
 import com.wisemapping.model.Mindmap;
+import com.wisemapping.model.MindmapStats;
+import com.wisemapping.model.SpamStrategyType;
 import com.wisemapping.service.spam.SpamContentExtractor;
+import com.wisemapping.service.spam.SpamDetectionBudget;
 import com.wisemapping.service.spam.SpamDetectionContext;
 import com.wisemapping.service.spam.SpamDetectionResult;
 import com.wisemapping.service.spam.SpamDetectionStrategy;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.EnumMap;
+import java.util.EnumSet;
+import java.util.IdentityHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.stream.Collectors;
 
 @Service
 public class SpamDetectionService {
     private final static Logger logger = LogManager.getLogger();
     
+    // Strategies are reordered after this many checks when adaptive ordering is enabled
+    private static final int REORDER_INTERVAL = 100;
+    private static final Pattern STRATEGY_VERSION = Pattern.compile("\\s*(\\w+)\\s*:\\s*(\\d{1,6})\\s*");
+
     private final List<SpamDetectionStrategy> strategies;
+    private final List<SpamDetectionStrategy> contentStrategies;
+    private final Map<SpamDetectionStrategy, StrategyStats> strategyStats = new IdentityHashMap<>();
+    private final AtomicLong checkCount = new AtomicLong();
+    private volatile List<SpamDetectionStrategy> orderedStrategies;
 
     @Autowired
     private MetricsService metricsService;
@@ -28,8 +54,28 @@ public class SpamDetectionService {
     @Autowired
     private SpamContentExtractor spamContentExtractor;
 
+    @Autowired
+    private MindmapDocumentCache documentCache;
+
+    @Autowired(required = false)
+    private SpamVerdictCache verdictCache;
+
+    @Value("${app.batch.spam-detection.cpu-budget-ms:2000}")
+    private long cpuBudgetMs;
+
+    @Value("${app.batch.spam-detection.adaptive-ordering:false}")
+    private boolean adaptiveOrdering;
+
+    @Value("${app.batch.spam-detection.strategy-versions:}")
+    private String strategyVersions;
+
+    private volatile Versions versions;
+
     public SpamDetectionService(@NotNull List<SpamDetectionStrategy> strategies) {
         this.strategies = strategies;
+        this.orderedStrategies = strategies;
+        this.contentStrategies = strategies.stream().filter(SpamDetectionStrategy::isContentBased).toList();
+        strategies.forEach(strategy -> strategyStats.put(strategy, new StrategyStats()));
     }
 
     public SpamDetectionResult detectSpam(Mindmap mindmap) {
@@ -37,6 +83,25 @@ public class SpamDetectionService {
     }
 
     public SpamDetectionResult detectSpam(Mindmap mindmap, String context) {
+        return detectSpam(mindmap, context, null);
+    }
+
+    /**
+     * @param stats stored statistics of the map, used instead of recounting the parsed model when they describe
+     *              its current revision
+     */
+    public SpamDetectionResult detectSpam(Mindmap mindmap, String context, @Nullable MindmapStats stats) {
+        return detectSpam(mindmap, context, stats, null);
+    }
+
+    /**
+     * @param stats stored statistics of the map, used instead of recounting the parsed model when they describe
+     *              its current revision
+     * @param only  the strategies to run, all of them when null. Used to re-check maps that passed with only the
+     *              strategies changed since, see {@link #changedStrategies(String)}
+     */
+    public SpamDetectionResult detectSpam(Mindmap mindmap, String context, @Nullable MindmapStats stats,
+                                          @Nullable Set<SpamStrategyType> only) {
         if (mindmap == null) {
             return SpamDetectionResult.notSpam();
         }
@@ -49,15 +114,43 @@ public class SpamDetectionService {
             return SpamDetectionResult.notSpam();
         }
         
+        String xmlContent;
+        try {
+            xmlContent = documentCache.getXmlStr(mindmap);
+        } catch (Exception e) {
+            logger.warn("Unexpected error reading mindmap XML for spam detection. Mindmap ID: {}, Error: {}",
+                       mindmap.getId(), e.getMessage());
+            return SpamDetectionResult.notSpam();
+        }
+        if (xmlContent == null || xmlContent.trim().isEmpty()) {
+            logger.debug("Mindmap {} has no XML content, skipping spam detection", mindmap.getId());
+            return SpamDetectionResult.notSpam();
+        }
+
+        // Content that was already checked by the same strategies is not analyzed again
+        String contentHash = null;
+        String strategySet = null;
+        if (verdictCache != null && verdictCache.isEnabled()) {
+            contentHash = SpamVerdictCache.contentHash(xmlContent, mindmap.getTitle(), mindmap.getDescription());
+            strategySet = verdictCache.strategySet(versions().content());
+            final SpamDetectionResult verdict = verdictCache.lookup(contentHash, strategySet);
+            if (verdict != null) {
+                logger.debug("Mindmap {} reuses the spam verdict of content {}", mindmap.getId(), contentHash);
+                if (verdict.isSpam()) {
+                    metricsService.trackSpamAnalysis(mindmap, verdict, context);
+                    return verdict;
+                }
+                // The remaining strategies only read the entity, so the document does not need to be parsed
+                final SpamDetectionContext entityContext = new SpamDetectionContext(mindmap, new MapModel(),
+                        SpamDetectionBudget.start(cpuBudgetMs), stats);
+                return runStrategies(mindmap, context, entityContext,
+                        strategiesToRun(only).stream().filter(strategy -> !strategy.isContentBased()).toList());
+            }
+        }
+        
         // Parse the mindmap XML once into a MapModel
         MapModel mapModel;
         try {
-            String xmlContent = mindmap.getXmlStr();
-            if (xmlContent == null || xmlContent.trim().isEmpty()) {
-                logger.debug("Mindmap {} has no XML content, skipping spam detection", mindmap.getId());
-                return SpamDetectionResult.notSpam();
-            }
-            
             mapModel = MindmapParser.parseXml(xmlContent);
             
             // Set title and description from entity if not in model
@@ -77,12 +170,33 @@ public class SpamDetectionService {
             return SpamDetectionResult.notSpam();
         }
         
-        // Create context with parsed model
-        SpamDetectionContext detectionContext = new SpamDetectionContext(mindmap, mapModel);
-        
+        // Create context with parsed model. All the strategies share one CPU budget for this map.
+        SpamDetectionContext detectionContext = new SpamDetectionContext(mindmap, mapModel,
+                SpamDetectionBudget.start(cpuBudgetMs), stats);
+        final SpamDetectionResult result = runStrategies(mindmap, context, detectionContext, strategiesToRun(only));
+
+        // A spam result of a strategy that is not content based says nothing about the content strategies
+        // that did not run, and a map left for review is checked again. Partial runs are not stored either.
+        if (contentHash != null && only == null && !result.needsReview()
+                && (!result.isSpam() || isContentBased(result.getStrategyType()))) {
+            verdictCache.store(contentHash, strategySet, result);
+        }
+        return result;
+    }
+
+    private SpamDetectionResult runStrategies(@NotNull Mindmap mindmap, String context,
+                                              @NotNull SpamDetectionContext detectionContext,
+                                              @NotNull List<SpamDetectionStrategy> strategies) {
         // Apply all spam detection strategies
         for (SpamDetectionStrategy strategy : strategies) {
-            final SpamDetectionResult result = strategy.detectSpam(detectionContext);
+            final long start = System.nanoTime();
+            SpamDetectionResult result;
+            try {
+                result = strategy.detectSpam(detectionContext);
+            } catch (SpamDetectionBudget.ExceededException e) {
+                result = SpamDetectionResult.notSpam();
+            }
+            recordRun(strategy, System.nanoTime() - start, result.isSpam());
             if (result.isSpam()) {
                 logger.info("Spam detected by strategy '{}' in mindmap '{}' - Title: '{}', Description: '{}', " +
                            "Reason: '{}', Details: '{}'",
@@ -96,6 +210,20 @@ public class SpamDetectionService {
                 metricsService.trackSpamAnalysis(mindmap, finalResult, context);
                 return finalResult;
             }
+
+            // Strategies usually swallow their own exceptions, so the budget tells whether one was cut short
+            if (detectionContext.getBudget().isExceeded()) {
+                logger.warn("Spam detection of mindmap {} exceeded its {}ms CPU budget in strategy '{}', leaving it for review",
+                           mindmap.getId(), cpuBudgetMs, strategy.getType().getStrategyName());
+                metricsService.trackSpamBudgetExceeded(mindmap, strategy.getType(), context);
+                SpamDetectionResult reviewResult = SpamDetectionResult.needsReview(
+                    "Spam detection exceeded its CPU budget",
+                    String.format("Strategy: %s, Budget: %dms, Elapsed: %dms", strategy.getType().getStrategyName(),
+                            cpuBudgetMs, detectionContext.getBudget().getElapsedMillis()),
+                    strategy.getType());
+                metricsService.trackSpamAnalysis(mindmap, reviewResult, context);
+                return reviewResult;
+            }
         }
         
         SpamDetectionResult cleanResult = SpamDetectionResult.notSpam();
@@ -104,7 +232,180 @@ public class SpamDetectionService {
         return cleanResult;
     }
 
+    private List<SpamDetectionStrategy> strategiesToRun(@Nullable Set<SpamStrategyType> only) {
+        final List<SpamDetectionStrategy> result = strategiesInOrder();
+        return only == null ? result : result.stream().filter(strategy -> only.contains(strategy.getType())).toList();
+    }
+
+    /**
+     * Type codes and versions of the active strategies, in code order, such as "F1,H1,L2". Stored with the
+     * result of each batch check.
+     */
+    @NotNull
+    public String getStrategyVersions() {
+        return versions().all();
+    }
+
+    /**
+     * Returns the strategies that are new or have another version than in the given strategy versions, all of
+     * them when the versions are unknown.
+     */
+    @NotNull
+    public Set<SpamStrategyType> changedStrategies(@Nullable String appliedVersions) {
+        final Set<SpamStrategyType> result = EnumSet.noneOf(SpamStrategyType.class);
+        final Set<String> applied = appliedVersions != null ? Set.of(appliedVersions.split(",")) : Set.of();
+        final Versions versions = versions();
+        for (SpamDetectionStrategy strategy : strategies) {
+            if (!applied.contains(versions.of(strategy.getType()))) {
+                result.add(strategy.getType());
+            }
+        }
+        return result;
+    }
+
+    private Versions versions() {
+        Versions result = versions;
+        if (result == null) {
+            final Map<SpamStrategyType, Integer> byType = new EnumMap<>(SpamStrategyType.class);
+            if (strategyVersions != null && !strategyVersions.isBlank()) {
+                for (String entry : strategyVersions.split(",")) {
+                    final Matcher matcher = STRATEGY_VERSION.matcher(entry);
+                    final SpamStrategyType type = matcher.matches() ? Arrays.stream(SpamStrategyType.values())
+                            .filter(candidate -> candidate.getStrategyName().equalsIgnoreCase(matcher.group(1)))
+                            .findFirst().orElse(null) : null;
+                    if (type == null) {
+                        logger.warn("Ignoring invalid spam strategy version '{}', expected StrategyName:version", entry);
+                        continue;
+                    }
+                    byType.put(type, Integer.parseInt(matcher.group(2)));
+                }
+            }
+            result = new Versions(byType, Versions.join(strategies, byType), Versions.join(contentStrategies, byType));
+            versions = result;
+        }
+        return result;
+    }
+
+    private boolean isContentBased(SpamStrategyType type) {
+        return contentStrategies.stream().anyMatch(strategy -> strategy.getType() == type);
+    }
+
+    /**
+     * Unmanaged copy of the state read during detection: identity, title, description, dates, visibility, the
+     * creator's id and email and the document. Detection can run on the copy on another thread, after the
+     * session of the original is closed.
+     */
+    @NotNull
+    public static Mindmap snapshotForDetection(@NotNull Mindmap mindmap) {
+        final Mindmap result = new Mindmap();
+        result.setId(mindmap.getId());
+        result.setTitle(mindmap.getTitle());
+        result.setDescription(mindmap.getDescription());
+        result.setCreationTime(mindmap.getCreationTime());
+        result.setLastModificationTime(mindmap.getLastModificationTime());
+        result.setPublic(mindmap.isPublic());
+        final Account creator = mindmap.getCreator();
+        if (creator != null) {
+            final Account creatorCopy = new Account();
+            creatorCopy.setId(creator.getId());
+            creatorCopy.setEmail(creator.getEmail());
+            creatorCopy.setCreationDate(creator.getCreationDate());
+            result.setCreator(creatorCopy);
+        }
+        final byte[] zippedXml = mindmap.getZippedXml();
+        if (zippedXml.length > 0) {
+            result.setZippedXml(zippedXml);
+            // A copy of the stored revision may be served and kept by the document cache, unsaved content not
+            if (mindmap.getId() != 0 && mindmap.getMindmapXml() != null && !mindmap.getMindmapXml().isModified()) {
+                result.getMindmapXml().markStored();
+            }
+        }
+        return result;
+    }
+
     public boolean isSpamContent(@NotNull Mindmap mindmap) {
         return detectSpam(mindmap).isSpam();
     }
+
+    /**
+     * Returns the strategies in the order they should run. Any positive flags the map, so within the CPU budget
+     * the order only changes how much work is done and which strategy is reported. The budget is shared, though:
+     * a map that exhausts it is left for review after different strategies depending on the order, so a reordering
+     * can turn a spam result into a review result or the other way around.
+     */
+    List<SpamDetectionStrategy> strategiesInOrder() {
+        if (!adaptiveOrdering) {
+            return strategies;
+        }
+        if (checkCount.incrementAndGet() % REORDER_INTERVAL == 0) {
+            // Snapshot the costs first, other threads keep recording runs and a comparator reading changing
+            // values breaks the sort contract.
+            final Map<SpamDetectionStrategy, Double> costs = new IdentityHashMap<>();
+            strategies.forEach(strategy -> costs.put(strategy, strategyStats.get(strategy).costPerHit()));
+            final List<SpamDetectionStrategy> reordered = new ArrayList<>(strategies);
+            // Cheapest time per hit first. The sort is stable, so strategies without data keep their order.
+            reordered.sort(Comparator.comparingDouble(costs::get));
+            if (!reordered.equals(orderedStrategies)) {
+                logger.debug("Spam detection strategy order: {}",
+                        reordered.stream().map(strategy -> strategy.getType().getStrategyName()).toList());
+            }
+            orderedStrategies = reordered;
+        }
+        return orderedStrategies;
+    }
+
+    private void recordRun(@NotNull SpamDetectionStrategy strategy, long elapsedNanos, boolean hit) {
+        metricsService.trackSpamStrategy(strategy.getType(), elapsedNanos, hit);
+        if (adaptiveOrdering) {
+            strategyStats.get(strategy).record(elapsedNanos, hit);
+        }
+    }
+
+    /**
+     * Versions of the strategies, 1 unless configured otherwise.
+     */
+    private record Versions(Map<SpamStrategyType, Integer> byType, String all, String content) {
+
+        String of(SpamStrategyType type) {
+            return of(type, byType);
+        }
+
+        static String of(SpamStrategyType type, Map<SpamStrategyType, Integer> byType) {
+            return String.valueOf(type.getCode()) + byType.getOrDefault(type, 1);
+        }
+
+        static String join(List<SpamDetectionStrategy> strategies, Map<SpamStrategyType, Integer> byType) {
+            return strategies.stream().map(strategy -> of(strategy.getType(), byType)).sorted()
+                    .collect(Collectors.joining(","));
+        }
+    }
+
+    /**
+     * Rolling cost and hit rate of a strategy, as exponentially weighted moving averages so the ordering follows
+     * changes in the content being checked.
+     */
+    private static final class StrategyStats {
+        private static final double WEIGHT = 0.05;
+        // Keeps strategies that have not caught anything yet comparable instead of infinitely expensive
+        private static final double MIN_HIT_RATE = 0.001;
+
+        private double averageNanos;
+        private double hitRate;
+        private boolean sampled;
+
+        synchronized void record(long elapsedNanos, boolean hit) {
+            if (!sampled) {
+                averageNanos = elapsedNanos;
+                hitRate = hit ? 1 : 0;
+                sampled = true;
+                return;
+            }
+            averageNanos += WEIGHT * (elapsedNanos - averageNanos);
+            hitRate += WEIGHT * ((hit ? 1 : 0) - hitRate);
+        }
+
+        synchronized double costPerHit() {
+            return sampled ? averageNanos / Math.max(hitRate, MIN_HIT_RATE) : 0;
+        }
+    }
 }
\ No newline at end of file
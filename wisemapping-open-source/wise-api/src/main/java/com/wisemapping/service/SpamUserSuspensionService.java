@@ -18,11 +18,14 @@
 
 package com.wisemapping.service;
 
+import com.wisemapping.dao.IdPage;
 import com.wisemapping.dao.MindmapManager;
 import com.wisemapping.model.Account;
 import com.wisemapping.model.SpamRatioUserResult;
 import com.wisemapping.model.SpamUserResult;
 import com.wisemapping.model.SuspensionReason;
+import com.wisemapping.service.batch.BatchJob;
+import com.wisemapping.service.batch.BatchJobRunner;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -33,7 +36,9 @@ import org.springframework.transaction.annotation.Transactional;
 import org.springframework.transaction.support.TransactionTemplate;
 
 import java.util.ArrayList;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Set;
 
 @Service
 public class SpamUserSuspensionService {
@@ -41,6 +46,9 @@ public class SpamUserSuspensionService {
     private static final Logger logger = LoggerFactory.getLogger(SpamUserSuspensionService.class);
     private static final int MIN_BATCH_SIZE = 1;
     private static final int MAX_BATCH_SIZE = 500;
+    // Each condition is a job of its own, with its own cursor over user ids
+    private static final String PUBLIC_SPAM_RATIO_JOB_NAME = "spam-user-suspension-public-ratio";
+    private static final String ANY_SPAM_JOB_NAME = "spam-user-suspension-any-spam";
 
     @Autowired
     private MindmapManager mindmapManager;
@@ -54,6 +62,9 @@ public class SpamUserSuspensionService {
     @Autowired
     private MetricsService metricsService;
 
+    @Autowired
+    private BatchJobRunner batchJobRunner;
+
     @Value("${app.batch.spam-user-suspension.enabled:true}")
     private boolean enabled;
 
@@ -115,11 +126,11 @@ public class SpamUserSuspensionService {
             // Process Condition 1: Users with >= 75% public spam ratio
             logger.info("\n▶ Processing Condition 1: Users with >= {}% public spam ratio",
                     (int) (publicSpamRatioThreshold * 100));
-            suspendedCountPublicRatio = processPublicSpamRatioCondition(totalUsersPublicSpamRatio, safeBatchSize);
+            suspendedCountPublicRatio = processPublicSpamRatioCondition(safeBatchSize);
 
             // Process Condition 2: Users with 6+ spam maps (any visibility)
             logger.info("\n▶ Processing Condition 2: Users with >= {} spam maps (any visibility)", minAnySpamCount);
-            suspendedCountAny = processAnySpamCondition(totalUsersAnySpam, safeBatchSize);
+            suspendedCountAny = processAnySpamCondition(safeBatchSize);
 
             int totalSuspended = suspendedCountPublicRatio + suspendedCountAny;
 
@@ -156,91 +167,64 @@ public class SpamUserSuspensionService {
     }
 
     /**
-     * Process public spam ratio condition by iterating through batches of users
+     * Process public spam ratio condition by iterating through batches of users.
+     * Batches are paged by user id, each one being a chunk of the condition job.
      * 
-     * @param totalUsers total number of users to process
      * @return number of users suspended
      */
-    private int processPublicSpamRatioCondition(long totalUsers, int effectiveBatchSize) {
-        int suspendedCount = 0;
-        int offset = 0;
-        int batchNumber = 0;
+    private int processPublicSpamRatioCondition(int effectiveBatchSize) {
         String conditionName = "Public Spam Ratio >= " + (int) (publicSpamRatioThreshold * 100) + "%";
 
-        while (offset < totalUsers) {
-            try {
-                batchNumber++;
-                logger.info("Processing {} batch #{} (offset: {}, size: {})", conditionName, batchNumber, offset,
-                        effectiveBatchSize);
-
-                List<SpamRatioUserResult> users = mindmapManager.findUsersWithHighPublicSpamRatio(
-                        publicSpamRatioThreshold, monthsBack, offset, effectiveBatchSize);
-
-                int batchSuspendedCount = processRatioBatch(users, conditionName);
-                suspendedCount += batchSuspendedCount;
-
-                if (users.isEmpty()) {
-                    break; // No more users to process
-                }
-
-                // Note: We continue even if batchSuspendedCount == 0 because later batches
-                // might have unsuspended users
+        long suspendedCount = batchJobRunner.run(PUBLIC_SPAM_RATIO_JOB_NAME, afterCursor -> {
+            IdPage page = new IdPage((int) afterCursor, effectiveBatchSize);
+            logger.info("Processing {} batch after user id {} (size: {})", conditionName, page.afterId(),
+                    effectiveBatchSize);
 
-                offset += effectiveBatchSize;
-            } catch (Exception e) {
-                logger.debug("Error processing {} batch #{} at offset {}: {}", conditionName, batchNumber, offset,
-                        e.getMessage(), e);
-                // Continue with next batch instead of failing completely
-                offset += effectiveBatchSize;
+            List<SpamRatioUserResult> users = mindmapManager.findUsersWithHighPublicSpamRatio(
+                    publicSpamRatioThreshold, monthsBack, page);
+            if (users.isEmpty()) {
+                return BatchJob.Chunk.done(afterCursor); // No more users to process
             }
-        }
+
+            // Note: We continue even if no user of the batch is suspended because later batches
+            // might have unsuspended users
+            int batchSuspendedCount = processRatioBatch(users, conditionName);
+            return new BatchJob.Chunk(users.get(users.size() - 1).getUser().getId(), users.size(),
+                    batchSuspendedCount, page.isFull(users));
+        }).affected();
 
         logger.info("✓ {} processing complete: {} users suspended", conditionName, suspendedCount);
-        return suspendedCount;
+        return (int) suspendedCount;
     }
 
     /**
-     * Process any spam condition by iterating through batches of users
+     * Process any spam condition by iterating through batches of users.
+     * Batches are paged by user id, each one being a chunk of the condition job.
      * 
-     * @param totalUsers total number of users to process
      * @return number of users suspended
      */
-    private int processAnySpamCondition(long totalUsers, int effectiveBatchSize) {
-        int suspendedCount = 0;
-        int offset = 0;
-        int batchNumber = 0;
+    private int processAnySpamCondition(int effectiveBatchSize) {
         String conditionName = ">= " + minAnySpamCount + " spam maps (any visibility)";
 
-        while (offset < totalUsers) {
-            try {
-                batchNumber++;
-                logger.info("Processing {} batch #{} (offset: {}, size: {})", conditionName, batchNumber, offset,
-                        effectiveBatchSize);
-
-                List<SpamUserResult> users = mindmapManager.findUsersWithAnySpamMaps(
-                        minAnySpamCount, monthsBack, offset, effectiveBatchSize);
-
-                int batchSuspendedCount = processBatch(users, conditionName);
-                suspendedCount += batchSuspendedCount;
+        long suspendedCount = batchJobRunner.run(ANY_SPAM_JOB_NAME, afterCursor -> {
+            IdPage page = new IdPage((int) afterCursor, effectiveBatchSize);
+            logger.info("Processing {} batch after user id {} (size: {})", conditionName, page.afterId(),
+                    effectiveBatchSize);
 
-                if (users.isEmpty()) {
-                    break; // No more users to process
-                }
-
-                // Note: We continue even if batchSuspendedCount == 0 because later batches
-                // might have unsuspended users
-
-                offset += effectiveBatchSize;
-            } catch (Exception e) {
-                logger.debug("Error processing {} batch #{} at offset {}: {}", conditionName, batchNumber, offset,
-                        e.getMessage(), e);
-                // Continue with next batch instead of failing completely
-                offset += effectiveBatchSize;
+            List<SpamUserResult> users = mindmapManager.findUsersWithAnySpamMaps(minAnySpamCount, monthsBack, page);
+            if (users.isEmpty()) {
+                return BatchJob.Chunk.done(afterCursor); // No more users to process
             }
-        }
+
+            // Note: We continue even if no user of the batch is suspended because later batches
+            // might have unsuspended users
+            int batchSuspendedCount = processBatch(users, conditionName);
+            return new BatchJob.Chunk(users.get(users.size() - 1).getUser().getId(), users.size(),
+                    batchSuspendedCount, page.isFull(users));
+        }).affected();
 
         logger.info("✓ {} processing complete: {} users suspended", conditionName, suspendedCount);
-        return suspendedCount;
+        return (int) suspendedCount;
     }
 
     /**
@@ -257,70 +241,64 @@ public class SpamUserSuspensionService {
             return 0;
         }
 
-        int suspendedCount = 0;
         int skippedCount = 0;
-
-        // Collect users that need to be suspended
-        List<Account> usersToSuspend = new ArrayList<>();
         StringBuilder suspensionSummary = new StringBuilder();
         suspensionSummary.append("\n========================================\n");
         suspensionSummary.append(String.format("USER SUSPENSION BATCH REPORT (%s)\n", conditionName));
         suspensionSummary.append("========================================\n");
 
+        // Collect users that need to be suspended
+        List<SpamRatioUserResult> candidates = new ArrayList<>();
         for (SpamRatioUserResult result : usersWithSpamRatio) {
-            try {
-                Account user = result.getUser();
-                long spamCount = result.getSpamCount();
-                long totalCount = result.getTotalCount();
-                double spamRatio = totalCount > 0 ? (spamCount * 100.0 / totalCount) : 0.0;
-
-                if (user.isSuspended()) {
-                    logger.debug("User {} is already suspended. Skipping.", user.getEmail());
-                    skippedCount++;
-                    continue;
-                }
-
-                // Suspend the user
-                user.suspend(SuspensionReason.ABUSE);
-                usersToSuspend.add(user);
-
-                // Track user suspension
-                metricsService.trackUserSuspension(user, "ABUSE");
-
-                suspendedCount++;
-
-                // Detailed log for each suspended user
-                String suspensionDetail = String.format(
-                        "SUSPENDED USER #%d:\n" +
-                                "  - User ID: %d\n" +
-                                "  - Email: %s\n" +
-                                "  - Full Name: %s\n" +
-                                "  - Account Created: %s\n" +
-                                "  - Public Spam Maps: %d / %d (%.1f%%)\n" +
-                                "  - Suspension Reason: ABUSE\n" +
-                                "  - Criteria: %s\n",
-                        suspendedCount,
-                        user.getId(),
-                        user.getEmail(),
-                        user.getFullName(),
-                        user.getCreationDate() != null ? user.getCreationDate().getTime() : "Unknown",
-                        spamCount,
-                        totalCount,
-                        spamRatio,
-                        conditionName);
-
-                suspensionSummary.append(suspensionDetail).append("\n");
-
-            } catch (Exception e) {
-                logger.debug("Error suspending user {}: {}", result.getUser().getEmail(), e.getMessage(), e);
-                // Continue processing other users in the batch
+            if (result.getUser().isSuspended()) {
+                logger.debug("User {} is already suspended. Skipping.", result.getUser().getEmail());
+                skippedCount++;
+            } else {
+                candidates.add(result);
             }
         }
 
-        // Update all users in a single transaction if there are any updates
-        if (!usersToSuspend.isEmpty()) {
-            updateUsersInTransaction(usersToSuspend);
+        // Suspend them with one update; a user suspended meanwhile is skipped
+        Set<Integer> suspendedIds = suspendUsersInTransaction(
+                candidates.stream().map(result -> result.getUser().getId()).toList(), SuspensionReason.ABUSE);
+        List<Account> suspendedUsers = new ArrayList<>();
+        for (SpamRatioUserResult result : candidates) {
+            Account user = result.getUser();
+            if (!suspendedIds.contains(user.getId())) {
+                skippedCount++;
+                continue;
+            }
+            suspendedUsers.add(user);
+            long spamCount = result.getSpamCount();
+            long totalCount = result.getTotalCount();
+            double spamRatio = totalCount > 0 ? (spamCount * 100.0 / totalCount) : 0.0;
+
+            // Detailed log for each suspended user
+            String suspensionDetail = String.format(
+                    "SUSPENDED USER #%d:\n" +
+                            "  - User ID: %d\n" +
+                            "  - Email: %s\n" +
+                            "  - Full Name: %s\n" +
+                            "  - Account Created: %s\n" +
+                            "  - Public Spam Maps: %d / %d (%.1f%%)\n" +
+                            "  - Suspension Reason: ABUSE\n" +
+                            "  - Criteria: %s\n",
+                    suspendedUsers.size(),
+                    user.getId(),
+                    user.getEmail(),
+                    user.getFullName(),
+                    user.getCreationDate() != null ? user.getCreationDate().getTime() : "Unknown",
+                    spamCount,
+                    totalCount,
+                    spamRatio,
+                    conditionName);
+
+            suspensionSummary.append(suspensionDetail).append("\n");
         }
+        int suspendedCount = suspendedUsers.size();
+
+        // Track user suspensions
+        metricsService.trackUserSuspensions(suspendedUsers, "ABUSE");
 
         // Summary log
         suspensionSummary.append("========================================\n");
@@ -348,66 +326,59 @@ public class SpamUserSuspensionService {
             return 0;
         }
 
-        int suspendedCount = 0;
         int skippedCount = 0;
-
-        // Collect users that need to be suspended
-        List<Account> usersToSuspend = new ArrayList<>();
         StringBuilder suspensionSummary = new StringBuilder();
         suspensionSummary.append("\n========================================\n");
         suspensionSummary.append(String.format("USER SUSPENSION BATCH REPORT (%s)\n", conditionName));
         suspensionSummary.append("========================================\n");
 
+        // Collect users that need to be suspended
+        List<SpamUserResult> candidates = new ArrayList<>();
         for (SpamUserResult result : usersWithSpamMaps) {
-            try {
-                Account user = result.getUser();
-                long spamCount = result.getSpamCount();
-
-                if (user.isSuspended()) {
-                    logger.debug("User {} is already suspended. Skipping.", user.getEmail());
-                    skippedCount++;
-                    continue;
-                }
-
-                // Suspend the user
-                user.suspend(SuspensionReason.ABUSE);
-                usersToSuspend.add(user);
-
-                // Track user suspension
-                metricsService.trackUserSuspension(user, "ABUSE");
-
-                suspendedCount++;
-
-                // Detailed log for each suspended user
-                String suspensionDetail = String.format(
-                        "SUSPENDED USER #%d:\n" +
-                                "  - User ID: %d\n" +
-                                "  - Email: %s\n" +
-                                "  - Full Name: %s\n" +
-                                "  - Account Created: %s\n" +
-                                "  - Spam Maps Count: %d\n" +
-                                "  - Suspension Reason: ABUSE\n" +
-                                "  - Criteria: %s\n",
-                        suspendedCount,
-                        user.getId(),
-                        user.getEmail(),
-                        user.getFullName(),
-                        user.getCreationDate() != null ? user.getCreationDate().getTime() : "Unknown",
-                        spamCount,
-                        conditionName);
-
-                suspensionSummary.append(suspensionDetail).append("\n");
-
-            } catch (Exception e) {
-                logger.debug("Error suspending user {}: {}", result.getUser().getEmail(), e.getMessage(), e);
-                // Continue processing other users in the batch
+            if (result.getUser().isSuspended()) {
+                logger.debug("User {} is already suspended. Skipping.", result.getUser().getEmail());
+                skippedCount++;
+            } else {
+                candidates.add(result);
             }
         }
 
-        // Update all users in a single transaction if there are any updates
-        if (!usersToSuspend.isEmpty()) {
-            updateUsersInTransaction(usersToSuspend);
+        // Suspend them with one update; a user suspended meanwhile is skipped
+        Set<Integer> suspendedIds = suspendUsersInTransaction(
+                candidates.stream().map(result -> result.getUser().getId()).toList(), SuspensionReason.ABUSE);
+        List<Account> suspendedUsers = new ArrayList<>();
+        for (SpamUserResult result : candidates) {
+            Account user = result.getUser();
+            if (!suspendedIds.contains(user.getId())) {
+                skippedCount++;
+                continue;
+            }
+            suspendedUsers.add(user);
+
+            // Detailed log for each suspended user
+            String suspensionDetail = String.format(
+                    "SUSPENDED USER #%d:\n" +
+                            "  - User ID: %d\n" +
+                            "  - Email: %s\n" +
+                            "  - Full Name: %s\n" +
+                            "  - Account Created: %s\n" +
+                            "  - Spam Maps Count: %d\n" +
+                            "  - Suspension Reason: ABUSE\n" +
+                            "  - Criteria: %s\n",
+                    suspendedUsers.size(),
+                    user.getId(),
+                    user.getEmail(),
+                    user.getFullName(),
+                    user.getCreationDate() != null ? user.getCreationDate().getTime() : "Unknown",
+                    result.getSpamCount(),
+                    conditionName);
+
+            suspensionSummary.append(suspensionDetail).append("\n");
         }
+        int suspendedCount = suspendedUsers.size();
+
+        // Track user suspensions
+        metricsService.trackUserSuspensions(suspendedUsers, "ABUSE");
 
         // Summary log
         suspensionSummary.append("========================================\n");
@@ -553,61 +524,56 @@ public class SpamUserSuspensionService {
             return 0;
         }
 
-        int suspendedCount = 0;
-
         // Collect users that need to be suspended
-        List<Account> usersToSuspend = new ArrayList<>();
-
+        List<SpamUserResult> candidates = new ArrayList<>();
         for (SpamUserResult result : usersWithSpamMaps) {
-            try {
-                Account user = result.getUser();
-                long spamCount = result.getSpamCount();
-
-                if (user.isSuspended()) {
-                    logger.debug("User {} is already suspended. Skipping.", user.getEmail());
-                    continue;
-                }
-
-                // Suspend the user
-                user.suspend(suspensionReason);
-                usersToSuspend.add(user);
-
-                // Track user suspension
-                metricsService.trackUserSuspension(user, suspensionReason.name());
+            if (result.getUser().isSuspended()) {
+                logger.debug("User {} is already suspended. Skipping.", result.getUser().getEmail());
+            } else {
+                candidates.add(result);
+            }
+        }
 
-                suspendedCount++;
+        // Suspend them with one update; a user suspended meanwhile is skipped
+        Set<Integer> suspendedIds = suspendUsersInTransaction(
+                candidates.stream().map(result -> result.getUser().getId()).toList(), suspensionReason);
+        List<Account> suspendedUsers = new ArrayList<>();
+        for (SpamUserResult result : candidates) {
+            Account user = result.getUser();
+            if (suspendedIds.contains(user.getId())) {
+                suspendedUsers.add(user);
                 logger.warn("Suspended user {} (created: {}) due to {} public spam mindmaps of types: {}",
-                        user.getEmail(), user.getCreationDate(), spamCount, String.join(", ", spamTypeCodes));
-            } catch (Exception e) {
-                logger.debug("Error suspending user {}: {}", result.getUser().getEmail(), e.getMessage(), e);
-                // Continue processing other users in the batch
+                        user.getEmail(), user.getCreationDate(), result.getSpamCount(),
+                        String.join(", ", spamTypeCodes));
             }
         }
+        int suspendedCount = suspendedUsers.size();
 
-        // Update all users in a single transaction if there are any updates
-        if (!usersToSuspend.isEmpty()) {
-            updateUsersInTransaction(usersToSuspend);
-        }
+        // Track user suspensions
+        metricsService.trackUserSuspensions(suspendedUsers, suspensionReason.name());
 
         return suspendedCount;
     }
 
     /**
-     * Update multiple users in a single transaction to ensure proper transaction
-     * context
+     * Suspend users in a single transaction, with one update per chunk of ids
      * Uses TransactionTemplate to programmatically manage transactions in async
      * context
+     *
+     * @return ids of the users suspended, without those suspended meanwhile
      */
-    public void updateUsersInTransaction(List<Account> users) {
-        transactionTemplate.execute(status -> {
+    public Set<Integer> suspendUsersInTransaction(List<Integer> userIds, SuspensionReason suspensionReason) {
+        if (userIds.isEmpty()) {
+            return Set.of();
+        }
+        return transactionTemplate.execute(status -> {
             try {
-                for (Account user : users) {
-                    userService.updateUser(user);
-                }
-                logger.debug("Successfully updated {} users in transaction", users.size());
-                return null;
+                Set<Integer> suspendedIds = new HashSet<>(userService.suspendUsers(userIds, suspensionReason));
+                logger.debug("Successfully suspended {} of {} users in transaction", suspendedIds.size(),
+                        userIds.size());
+                return suspendedIds;
             } catch (Exception e) {
-                logger.debug("Error updating {} users in transaction: {}", users.size(), e.getMessage(), e);
+                logger.debug("Error suspending {} users in transaction: {}", userIds.size(), e.getMessage(), e);
                 status.setRollbackOnly();
                 throw e;
             }
@@ -0,0 +1,135 @@
+/*
+ *    Copyright [2007-2025] [wisemapping]
+ *
+ *   Licensed under WiseMapping Public License, Version 1.0 (the "License").
+ *   It is basically the Apache License, Version 2.0 (the "License") plus the
+ *   "powered by wisemapping" text requirement on every single page;
+ *   you may not use this file except in compliance with the License.
+ *   You may obtain a copy of the license at
+ *
+ *       https://github.com/wisemapping/wisemapping-open-source/blob/main/LICENSE.md
+ *
+ *   Unless required by applicable law or agreed to in writing, software
+ *   distributed under the License is distributed on an "AS IS" BASIS,
+ *   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *   See the License for the specific language governing permissions and
+ *   limitations under the License.
+ */
+
+
+package com.wisemapping.service;
+
+import com.wisemapping.dao.MindmapManager;
+import com.wisemapping.model.SpamVerdict;
+import com.wisemapping.service.spam.SpamDetectionResult;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+
+/**
+ * Stores the verdict of the content based spam strategies by a hash of the map document, title and description,
+ * so content that was already checked, such as a map re-checked without changes or a duplicate keeping the
+ * title and description of its source, is not analyzed again.
+ *
+ * Each verdict records the strategy set that produced it: the spam detection version and the content based
+ * strategies that ran, with their versions. Verdicts of another set are ignored and replaced, so bumping either
+ * version re-checks all content. Only final verdicts are stored, maps left for review are analyzed again on
+ * their next check.
+ */
+@Component
+public class SpamVerdictCache {
+    private final static Logger logger = LogManager.getLogger();
+    private static final HexFormat HEX = HexFormat.of();
+
+    @Value("${app.batch.spam-detection.verdict-cache.enabled:true}")
+    private boolean enabled;
+
+    @Value("${app.batch.spam-detection.version:5}")
+    private int detectionVersion;
+
+    @Autowired
+    private MindmapManager mindmapManager;
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Hashes the content the strategies read. Each part is prefixed with its length so moving text between the
+     * title and the description gives another hash.
+     */
+    @NotNull
+    public static String contentHash(@NotNull String xml, @Nullable String title, @Nullable String description) {
+        try {
+            final MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            for (String part : new String[]{xml, title, description}) {
+                final byte[] bytes = part != null ? part.getBytes(StandardCharsets.UTF_8) : new byte[0];
+                digest.update((part != null ? bytes.length + ":" : "-:").getBytes(StandardCharsets.US_ASCII));
+                digest.update(bytes);
+            }
+            return HEX.formatHex(digest.digest());
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    /**
+     * Identifies the strategies behind a verdict, as the detection version followed by the versions of the
+     * strategies, see {@link SpamDetectionService#getStrategyVersions()}.
+     */
+    @NotNull
+    public String strategySet(@NotNull String strategyVersions) {
+        return detectionVersion + ":" + strategyVersions;
+    }
+
+    /**
+     * Returns the stored verdict of the content, null if it was not checked yet by the same strategy set.
+     */
+    @Nullable
+    public SpamDetectionResult lookup(@NotNull String contentHash, @NotNull String strategySet) {
+        final SpamVerdict verdict;
+        try {
+            verdict = mindmapManager.findSpamVerdict(contentHash);
+        } catch (RuntimeException e) {
+            logger.warn("Could not read spam verdict {}: {}", contentHash, e.getMessage());
+            return null;
+        }
+        if (verdict == null || !strategySet.equals(verdict.getStrategySet())) {
+            return null;
+        }
+        return verdict.isSpamDetected()
+                ? new SpamDetectionResult(true, verdict.getSpamReason(), verdict.getSpamDescription(), verdict.getSpamTypeCode())
+                : SpamDetectionResult.notSpam();
+    }
+
+    /**
+     * Stores a final verdict of the content. Failures are logged, the verdict is then computed again next time.
+     */
+    public void store(@NotNull String contentHash, @NotNull String strategySet, @NotNull SpamDetectionResult result) {
+        if (result.needsReview()) {
+            return;
+        }
+        final SpamVerdict verdict = new SpamVerdict(contentHash, strategySet);
+        verdict.setSpamDetected(result.isSpam());
+        if (result.isSpam()) {
+            verdict.setSpamReason(result.getReason());
+            verdict.setSpamDescription(result.getDetails());
+            verdict.setSpamTypeCode(result.getStrategyType());
+        }
+        try {
+            mindmapManager.saveSpamVerdict(verdict);
+        } catch (RuntimeException e) {
+            // Usually another thread storing the verdict of the same content first
+            logger.debug("Could not store spam verdict {}: {}", contentHash, e.getMessage());
+        }
+    }
+}
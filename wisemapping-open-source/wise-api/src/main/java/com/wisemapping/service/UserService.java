@@ -22,10 +22,13 @@ import com.wisemapping.exceptions.AccountAlreadyActivatedException;
 import com.wisemapping.exceptions.InvalidActivationCodeException;
 import com.wisemapping.exceptions.WiseMappingException;
 import com.wisemapping.model.Account;
+import com.wisemapping.model.SuspensionReason;
 import com.wisemapping.rest.model.RestResetPasswordResponse;
 
 import org.jetbrains.annotations.NotNull;
 
+import java.util.Collection;
+
 public interface UserService {
 
     void activateAccount(long code) throws InvalidActivationCodeException, AccountAlreadyActivatedException;
@@ -54,6 +57,12 @@ public interface UserService {
     void removeUser(@NotNull Account user);
 
     void auditLogin(@NotNull Account user);
+
+    /**
+     * Records that accounts were active, which keeps them from being suspended for inactivity. An account is
+     * written at most once per debounce window, once the current transaction commits.
+     */
+    void recordActivity(@NotNull Collection<Integer> accountIds);
     
     Account getCasUserBy(String uid);
 
@@ -105,6 +114,14 @@ public interface UserService {
      */
     int unsuspendUser(@NotNull Account user);
 
+    /**
+     * Suspend accounts with a specific reason in bulk, see {@link com.wisemapping.dao.UserManager#suspendUsers}
+     * @param accountIds the accounts to suspend
+     * @param reason the suspension reason
+     * @return the ids of the accounts suspended, those already suspended being left unchanged
+     */
+    java.util.List<Integer> suspendUsers(@NotNull Collection<Integer> accountIds, @NotNull SuspensionReason reason);
+
     /**
      * Get users with advanced filtering and pagination (admin only)
      * @param search optional search term for email, firstname, or lastname
@@ -34,13 +34,18 @@ import org.apache.logging.log4j.Logger;
 import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.MessageSource;
 import org.springframework.context.i18n.LocaleContextHolder;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 
 import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
 
 @Service("userService")
 @Transactional(propagation = Propagation.REQUIRED)
@@ -60,9 +65,20 @@ public class UserServiceImpl
     private VelocityEngineWrapper velocityEngineWrapper;
     @Autowired
     private MetricsService metricsService;
+    @Autowired
+    private LoginAuditBuffer loginAuditBuffer;
 
     final private static Logger logger = LogManager.getLogger();
 
+    // Accounts tracked for the activity debounce before the expired ones are dropped
+    private static final int MAX_RECORDED_ACTIVITY = 100_000;
+
+    @Value("${app.accounts.activity-debounce-minutes:60}")
+    private long activityDebounceMinutes;
+
+    // Last time this node recorded the activity of each account
+    private final Map<Integer, Long> recordedActivity = new ConcurrentHashMap<>();
+
     @Override
     @NotNull
     public Account findOrCreateAccountByEmail(@NotNull String email) {
@@ -180,12 +196,60 @@ public class UserServiceImpl
         final AccessAuditory accessAuditory = new AccessAuditory();
         accessAuditory.setUser(user);
         accessAuditory.setLoginDate(Calendar.getInstance());
-        userManager.auditLogin(accessAuditory);
+        loginAuditBuffer.add(accessAuditory);
+        recordActivity(List.of(user.getId()));
 
         // Track user login with enhanced metrics
         metricsService.trackUserLogin(user, "database");
     }
 
+    @Override
+    public void recordActivity(@NotNull Collection<Integer> accountIds) {
+        final long now = System.currentTimeMillis();
+        final long debounceMs = TimeUnit.MINUTES.toMillis(activityDebounceMinutes);
+        final List<Integer> due = new ArrayList<>();
+        for (Integer accountId : new LinkedHashSet<>(accountIds)) {
+            if (accountId == null || accountId <= 0) {
+                continue;
+            }
+            final Long recordedAt = recordedActivity.get(accountId);
+            if (recordedAt == null || now - recordedAt >= debounceMs) {
+                recordedActivity.put(accountId, now);
+                due.add(accountId);
+            }
+        }
+        if (due.isEmpty()) {
+            return;
+        }
+        if (recordedActivity.size() > MAX_RECORDED_ACTIVITY) {
+            recordedActivity.values().removeIf(recordedAt -> now - recordedAt >= debounceMs);
+        }
+
+        // Written after commit in its own transaction, so it never waits on a lock the request holds on the account
+        final Runnable write = () -> {
+            final Calendar activityDate = Calendar.getInstance();
+            activityDate.setTimeInMillis(now);
+            final Calendar recordedBefore = Calendar.getInstance();
+            recordedBefore.setTimeInMillis(now - debounceMs);
+            try {
+                userManager.recordActivity(due, activityDate, recordedBefore);
+            } catch (Exception e) {
+                due.forEach(recordedActivity::remove);
+                logger.warn("Could not record activity of accounts {}: {}", due, e.getMessage());
+            }
+        };
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    write.run();
+                }
+            });
+        } else {
+            write.run();
+        }
+    }
+
     @NotNull
     public Account createUser(@NotNull Account user, boolean emailConfirmEnabled, boolean welcomeEmail) throws WiseMappingException {
         final UUID uuid = UUID.randomUUID();
@@ -375,6 +439,11 @@ public class UserServiceImpl
         return userManager.unsuspendUser(user);
     }
 
+    @Override
+    public List<Integer> suspendUsers(@NotNull Collection<Integer> accountIds, @NotNull SuspensionReason reason) {
+        return userManager.suspendUsers(accountIds, reason);
+    }
+
     @Override
     public List<Account> getUsersWithFilters(String search, Boolean filterActive, Boolean filterSuspended, 
                                             String filterAuthType, int page, int pageSize) {
@@ -0,0 +1,56 @@
+/*
+ *    Copyright [2007-2025] [wisemapping]
+ *
+ *   Licensed under WiseMapping Public License, Version 1.0 (the "License").
+ *   It is basically the Apache License, Version 2.0 (the "License") plus the
+ *   "powered by wisemapping" text requirement on every single page;
+ *   you may not use this file except in compliance with the License.
+ *   You may obtain a copy of the license at
+ *
+ *       https://github.com/wisemapping/wisemapping-open-source/blob/main/LICENSE.md
+ *
+ *   Unless required by applicable law or agreed to in writing, software
+ *   distributed under the License is distributed on an "AS IS" BASIS,
+ *   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *   See the License for the specific language governing permissions and
+ *   limitations under the License.
+ */
+package com.wisemapping.service.batch;
+
+import org.jetbrains.annotations.NotNull;
+
+/**
+ * A batch job that works through its data in chunks, in cursor order. {@link BatchJobRunner} saves the cursor
+ * after each chunk, so a chunk must be complete once it returns and must be safe to run again if it fails.
+ */
+@FunctionalInterface
+public interface BatchJob {
+
+    /**
+     * Processes the chunk following the given cursor.
+     *
+     * @param afterCursor the cursor up to which the job is done, 0 when it starts
+     * @return what the chunk processed and where the next one starts
+     */
+    @NotNull
+    Chunk process(long afterCursor) throws Exception;
+
+    /**
+     * Result of a chunk.
+     *
+     * @param lastCursor the cursor up to which the job is done after this chunk
+     * @param processed  number of items processed
+     * @param affected   number of items changed, such as users suspended or entries deleted
+     * @param hasMore    whether a chunk may follow this one
+     */
+    record Chunk(long lastCursor, long processed, long affected, boolean hasMore) {
+
+        /**
+         * The chunk of a job with nothing left after the given cursor.
+         */
+        @NotNull
+        public static Chunk done(long cursor) {
+            return new Chunk(cursor, 0, 0, false);
+        }
+    }
+}
@@ -0,0 +1,45 @@
+/*
+ *    Copyright [2007-2025] [wisemapping]
+ *
+ *   Licensed under WiseMapping Public License, Version 1.0 (the "License").
+ *   It is basically the Apache License, Version 2.0 (the "License") plus the
+ *   "powered by wisemapping" text requirement on every single page;
+ *   you may not use this file except in compliance with the License.
+ *   You may obtain a copy of the license at
+ *
+ *       https://github.com/wisemapping/wisemapping-open-source/blob/main/LICENSE.md
+ *
+ *   Unless required by applicable law or agreed to in writing, software
+ *   distributed under the License is distributed on an "AS IS" BASIS,
+ *   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *   See the License for the specific language governing permissions and
+ *   limitations under the License.
+ */
+package com.wisemapping.service.batch;
+
+import org.jetbrains.annotations.Nullable;
+
+/**
+ * Outcome of a run of a batch job on this node.
+ *
+ * @param outcome   how the run ended
+ * @param processed number of items processed by this run
+ * @param affected  number of items changed by this run
+ * @param error     the error of the chunk that failed, if any
+ */
+public record BatchJobRun(Outcome outcome, long processed, long affected, @Nullable Exception error) {
+
+    public enum Outcome {
+        COMPLETED,
+        // Stopped on a chunk that kept failing, its next run resumes there
+        FAILED,
+        // Not run, another node holds the lease
+        LEASE_HELD,
+        // Stopped after another node took the lease over, that node resumes it
+        LEASE_LOST
+    }
+
+    public boolean isCompleted() {
+        return outcome == Outcome.COMPLETED;
+    }
+}
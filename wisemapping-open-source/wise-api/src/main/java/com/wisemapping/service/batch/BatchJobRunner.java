@@ -0,0 +1,210 @@
+/*
+ *    Copyright [2007-2025] [wisemapping]
+ *
+ *   Licensed under WiseMapping Public License, Version 1.0 (the "License").
+ *   It is basically the Apache License, Version 2.0 (the "License") plus the
+ *   "powered by wisemapping" text requirement on every single page;
+ *   you may not use this file except in compliance with the License.
+ *   You may obtain a copy of the license at
+ *
+ *       https://github.com/wisemapping/wisemapping-open-source/blob/main/LICENSE.md
+ *
+ *   Unless required by applicable law or agreed to in writing, software
+ *   distributed under the License is distributed on an "AS IS" BASIS,
+ *   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *   See the License for the specific language governing permissions and
+ *   limitations under the License.
+ */
+package com.wisemapping.service.batch;
+
+import com.wisemapping.dao.BatchJobManager;
+import com.wisemapping.model.BatchJobState;
+import com.wisemapping.model.BatchJobStatus;
+import org.jetbrains.annotations.NotNull;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.net.InetAddress;
+import java.util.Calendar;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Runs batch jobs chunk by chunk under a lease in BATCH_JOB_STATE, so a job runs on one node of the cluster at a
+ * time. After each chunk the cursor and counters are saved and the lease renewed, so the lease must outlast the
+ * longest chunk. A failed chunk is retried with a growing pause; when it keeps failing the run stops there, and
+ * the next run, on any node, resumes from the last saved cursor. A run that completes makes the next one start
+ * over from the beginning.
+ */
+@Service
+public class BatchJobRunner {
+
+    private static final Logger logger = LoggerFactory.getLogger(BatchJobRunner.class);
+
+    @Autowired
+    private BatchJobManager batchJobManager;
+
+    @Value("${app.batch.jobs.lease-ms:900000}")
+    private long leaseMs;
+
+    @Value("${app.batch.jobs.max-attempts:3}")
+    private int maxAttempts;
+
+    @Value("${app.batch.jobs.retry-backoff-ms:1000}")
+    private long retryBackoffMs;
+
+    private final String owner = resolveOwner();
+
+    /**
+     * Runs a job from where its last run stopped, unless another node is running it. Errors are logged and
+     * reported in the result rather than thrown.
+     */
+    @NotNull
+    public BatchJobRun run(@NotNull String jobName, @NotNull BatchJob job) {
+        final BatchJobState state;
+        try {
+            state = batchJobManager.acquireLease(jobName, owner, leaseExpiry());
+        } catch (Exception e) {
+            // Most likely another node created the job state at the same time and holds the lease
+            logger.warn("Could not take the lease of batch job {}: {}", jobName, e.getMessage());
+            return new BatchJobRun(BatchJobRun.Outcome.LEASE_HELD, 0, 0, null);
+        }
+        if (state == null) {
+            logger.info("Batch job {} is running on another node, skipping this run", jobName);
+            return new BatchJobRun(BatchJobRun.Outcome.LEASE_HELD, 0, 0, null);
+        }
+
+        if (state.getStatus() == BatchJobStatus.RUNNING || state.getStatus() == BatchJobStatus.FAILED) {
+            logger.info("Resuming batch job {} after cursor {}, stopped by a {} run", jobName, state.getLastCursor(),
+                    state.getStatus() == BatchJobStatus.FAILED ? "failed" : "interrupted");
+        } else {
+            state.setLastCursor(0);
+            state.setProcessedCount(0);
+            state.setAffectedCount(0);
+            state.setFailedChunks(0);
+            state.setStartedAt(Calendar.getInstance());
+        }
+        state.setStatus(BatchJobStatus.RUNNING);
+        state.setFinishedAt(null);
+
+        long processed = 0;
+        long affected = 0;
+        Exception error = null;
+        try {
+            if (!batchJobManager.saveProgress(state, owner, leaseExpiry())) {
+                logger.warn("Batch job {} lost its lease before starting", jobName);
+                return new BatchJobRun(BatchJobRun.Outcome.LEASE_LOST, 0, 0, null);
+            }
+            boolean hasMore = true;
+            while (hasMore) {
+                final long afterCursor = state.getLastCursor();
+                final BatchJob.Chunk chunk = processChunk(jobName, job, state);
+                if (chunk.hasMore() && chunk.lastCursor() <= afterCursor) {
+                    throw new IllegalStateException("Batch job " + jobName + " did not move its cursor past "
+                            + afterCursor);
+                }
+                processed += chunk.processed();
+                affected += chunk.affected();
+                state.setLastCursor(chunk.lastCursor());
+                state.setProcessedCount(state.getProcessedCount() + chunk.processed());
+                state.setAffectedCount(state.getAffectedCount() + chunk.affected());
+                if (!batchJobManager.saveProgress(state, owner, leaseExpiry())) {
+                    logger.warn("Batch job {} lost its lease after cursor {}, the node that took it over resumes it",
+                            jobName, state.getLastCursor());
+                    return new BatchJobRun(BatchJobRun.Outcome.LEASE_LOST, processed, affected, null);
+                }
+                logger.debug("Batch job {} chunk done: cursor={}, processed={}, affected={}", jobName,
+                        chunk.lastCursor(), chunk.processed(), chunk.affected());
+                hasMore = chunk.hasMore();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            error = e;
+        } catch (Exception e) {
+            error = e;
+        }
+
+        state.setStatus(error == null ? BatchJobStatus.COMPLETED : BatchJobStatus.FAILED);
+        state.setFinishedAt(Calendar.getInstance());
+        try {
+            if (!batchJobManager.saveProgress(state, owner, null)) {
+                logger.warn("Batch job {} lost its lease before it could record the end of its run", jobName);
+                return new BatchJobRun(BatchJobRun.Outcome.LEASE_LOST, processed, affected, error);
+            }
+        } catch (Exception e) {
+            // The lease expires on its own and the next run resumes from the last saved cursor
+            logger.error("Could not record the end of batch job {}", jobName, e);
+        }
+
+        if (error != null) {
+            logger.error("Batch job {} stopped after cursor {}, its next run resumes there", jobName,
+                    state.getLastCursor(), error);
+            return new BatchJobRun(BatchJobRun.Outcome.FAILED, processed, affected, error);
+        }
+        logger.info("Batch job {} completed: {} processed, {} affected", jobName, processed, affected);
+        return new BatchJobRun(BatchJobRun.Outcome.COMPLETED, processed, affected, null);
+    }
+
+    /**
+     * Processes the chunk after the cursor of the state, retrying it up to the configured attempts. A chunk that
+     * keeps failing is counted in the state and its last error thrown.
+     */
+    private BatchJob.Chunk processChunk(String jobName, BatchJob job, BatchJobState state) throws Exception {
+        final int attempts = Math.max(1, maxAttempts);
+        for (int attempt = 1; ; attempt++) {
+            try {
+                return job.process(state.getLastCursor());
+            } catch (InterruptedException e) {
+                throw e;
+            } catch (Exception e) {
+                if (attempt >= attempts) {
+                    state.setFailedChunks(state.getFailedChunks() + 1);
+                    throw e;
+                }
+                final long pauseMs = retryBackoffMs * attempt;
+                logger.warn("Batch job {} chunk after cursor {} failed on attempt {} of {}, retrying in {}ms: {}",
+                        jobName, state.getLastCursor(), attempt, attempts, pauseMs, e.getMessage());
+                if (pauseMs > 0) {
+                    TimeUnit.MILLISECONDS.sleep(pauseMs);
+                }
+            }
+        }
+    }
+
+    private Calendar leaseExpiry() {
+        final Calendar result = Calendar.getInstance();
+        result.setTimeInMillis(result.getTimeInMillis() + leaseMs);
+        return result;
+    }
+
+    /**
+     * The node running jobs, named after its host. The random suffix tells apart nodes sharing a host name, and
+     * a restarted node from the one that held its lease before.
+     */
+    private static String resolveOwner() {
+        String host;
+        try {
+            host = InetAddress.getLocalHost().getHostName();
+        } catch (Exception e) {
+            host = "unknown";
+        }
+        return host + "-" + UUID.randomUUID().toString().substring(0, 8);
+    }
+
+    /**
+     * The progress of all jobs, for monitoring.
+     */
+    @NotNull
+    public List<BatchJobState> getJobStates() {
+        return batchJobManager.findAllJobStates();
+    }
+
+    @NotNull
+    public String getOwner() {
+        return owner;
+    }
+}
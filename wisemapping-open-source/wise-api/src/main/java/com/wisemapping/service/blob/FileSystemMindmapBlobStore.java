@@ -0,0 +1,258 @@
+/*
+ *    Copyright [2007-2025] [wisemapping]
+ *
+ *   Licensed under WiseMapping Public License, Version 1.0 (the "License").
+ *   It is basically the Apache License, Version 2.0 (the "License") plus the
+ *   "powered by wisemapping" text requirement on every single page;
+ *   you may not use this file except in compliance with the License.
+ *   You may obtain a copy of the license at
+ *
+ *       https://github.com/wisemapping/wisemapping-open-source/blob/main/LICENSE.md
+ *
+ *   Unless required by applicable law or agreed to in writing, software
+ *   distributed under the License is distributed on an "AS IS" BASIS,
+ *   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *   See the License for the specific language governing permissions and
+ *   limitations under the License.
+ */
+
+package com.wisemapping.service.blob;
+
+import jakarta.annotation.PostConstruct;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.FileAlreadyExistsException;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.FileTime;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Instant;
+import java.util.HexFormat;
+import java.util.UUID;
+import java.util.regex.Pattern;
+import java.util.stream.Stream;
+import java.util.zip.CRC32C;
+
+/**
+ * Blob store that keeps every content as an immutable file named after its SHA-256 hash.
+ * Files are spread over two directory levels (ab/cd/abcd...) to keep directories small.
+ *
+ * Writes go to a temporary file that is fsync'ed and atomically renamed, so a crash never
+ * leaves a partially written blob under its final name. Reads use a FileChannel and switch to
+ * memory-mapped I/O for large documents. A CRC32C checksum is validated on every read.
+ */
+@Component
+public class FileSystemMindmapBlobStore implements MindmapBlobStore {
+
+    private static final Logger logger = LoggerFactory.getLogger(FileSystemMindmapBlobStore.class);
+    private static final Pattern CONTENT_REF_PATTERN = Pattern.compile("[0-9a-f]{64}");
+    private static final String TEMP_FILE_MARKER = ".tmp-";
+    private static final HexFormat HEX = HexFormat.of();
+
+    @Value("${app.mindmap.blob-store.enabled:false}")
+    private boolean writeEnabled;
+
+    @Value("${app.mindmap.blob-store.directory:./data/mindmap-blobs}")
+    private String directory;
+
+    @Value("${app.mindmap.blob-store.mmap-threshold-bytes:262144}")
+    private int mmapThresholdBytes;
+
+    private Path root;
+
+    public FileSystemMindmapBlobStore() {
+    }
+
+    public FileSystemMindmapBlobStore(@NotNull Path root, boolean writeEnabled, int mmapThresholdBytes) {
+        this.directory = root.toString();
+        this.writeEnabled = writeEnabled;
+        this.mmapThresholdBytes = mmapThresholdBytes;
+        init();
+    }
+
+    @PostConstruct
+    public void init() {
+        root = Paths.get(directory).toAbsolutePath().normalize();
+        if (writeEnabled) {
+            try {
+                Files.createDirectories(root);
+                logger.info("Mindmap blob store enabled at {}", root);
+            } catch (IOException e) {
+                throw new IllegalStateException("Mindmap blob store directory could not be created: " + root, e);
+            }
+        }
+    }
+
+    @Override
+    public boolean isWriteEnabled() {
+        return writeEnabled;
+    }
+
+    @NotNull
+    @Override
+    public BlobPointer write(@NotNull byte[] zippedXml) throws IOException {
+        final String contentRef = sha256(zippedXml);
+        final String checksum = crc32c(zippedXml);
+        final Path target = resolve(contentRef);
+
+        if (Files.exists(target)) {
+            // Content is immutable: refresh the timestamp so the garbage collector treats it as in use.
+            Files.setLastModifiedTime(target, FileTime.from(Instant.now()));
+            return new BlobPointer(contentRef, checksum);
+        }
+
+        final Path parent = target.getParent();
+        Files.createDirectories(parent);
+        final Path temp = parent.resolve(contentRef + TEMP_FILE_MARKER + UUID.randomUUID());
+        try {
+            try (FileChannel channel = FileChannel.open(temp, StandardOpenOption.CREATE_NEW, StandardOpenOption.WRITE)) {
+                final ByteBuffer buffer = ByteBuffer.wrap(zippedXml);
+                while (buffer.hasRemaining()) {
+                    channel.write(buffer);
+                }
+                channel.force(true);
+            }
+            moveAtomically(temp, target);
+            syncDirectory(parent);
+        } finally {
+            Files.deleteIfExists(temp);
+        }
+        return new BlobPointer(contentRef, checksum);
+    }
+
+    @NotNull
+    @Override
+    public byte[] read(@NotNull String contentRef, @Nullable String checksum) throws IOException {
+        final Path path = resolve(contentRef);
+        final byte[] result;
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            final long size = channel.size();
+            if (size > Integer.MAX_VALUE) {
+                throw new IOException("Mindmap blob " + contentRef + " is too large: " + size + " bytes");
+            }
+            result = new byte[(int) size];
+            if (size >= mmapThresholdBytes) {
+                final MappedByteBuffer mapped = channel.map(FileChannel.MapMode.READ_ONLY, 0, size);
+                mapped.get(result);
+            } else {
+                final ByteBuffer buffer = ByteBuffer.wrap(result);
+                while (buffer.hasRemaining()) {
+                    if (channel.read(buffer) < 0) {
+                        throw new IOException("Unexpected end of mindmap blob " + contentRef);
+                    }
+                }
+            }
+        }
+
+        if (checksum != null && !checksum.equals(crc32c(result))) {
+            throw new IOException("Checksum mismatch reading mindmap blob " + contentRef);
+        }
+        return result;
+    }
+
+    @NotNull
+    @Override
+    public Stream<String> listContentRefs(@NotNull Instant modifiedBefore) throws IOException {
+        if (!Files.isDirectory(root)) {
+            return Stream.empty();
+        }
+        return Files.walk(root, 3)
+                .filter(path -> CONTENT_REF_PATTERN.matcher(path.getFileName().toString()).matches())
+                .filter(path -> isModifiedBefore(path, modifiedBefore))
+                .map(path -> path.getFileName().toString());
+    }
+
+    @Override
+    public boolean delete(@NotNull String contentRef, @NotNull Instant modifiedBefore) throws IOException {
+        final Path path = resolve(contentRef);
+        // Re-check the timestamp: the content might have been reused after it was listed.
+        if (!isModifiedBefore(path, modifiedBefore)) {
+            return false;
+        }
+        return Files.deleteIfExists(path);
+    }
+
+    @Override
+    public int purgeIncompleteWrites(@NotNull Instant modifiedBefore) throws IOException {
+        if (!Files.isDirectory(root)) {
+            return 0;
+        }
+        int removed = 0;
+        try (Stream<Path> paths = Files.walk(root, 3)) {
+            for (Path path : (Iterable<Path>) paths::iterator) {
+                if (path.getFileName().toString().contains(TEMP_FILE_MARKER) && isModifiedBefore(path, modifiedBefore)
+                        && Files.deleteIfExists(path)) {
+                    removed++;
+                }
+            }
+        }
+        return removed;
+    }
+
+    private Path resolve(@NotNull String contentRef) throws IOException {
+        if (!CONTENT_REF_PATTERN.matcher(contentRef).matches()) {
+            throw new IOException("Invalid mindmap blob reference: " + contentRef);
+        }
+        return root.resolve(contentRef.substring(0, 2)).resolve(contentRef.substring(2, 4)).resolve(contentRef);
+    }
+
+    private void moveAtomically(@NotNull Path source, @NotNull Path target) throws IOException {
+        try {
+            Files.move(source, target, StandardCopyOption.ATOMIC_MOVE);
+        } catch (FileAlreadyExistsException e) {
+            // A concurrent writer stored the same content first. Both copies are identical.
+            logger.debug("Mindmap blob {} was written concurrently", target.getFileName());
+        } catch (AtomicMoveNotSupportedException e) {
+            throw new IOException("Mindmap blob store requires a filesystem supporting atomic rename: " + root, e);
+        }
+    }
+
+    private void syncDirectory(@NotNull Path dir) {
+        // Make the rename itself durable. Not every platform allows opening a directory, so this is best effort.
+        try (FileChannel channel = FileChannel.open(dir, StandardOpenOption.READ)) {
+            channel.force(true);
+        } catch (IOException e) {
+            logger.trace("Directory {} could not be synced: {}", dir, e.getMessage());
+        }
+    }
+
+    private static boolean isModifiedBefore(@NotNull Path path, @NotNull Instant instant) {
+        try {
+            return Files.getLastModifiedTime(path).toInstant().isBefore(instant);
+        } catch (NoSuchFileException e) {
+            return false;
+        } catch (IOException e) {
+            logger.warn("Could not read timestamp of mindmap blob {}: {}", path, e.getMessage());
+            return false;
+        }
+    }
+
+    private static String sha256(@NotNull byte[] content) {
+        try {
+            return HEX.formatHex(MessageDigest.getInstance("SHA-256").digest(content));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static String crc32c(@NotNull byte[] content) {
+        final CRC32C crc = new CRC32C();
+        crc.update(content);
+        return String.format("%08x", crc.getValue());
+    }
+}
@@ -0,0 +1,99 @@
+/*
+ *    Copyright [2007-2025] [wisemapping]
+ *
+ *   Licensed under WiseMapping Public License, Version 1.0 (the "License").
+ *   It is basically the Apache License, Version 2.0 (the "License") plus the
+ *   "powered by wisemapping" text requirement on every single page;
+ *   you may not use this file except in compliance with the License.
+ *   You may obtain a copy of the license at
+ *
+ *       https://github.com/wisemapping/wisemapping-open-source/blob/main/LICENSE.md
+ *
+ *   Unless required by applicable law or agreed to in writing, software
+ *   distributed under the License is distributed on an "AS IS" BASIS,
+ *   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *   See the License for the specific language governing permissions and
+ *   limitations under the License.
+ */
+
+package com.wisemapping.service.blob;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.io.IOException;
+import java.time.Instant;
+import java.util.stream.Stream;
+
+/**
+ * Storage for the compressed content of mindmaps and their history entries.
+ * Content is immutable and addressed by its hash, so identical documents are stored only once.
+ * Rows in MINDMAP_XML and MINDMAP_HISTORY keep the returned pointer instead of the LOB.
+ */
+public interface MindmapBlobStore {
+
+    /**
+     * Whether newly saved content should be written to this store.
+     * Reads of already externalized content are always served, even when writes are disabled.
+     *
+     * @return true if new content must be externalized
+     */
+    boolean isWriteEnabled();
+
+    /**
+     * Stores the given content. Writing content that is already stored is a no-op.
+     *
+     * @param zippedXml compressed mindmap content
+     * @return pointer and checksum to be persisted in the database row
+     * @throws IOException if the content could not be durably written
+     */
+    @NotNull
+    BlobPointer write(@NotNull byte[] zippedXml) throws IOException;
+
+    /**
+     * Reads the content for a pointer, verifying its checksum when provided.
+     *
+     * @param contentRef pointer returned by {@link #write(byte[])}
+     * @param checksum   checksum returned by {@link #write(byte[])}, or null to skip verification
+     * @return compressed mindmap content
+     * @throws IOException if the content is missing, unreadable or corrupted
+     */
+    @NotNull
+    byte[] read(@NotNull String contentRef, @Nullable String checksum) throws IOException;
+
+    /**
+     * Lists the pointers of all stored content not written or reused since the given instant.
+     * The returned stream must be closed by the caller.
+     *
+     * @param modifiedBefore only content untouched since this instant is listed
+     * @return stream of content pointers
+     * @throws IOException if the store could not be listed
+     */
+    @NotNull
+    Stream<String> listContentRefs(@NotNull Instant modifiedBefore) throws IOException;
+
+    /**
+     * Deletes stored content, unless it has been written or reused since the given instant.
+     *
+     * @param contentRef     pointer of the content to remove
+     * @param modifiedBefore content touched after this instant is kept
+     * @return true if the content was removed
+     * @throws IOException if the content could not be removed
+     */
+    boolean delete(@NotNull String contentRef, @NotNull Instant modifiedBefore) throws IOException;
+
+    /**
+     * Removes leftovers of writes interrupted before completion.
+     *
+     * @param modifiedBefore only leftovers older than this instant are removed
+     * @return number of leftovers removed
+     * @throws IOException if the store could not be listed
+     */
+    int purgeIncompleteWrites(@NotNull Instant modifiedBefore) throws IOException;
+
+    /**
+     * Location of a stored content plus the checksum used to validate reads.
+     */
+    record BlobPointer(@NotNull String contentRef, @NotNull String checksum) {
+    }
+}
@@ -0,0 +1,156 @@
+/*
+ *    Copyright [2007-2025] [wisemapping]
+ *
+ *   Licensed under WiseMapping Public License, Version 1.0 (the "License").
+ *   It is basically the Apache License, Version 2.0 (the "License") plus the
+ *   "powered by wisemapping" text requirement on every single page;
+ *   you may not use this file except in compliance with the License.
+ *   You may obtain a copy of the license at
+ *
+ *       https://github.com/wisemapping/wisemapping-open-source/blob/main/LICENSE.md
+ *
+ *   Unless required by applicable law or agreed to in writing, software
+ *   distributed under the License is distributed on an "AS IS" BASIS,
+ *   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *   See the License for the specific language governing permissions and
+ *   limitations under the License.
+ */
+
+package com.wisemapping.service.blob;
+
+import com.wisemapping.dao.MindmapManager;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Stream;
+
+/**
+ * Maintenance tasks for the mindmap blob store:
+ * - Migration of content still stored inline in MINDMAP_XML and MINDMAP_HISTORY.
+ * - Garbage collection of stored content no longer referenced by any row.
+ *
+ * Both tasks work in chunks, each one in its own transaction, so they can be interrupted and re-run safely.
+ */
+@Service
+public class MindmapBlobStoreMaintenanceService {
+
+    private static final Logger logger = LoggerFactory.getLogger(MindmapBlobStoreMaintenanceService.class);
+    private static final int MIN_BATCH_SIZE = 1;
+    private static final int MAX_BATCH_SIZE = 1000;
+
+    @Autowired
+    private MindmapManager mindmapManager;
+
+    @Autowired
+    private MindmapBlobStore mindmapBlobStore;
+
+    @Value("${app.mindmap.blob-store.migration-batch-size:100}")
+    private int batchSize;
+
+    @Value("${app.mindmap.blob-store.gc-grace-hours:24}")
+    private int gcGraceHours;
+
+    /**
+     * Moves all inline mindmap and history content to the blob store.
+     *
+     * @return number of rows externalized
+     */
+    public int migrateInlineContent() {
+        if (!mindmapBlobStore.isWriteEnabled()) {
+            logger.info("Mindmap blob store is disabled for writes, skipping migration");
+            return 0;
+        }
+
+        final int safeBatchSize = clampBatchSize();
+        int mindmaps = 0;
+        int lastMindmapId = 0;
+        List<Integer> mindmapIds;
+        do {
+            mindmapIds = mindmapManager.findMindmapIdsWithInlineXml(lastMindmapId, safeBatchSize);
+            if (!mindmapIds.isEmpty()) {
+                mindmaps += mindmapManager.externalizeMindmapXml(mindmapIds);
+                lastMindmapId = mindmapIds.get(mindmapIds.size() - 1);
+                logger.debug("Blob migration: {} mindmaps externalized so far (last ID: {})", mindmaps, lastMindmapId);
+            }
+        } while (mindmapIds.size() == safeBatchSize);
+
+        int histories = 0;
+        int lastHistoryId = 0;
+        List<Integer> historyIds;
+        do {
+            historyIds = mindmapManager.findHistoryIdsWithInlineXml(lastHistoryId, safeBatchSize);
+            if (!historyIds.isEmpty()) {
+                histories += mindmapManager.externalizeHistoryXml(historyIds);
+                lastHistoryId = historyIds.get(historyIds.size() - 1);
+                logger.debug("Blob migration: {} history entries externalized so far (last ID: {})", histories, lastHistoryId);
+            }
+        } while (historyIds.size() == safeBatchSize);
+
+        logger.info("Blob migration completed: {} mindmaps and {} history entries externalized", mindmaps, histories);
+        return mindmaps + histories;
+    }
+
+    /**
+     * Deletes stored content not referenced by any mindmap or history row.
+     * Content written or reused during the grace period is kept, as the row pointing to it may not be committed yet.
+     *
+     * @return number of blobs deleted
+     */
+    public int collectGarbage() {
+        final Instant cutoff = Instant.now().minus(Duration.ofHours(Math.max(gcGraceHours, 1)));
+        final int safeBatchSize = clampBatchSize();
+        int scanned = 0;
+        int deleted = 0;
+
+        try (Stream<String> contentRefs = mindmapBlobStore.listContentRefs(cutoff)) {
+            final Iterator<String> iterator = contentRefs.iterator();
+            final List<String> candidates = new ArrayList<>(safeBatchSize);
+            while (iterator.hasNext()) {
+                candidates.add(iterator.next());
+                if (candidates.size() == safeBatchSize || !iterator.hasNext()) {
+                    scanned += candidates.size();
+                    deleted += deleteUnreferenced(candidates, cutoff);
+                    candidates.clear();
+                }
+            }
+            final int incomplete = mindmapBlobStore.purgeIncompleteWrites(cutoff);
+            logger.info("Blob garbage collection completed: {} blobs scanned, {} deleted, {} incomplete writes removed",
+                    scanned, deleted, incomplete);
+        } catch (IOException e) {
+            logger.error("Blob garbage collection failed after scanning {} blobs", scanned, e);
+        }
+        return deleted;
+    }
+
+    private int deleteUnreferenced(List<String> candidates, Instant cutoff) {
+        final Set<String> referenced = mindmapManager.findReferencedContentRefs(candidates);
+        int deleted = 0;
+        for (String contentRef : candidates) {
+            if (referenced.contains(contentRef)) {
+                continue;
+            }
+            try {
+                if (mindmapBlobStore.delete(contentRef, cutoff)) {
+                    deleted++;
+                }
+            } catch (IOException e) {
+                logger.warn("Blob {} could not be deleted: {}", contentRef, e.getMessage());
+            }
+        }
+        return deleted;
+    }
+
+    private int clampBatchSize() {
+        return Math.min(Math.max(batchSize, MIN_BATCH_SIZE), MAX_BATCH_SIZE);
+    }
+}
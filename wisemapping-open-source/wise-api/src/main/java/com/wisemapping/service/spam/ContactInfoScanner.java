@@ -0,0 +1,262 @@
+/*
+ *    Copyright [2007-2025] [wisemapping]
+ *
+ *   Licensed under WiseMapping Public License, Version 1.0 (the "License").
+ *   It is basically the Apache License, Version 2.0 (the "License") plus the
+ *   "powered by wisemapping" text requirement on every single page;
+ *   you may not use this file except in compliance with the License.
+ *   You may obtain a copy of the license at
+ *
+ *       https://github.com/wisemapping/wisemapping-open-source/blob/main/LICENSE.md
+ *
+ *   Unless required by applicable law or agreed to in writing, software
+ *   distributed under the License is distributed on an "AS IS" BASIS,
+ *   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *   See the License for the specific language governing permissions and
+ *   limitations under the License.
+ */
+
+package com.wisemapping.service.spam;
+
+import org.jetbrains.annotations.NotNull;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Predicate;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.stream.Collectors;
+
+/**
+ * Finds contact information (websites, phone numbers, addresses and emails) in map content.
+ *
+ * The text is first read once to collect cheap signals: digit runs, phone-like digit clusters, street words
+ * and, through a {@link SpamKeywordMatcher}, literals such as country names or "www.". Each contact pattern
+ * declares the signals any of its matches requires, and only the patterns whose signals are present are run.
+ * Signals are necessary conditions, so the outcome is exactly the one of running every pattern.
+ */
+public final class ContactInfoScanner {
+
+    public enum ContactType {
+        WEBSITE, PHONE, ADDRESS, EMAIL
+    }
+
+    private static final String URL_ANCHOR = "url";
+    private static final String WWW_ANCHOR = "www";
+    private static final String UK_PREFIX_ANCHOR = "+44";
+    private static final String SWISS_PREFIX_ANCHOR = "+41";
+    private static final String COUNTRY_ANCHOR = "country";
+
+    private static final String COUNTRIES = "Canada|USA|United States|Ghana|UK|United Kingdom|Australia|New Zealand|South Africa|India|Brazil|Mexico|Germany|France|Italy|Spain|Netherlands|Belgium|Switzerland|Schweiz|Suisse|Svizzera|Austria|Sweden|Norway|Denmark|Finland|Poland|Portugal|Greece|Ireland|Japan|China|South Korea|Singapore|Malaysia|Thailand|Philippines|Indonesia|Vietnam|Taiwan|Hong Kong|UAE|Saudi Arabia|Israel|Turkey|Egypt|Kenya|Nigeria|Argentina|Chile|Colombia|Peru|Venezuela|Ecuador|Uruguay|Paraguay|Bolivia";
+
+    private static final Set<String> ADDRESS_SUFFIXES = Set.of("street", "st", "avenue", "ave", "road", "rd",
+            "boulevard", "blvd", "lane", "ln", "drive", "dr", "court", "ct", "place", "pl", "way");
+    private static final Set<String> ROAD_SUFFIXES = Set.of("road", "rd", "street", "st", "avenue", "ave",
+            "boulevard", "blvd", "lane", "ln", "drive", "dr");
+
+    private static final SpamKeywordMatcher ANCHORS = compileAnchors();
+
+    private static final List<Rule> RULES = List.of(
+            // Website/URL patterns
+            new Rule(ContactType.WEBSITE, "https?://[a-zA-Z0-9.-]+\\.[a-zA-Z]{2,}", s -> s.hasAnchor(URL_ANCHOR)),
+            new Rule(ContactType.WEBSITE, "www\\.[a-zA-Z0-9.-]+\\.[a-zA-Z]{2,}", s -> s.hasAnchor(WWW_ANCHOR)),
+
+            // Phone number patterns. Their digits are at most two separators apart, so each one needs a digit
+            // cluster at least as long as its shortest match.
+            // International format with spaces/dashes (e.g., +61 1300 650 773)
+            new Rule(ContactType.PHONE, "\\+?[1-9]\\d{1,3}[-.\\s]?\\d{3,4}[-.\\s]?\\d{3,4}[-.\\s]?\\d{3,4}", s -> s.maxDigitCluster >= 11),
+            // International format without spaces
+            new Rule(ContactType.PHONE, "\\+?[1-9]\\d{9,14}", s -> s.maxDigitRun >= 10),
+            // US format
+            new Rule(ContactType.PHONE, "\\(?[0-9]{3}\\)?[-.\\s]?[0-9]{3}[-.\\s]?[0-9]{4}", s -> s.maxDigitCluster >= 10),
+            // US format without parentheses
+            new Rule(ContactType.PHONE, "[0-9]{3}[-.\\s]?[0-9]{3}[-.\\s]?[0-9]{4}", s -> s.maxDigitCluster >= 10),
+            // UK format (starts with 0, e.g., 01273 782 734, 01754 768120)
+            new Rule(ContactType.PHONE, "0\\d{2,4}[-.\\s]?\\d{3,4}[-.\\s]?\\d{3,4}", s -> s.maxDigitCluster >= 9),
+            // UK international format (+44)
+            new Rule(ContactType.PHONE, "\\+44[-.\\s]?\\d{2,4}[-.\\s]?\\d{3,4}[-.\\s]?\\d{3,4}", s -> s.hasAnchor(UK_PREFIX_ANCHOR) && s.maxDigitCluster >= 10),
+            // Swiss international format (+41), e.g. +41 44 499 00 75
+            new Rule(ContactType.PHONE, "\\+41[-.\\s]?\\d{2}[-.\\s]?\\d{3}[-.\\s]?\\d{2}[-.\\s]?\\d{2}", s -> s.hasAnchor(SWISS_PREFIX_ANCHOR) && s.maxDigitCluster >= 11),
+            // Swiss landline format (starts with 0), e.g. 044 499 00 75
+            new Rule(ContactType.PHONE, "0\\d{2}[-.\\s]?\\d{3}[-.\\s]?\\d{2}[-.\\s]?\\d{2}", s -> s.maxDigitCluster >= 10),
+            // Flexible international format supporting 2-4 digit groups
+            new Rule(ContactType.PHONE, "\\+[1-9]\\d{1,3}[-.\\s]?\\d{2,4}(?:[-.\\s]?\\d{2,4}){2,3}", s -> s.hasPlus && s.maxDigitCluster >= 8),
+
+            // Address patterns (street addresses, postal codes, city/state/country combinations)
+            new Rule(ContactType.ADDRESS, "\\d+\\s+[a-zA-Z0-9\\s,.-]+\\s+(?:street|st|avenue|ave|road|rd|boulevard|blvd|lane|ln|drive|dr|court|ct|place|pl|way|blvd)\\b", s -> s.maxDigitRun >= 1 && s.hasAddressSuffix),
+            // US ZIP codes
+            new Rule(ContactType.ADDRESS, "\\d{5}(?:-\\d{4})?", s -> s.maxDigitRun >= 5),
+            // Canadian postal codes
+            new Rule(ContactType.ADDRESS, "[a-zA-Z]\\d[a-zA-Z]\\s?\\d[a-zA-Z]\\d", s -> s.hasLetterBeforeDigit),
+            // Dutch postal codes
+            new Rule(ContactType.ADDRESS, "\\b\\d{4}\\s?[a-zA-Z]{2}\\b", s -> s.maxDigitRun >= 4),
+            // Swiss postal codes: 4 digits followed by city name (e.g., "8001 Zürich")
+            new Rule(ContactType.ADDRESS, "\\b\\d{4}\\s+[A-ZÄÖÜ][a-zäöüß]+(?:\\s+[A-ZÄÖÜ][a-zäöüß]+)*\\b", s -> s.maxDigitRun >= 4),
+            // Road names without numbers (e.g., "Spintex Road")
+            new Rule(ContactType.ADDRESS, "\\b[a-zA-Z]+\\s+(?:road|rd|street|st|avenue|ave|boulevard|blvd|lane|ln|drive|dr)\\b", s -> s.hasRoadSuffix),
+            // City/State/Country combinations (e.g., "Winnipeg Manitoba Canada", "Accra Greater Accra Region Ghana", "Zürich Schweiz")
+            new Rule(ContactType.ADDRESS, "\\b(?:[A-Z][a-z]+\\s+){1,3}(?:[A-Z][a-z]+\\s+)*(?:" + COUNTRIES + ")\\b", s -> s.hasAnchor(COUNTRY_ANCHOR)),
+            // Country names alone (e.g., "Canada and US", "Schweiz")
+            new Rule(ContactType.ADDRESS, "\\b(?:" + COUNTRIES + ")\\b", s -> s.hasAnchor(COUNTRY_ANCHOR)),
+
+            // Email patterns
+            new Rule(ContactType.EMAIL, "[a-zA-Z0-9._%+-]+@[a-zA-Z0-9.-]+\\.[a-zA-Z]{2,}", s -> s.hasAt)
+    );
+
+    private ContactInfoScanner() {
+    }
+
+    /**
+     * Scans the text. Patterns are evaluated lazily, the first time a result needs them, and read the text
+     * through the given sequence, which may be guarded by a {@link SpamDetectionBudget}.
+     */
+    @NotNull
+    public static Scan scan(@NotNull CharSequence text) {
+        return new Scan(text, new Signals(text.toString()));
+    }
+
+    public static final class Scan {
+        private final CharSequence text;
+        private final boolean[] candidates = new boolean[RULES.size()];
+        // Per rule: null while unknown, then whether the pattern occurs at least once.
+        private final Boolean[] found = new Boolean[RULES.size()];
+
+        private Scan(@NotNull CharSequence text, @NotNull Signals signals) {
+            this.text = text;
+            for (int i = 0; i < RULES.size(); i++) {
+                candidates[i] = RULES.get(i).prefilter.test(signals);
+            }
+        }
+
+        /**
+         * Returns true if any pattern of the given type occurs in the text.
+         */
+        public boolean has(@NotNull ContactType type) {
+            for (int i = 0; i < RULES.size(); i++) {
+                if (RULES.get(i).type == type && occurs(i)) {
+                    return true;
+                }
+            }
+            return false;
+        }
+
+        /**
+         * Returns the number of matches summed over all the contact patterns.
+         */
+        public long countMatches() {
+            long result = 0;
+            for (int i = 0; i < RULES.size(); i++) {
+                if (!candidates[i] || Boolean.FALSE.equals(found[i])) {
+                    continue;
+                }
+                final Matcher matcher = RULES.get(i).pattern.matcher(text);
+                while (matcher.find()) {
+                    result++;
+                }
+            }
+            return result;
+        }
+
+        private boolean occurs(int rule) {
+            if (found[rule] == null) {
+                found[rule] = candidates[rule] && RULES.get(rule).pattern.matcher(text).find();
+            }
+            return found[rule];
+        }
+    }
+
+    private record Rule(@NotNull ContactType type, @NotNull Pattern pattern, @NotNull Predicate<Signals> prefilter) {
+        Rule(@NotNull ContactType type, @NotNull String regex, @NotNull Predicate<Signals> prefilter) {
+            this(type, Pattern.compile(regex, Pattern.CASE_INSENSITIVE), prefilter);
+        }
+    }
+
+    /**
+     * Everything the prefilters need, collected in a single pass over the text plus one run of the anchor automaton.
+     */
+    private static final class Signals {
+        private int maxDigitRun;
+        // Longest sequence of digits where consecutive digits are at most two separators apart.
+        private int maxDigitCluster;
+        private boolean hasPlus;
+        private boolean hasAt;
+        private boolean hasLetterBeforeDigit;
+        private boolean hasAddressSuffix;
+        private boolean hasRoadSuffix;
+        private final Set<String> anchors;
+
+        private Signals(@NotNull String text) {
+            int digitRun = 0;
+            int digitCluster = 0;
+            int separators = 0;
+            int wordStart = -1;
+            char previous = ' ';
+            for (int i = 0; i <= text.length(); i++) {
+                final char c = i < text.length() ? text.charAt(i) : ' ';
+                final boolean letter = isAsciiLetter(c);
+                if (c >= '0' && c <= '9') {
+                    digitRun++;
+                    digitCluster++;
+                    separators = 0;
+                    maxDigitRun = Math.max(maxDigitRun, digitRun);
+                    maxDigitCluster = Math.max(maxDigitCluster, digitCluster);
+                    hasLetterBeforeDigit |= isAsciiLetter(previous);
+                } else {
+                    digitRun = 0;
+                    if (!isPhoneSeparator(c) || ++separators > 2) {
+                        digitCluster = 0;
+                    }
+                }
+                hasPlus |= c == '+';
+                hasAt |= c == '@';
+
+                // Words made of letters only and preceded by whitespace, the only place street suffixes can match.
+                if (letter && wordStart < 0 && isWhitespace(previous) && i > 0) {
+                    wordStart = i;
+                } else if (!letter && wordStart >= 0) {
+                    final String word = text.substring(wordStart, i).toLowerCase(Locale.ROOT);
+                    hasAddressSuffix |= ADDRESS_SUFFIXES.contains(word);
+                    hasRoadSuffix |= ROAD_SUFFIXES.contains(word);
+                    wordStart = -1;
+                }
+                previous = c;
+            }
+            this.anchors = ANCHORS.findAll(text.toLowerCase(Locale.ROOT)).stream()
+                    .map(SpamKeywordMatcher.Match::category)
+                    .collect(Collectors.toSet());
+        }
+
+        private boolean hasAnchor(@NotNull String anchor) {
+            return anchors.contains(anchor);
+        }
+    }
+
+    private static SpamKeywordMatcher compileAnchors() {
+        final Map<String, String> categoryByKeyword = new LinkedHashMap<>();
+        categoryByKeyword.put("http://", URL_ANCHOR);
+        categoryByKeyword.put("https://", URL_ANCHOR);
+        categoryByKeyword.put("www.", WWW_ANCHOR);
+        categoryByKeyword.put("+44", UK_PREFIX_ANCHOR);
+        categoryByKeyword.put("+41", SWISS_PREFIX_ANCHOR);
+        for (String country : COUNTRIES.split("\\|")) {
+            categoryByKeyword.put(country.toLowerCase(Locale.ROOT), COUNTRY_ANCHOR);
+        }
+        return SpamKeywordMatcher.compile(categoryByKeyword);
+    }
+
+    private static boolean isAsciiLetter(char c) {
+        return (c >= 'a' && c <= 'z') || (c >= 'A' && c <= 'Z');
+    }
+
+    // Same characters as \s in a pattern without UNICODE_CHARACTER_CLASS.
+    private static boolean isWhitespace(char c) {
+        return c == ' ' || c == '\t' || c == '\n' || c == '\u000B' || c == '\f' || c == '\r';
+    }
+
+    private static boolean isPhoneSeparator(char c) {
+        return c == '-' || c == '.' || c == '(' || c == ')' || isWhitespace(c);
+    }
+}
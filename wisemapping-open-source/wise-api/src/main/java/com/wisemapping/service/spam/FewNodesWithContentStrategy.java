@@ -18,7 +18,6 @@
 
 package com.wisemapping.service.spam;
 
-import com.wisemapping.mindmap.model.MapModel;
 import com.wisemapping.model.SpamStrategyType;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Component;
@@ -43,15 +42,10 @@ public class FewNodesWithContentStrategy implements SpamDetectionStrategy {
             return SpamDetectionResult.notSpam();
         }
 
-        MapModel mapModel = context.getMapModel();
+        // Check the content for marketing keywords
+        final boolean marketingHeavy = contentExtractor.countSpamKeywords(context.getLowerCaseTextContent()) >= MARKETING_KEYWORD_THRESHOLD;
         
-        // Extract content to check for marketing keywords
-        String content = contentExtractor.extractTextContent(mapModel, 
-                                                              context.getTitle(), 
-                                                              context.getDescription());
-        final boolean marketingHeavy = contentExtractor.countSpamKeywords(content.toLowerCase()) >= MARKETING_KEYWORD_THRESHOLD;
-        
-        int topicCount = mapModel.getTotalTopicCount();
+        int topicCount = context.getTopicCount();
         
         // Any mindmap with more than the configured threshold is considered legitimate content (not spam)
         if (topicCount > minNodesExemption && !marketingHeavy) {
@@ -60,8 +54,8 @@ public class FewNodesWithContentStrategy implements SpamDetectionStrategy {
 
         // For maps with 2-3 nodes, check if they have links or notes
         if (topicCount <= 3) {
-            boolean hasLinks = mapModel.countTopicsWithLinks() > 0;
-            boolean hasNotes = mapModel.countTopicsWithNotes() > 0;
+            boolean hasLinks = context.getLinkCount() > 0;
+            boolean hasNotes = context.getNoteCount() > 0;
             if (hasLinks || hasNotes) {
                 String reason = hasLinks && hasNotes ? "Few nodes with links, notes and spam keywords" :
                                hasLinks ? "Few nodes with links and spam keywords" :
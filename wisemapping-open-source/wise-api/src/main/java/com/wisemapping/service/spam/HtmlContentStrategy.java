@@ -18,9 +18,6 @@
 
 package com.wisemapping.service.spam;
 
-import com.wisemapping.mindmap.model.MapModel;
-import com.wisemapping.mindmap.model.Topic;
-import com.wisemapping.model.Mindmap;
 import com.wisemapping.model.SpamStrategyType;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
@@ -87,34 +84,32 @@ public class HtmlContentStrategy implements SpamDetectionStrategy {
             return SpamDetectionResult.notSpam();
         }
 
-        MapModel mapModel = context.getMapModel();
-
         // Check if mindmap contains HTML content
-        if (!contentExtractor.hasHtmlContent(mapModel)) {
+        if (context.isKnownWithoutHtmlNotes() || !context.hasHtmlNotes()) {
             return SpamDetectionResult.notSpam();
         }
 
         try {
-            // Extract all HTML content from notes using the parsed model
-            String htmlContent = extractAllHtmlContent(mapModel);
+            // All HTML content from notes
+            String htmlContent = context.getHtmlNotesContent();
             if (htmlContent.trim().isEmpty()) {
                 return SpamDetectionResult.notSpam();
             }
 
             // Check for suspicious HTML patterns
-            SpamDetectionResult patternResult = checkHtmlPatterns(htmlContent);
+            SpamDetectionResult patternResult = checkHtmlPatterns(context.guard(htmlContent));
             if (patternResult.isSpam()) {
                 return patternResult;
             }
 
             // Check HTML element count
-            SpamDetectionResult elementCountResult = checkHtmlElementCount(mapModel);
+            SpamDetectionResult elementCountResult = checkHtmlElementCount(context);
             if (elementCountResult.isSpam()) {
                 return elementCountResult;
             }
 
             // Check HTML to text ratio
-            SpamDetectionResult ratioResult = checkHtmlToTextRatio(htmlContent);
+            SpamDetectionResult ratioResult = checkHtmlToTextRatio(context, htmlContent);
             if (ratioResult.isSpam()) {
                 return ratioResult;
             }
@@ -123,7 +118,7 @@ public class HtmlContentStrategy implements SpamDetectionStrategy {
             // save time
 
             // Check note content length limits
-            SpamDetectionResult noteLengthResult = checkNoteContentLength(context.getMindmap());
+            SpamDetectionResult noteLengthResult = checkNoteContentLength(context);
             if (noteLengthResult.isSpam()) {
                 return noteLengthResult;
             }
@@ -142,27 +137,10 @@ public class HtmlContentStrategy implements SpamDetectionStrategy {
         return SpamStrategyType.HTML_CONTENT;
     }
 
-    /**
-     * Extracts all HTML content from notes in the parsed model.
-     */
-    private String extractAllHtmlContent(MapModel mapModel) {
-        StringBuilder htmlContent = new StringBuilder();
-
-        // Extract HTML content from all topics' notes
-        for (Topic topic : mapModel.getAllTopics()) {
-            String note = topic.getNote();
-            if (note != null && !note.trim().isEmpty() && contentExtractor.isHtmlContent(note)) {
-                htmlContent.append(note).append(" ");
-            }
-        }
-
-        return htmlContent.toString();
-    }
-
     /**
      * Checks for suspicious HTML patterns that indicate spam.
      */
-    private SpamDetectionResult checkHtmlPatterns(String htmlContent) {
+    private SpamDetectionResult checkHtmlPatterns(CharSequence htmlContent) {
         long suspiciousPatterns = HTML_SPAM_PATTERNS.stream()
                 .mapToLong(pattern -> {
                     java.util.regex.Matcher matcher = pattern.matcher(htmlContent);
@@ -187,8 +165,8 @@ public class HtmlContentStrategy implements SpamDetectionStrategy {
     /**
      * Checks if the HTML element count exceeds the threshold.
      */
-    private SpamDetectionResult checkHtmlElementCount(MapModel mapModel) {
-        long htmlElementCount = countHtmlElements(mapModel);
+    private SpamDetectionResult checkHtmlElementCount(SpamDetectionContext context) {
+        long htmlElementCount = countHtmlElements(context);
 
         if (htmlElementCount > maxHtmlElements) {
             return new SpamDetectionResult(true,
@@ -205,15 +183,14 @@ public class HtmlContentStrategy implements SpamDetectionStrategy {
      * Only counts suspicious/non-formatting HTML elements, excluding common text
      * formatting tags.
      */
-    private long countHtmlElements(MapModel mapModel) {
+    private long countHtmlElements(SpamDetectionContext context) {
         long count = 0;
 
         // Count HTML tags in all notes
-        for (Topic topic : mapModel.getAllTopics()) {
-            String note = topic.getNote();
-            if (note != null && !note.trim().isEmpty() && contentExtractor.isHtmlContent(note)) {
+        for (SpamDetectionContext.Note note : context.getNotes()) {
+            if (note.html()) {
                 // Count only suspicious HTML tags (exclude text formatting tags)
-                count += countSuspiciousHtmlElements(note);
+                count += countSuspiciousHtmlElements(context, note.content());
             }
         }
 
@@ -226,17 +203,18 @@ public class HtmlContentStrategy implements SpamDetectionStrategy {
      * div, etc.)
      * are considered legitimate and are not counted.
      * 
+     * @param context     The detection context, whose budget bounds the matching
      * @param htmlContent The HTML content to analyze
      * @return Count of suspicious HTML elements
      */
-    private long countSuspiciousHtmlElements(String htmlContent) {
+    private long countSuspiciousHtmlElements(SpamDetectionContext context, String htmlContent) {
         if (htmlContent == null || htmlContent.trim().isEmpty()) {
             return 0;
         }
 
         // Pattern to match HTML tags, capturing the tag name
         Pattern tagPattern = Pattern.compile("<(/?)([a-zA-Z][a-zA-Z0-9]*)[^>]*>", Pattern.CASE_INSENSITIVE);
-        java.util.regex.Matcher matcher = tagPattern.matcher(htmlContent);
+        java.util.regex.Matcher matcher = tagPattern.matcher(context.guard(htmlContent));
 
         // Set of legitimate text formatting tags that should not be counted
         java.util.Set<String> formattingTags = java.util.Set.of(
@@ -279,12 +257,12 @@ public class HtmlContentStrategy implements SpamDetectionStrategy {
      * Checks if the HTML to text ratio is suspiciously high.
      * Only counts suspicious HTML elements (excludes text formatting tags).
      */
-    private SpamDetectionResult checkHtmlToTextRatio(String htmlContent) {
+    private SpamDetectionResult checkHtmlToTextRatio(SpamDetectionContext context, String htmlContent) {
         // Extract plain text from HTML
-        String plainText = contentExtractor.sanitizeHtmlContent(htmlContent);
+        String plainText = context.getHtmlNotesText();
 
         // Calculate ratio of suspicious HTML tags to text (exclude formatting tags)
-        long suspiciousHtmlTagCount = countSuspiciousHtmlElements(htmlContent);
+        long suspiciousHtmlTagCount = countSuspiciousHtmlElements(context, htmlContent);
 
         if (plainText.trim().isEmpty()) {
             // If there's HTML but no extractable text
@@ -333,19 +311,30 @@ public class HtmlContentStrategy implements SpamDetectionStrategy {
 
     /**
      * Checks if any note content exceeds the maximum allowed length.
-     * This prevents spam by limiting the size of individual notes.
+     * This prevents spam by limiting the size of individual notes. HTML notes are measured by their text, as
+     * {@link com.wisemapping.mindmap.utils.MindmapUtils#validateNoteContentLength(String, int)} does.
      */
-    private SpamDetectionResult checkNoteContentLength(Mindmap mindmap) {
-        com.wisemapping.mindmap.utils.MindmapUtils.NoteValidationResult validationResult = contentExtractor
-                .validateNoteContentLength(mindmap, maxNoteLength);
+    private SpamDetectionResult checkNoteContentLength(SpamDetectionContext context) {
+        final List<SpamDetectionContext.Note> notes = context.getNotes();
+        int oversizedNotes = 0;
+        final StringBuilder violations = new StringBuilder();
+        for (int i = 0; i < notes.size(); i++) {
+            final SpamDetectionContext.Note note = notes.get(i);
+            final int length = note.html() ? note.plainText().length() : note.content().length();
+            if (length > maxNoteLength) {
+                oversizedNotes++;
+                violations.append(String.format("%s note %d: %d chars (limit: %d), ", note.html() ? "HTML" : "Text",
+                        i + 1, length, maxNoteLength));
+            }
+        }
 
-        if (!validationResult.isValid()) {
+        if (oversizedNotes > 0) {
             return new SpamDetectionResult(true,
                     "Note content exceeds maximum length",
                     String.format("Found %d oversized notes out of %d total notes. %s",
-                            validationResult.getOversizedNotes(),
-                            validationResult.getTotalNotes(),
-                            validationResult.getViolationDetails()),
+                            oversizedNotes,
+                            notes.size(),
+                            violations),
                     SpamStrategyType.HTML_CONTENT);
         }
 
@@ -18,7 +18,6 @@
 
 package com.wisemapping.service.spam;
 
-import com.wisemapping.mindmap.model.MapModel;
 import com.wisemapping.model.SpamStrategyType;
 import org.springframework.beans.factory.annotation.Value;
 // import org.springframework.stereotype.Component; // Disabled - strategy not active
@@ -85,52 +84,48 @@ public class KeywordPatternStrategy implements SpamDetectionStrategy {
             return SpamDetectionResult.notSpam();
         }
 
-        MapModel mapModel = context.getMapModel();
-        
         // Extract content from the parsed model
-        final String content = contentExtractor.extractTextContent(mapModel, 
-                                                                     context.getTitle(), 
-                                                                     context.getDescription());
+        final String content = context.getTextContent();
         if (content.trim().isEmpty()) {
             return SpamDetectionResult.notSpam();
         }
         
         // Check node count first - any mindmap with more than the configured threshold is considered legitimate content (not spam)
-        int topicCount = mapModel.getTotalTopicCount();
+        int topicCount = context.getTopicCount();
         if (topicCount > minNodesExemption) {
             return SpamDetectionResult.notSpam();
         }
         
-        final String lowerContent = content.toLowerCase();
+        final String lowerContent = context.getLowerCaseTextContent();
         
         // Check for spam keywords
-        long uniqueKeywordTypes = contentExtractor.countUniqueKeywordTypes(lowerContent);
+        long uniqueKeywords = contentExtractor.countSpamKeywords(lowerContent);
 
         // Check for spam patterns
         long patternMatches = SPAM_PATTERNS.stream()
-            .mapToLong(pattern -> pattern.matcher(content).results().count())
+            .mapToLong(pattern -> pattern.matcher(context.guard(content)).results().count())
             .sum();
 
         // Consider spam if indicators are present
-        boolean isSpam = uniqueKeywordTypes >= 2 || patternMatches >= 2 || 
-                        (uniqueKeywordTypes >= 1 && patternMatches >= 1);
+        boolean isSpam = uniqueKeywords >= 2 || patternMatches >= 2 || 
+                        (uniqueKeywords >= 1 && patternMatches >= 1);
         
         if (isSpam) {
-            String reason = getSpamReason(uniqueKeywordTypes, patternMatches);
+            String reason = getSpamReason(uniqueKeywords, patternMatches);
             String details = String.format("UniqueKeywords: %d, Patterns: %d", 
-                                          uniqueKeywordTypes, patternMatches);
+                                          uniqueKeywords, patternMatches);
             return SpamDetectionResult.spam(reason, details, getType());
         }
         
         return SpamDetectionResult.notSpam();
     }
     
-    private String getSpamReason(long uniqueKeywordTypes, long patternMatches) {
-        if (uniqueKeywordTypes >= 2) {
+    private String getSpamReason(long uniqueKeywords, long patternMatches) {
+        if (uniqueKeywords >= 2) {
             return "Multiple spam keywords detected";
         } else if (patternMatches >= 2) {
             return "Multiple spam patterns detected";
-        } else if (uniqueKeywordTypes >= 1 && patternMatches >= 1) {
+        } else if (uniqueKeywords >= 1 && patternMatches >= 1) {
             return "Mixed spam indicators detected";
         }
         return "Spam indicators detected";
@@ -14,8 +14,8 @@
 
 package com.wisemapping.service.spam;
 
-import com.wisemapping.mindmap.model.MapModel;
 import com.wisemapping.model.SpamStrategyType;
+import com.wisemapping.util.DomainTrie;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.core.io.Resource;
 import org.springframework.stereotype.Component;
@@ -25,11 +25,8 @@ import java.io.InputStream;
 import java.net.URI;
 import java.net.URISyntaxException;
 import java.util.Collection;
-import java.util.Collections;
-import java.util.HashSet;
 import java.util.Locale;
 import java.util.Map;
-import java.util.Set;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 
@@ -57,9 +54,8 @@ public class LinkFarmSpamStrategy implements SpamDetectionStrategy {
     @Value("${app.batch.spam-detection.link-farm.popular-domain-whitelist-resource:classpath:spam/popular-domain-whitelist.yml}")
     private Resource popularDomainWhitelistResource;
 
-    private Set<String> popularDomainWhitelistDomains;
-    private Set<Pattern> popularDomainWhitelistPatterns;
-    private boolean popularDomainWhitelistLoaded = false;
+    // Loaded on first use, checked for every url of every map
+    private volatile DomainTrie popularDomainWhitelist;
 
     // Pattern to match URLs
     private static final Pattern URL_PATTERN = Pattern.compile(
@@ -78,21 +74,16 @@ public class LinkFarmSpamStrategy implements SpamDetectionStrategy {
         }
 
         try {
-            MapModel mapModel = context.getMapModel();
-
-            // Count nodes from the parsed model
-            int topicCount = mapModel.getTotalTopicCount();
+            int topicCount = context.getTopicCount();
 
             // Extract content from the parsed model
-            String content = contentExtractor.extractTextContent(mapModel,
-                    context.getTitle(),
-                    context.getDescription());
+            String content = context.getTextContent();
             if (content == null || content.trim().isEmpty()) {
                 return SpamDetectionResult.notSpam();
             }
 
             // Count URLs in content and also check links in topics
-            Matcher urlMatcher = URL_PATTERN.matcher(content);
+            Matcher urlMatcher = URL_PATTERN.matcher(context.guard(content));
             long urlCount = 0;
             while (urlMatcher.find()) {
                 String url = urlMatcher.group();
@@ -102,7 +93,7 @@ public class LinkFarmSpamStrategy implements SpamDetectionStrategy {
             }
 
             // Also count links from topic linkUrl fields
-            for (String url : mapModel.getAllLinkUrls()) {
+            for (String url : context.getLinkUrls()) {
                 if (shouldCountUrl(url)) {
                     urlCount++;
                 }
@@ -181,89 +172,59 @@ public class LinkFarmSpamStrategy implements SpamDetectionStrategy {
     }
 
     private boolean isHostWhitelisted(String host) {
-        ensurePopularDomainWhitelist();
-        if (popularDomainWhitelistDomains.isEmpty() && popularDomainWhitelistPatterns.isEmpty()) {
-            return false;
-        }
-
-        if (popularDomainWhitelistDomains.contains(host)) {
-            return true;
-        }
-
-        for (String domain : popularDomainWhitelistDomains) {
-            if (!domain.isEmpty() && host.endsWith("." + domain)) {
-                return true;
-            }
-        }
+        return getPopularDomainWhitelist().matches(host);
+    }
 
-        for (Pattern pattern : popularDomainWhitelistPatterns) {
-            if (pattern.matcher(host).matches()) {
-                return true;
+    private DomainTrie getPopularDomainWhitelist() {
+        DomainTrie result = popularDomainWhitelist;
+        if (result == null) {
+            synchronized (this) {
+                result = popularDomainWhitelist;
+                if (result == null) {
+                    result = loadPopularDomainWhitelist();
+                    popularDomainWhitelist = result;
+                }
             }
         }
-
-        return false;
+        return result;
     }
 
-    private void ensurePopularDomainWhitelist() {
-        if (popularDomainWhitelistLoaded) {
-            return;
-        }
-
-        popularDomainWhitelistLoaded = true;
-
+    private DomainTrie loadPopularDomainWhitelist() {
         if (popularDomainWhitelistResource == null) {
-            popularDomainWhitelistDomains = Collections.emptySet();
-            popularDomainWhitelistPatterns = Collections.emptySet();
-            return;
+            return DomainTrie.empty();
         }
 
-        Set<String> domains = new HashSet<>();
-        Set<Pattern> patterns = new HashSet<>();
-
+        final DomainTrie.Builder builder = DomainTrie.builder();
         try (InputStream inputStream = popularDomainWhitelistResource.getInputStream()) {
             Yaml yaml = new Yaml();
             Object data = yaml.load(inputStream);
-            extractDomains(data, domains, patterns);
+            extractDomains(data, builder);
         } catch (Exception e) {
-            popularDomainWhitelistDomains = Collections.emptySet();
-            popularDomainWhitelistPatterns = Collections.emptySet();
-            return;
-        }
-
-        if (domains.isEmpty()) {
-            popularDomainWhitelistDomains = Collections.emptySet();
-        } else {
-            popularDomainWhitelistDomains = Collections.unmodifiableSet(domains);
-        }
-
-        if (patterns.isEmpty()) {
-            popularDomainWhitelistPatterns = Collections.emptySet();
-        } else {
-            popularDomainWhitelistPatterns = Collections.unmodifiableSet(patterns);
+            return DomainTrie.empty();
         }
+        return builder.build();
     }
 
-    private void extractDomains(Object data, Set<String> domains, Set<Pattern> patterns) {
+    private void extractDomains(Object data, DomainTrie.Builder builder) {
         if (data == null) {
             return;
         }
 
         if (data instanceof Collection<?> collection) {
             for (Object element : collection) {
-                addDomain(element, domains, patterns);
+                addDomain(element, builder);
             }
         } else if (data instanceof Map<?, ?> map) {
             Object domainsValue = map.get("domains");
             if (domainsValue != null) {
-                extractDomains(domainsValue, domains, patterns);
+                extractDomains(domainsValue, builder);
             }
         } else {
-            addDomain(data, domains, patterns);
+            addDomain(data, builder);
         }
     }
 
-    private void addDomain(Object element, Set<String> domains, Set<Pattern> patterns) {
+    private void addDomain(Object element, DomainTrie.Builder builder) {
         if (element == null) {
             return;
         }
@@ -273,43 +234,7 @@ public class LinkFarmSpamStrategy implements SpamDetectionStrategy {
             return;
         }
 
-        if (containsWildcard(value)) {
-            Pattern pattern = compileDomainPattern(value);
-            if (pattern != null) {
-                patterns.add(pattern);
-            }
-        } else {
-            domains.add(value);
-        }
-    }
-
-    private boolean containsWildcard(String value) {
-        return value.indexOf('*') >= 0 || value.indexOf('?') >= 0;
-    }
-
-    private Pattern compileDomainPattern(String patternValue) {
-        StringBuilder regexBuilder = new StringBuilder("^");
-        for (char ch : patternValue.toCharArray()) {
-            switch (ch) {
-                case '*':
-                    regexBuilder.append(".*");
-                    break;
-                case '?':
-                    regexBuilder.append('.');
-                    break;
-                case '.':
-                    regexBuilder.append("\\.");
-                    break;
-                default:
-                    regexBuilder.append(Pattern.quote(Character.toString(ch)));
-                    break;
-            }
-        }
-        regexBuilder.append("$");
-        try {
-            return Pattern.compile(regexBuilder.toString(), Pattern.CASE_INSENSITIVE);
-        } catch (Exception e) {
-            return null;
-        }
+        // Whitelisted domains include their subdomains, patterns such as "*.edu.*" use label wildcards
+        builder.add(value);
     }
 }
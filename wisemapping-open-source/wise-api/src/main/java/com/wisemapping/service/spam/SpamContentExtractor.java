@@ -24,8 +24,11 @@ import com.wisemapping.mindmap.parser.MindmapParser;
 import com.wisemapping.mindmap.utils.MindmapUtils;
 import com.wisemapping.mindmap.utils.MindmapUtils.NoteValidationResult;
 import com.wisemapping.model.Mindmap;
+import com.wisemapping.service.MindmapDocumentCache;
+import com.wisemapping.util.DomainTrie;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.core.io.Resource;
 import org.springframework.stereotype.Component;
@@ -34,8 +37,7 @@ import jakarta.annotation.PostConstruct;
 import java.io.BufferedReader;
 import java.io.IOException;
 import java.io.InputStreamReader;
-import java.util.List;
-import java.util.stream.Collectors;
+import java.util.function.UnaryOperator;
 import java.util.regex.Pattern;
 
 /**
@@ -46,21 +48,32 @@ import java.util.regex.Pattern;
 public class SpamContentExtractor {
     private final static Logger logger = LogManager.getLogger();
 
+    private static final Pattern BULLET_PREFIX = Pattern.compile("(?m)^[\\s]*[•◦▪●□■▫▸►➤➔➢➣➧➨\\-*]+\\s*");
+    private static final Pattern WHITESPACE = Pattern.compile("\\s+");
+    private static final Pattern HTML_TAG = Pattern.compile(".*<[a-zA-Z][a-zA-Z0-9]*[^>]*>.*");
+
+    // Educational domains: the generic TLDs, .edu, and the .edu, .ac and .sch second levels of country domains
+    // followed by a 2 or 3 letter label and an optional 2 letter one (.edu.au, .ac.uk, .edu.com.br)
+    private static final DomainTrie EDUCATIONAL_DOMAINS = educationalDomains();
+
     @Value("classpath:spam-keywords.properties")
     private Resource spamKeywordsResource;
     
     @Value("${app.mindmap.note.max-length:10000}")
     private int maxNoteLength;
 
-    private List<String> spamKeywords;
+    @Autowired
+    private MindmapDocumentCache documentCache;
+
+    private SpamKeywordMatcher keywordMatcher;
     
     @PostConstruct
     public void loadSpamKeywords() {
         try (BufferedReader reader = new BufferedReader(new InputStreamReader(spamKeywordsResource.getInputStream()))) {
-            spamKeywords = reader.lines()
-                .map(String::trim)
-                .filter(line -> !line.isEmpty() && !line.startsWith("#"))
-                .collect(Collectors.toList());
+            keywordMatcher = SpamKeywordMatcher.compile(reader.lines()
+                    .map(String::trim)
+                    .filter(line -> !line.isEmpty() && !line.startsWith("#"))
+                    .toList());
         } catch (IOException e) {
             logger.error("File could not be loaded.", e);
         }
@@ -76,6 +89,15 @@ public class SpamContentExtractor {
      * @return Extracted text content
      */
     public String extractTextContent(MapModel mapModel, String title, String description) {
+        return buildTextContent(mapModel, title, description, MindmapParser::extractPlainTextContent);
+    }
+
+    /**
+     * Builds the text content of a model, taking the plain text of each note from the given function so callers
+     * can reuse the text of notes they already extracted.
+     */
+    static String buildTextContent(MapModel mapModel, String title, String description,
+                                   UnaryOperator<String> notePlainText) {
         StringBuilder content = new StringBuilder();
 
         // Add title (from entity or model)
@@ -97,7 +119,7 @@ public class SpamContentExtractor {
             }
             if (topic.getNote() != null && !topic.getNote().trim().isEmpty()) {
                 // Extract plain text from note (handles HTML)
-                String noteText = MindmapParser.extractPlainTextContent(topic.getNote());
+                String noteText = notePlainText.apply(topic.getNote());
                 content.append(noteText).append(" ");
             }
         }
@@ -125,7 +147,7 @@ public class SpamContentExtractor {
         }
 
         try {
-            String xmlContent = mindmap.getXmlStr();
+            String xmlContent = documentCache.getXmlStr(mindmap);
             if (xmlContent != null && !xmlContent.trim().isEmpty()) {
                 // Use the static mindmap parser
                 content.append(MindmapParser.extractTextContent(xmlContent));
@@ -173,7 +195,7 @@ public class SpamContentExtractor {
         }
 
         try {
-            String xml = mindmap.getXmlStr();
+            String xml = documentCache.getXmlStr(mindmap);
             if (xml == null) {
                 return false;
             }
@@ -200,7 +222,7 @@ public class SpamContentExtractor {
         }
 
         try {
-            String xml = mindmap.getXmlStr();
+            String xml = documentCache.getXmlStr(mindmap);
             if (xml == null) {
                 return new NoteValidationResult(true, "", 0, 0);
             }
@@ -221,9 +243,7 @@ public class SpamContentExtractor {
      * @return Number of spam keywords found
      */
     public long countSpamKeywords(String lowerContent) {
-        return spamKeywords != null ? spamKeywords.stream()
-            .filter(keyword -> lowerContent.contains(keyword))
-            .count() : 0;
+        return keywordMatcher != null ? keywordMatcher.countDistinct(lowerContent) : 0;
     }
 
     /**
@@ -263,15 +283,17 @@ public class SpamContentExtractor {
      * @return Normalized content
      */
     public String normalizeForPatternMatching(String content) {
+        return normalize(content);
+    }
+
+    static String normalize(String content) {
         if (content == null) {
             return "";
         }
 
-        String withoutBullets = Pattern.compile("(?m)^[\\s]*[•◦▪●□■▫▸►➤➔➢➣➧➨\\-*]+\\s*")
-                .matcher(content)
-                .replaceAll("");
+        String withoutBullets = BULLET_PREFIX.matcher(content).replaceAll("");
 
-        return withoutBullets.replaceAll("\\s+", " ").trim();
+        return WHITESPACE.matcher(withoutBullets).replaceAll(" ").trim();
     }
  
     /**
@@ -281,17 +303,7 @@ public class SpamContentExtractor {
      * @return true if spam keywords are found, false otherwise
      */
     public boolean hasSpamKeywords(String lowerContent) {
-        return spamKeywords != null && spamKeywords.stream()
-            .anyMatch(keyword -> lowerContent.contains(keyword));
-    }
-    
-    /**
-     * Gets the list of spam keywords.
-     * 
-     * @return List of spam keywords
-     */
-    public List<String> getSpamKeywords() {
-        return spamKeywords;
+        return keywordMatcher != null && keywordMatcher.containsAny(lowerContent);
     }
     
     /**
@@ -372,36 +384,21 @@ public class SpamContentExtractor {
         if (domain == null || domain.isEmpty()) {
             return false;
         }
-        
-        String domainLower = domain.toLowerCase();
-        
-        // Check for generic educational TLDs
-        if (domainLower.endsWith(".university") || domainLower.endsWith(".school")) {
-            return true;
-        }
-        
-        // Check for .edu (US) or .edu.xx (international educational domains)
-        // Examples: .edu, .edu.au, .edu.br, .edu.uk, .edu.mx, etc.
-        if (domainLower.contains(".edu")) {
-            // Match .edu at the end or .edu. followed by country code
-            if (domainLower.endsWith(".edu") || domainLower.matches(".*\\.edu\\.[a-z]{2,3}(\\.[a-z]{2})?$")) {
-                return true;
+
+        return EDUCATIONAL_DOMAINS.matches(domain);
+    }
+
+    private static DomainTrie educationalDomains() {
+        final DomainTrie.Builder builder = DomainTrie.builder()
+                .addPattern("*.university")
+                .addPattern("*.school")
+                .addPattern("*.edu");
+        for (String secondLevel : new String[]{"edu", "ac", "sch"}) {
+            for (String country : new String[]{"??", "???", "??.??", "???.??"}) {
+                builder.addPattern("*." + secondLevel + "." + country);
             }
         }
-        
-        // Check for .ac.xx (academic domains used in many countries)
-        // Examples: .ac.uk, .ac.jp, .ac.za, .ac.nz, .ac.in, etc.
-        if (domainLower.matches(".*\\.ac\\.[a-z]{2,3}(\\.[a-z]{2})?$")) {
-            return true;
-        }
-        
-        // Check for .sch.xx (school domains used in some countries)
-        // Examples: .sch.uk, .sch.za, etc.
-        if (domainLower.matches(".*\\.sch\\.[a-z]{2,3}(\\.[a-z]{2})?$")) {
-            return true;
-        }
-        
-        return false;
+        return builder.build();
     }
 
     /**
@@ -448,6 +445,10 @@ public class SpamContentExtractor {
      * @return true if content contains HTML, false otherwise
      */
     public boolean isHtmlContent(String content) {
+        return looksLikeHtml(content);
+    }
+
+    static boolean looksLikeHtml(String content) {
         if (content == null || content.trim().isEmpty()) {
             return false;
         }
@@ -458,7 +459,7 @@ public class SpamContentExtractor {
                 content.contains("<script>") || content.contains("<iframe>") ||
                 content.contains("<img") || content.contains("<br") ||
                 content.contains("<strong>") || content.contains("<em>") ||
-                content.matches(".*<[a-zA-Z][a-zA-Z0-9]*[^>]*>.*"));
+                HTML_TAG.matcher(content).matches());
     }
 
     /**
@@ -468,6 +469,10 @@ public class SpamContentExtractor {
      * @return Sanitized content
      */
     public String sanitizeHtmlContent(String content) {
+        return sanitize(content);
+    }
+
+    static String sanitize(String content) {
         if (content == null || content.trim().isEmpty()) {
             return content;
         }
@@ -480,23 +485,6 @@ public class SpamContentExtractor {
         }
     }
 
-    /**
-     * Counts unique keyword types in content.
-     * 
-     * @param content The content to analyze
-     * @return Number of unique keyword types found
-     */
-    public int countUniqueKeywordTypes(String content) {
-        if (content == null || content.trim().isEmpty()) {
-            return 0;
-        }
-        
-        String lowerContent = content.toLowerCase();
-        return (int) spamKeywords.stream()
-                .filter(keyword -> lowerContent.contains(keyword))
-                .count();
-    }
-    
     
     /**
      * Result class for note character counting.
@@ -0,0 +1,142 @@
+/*
+ *    Copyright [2007-2025] [wisemapping]
+ *
+ *   Licensed under WiseMapping Public License, Version 1.0 (the "License").
+ *   It is basically the Apache License, Version 2.0 (the "License") plus the
+ *   "powered by wisemapping" text requirement on every single page;
+ *   you may not use this file except in compliance with the License.
+ *   You may obtain a copy of the license at
+ *
+ *       https://github.com/wisemapping/wisemapping-open-source/blob/main/LICENSE.md
+ *
+ *   Unless required by applicable law or agreed to in writing, software
+ *   distributed under the License is distributed on an "AS IS" BASIS,
+ *   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *   See the License for the specific language governing permissions and
+ *   limitations under the License.
+ */
+
+package com.wisemapping.service.spam;
+
+import org.jetbrains.annotations.NotNull;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+
+/**
+ * CPU time budget for checking one map. Regular expressions backtrack, and a crafted note can keep a pattern
+ * busy for minutes. Strategies match against {@link #guard(CharSequence)}, which checks the budget while the
+ * regex engine reads the text and aborts the match with {@link ExceededException} once it is spent.
+ *
+ * The budget is measured in CPU time of the thread checking the map, or in elapsed time when the JVM does not
+ * support thread CPU time. A budget is meant to be used by a single thread.
+ */
+public final class SpamDetectionBudget {
+
+    // Reading the clock on every character would dominate the matching cost.
+    private static final int READS_PER_CHECK = 4096;
+
+    private static final ThreadMXBean THREAD_MX_BEAN = ManagementFactory.getThreadMXBean();
+    private static final boolean CPU_TIME_SUPPORTED = THREAD_MX_BEAN.isCurrentThreadCpuTimeSupported()
+            && THREAD_MX_BEAN.isThreadCpuTimeEnabled();
+
+    private final long budgetNanos;
+    private final long start;
+    private int readsUntilCheck = READS_PER_CHECK;
+    private boolean exceeded;
+
+    private SpamDetectionBudget(long budgetNanos) {
+        this.budgetNanos = budgetNanos;
+        this.start = now();
+    }
+
+    /**
+     * Starts a budget on the current thread. A non positive budget never expires.
+     */
+    @NotNull
+    public static SpamDetectionBudget start(long budgetMillis) {
+        return new SpamDetectionBudget(budgetMillis > 0 ? budgetMillis * 1_000_000L : Long.MAX_VALUE);
+    }
+
+    @NotNull
+    public static SpamDetectionBudget unlimited() {
+        return new SpamDetectionBudget(Long.MAX_VALUE);
+    }
+
+    /**
+     * Wraps the text so that matching it fails with {@link ExceededException} once the budget is spent.
+     */
+    @NotNull
+    public CharSequence guard(@NotNull CharSequence text) {
+        if (budgetNanos == Long.MAX_VALUE || text instanceof GuardedCharSequence) {
+            return text;
+        }
+        return new GuardedCharSequence(text);
+    }
+
+    /**
+     * Returns true once a guarded match has run out of budget, even if the strategy swallowed the exception.
+     */
+    public boolean isExceeded() {
+        return exceeded;
+    }
+
+    public long getElapsedMillis() {
+        return (now() - start) / 1_000_000L;
+    }
+
+    private void onRead() {
+        if (exceeded) {
+            throw new ExceededException(budgetNanos / 1_000_000L);
+        }
+        if (--readsUntilCheck > 0) {
+            return;
+        }
+        readsUntilCheck = READS_PER_CHECK;
+        if (now() - start > budgetNanos) {
+            exceeded = true;
+            throw new ExceededException(budgetNanos / 1_000_000L);
+        }
+    }
+
+    private static long now() {
+        return CPU_TIME_SUPPORTED ? THREAD_MX_BEAN.getCurrentThreadCpuTime() : System.nanoTime();
+    }
+
+    public static class ExceededException extends RuntimeException {
+        public ExceededException(long budgetMillis) {
+            super("Spam detection exceeded its budget of " + budgetMillis + "ms");
+        }
+    }
+
+    private final class GuardedCharSequence implements CharSequence {
+        private final CharSequence text;
+
+        private GuardedCharSequence(@NotNull CharSequence text) {
+            this.text = text;
+        }
+
+        @Override
+        public int length() {
+            return text.length();
+        }
+
+        @Override
+        public char charAt(int index) {
+            onRead();
+            return text.charAt(index);
+        }
+
+        @NotNull
+        @Override
+        public CharSequence subSequence(int start, int end) {
+            return new GuardedCharSequence(text.subSequence(start, end));
+        }
+
+        @NotNull
+        @Override
+        public String toString() {
+            return text.toString();
+        }
+    }
+}
@@ -19,10 +19,18 @@
 package com.wisemapping.service.spam;
 
 import com.wisemapping.mindmap.model.MapModel;
+import com.wisemapping.mindmap.model.Topic;
+import com.wisemapping.mindmap.parser.MindmapParser;
 import com.wisemapping.model.Mindmap;
+import com.wisemapping.model.MindmapStats;
 import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
 
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
 /**
  * Context object that holds both the Mindmap entity and its parsed model.
  * This allows spam detection strategies to work with the parsed model without
@@ -35,10 +43,45 @@ public class SpamDetectionContext {
     
     @NotNull
     private final MapModel mapModel;
+
+    @NotNull
+    private final SpamDetectionBudget budget;
+
+    @Nullable
+    private final MindmapStats stats;
+
+    // Structure counts shared by the strategies, computed from the model on first use unless stats are known
+    private int topicCount = -1;
+    private int noteCount = -1;
+    private int linkCount = -1;
+
+    // Text views shared by the strategies, each built on first use. A context is used by one thread at a time.
+    private List<Note> notes;
+    private String textContent;
+    private String lowerCaseTextContent;
+    private String patternText;
+    private String lowerCasePatternText;
+    private List<String> linkUrls;
+    private String htmlNotesContent;
+    private String htmlNotesText;
     
     public SpamDetectionContext(@NotNull Mindmap mindmap, @NotNull MapModel mapModel) {
+        this(mindmap, mapModel, SpamDetectionBudget.unlimited());
+    }
+
+    public SpamDetectionContext(@NotNull Mindmap mindmap, @NotNull MapModel mapModel, @NotNull SpamDetectionBudget budget) {
+        this(mindmap, mapModel, budget, null);
+    }
+
+    /**
+     * @param stats the stored statistics of the map, ignored unless they describe its current revision
+     */
+    public SpamDetectionContext(@NotNull Mindmap mindmap, @NotNull MapModel mapModel, @NotNull SpamDetectionBudget budget,
+                                @Nullable MindmapStats stats) {
         this.mindmap = mindmap;
         this.mapModel = mapModel;
+        this.budget = budget;
+        this.stats = stats != null && stats.describes(mindmap) ? stats : null;
     }
     
     /**
@@ -86,5 +129,216 @@ public class SpamDetectionContext {
         }
         return mapModel.getDescription();
     }
-}
 
+    /**
+     * Gets the number of topics, from the stored statistics when available.
+     * 
+     * @return The topic count
+     */
+    public int getTopicCount() {
+        if (topicCount < 0) {
+            topicCount = stats != null ? stats.getTopicCount() : mapModel.getTotalTopicCount();
+        }
+        return topicCount;
+    }
+
+    /**
+     * Gets the number of topics with a note, from the stored statistics when available.
+     * 
+     * @return The note count
+     */
+    public int getNoteCount() {
+        if (noteCount < 0) {
+            noteCount = stats != null ? stats.getNoteCount() : mapModel.countTopicsWithNotes();
+        }
+        return noteCount;
+    }
+
+    /**
+     * Gets the number of topics with a link, from the stored statistics when available.
+     * 
+     * @return The link count
+     */
+    public int getLinkCount() {
+        if (linkCount < 0) {
+            linkCount = stats != null ? stats.getLinkCount() : mapModel.countTopicsWithLinks();
+        }
+        return linkCount;
+    }
+
+    /**
+     * Tells whether the stored statistics rule out HTML notes, so the notes do not need to be inspected.
+     * 
+     * @return true if the map is known to have no HTML notes
+     */
+    public boolean isKnownWithoutHtmlNotes() {
+        return stats != null && !stats.hasHtmlNotes();
+    }
+
+    /**
+     * Gets the non blank notes of the map, with whether each is HTML and its plain text.
+     * 
+     * @return The notes in topic order
+     */
+    @NotNull
+    public List<Note> getNotes() {
+        if (notes == null) {
+            // Topics often repeat a note, its text is extracted once
+            final Map<String, Note> byContent = new HashMap<>();
+            final List<Note> result = new ArrayList<>();
+            for (Topic topic : mapModel.getAllTopics()) {
+                final String note = topic.getNote();
+                if (note != null && !note.trim().isEmpty()) {
+                    result.add(byContent.computeIfAbsent(note, content -> new Note(content,
+                            SpamContentExtractor.looksLikeHtml(content), MindmapParser.extractPlainTextContent(content))));
+                }
+            }
+            notes = result;
+        }
+        return notes;
+    }
+
+    /**
+     * Gets the text of the title, description, topics and notes, as
+     * {@link SpamContentExtractor#extractTextContent(MapModel, String, String)} extracts it.
+     * 
+     * @return The text content
+     */
+    @NotNull
+    public String getTextContent() {
+        if (textContent == null) {
+            final Map<String, String> plainTextByNote = new HashMap<>();
+            for (Note note : getNotes()) {
+                plainTextByNote.put(note.content(), note.plainText());
+            }
+            textContent = SpamContentExtractor.buildTextContent(mapModel, getTitle(), getDescription(),
+                    plainTextByNote::get);
+        }
+        return textContent;
+    }
+
+    /**
+     * Gets the text content in lower case, for keyword matching.
+     * 
+     * @return The lower-cased text content
+     */
+    @NotNull
+    public String getLowerCaseTextContent() {
+        if (lowerCaseTextContent == null) {
+            lowerCaseTextContent = getTextContent().toLowerCase();
+        }
+        return lowerCaseTextContent;
+    }
+
+    /**
+     * Gets the text content without bullet prefixes and with collapsed whitespace, for pattern matching.
+     * 
+     * @return The normalized text content
+     */
+    @NotNull
+    public String getPatternText() {
+        if (patternText == null) {
+            patternText = SpamContentExtractor.normalize(getTextContent());
+        }
+        return patternText;
+    }
+
+    /**
+     * Gets the normalized text content in lower case.
+     * 
+     * @return The lower-cased normalized text content
+     */
+    @NotNull
+    public String getLowerCasePatternText() {
+        if (lowerCasePatternText == null) {
+            lowerCasePatternText = getPatternText().toLowerCase();
+        }
+        return lowerCasePatternText;
+    }
+
+    /**
+     * Gets the links of the topics.
+     * 
+     * @return The non blank link urls
+     */
+    @NotNull
+    public List<String> getLinkUrls() {
+        if (linkUrls == null) {
+            linkUrls = mapModel.getAllLinkUrls();
+        }
+        return linkUrls;
+    }
+
+    /**
+     * Tells whether any note is HTML.
+     * 
+     * @return true if a note is HTML
+     */
+    public boolean hasHtmlNotes() {
+        return getNotes().stream().anyMatch(Note::html);
+    }
+
+    /**
+     * Gets the HTML notes joined by spaces.
+     * 
+     * @return The HTML of the notes, empty when there is none
+     */
+    @NotNull
+    public String getHtmlNotesContent() {
+        if (htmlNotesContent == null) {
+            final StringBuilder result = new StringBuilder();
+            for (Note note : getNotes()) {
+                if (note.html()) {
+                    result.append(note.content()).append(" ");
+                }
+            }
+            htmlNotesContent = result.toString();
+        }
+        return htmlNotesContent;
+    }
+
+    /**
+     * Gets the text of the HTML notes after sanitizing them, including the targets of their links.
+     * 
+     * @return The sanitized text
+     */
+    @NotNull
+    public String getHtmlNotesText() {
+        if (htmlNotesText == null) {
+            final String sanitized = SpamContentExtractor.sanitize(getHtmlNotesContent());
+            htmlNotesText = sanitized != null ? sanitized : "";
+        }
+        return htmlNotesText;
+    }
+
+    /**
+     * Gets the CPU budget shared by all the strategies checking this map.
+     * 
+     * @return The budget
+     */
+    @NotNull
+    public SpamDetectionBudget getBudget() {
+        return budget;
+    }
+    
+    /**
+     * Wraps text before running a regular expression on it, so the match is aborted once the budget is spent.
+     * 
+     * @param text The text to match
+     * @return The guarded text
+     */
+    @NotNull
+    public CharSequence guard(@NotNull CharSequence text) {
+        return budget.guard(text);
+    }
+
+    /**
+     * A note of the map.
+     * 
+     * @param content   The note as stored
+     * @param html      Whether the note is HTML
+     * @param plainText The text of the note without markup
+     */
+    public record Note(@NotNull String content, boolean html, @NotNull String plainText) {
+    }
+}
@@ -25,19 +25,23 @@ public class SpamDetectionResult {
     private final String reason;
     private final String details;
     private final SpamStrategyType strategyName;
+    private final boolean needsReview;
 
     public SpamDetectionResult(boolean isSpam, String reason, String details) {
-        this.isSpam = isSpam;
-        this.reason = reason;
-        this.details = details;
-        this.strategyName = null;
+        this(isSpam, reason, details, null);
     }
 
     public SpamDetectionResult(boolean isSpam, String reason, String details, SpamStrategyType strategyName) {
+        this(isSpam, reason, details, strategyName, false);
+    }
+
+    private SpamDetectionResult(boolean isSpam, String reason, String details, SpamStrategyType strategyName,
+                                boolean needsReview) {
         this.isSpam = isSpam;
         this.reason = reason;
         this.details = details;
         this.strategyName = strategyName;
+        this.needsReview = needsReview;
     }
 
     public static SpamDetectionResult notSpam() {
@@ -49,6 +53,14 @@ public class SpamDetectionResult {
         return new SpamDetectionResult(true, reason, details, type);
     }
 
+    /**
+     * The map could not be checked completely, for instance because a strategy ran out of time. It is not
+     * treated as spam, but must not be published until a later check completes or someone reviews it.
+     */
+    public static SpamDetectionResult needsReview(String reason, String details, SpamStrategyType type) {
+        return new SpamDetectionResult(false, reason, details, type, true);
+    }
+
     public boolean isSpam() {
         return isSpam;
     }
@@ -64,4 +76,22 @@ public class SpamDetectionResult {
     public SpamStrategyType getStrategyType() {
         return strategyName;
     }
+
+    public boolean needsReview() {
+        return needsReview;
+    }
+
+    /**
+     * Text stored as the spam description of a map: the details of a spam result, the reason a map needs review,
+     * or null for a clean map.
+     */
+    public String getDescription() {
+        if (isSpam) {
+            return details;
+        }
+        if (needsReview) {
+            return "Needs review: " + reason + ". " + details;
+        }
+        return null;
+    }
 }
\ No newline at end of file
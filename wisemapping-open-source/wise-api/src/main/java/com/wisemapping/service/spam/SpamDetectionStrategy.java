@@ -30,4 +30,15 @@ public interface SpamDetectionStrategy {
      */
     SpamDetectionResult detectSpam(SpamDetectionContext context);
     SpamStrategyType getType();
+
+    /**
+     * Tells whether the result only depends on the map document, title and description. Verdicts of these
+     * strategies are reused for identical content, the other strategies run on every check and only read the
+     * Mindmap entity.
+     *
+     * @return true if the strategy only reads the map content
+     */
+    default boolean isContentBased() {
+        return true;
+    }
 }
\ No newline at end of file
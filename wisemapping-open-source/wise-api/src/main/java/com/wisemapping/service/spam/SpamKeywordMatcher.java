@@ -0,0 +1,259 @@
+/*
+ *    Copyright [2007-2025] [wisemapping]
+ *
+ *   Licensed under WiseMapping Public License, Version 1.0 (the "License").
+ *   It is basically the Apache License, Version 2.0 (the "License") plus the
+ *   "powered by wisemapping" text requirement on every single page;
+ *   you may not use this file except in compliance with the License.
+ *   You may obtain a copy of the license at
+ *
+ *       https://github.com/wisemapping/wisemapping-open-source/blob/main/LICENSE.md
+ *
+ *   Unless required by applicable law or agreed to in writing, software
+ *   distributed under the License is distributed on an "AS IS" BASIS,
+ *   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *   See the License for the specific language governing permissions and
+ *   limitations under the License.
+ */
+
+package com.wisemapping.service.spam;
+
+import org.jetbrains.annotations.NotNull;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+
+/**
+ * Aho-Corasick automaton over the spam keywords. Finds every keyword occurring in a text in a single pass,
+ * regardless of the number of keywords, with the same substring semantics as {@link String#contains}.
+ *
+ * The failure links are resolved at compile time into a full transition table over the characters used by the
+ * keywords, so matching costs one table lookup per character. Any other character leads back to the root.
+ * The matcher is immutable and thread safe. Matching is case sensitive, keywords and text are expected to be
+ * lower case already.
+ */
+public final class SpamKeywordMatcher {
+
+    private static final int ROOT = 0;
+    private static final int[] NO_OUTPUT = new int[0];
+
+    private final String[] keywords;
+    private final String[] categories;
+
+    // Character classes: 0 for characters that do not appear in any keyword, otherwise 1 + alphabet index.
+    private final int[] asciiClasses = new int[128];
+    private final char[] nonAsciiChars;
+    private final int[] nonAsciiClasses;
+    private final int classCount;
+
+    // Transition table, indexed by state * classCount + class.
+    private final int[] transitions;
+    // Keywords ending at each state, including those reached through the failure links.
+    private final int[][] outputs;
+
+    public record Match(@NotNull String keyword, @NotNull String category) {
+    }
+
+    private SpamKeywordMatcher(@NotNull Map<String, String> categoryByKeyword) {
+        this.keywords = categoryByKeyword.keySet().toArray(new String[0]);
+        this.categories = categoryByKeyword.values().toArray(new String[0]);
+
+        final List<Map<Character, Integer>> trie = new ArrayList<>();
+        final List<List<Integer>> ends = new ArrayList<>();
+        trie.add(new LinkedHashMap<>());
+        ends.add(new ArrayList<>());
+        for (int i = 0; i < keywords.length; i++) {
+            int state = ROOT;
+            for (int j = 0; j < keywords[i].length(); j++) {
+                final char c = keywords[i].charAt(j);
+                Integer next = trie.get(state).get(c);
+                if (next == null) {
+                    next = trie.size();
+                    trie.add(new LinkedHashMap<>());
+                    ends.add(new ArrayList<>());
+                    trie.get(state).put(c, next);
+                }
+                state = next;
+            }
+            ends.get(state).add(i);
+        }
+
+        final int size = trie.size();
+        final char[] alphabet = categoryByKeyword.keySet().stream()
+                .flatMapToInt(String::chars)
+                .distinct()
+                .sorted()
+                .collect(StringBuilder::new, StringBuilder::appendCodePoint, StringBuilder::append)
+                .toString()
+                .toCharArray();
+        this.classCount = alphabet.length + 1;
+        final StringBuilder nonAscii = new StringBuilder();
+        for (int i = 0; i < alphabet.length; i++) {
+            if (alphabet[i] < asciiClasses.length) {
+                asciiClasses[alphabet[i]] = i + 1;
+            } else {
+                nonAscii.append(alphabet[i]);
+            }
+        }
+        this.nonAsciiChars = nonAscii.toString().toCharArray();
+        this.nonAsciiClasses = new int[nonAsciiChars.length];
+        for (int i = 0; i < nonAsciiChars.length; i++) {
+            nonAsciiClasses[i] = Arrays.binarySearch(alphabet, nonAsciiChars[i]) + 1;
+        }
+
+        // Breadth first, so the failure state of every node is complete before its children are visited.
+        this.transitions = new int[size * classCount];
+        this.outputs = new int[size][];
+        final int[] failure = new int[size];
+        outputs[ROOT] = toArray(ends.get(ROOT));
+        final Queue<Integer> queue = new ArrayDeque<>();
+        for (Map.Entry<Character, Integer> edge : trie.get(ROOT).entrySet()) {
+            transitions[ROOT * classCount + classOf(edge.getKey())] = edge.getValue();
+            failure[edge.getValue()] = ROOT;
+            queue.add(edge.getValue());
+        }
+        while (!queue.isEmpty()) {
+            final int state = queue.poll();
+            final int fail = failure[state];
+            outputs[state] = concat(toArray(ends.get(state)), outputs[fail]);
+            // Missing transitions behave like the failure state, which is already complete.
+            System.arraycopy(transitions, fail * classCount, transitions, state * classCount, classCount);
+            for (Map.Entry<Character, Integer> edge : trie.get(state).entrySet()) {
+                final int charClass = classOf(edge.getKey());
+                failure[edge.getValue()] = transitions[fail * classCount + charClass];
+                transitions[state * classCount + charClass] = edge.getValue();
+                queue.add(edge.getValue());
+            }
+        }
+    }
+
+    /**
+     * Compiles the keywords into an automaton. Empty keywords are ignored, duplicates keep their first category.
+     *
+     * @param categoryByKeyword keyword to category, in the order matches are reported
+     */
+    @NotNull
+    public static SpamKeywordMatcher compile(@NotNull Map<String, String> categoryByKeyword) {
+        final Map<String, String> keywords = new LinkedHashMap<>();
+        categoryByKeyword.forEach((keyword, category) -> {
+            if (keyword != null && !keyword.isEmpty()) {
+                keywords.putIfAbsent(keyword, category != null ? category : "");
+            }
+        });
+        return new SpamKeywordMatcher(keywords);
+    }
+
+    /**
+     * Compiles keywords that have no category.
+     */
+    @NotNull
+    public static SpamKeywordMatcher compile(@NotNull Collection<String> keywords) {
+        final Map<String, String> categoryByKeyword = new LinkedHashMap<>();
+        keywords.forEach(keyword -> categoryByKeyword.putIfAbsent(keyword, ""));
+        return compile(categoryByKeyword);
+    }
+
+    /**
+     * Returns every distinct keyword occurring in the text, in keyword order.
+     */
+    @NotNull
+    public List<Match> findAll(@NotNull CharSequence text) {
+        final boolean[] found = scan(text, false);
+        if (found == null) {
+            return Collections.emptyList();
+        }
+        final List<Match> result = new ArrayList<>();
+        for (int i = 0; i < found.length; i++) {
+            if (found[i]) {
+                result.add(new Match(keywords[i], categories[i]));
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Returns the number of distinct keywords occurring in the text.
+     */
+    public int countDistinct(@NotNull CharSequence text) {
+        final boolean[] found = scan(text, false);
+        if (found == null) {
+            return 0;
+        }
+        int result = 0;
+        for (boolean match : found) {
+            if (match) {
+                result++;
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Returns true as soon as one keyword occurs in the text.
+     */
+    public boolean containsAny(@NotNull CharSequence text) {
+        return scan(text, true) != null;
+    }
+
+    public int size() {
+        return keywords.length;
+    }
+
+    /**
+     * Runs the automaton over the text. Returns the keywords found, or null if there is none.
+     */
+    private boolean[] scan(@NotNull CharSequence text, boolean stopAtFirst) {
+        boolean[] found = null;
+        int state = ROOT;
+        for (int i = 0; i < text.length(); i++) {
+            state = transitions[state * classCount + classOf(text.charAt(i))];
+            final int[] matches = outputs[state];
+            if (matches.length > 0) {
+                if (found == null) {
+                    found = new boolean[keywords.length];
+                }
+                if (stopAtFirst) {
+                    return found;
+                }
+                for (int keyword : matches) {
+                    found[keyword] = true;
+                }
+            }
+        }
+        return found;
+    }
+
+    private int classOf(char c) {
+        if (c < asciiClasses.length) {
+            return asciiClasses[c];
+        }
+        if (nonAsciiChars.length == 0) {
+            return 0;
+        }
+        final int index = Arrays.binarySearch(nonAsciiChars, c);
+        return index >= 0 ? nonAsciiClasses[index] : 0;
+    }
+
+    private static int[] toArray(@NotNull List<Integer> values) {
+        return values.isEmpty() ? NO_OUTPUT : values.stream().mapToInt(Integer::intValue).toArray();
+    }
+
+    private static int[] concat(int[] first, int[] second) {
+        if (second.length == 0) {
+            return first;
+        }
+        if (first.length == 0) {
+            return second;
+        }
+        final int[] result = Arrays.copyOf(first, first.length + second.length);
+        System.arraycopy(second, 0, result, first.length, second.length);
+        return result;
+    }
+}
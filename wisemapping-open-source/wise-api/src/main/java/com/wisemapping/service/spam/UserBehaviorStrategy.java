@@ -73,7 +73,7 @@ public class UserBehaviorStrategy implements SpamDetectionStrategy {
             if (userMaps.size() > 1) {
                 // Find the most recent created map by this user (excluding the current map being checked)
                 Calendar mostRecentCreationTime = userMaps.stream()
-                    .filter(m -> !m.equals(mindmap)) // Exclude current map
+                    .filter(m -> m.getId() != mindmap.getId()) // Exclude current map
                     .map(Mindmap::getCreationTime)
                     .filter(Objects::nonNull)
                     .max(Calendar::compareTo)
@@ -109,4 +109,10 @@ public class UserBehaviorStrategy implements SpamDetectionStrategy {
     public SpamStrategyType getType() {
         return SpamStrategyType.USER_BEHAVIOR;
     }
+
+    @Override
+    public boolean isContentBased() {
+        // Depends on the creation times and the other maps of the creator
+        return false;
+    }
 }
\ No newline at end of file
@@ -0,0 +1,74 @@
+/*
+ *    Copyright [2007-2025] [wisemapping]
+ *
+ *   Licensed under WiseMapping Public License, Version 1.0 (the "License").
+ *   It is basically the Apache License, Version 2.0 (the "License") plus the
+ *   "powered by wisemapping" text requirement on every single page;
+ *   you may not use this file except in compliance with the License.
+ *   You may obtain a copy of the license at
+ *
+ *       https://github.com/wisemapping/wisemapping-open-source/blob/main/LICENSE.md
+ *
+ *   Unless required by applicable law or agreed to in writing, software
+ *   distributed under the License is distributed on an "AS IS" BASIS,
+ *   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *   See the License for the specific language governing permissions and
+ *   limitations under the License.
+ */
+package com.wisemapping.util;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Paces the statements of a batch job by how long they take. A statement slower than the target doubles the
+ * pause taken before each following statement, up to the maximum; a faster one halves it. Slow statements
+ * mean the database is busy, so the job backs off and speeds up again once it recovers.
+ *
+ * Shared by the workers of a job, which then back off together.
+ */
+public class AdaptiveThrottle {
+
+    // First pause taken after a slow statement
+    private static final long MIN_PAUSE_MS = 10;
+
+    private final long targetLatencyMs;
+    private final long maxPauseMs;
+    private volatile long pauseMs;
+
+    /**
+     * @param targetLatencyMs statements taking longer make the throttle back off; 0 or less disables it
+     * @param maxPauseMs      longest pause taken before a statement
+     */
+    public AdaptiveThrottle(long targetLatencyMs, long maxPauseMs) {
+        this.targetLatencyMs = targetLatencyMs;
+        this.maxPauseMs = Math.max(0, maxPauseMs);
+    }
+
+    /**
+     * Waits the current pause before a statement.
+     */
+    public void acquire() throws InterruptedException {
+        final long pause = pauseMs;
+        if (pause > 0) {
+            TimeUnit.MILLISECONDS.sleep(pause);
+        }
+    }
+
+    /**
+     * Records how long a statement took.
+     */
+    public synchronized void record(long latencyNanos) {
+        if (targetLatencyMs <= 0) {
+            return;
+        }
+        if (TimeUnit.NANOSECONDS.toMillis(latencyNanos) > targetLatencyMs) {
+            pauseMs = Math.min(maxPauseMs, Math.max(MIN_PAUSE_MS, pauseMs * 2));
+        } else {
+            pauseMs = pauseMs / 2 < MIN_PAUSE_MS ? 0 : pauseMs / 2;
+        }
+    }
+
+    public long getPauseMs() {
+        return pauseMs;
+    }
+}
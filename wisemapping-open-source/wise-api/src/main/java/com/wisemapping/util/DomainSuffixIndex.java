@@ -0,0 +1,198 @@
+/*
+ *    Copyright [2007-2025] [wisemapping]
+ *
+ *   Licensed under WiseMapping Public License, Version 1.0 (the "License").
+ *   It is basically the Apache License, Version 2.0 (the "License") plus the
+ *   "powered by wisemapping" text requirement on every single page;
+ *   you may not use this file except in compliance with the License.
+ *   You may obtain a copy of the license at
+ *
+ *       https://github.com/wisemapping/wisemapping-open-source/blob/main/LICENSE.md
+ *
+ *   Unless required by applicable law or agreed to in writing, software
+ *   distributed under the License is distributed on an "AS IS" BASIS,
+ *   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *   See the License for the specific language governing permissions and
+ *   limitations under the License.
+ */
+
+package com.wisemapping.util;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.net.IDN;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Immutable set of domains packed in one sorted byte array, for lists of thousands of plain domains where a
+ * {@link java.util.HashSet} or a {@link DomainTrie} would spend most of their memory on object headers. A host
+ * matches when it or any of its parent domains is listed, found with one binary search per label. Domains are kept
+ * in their ASCII form, internationalized ones converted to punycode, so a lookup compares the host characters
+ * in place.
+ */
+public final class DomainSuffixIndex {
+
+    private static final DomainSuffixIndex EMPTY = new DomainSuffixIndex(new byte[0], new int[]{0});
+
+    // Domains in unsigned byte order, domain i spanning bytes offsets[i] to offsets[i + 1]
+    private final byte[] domains;
+    private final int[] offsets;
+
+    private DomainSuffixIndex(@NotNull byte[] domains, @NotNull int[] offsets) {
+        this.domains = domains;
+        this.offsets = offsets;
+    }
+
+    @NotNull
+    public static DomainSuffixIndex empty() {
+        return EMPTY;
+    }
+
+    /**
+     * Builds an index from domains. Case, surrounding blanks and a trailing dot are ignored, blank entries skipped.
+     */
+    @NotNull
+    public static DomainSuffixIndex of(@NotNull Iterable<String> domains) {
+        final List<byte[]> entries = new ArrayList<>();
+        for (String domain : domains) {
+            final String normalized = normalize(domain);
+            if (normalized != null) {
+                entries.add(normalized.getBytes(StandardCharsets.US_ASCII));
+            }
+        }
+        entries.sort(Arrays::compareUnsigned);
+
+        int size = 0;
+        int length = 0;
+        for (int i = 0; i < entries.size(); i++) {
+            if (i == 0 || !Arrays.equals(entries.get(i), entries.get(i - 1))) {
+                entries.set(size++, entries.get(i));
+                length += entries.get(i).length;
+            }
+        }
+        final byte[] packed = new byte[length];
+        final int[] offsets = new int[size + 1];
+        for (int i = 0; i < size; i++) {
+            final byte[] entry = entries.get(i);
+            System.arraycopy(entry, 0, packed, offsets[i], entry.length);
+            offsets[i + 1] = offsets[i] + entry.length;
+        }
+        return new DomainSuffixIndex(packed, offsets);
+    }
+
+    /**
+     * Tells whether a host or one of its parent domains is in the index.
+     */
+    public boolean matches(@Nullable String host) {
+        if (host == null || size() == 0) {
+            return false;
+        }
+        String value = host.trim();
+        if (!isAscii(value)) {
+            value = normalize(value);
+            if (value == null) {
+                return false;
+            }
+        }
+        int end = value.length();
+        if (end > 0 && value.charAt(end - 1) == '.') {
+            end--;
+        }
+        int start = 0;
+        while (start < end) {
+            if (contains(value, start, end)) {
+                return true;
+            }
+            // Parent domain: skip the first label and its dot
+            final int dot = value.indexOf('.', start);
+            if (dot < 0 || dot >= end) {
+                break;
+            }
+            start = dot + 1;
+        }
+        return false;
+    }
+
+    public int size() {
+        return offsets.length - 1;
+    }
+
+    /**
+     * Gets the approximate heap used by the index, in bytes.
+     */
+    public long estimatedHeapBytes() {
+        return 16 + domains.length + 16 + 4L * offsets.length + 24;
+    }
+
+    private boolean contains(@NotNull String host, int from, int to) {
+        int low = 0;
+        int high = size() - 1;
+        while (low <= high) {
+            final int middle = (low + high) >>> 1;
+            final int comparison = compare(middle, host, from, to);
+            if (comparison < 0) {
+                low = middle + 1;
+            } else if (comparison > 0) {
+                high = middle - 1;
+            } else {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Compares a domain of the index with part of an ASCII host, ignoring the case of the host, in the order the
+     * domains are sorted.
+     */
+    private int compare(int entry, @NotNull String host, int from, int to) {
+        int position = offsets[entry];
+        final int end = offsets[entry + 1];
+        while (position < end && from < to) {
+            char ch = host.charAt(from);
+            if (ch >= 'A' && ch <= 'Z') {
+                ch += 'a' - 'A';
+            }
+            final int difference = (domains[position] & 0xff) - ch;
+            if (difference != 0) {
+                return difference;
+            }
+            position++;
+            from++;
+        }
+        return (end - position) - (to - from);
+    }
+
+    private static boolean isAscii(@NotNull String value) {
+        for (int i = 0; i < value.length(); i++) {
+            if (value.charAt(i) >= 0x80) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    @Nullable
+    private static String normalize(@Nullable String domain) {
+        if (domain == null) {
+            return null;
+        }
+        String result = domain.trim().toLowerCase(Locale.ROOT);
+        if (result.endsWith(".")) {
+            result = result.substring(0, result.length() - 1);
+        }
+        if (!isAscii(result)) {
+            try {
+                result = IDN.toASCII(result, IDN.ALLOW_UNASSIGNED).toLowerCase(Locale.ROOT);
+            } catch (IllegalArgumentException e) {
+                return null;
+            }
+        }
+        return result.isEmpty() ? null : result;
+    }
+}
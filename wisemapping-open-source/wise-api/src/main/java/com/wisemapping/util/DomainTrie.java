@@ -0,0 +1,236 @@
+/*
+ *    Copyright [2007-2025] [wisemapping]
+ *
+ *   Licensed under WiseMapping Public License, Version 1.0 (the "License").
+ *   It is basically the Apache License, Version 2.0 (the "License") plus the
+ *   "powered by wisemapping" text requirement on every single page;
+ *   you may not use this file except in compliance with the License.
+ *   You may obtain a copy of the license at
+ *
+ *       https://github.com/wisemapping/wisemapping-open-source/blob/main/LICENSE.md
+ *
+ *   Unless required by applicable law or agreed to in writing, software
+ *   distributed under the License is distributed on an "AS IS" BASIS,
+ *   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *   See the License for the specific language governing permissions and
+ *   limitations under the License.
+ */
+
+package com.wisemapping.util;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.HashMap;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Set of domain rules matched label by label from the top level domain down, so a lookup costs about one step per
+ * label of the host whatever the number of rules.
+ *
+ * Rules are either domains, which match the domain and all its subdomains, or patterns whose labels may be:
+ * <ul>
+ *     <li>{@code *}: one or more labels, so {@code *.edu} matches any host under {@code edu}</li>
+ *     <li>a label with {@code ?}, each {@code ?} standing for one letter, so {@code edu.??} matches {@code edu.au}</li>
+ * </ul>
+ * A trie is immutable once built and may be shared by threads.
+ */
+public final class DomainTrie {
+
+    private static final DomainTrie EMPTY = new Builder().build();
+
+    private final Node root;
+    private final int size;
+
+    private DomainTrie(@NotNull Node root, int size) {
+        this.root = root;
+        this.size = size;
+    }
+
+    @NotNull
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    @NotNull
+    public static DomainTrie empty() {
+        return EMPTY;
+    }
+
+    /**
+     * Tells whether a host matches any rule. Case and a trailing dot are ignored.
+     */
+    public boolean matches(@Nullable String host) {
+        if (host == null || size == 0) {
+            return false;
+        }
+        final String[] labels = reversedLabels(host);
+        return labels.length > 0 && matches(root, labels, 0);
+    }
+
+    /**
+     * Gets the number of rules.
+     */
+    public int size() {
+        return size;
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    private static boolean matches(@NotNull Node node, @NotNull String[] labels, int index) {
+        if (index == labels.length) {
+            return node.matchesSelf;
+        }
+        if (node.matchesSubdomains) {
+            return true;
+        }
+        final Node child = node.children.get(labels[index]);
+        if (child != null && matches(child, labels, index + 1)) {
+            return true;
+        }
+        for (Map.Entry<String, Node> masked : node.masked.entrySet()) {
+            if (fitsMask(masked.getKey(), labels[index]) && matches(masked.getValue(), labels, index + 1)) {
+                return true;
+            }
+        }
+        if (node.anyLabels != null) {
+            for (int next = index + 1; next <= labels.length; next++) {
+                if (matches(node.anyLabels, labels, next)) {
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+
+    private static boolean fitsMask(@NotNull String mask, @NotNull String label) {
+        if (mask.length() != label.length()) {
+            return false;
+        }
+        for (int i = 0; i < mask.length(); i++) {
+            final char expected = mask.charAt(i);
+            final char actual = label.charAt(i);
+            if (expected == '?' ? actual < 'a' || actual > 'z' : expected != actual) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    @NotNull
+    private static String[] reversedLabels(@NotNull String domain) {
+        String value = domain.trim().toLowerCase(Locale.ROOT);
+        if (value.endsWith(".")) {
+            value = value.substring(0, value.length() - 1);
+        }
+        if (value.isEmpty()) {
+            return new String[0];
+        }
+        int count = 1;
+        for (int i = 0; i < value.length(); i++) {
+            if (value.charAt(i) == '.') {
+                count++;
+            }
+        }
+        final String[] result = new String[count];
+        int end = value.length();
+        for (int i = 0; i < count; i++) {
+            final int start = value.lastIndexOf('.', end - 1) + 1;
+            result[i] = value.substring(start, end);
+            end = start - 1;
+        }
+        return result;
+    }
+
+    private static final class Node {
+        private final Map<String, Node> children = new HashMap<>(2);
+        // Labels with '?', checked one by one as they are few
+        private final Map<String, Node> masked = new HashMap<>(1);
+        // '*', consuming one or more labels
+        private Node anyLabels;
+        private boolean matchesSelf;
+        private boolean matchesSubdomains;
+    }
+
+    public static final class Builder {
+        private final Node root = new Node();
+        private int size;
+        private boolean built;
+
+        private Builder() {
+        }
+
+        /**
+         * Adds a domain, matching it and all its subdomains.
+         */
+        @NotNull
+        public Builder addDomain(@NotNull String domain) {
+            final String[] labels = reversedLabels(domain);
+            if (labels.length > 0) {
+                final Node node = nodeFor(labels, labels.length);
+                node.matchesSelf = true;
+                node.matchesSubdomains = true;
+                size++;
+            }
+            return this;
+        }
+
+        /**
+         * Adds a pattern, see the class documentation for the wildcards.
+         */
+        @NotNull
+        public Builder addPattern(@NotNull String pattern) {
+            final String[] labels = reversedLabels(pattern);
+            if (labels.length == 0) {
+                return this;
+            }
+            // A leading '*' is the common case of any subdomain, kept as a flag so it costs no branching
+            if (labels.length > 1 && labels[labels.length - 1].equals("*")) {
+                nodeFor(labels, labels.length - 1).matchesSubdomains = true;
+            } else {
+                nodeFor(labels, labels.length).matchesSelf = true;
+            }
+            size++;
+            return this;
+        }
+
+        /**
+         * Adds a rule, as a pattern when it has wildcards and as a domain otherwise.
+         */
+        @NotNull
+        public Builder add(@NotNull String rule) {
+            return rule.indexOf('*') >= 0 || rule.indexOf('?') >= 0 ? addPattern(rule) : addDomain(rule);
+        }
+
+        @NotNull
+        public DomainTrie build() {
+            built = true;
+            return new DomainTrie(root, size);
+        }
+
+        @NotNull
+        private Node nodeFor(@NotNull String[] labels, int count) {
+            if (built) {
+                throw new IllegalStateException("The trie was already built");
+            }
+            Node node = root;
+            for (int i = 0; i < count; i++) {
+                final String label = labels[i];
+                if (label.equals("*")) {
+                    if (node.anyLabels == null) {
+                        node.anyLabels = new Node();
+                    }
+                    node = node.anyLabels;
+                } else if (label.indexOf('?') >= 0) {
+                    node = node.masked.computeIfAbsent(label, key -> new Node());
+                } else {
+                    node = node.children.computeIfAbsent(label, key -> new Node());
+                }
+            }
+            return node;
+        }
+    }
+}
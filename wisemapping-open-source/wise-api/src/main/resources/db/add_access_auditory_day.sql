@@ -0,0 +1,27 @@
+-- Add the daily login rollup, written with the login audit rows and read instead of them by the last login queries.
+-- Required before deploying this version. New installs use schema-*.sql which already includes it.
+-- Run the INSERT before the account-activity-backfill batch job, so it finds the logins made before the upgrade.
+--
+-- MySQL:
+--   CREATE TABLE ACCESS_AUDITORY_DAY (
+--     user_id     INTEGER NOT NULL,
+--     login_day   DATE    NOT NULL,
+--     login_count INTEGER NOT NULL,
+--     PRIMARY KEY (user_id, login_day),
+--     FOREIGN KEY (user_id) REFERENCES ACCOUNT (collaborator_id) ON DELETE CASCADE ON UPDATE NO ACTION
+--   ) CHARACTER SET UTF8MB4;
+--   INSERT INTO ACCESS_AUDITORY_DAY (user_id, login_day, login_count)
+--     SELECT user_id, login_date, COUNT(*) FROM ACCESS_AUDITORY WHERE login_date IS NOT NULL
+--     GROUP BY user_id, login_date;
+--
+-- PostgreSQL:
+--   CREATE TABLE ACCESS_AUDITORY_DAY (
+--     user_id     INTEGER NOT NULL,
+--     login_day   DATE    NOT NULL,
+--     login_count INTEGER NOT NULL,
+--     PRIMARY KEY (user_id, login_day),
+--     FOREIGN KEY (user_id) REFERENCES ACCOUNT (collaborator_id) ON DELETE CASCADE ON UPDATE NO ACTION
+--   );
+--   INSERT INTO ACCESS_AUDITORY_DAY (user_id, login_day, login_count)
+--     SELECT user_id, CAST(login_date AS DATE), COUNT(*) FROM ACCESS_AUDITORY WHERE login_date IS NOT NULL
+--     GROUP BY user_id, CAST(login_date AS DATE);
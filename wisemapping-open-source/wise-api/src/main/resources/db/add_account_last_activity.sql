@@ -0,0 +1,13 @@
+-- Add the last activity column to ACCOUNT, kept up to date on login and map save.
+-- Required before deploying this version: the column is mapped on Account and the inactive user queries filter on
+-- it instead of scanning ACCESS_AUDITORY and MINDMAP. New installs use schema-*.sql which already includes it.
+-- Existing accounts are filled by the account-activity-backfill batch job, which the inactive user suspension runs
+-- before its first pass. Its progress shows in GET /api/restful/admin/system/batch-jobs.
+--
+-- MySQL:
+--   ALTER TABLE ACCOUNT ADD COLUMN last_activity_at DATETIME;
+--   ALTER TABLE ACCOUNT ADD INDEX idx_account_last_activity (suspended, last_activity_at);
+--
+-- PostgreSQL:
+--   ALTER TABLE ACCOUNT ADD COLUMN last_activity_at TIMESTAMP;
+--   CREATE INDEX idx_account_last_activity ON ACCOUNT (suspended, last_activity_at);
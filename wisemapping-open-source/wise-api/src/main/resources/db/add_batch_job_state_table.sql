@@ -0,0 +1,34 @@
+-- Add the BATCH_JOB_STATE table with the progress and lease of each batch job, so an interrupted run resumes where
+-- it stopped and a job runs on one node at a time.
+-- New installs use schema-*.sql which already includes it.
+-- Rows can be deleted at any time, the job then starts over on its next run.
+--
+-- MySQL:
+--   CREATE TABLE IF NOT EXISTS BATCH_JOB_STATE (
+--     job_name VARCHAR(64) NOT NULL PRIMARY KEY,
+--     last_cursor BIGINT NOT NULL DEFAULT 0,
+--     status VARCHAR(16),
+--     lease_owner VARCHAR(128),
+--     lease_expires_at DATETIME,
+--     processed_count BIGINT NOT NULL DEFAULT 0,
+--     affected_count BIGINT NOT NULL DEFAULT 0,
+--     failed_chunks INTEGER NOT NULL DEFAULT 0,
+--     started_at DATETIME,
+--     finished_at DATETIME,
+--     updated_at DATETIME NOT NULL DEFAULT CURRENT_TIMESTAMP ON UPDATE CURRENT_TIMESTAMP
+--   ) CHARACTER SET UTF8MB4;
+--
+-- PostgreSQL:
+--   CREATE TABLE IF NOT EXISTS BATCH_JOB_STATE (
+--     job_name VARCHAR(64) NOT NULL PRIMARY KEY,
+--     last_cursor BIGINT NOT NULL DEFAULT 0,
+--     status VARCHAR(16),
+--     lease_owner VARCHAR(128),
+--     lease_expires_at TIMESTAMP,
+--     processed_count BIGINT NOT NULL DEFAULT 0,
+--     affected_count BIGINT NOT NULL DEFAULT 0,
+--     failed_chunks INTEGER NOT NULL DEFAULT 0,
+--     started_at TIMESTAMP,
+--     finished_at TIMESTAMP,
+--     updated_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP
+--   );
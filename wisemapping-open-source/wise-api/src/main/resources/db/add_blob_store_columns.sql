@@ -0,0 +1,17 @@
+-- Add blob store pointer columns to MINDMAP_XML and MINDMAP_HISTORY.
+-- Required before deploying this version, even with app.mindmap.blob-store disabled: the columns are mapped on
+-- MindmapXml and MindMapHistory, so every map and history read selects them. New installs use schema-*.sql
+-- which already includes these.
+-- Existing content stays inline until it is moved with POST /api/restful/admin/system/blob-store/migration.
+--
+-- MySQL:
+--   ALTER TABLE MINDMAP_XML ADD COLUMN content_ref VARCHAR(64), ADD COLUMN content_checksum CHAR(8);
+--   ALTER TABLE MINDMAP_XML ADD INDEX idx_mindmap_xml_content_ref (content_ref);
+--   ALTER TABLE MINDMAP_HISTORY ADD COLUMN content_ref VARCHAR(64), ADD COLUMN content_checksum CHAR(8);
+--   ALTER TABLE MINDMAP_HISTORY ADD INDEX idx_mindmap_history_content_ref (content_ref);
+--
+-- PostgreSQL:
+--   ALTER TABLE MINDMAP_XML ADD COLUMN content_ref VARCHAR(64), ADD COLUMN content_checksum CHAR(8);
+--   CREATE INDEX idx_mindmap_xml_content_ref ON MINDMAP_XML (content_ref);
+--   ALTER TABLE MINDMAP_HISTORY ADD COLUMN content_ref VARCHAR(64), ADD COLUMN content_checksum CHAR(8);
+--   CREATE INDEX idx_mindmap_history_content_ref ON MINDMAP_HISTORY (content_ref);
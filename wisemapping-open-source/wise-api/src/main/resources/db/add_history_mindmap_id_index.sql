@@ -0,0 +1,6 @@
+-- Index MINDMAP_HISTORY by mindmap_id so the history purge batch can page mindmap ids with a range scan.
+-- New installs use schema-*.sql which already includes it.
+-- MySQL and HSQLDB already index the column through its foreign key, only PostgreSQL needs it.
+--
+-- PostgreSQL:
+--   CREATE INDEX IF NOT EXISTS idx_mindmap_history_mindmap_id ON MINDMAP_HISTORY (mindmap_id);
@@ -0,0 +1,15 @@
+-- Add blob store pointer columns to MINDMAP_INACTIVE_USER.
+-- Required before deploying this version: maps of inactive users are now moved with INSERT ... SELECT, which
+-- copies the content pointer of maps externalized to the blob store instead of reading their content back.
+-- The column is also checked by the blob store garbage collection, so moved content is not collected.
+-- New installs use schema-*.sql which already includes these.
+--
+-- MySQL (older installs may not have the table yet, see schema-mysql.sql):
+--   ALTER TABLE MINDMAP_INACTIVE_USER ADD COLUMN content_ref VARCHAR(64), ADD COLUMN content_checksum CHAR(8);
+--   ALTER TABLE MINDMAP_INACTIVE_USER ADD INDEX idx_mindmap_inactive_user_creator (creator_id);
+--   ALTER TABLE MINDMAP_INACTIVE_USER ADD INDEX idx_mindmap_inactive_user_content_ref (content_ref);
+--
+-- PostgreSQL:
+--   ALTER TABLE MINDMAP_INACTIVE_USER ADD COLUMN content_ref VARCHAR(64), ADD COLUMN content_checksum CHAR(8);
+--   CREATE INDEX idx_mindmap_inactive_user_creator ON MINDMAP_INACTIVE_USER (creator_id);
+--   CREATE INDEX idx_mindmap_inactive_user_content_ref ON MINDMAP_INACTIVE_USER (content_ref);
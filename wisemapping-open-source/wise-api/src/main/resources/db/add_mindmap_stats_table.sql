@@ -0,0 +1,32 @@
+-- Add the MINDMAP_STATS table with the precomputed document statistics of each map.
+-- New installs use schema-*.sql which already includes it.
+-- Rows are written when a map is saved. Maps that have not been saved since the upgrade have no row yet,
+-- they are listed without statistics and are not excluded by the spam detection batch.
+--
+-- MySQL:
+--   CREATE TABLE IF NOT EXISTS MINDMAP_STATS (
+--     mindmap_id INTEGER NOT NULL PRIMARY KEY,
+--     topic_count INTEGER NOT NULL DEFAULT 0,
+--     note_count INTEGER NOT NULL DEFAULT 0,
+--     link_count INTEGER NOT NULL DEFAULT 0,
+--     max_depth INTEGER NOT NULL DEFAULT 0,
+--     raw_bytes INTEGER NOT NULL DEFAULT 0,
+--     compressed_bytes INTEGER NOT NULL DEFAULT 0,
+--     html_notes BOOL NOT NULL DEFAULT 0,
+--     updated_at DATETIME NOT NULL DEFAULT CURRENT_TIMESTAMP ON UPDATE CURRENT_TIMESTAMP,
+--     FOREIGN KEY (mindmap_id) REFERENCES MINDMAP (id) ON DELETE CASCADE ON UPDATE NO ACTION
+--   ) CHARACTER SET UTF8MB4;
+--
+-- PostgreSQL:
+--   CREATE TABLE IF NOT EXISTS MINDMAP_STATS (
+--     mindmap_id INTEGER NOT NULL PRIMARY KEY,
+--     topic_count INTEGER NOT NULL DEFAULT 0,
+--     note_count INTEGER NOT NULL DEFAULT 0,
+--     link_count INTEGER NOT NULL DEFAULT 0,
+--     max_depth INTEGER NOT NULL DEFAULT 0,
+--     raw_bytes INTEGER NOT NULL DEFAULT 0,
+--     compressed_bytes INTEGER NOT NULL DEFAULT 0,
+--     html_notes BOOL NOT NULL DEFAULT FALSE,
+--     updated_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP,
+--     FOREIGN KEY (mindmap_id) REFERENCES MINDMAP (id) ON DELETE CASCADE ON UPDATE NO ACTION
+--   );
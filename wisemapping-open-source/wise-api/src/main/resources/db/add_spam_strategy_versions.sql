@@ -0,0 +1,14 @@
+-- Add the strategy_versions column to MINDMAP_SPAM_INFO with the strategy versions applied by the last batch check.
+-- New installs use schema-*.sql which already includes it.
+-- Maps without strategy versions are checked again with all the strategies, so existing rows are backfilled
+-- with the strategies active at the upgrade, all at version 1. The value must match the strategy versions the
+-- spam detection batch logs when it starts; 'F1,H1,L1,S1' are the strategies enabled by default. Rows of an
+-- older spam detection version are checked again in full anyway.
+--
+-- MySQL:
+--   ALTER TABLE MINDMAP_SPAM_INFO ADD COLUMN strategy_versions VARCHAR(64) AFTER spam_type_code;
+--   UPDATE MINDMAP_SPAM_INFO SET strategy_versions = 'F1,H1,L1,S1' WHERE strategy_versions IS NULL;
+--
+-- PostgreSQL:
+--   ALTER TABLE MINDMAP_SPAM_INFO ADD COLUMN IF NOT EXISTS strategy_versions VARCHAR(64);
+--   UPDATE MINDMAP_SPAM_INFO SET strategy_versions = 'F1,H1,L1,S1' WHERE strategy_versions IS NULL;
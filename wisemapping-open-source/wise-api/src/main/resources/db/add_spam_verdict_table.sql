@@ -0,0 +1,26 @@
+-- Add the SPAM_VERDICT table with the spam verdicts reused for content that was already checked.
+-- New installs use schema-*.sql which already includes it.
+-- The table starts empty and is filled as maps are checked. It can be truncated at any time, content is then
+-- analyzed again on its next check.
+--
+-- MySQL:
+--   CREATE TABLE IF NOT EXISTS SPAM_VERDICT (
+--     content_hash CHAR(64) NOT NULL PRIMARY KEY,
+--     strategy_set VARCHAR(64) NOT NULL,
+--     spam_detected BOOL NOT NULL DEFAULT 0,
+--     spam_reason VARCHAR(255) CHARACTER SET UTF8MB4,
+--     spam_description TEXT CHARACTER SET UTF8MB4,
+--     spam_type_code CHAR(1),
+--     updated_at DATETIME NOT NULL DEFAULT CURRENT_TIMESTAMP ON UPDATE CURRENT_TIMESTAMP
+--   ) CHARACTER SET UTF8MB4;
+--
+-- PostgreSQL:
+--   CREATE TABLE IF NOT EXISTS SPAM_VERDICT (
+--     content_hash CHAR(64) NOT NULL PRIMARY KEY,
+--     strategy_set VARCHAR(64) NOT NULL,
+--     spam_detected BOOL NOT NULL DEFAULT FALSE,
+--     spam_reason VARCHAR(255),
+--     spam_description TEXT,
+--     spam_type_code CHAR(1),
+--     updated_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP
+--   );
@@ -21,35 +21,46 @@ CREATE TABLE IF NOT EXISTS ACCOUNT (
   suspended           BOOLEAN       NOT NULL,
   suspended_date      DATETIME,
   suspension_reason   CHAR(1),
+  last_activity_at    DATETIME,
   FOREIGN KEY (collaborator_id) REFERENCES COLLABORATOR (id)
 );
 
+CREATE INDEX IF NOT EXISTS idx_account_last_activity ON ACCOUNT (suspended, last_activity_at);
+
+-- Ids start at 1 as on MySQL and PostgreSQL: batch jobs page from id 0 and an unsaved entity has id 0
 CREATE TABLE IF NOT EXISTS MINDMAP (
-  id             INTEGER       NOT NULL IDENTITY,
+  id             INTEGER       GENERATED BY DEFAULT AS IDENTITY (START WITH 1) PRIMARY KEY,
   title          VARCHAR(255)  NOT NULL,
   description    VARCHAR(255),
   public         BOOLEAN       NOT NULL,
   creation_date  DATETIME,
   edition_date   DATETIME,
   creator_id     INTEGER       NOT NULL,
-  last_editor_id INTEGER       NOT NULL
+  last_editor_id INTEGER       NOT NULL,
+  std_id         VARCHAR(255),
+  plan_id        VARCHAR(255)
 --FOREIGN KEY(creator_id) REFERENCES ACCOUNT(collaborator_id)
 );
 
 CREATE TABLE IF NOT EXISTS MINDMAP_XML (
-  mindmap_id INTEGER       NOT NULL PRIMARY KEY,
-  xml        LONGVARBINARY NOT NULL,
+  mindmap_id       INTEGER       NOT NULL PRIMARY KEY,
+  xml              LONGVARBINARY NOT NULL,
+  content_ref      VARCHAR(64),
+  content_checksum CHAR(8),
   FOREIGN KEY (mindmap_id) REFERENCES MINDMAP (id)
     ON DELETE CASCADE
     ON UPDATE NO ACTION
 );
 
+CREATE INDEX IF NOT EXISTS idx_mindmap_xml_content_ref ON MINDMAP_XML (content_ref);
+
 CREATE TABLE IF NOT EXISTS MINDMAP_SPAM_INFO (
   mindmap_id            INTEGER       NOT NULL PRIMARY KEY,
   spam_detected         BOOLEAN       NOT NULL,
   spam_description      LONGVARCHAR,
   spam_detection_version INTEGER      NOT NULL,
   spam_type_code        CHAR(1),
+  strategy_versions     VARCHAR(64),
   created_at            DATETIME,
   updated_at            DATETIME,
   FOREIGN KEY (mindmap_id) REFERENCES MINDMAP (id)
@@ -57,6 +68,45 @@ CREATE TABLE IF NOT EXISTS MINDMAP_SPAM_INFO (
     ON UPDATE NO ACTION
 );
 
+CREATE TABLE IF NOT EXISTS SPAM_VERDICT (
+  content_hash          CHAR(64)      NOT NULL PRIMARY KEY,
+  strategy_set          VARCHAR(64)   NOT NULL,
+  spam_detected         BOOLEAN       NOT NULL,
+  spam_reason           VARCHAR(255),
+  spam_description      LONGVARCHAR,
+  spam_type_code        CHAR(1),
+  updated_at            DATETIME      NOT NULL
+);
+
+CREATE TABLE IF NOT EXISTS BATCH_JOB_STATE (
+  job_name              VARCHAR(64)   NOT NULL PRIMARY KEY,
+  last_cursor           BIGINT        NOT NULL,
+  status                VARCHAR(16),
+  lease_owner           VARCHAR(128),
+  lease_expires_at      DATETIME,
+  processed_count       BIGINT        NOT NULL,
+  affected_count        BIGINT        NOT NULL,
+  failed_chunks         INTEGER       NOT NULL,
+  started_at            DATETIME,
+  finished_at           DATETIME,
+  updated_at            DATETIME      NOT NULL
+);
+
+CREATE TABLE IF NOT EXISTS MINDMAP_STATS (
+  mindmap_id            INTEGER       NOT NULL PRIMARY KEY,
+  topic_count           INTEGER       NOT NULL,
+  note_count            INTEGER       NOT NULL,
+  link_count            INTEGER       NOT NULL,
+  max_depth             INTEGER       NOT NULL,
+  raw_bytes             INTEGER       NOT NULL,
+  compressed_bytes      INTEGER       NOT NULL,
+  html_notes            BOOLEAN       NOT NULL,
+  updated_at            DATETIME      NOT NULL,
+  FOREIGN KEY (mindmap_id) REFERENCES MINDMAP (id)
+    ON DELETE CASCADE
+    ON UPDATE NO ACTION
+);
+
 CREATE TABLE IF NOT EXISTS MINDMAP_LABEL (
   id              INTEGER            NOT NULL PRIMARY KEY IDENTITY,
   title           VARCHAR(30),
@@ -75,14 +125,18 @@ CREATE TABLE IF NOT EXISTS R_LABEL_MINDMAP (
 );
 
 CREATE TABLE IF NOT EXISTS MINDMAP_HISTORY (
- id            INTEGER       NOT NULL IDENTITY,
+ id            INTEGER       GENERATED BY DEFAULT AS IDENTITY (START WITH 1) PRIMARY KEY,
  xml           LONGVARBINARY NOT NULL,
  mindmap_id    INTEGER       NOT NULL,
  creation_date DATETIME,
  editor_id     INTEGER       NOT NULL,
+ content_ref      VARCHAR(64),
+ content_checksum CHAR(8),
  FOREIGN KEY (mindmap_id) REFERENCES MINDMAP (id)
 );
 
+CREATE INDEX IF NOT EXISTS idx_mindmap_history_content_ref ON MINDMAP_HISTORY (content_ref);
+
 CREATE TABLE IF NOT EXISTS COLLABORATION_PROPERTIES (
  id                 INTEGER NOT NULL IDENTITY,
  starred            BOOLEAN NOT NULL,
@@ -115,6 +169,16 @@ CREATE TABLE IF NOT EXISTS ACCESS_AUDITORY (
     ON UPDATE NO ACTION
 );
 
+CREATE TABLE IF NOT EXISTS ACCESS_AUDITORY_DAY (
+  user_id     INTEGER NOT NULL,
+  login_day   DATE    NOT NULL,
+  login_count INTEGER NOT NULL,
+  PRIMARY KEY (user_id, login_day),
+  FOREIGN KEY (user_id) REFERENCES ACCOUNT (collaborator_id)
+    ON DELETE CASCADE
+    ON UPDATE NO ACTION
+);
+
 CREATE TABLE IF NOT EXISTS MINDMAP_INACTIVE_USER (
   id                 INTEGER       NOT NULL IDENTITY,
   original_mindmap_id INTEGER      NOT NULL,
@@ -126,7 +190,12 @@ CREATE TABLE IF NOT EXISTS MINDMAP_INACTIVE_USER (
   public             BOOLEAN      NOT NULL,
   title              VARCHAR(255),
   xml                LONGVARBINARY,
+  content_ref        VARCHAR(64),
+  content_checksum   CHAR(8),
   migration_date     DATETIME,
   migration_reason   VARCHAR(255)
 );
 
+CREATE INDEX IF NOT EXISTS idx_mindmap_inactive_user_creator ON MINDMAP_INACTIVE_USER (creator_id);
+CREATE INDEX IF NOT EXISTS idx_mindmap_inactive_user_content_ref ON MINDMAP_INACTIVE_USER (content_ref);
+
@@ -24,6 +24,8 @@ CREATE TABLE IF NOT EXISTS ACCOUNT (
   suspended BOOL NOT NULL DEFAULT 0,
   suspended_date DATETIME,
   suspension_reason CHAR(1),
+  last_activity_at DATETIME,
+  INDEX idx_account_last_activity (suspended, last_activity_at),
   FOREIGN KEY (collaborator_id) REFERENCES COLLABORATOR (id)
     ON DELETE CASCADE
     ON UPDATE NO ACTION
@@ -51,8 +53,11 @@ CREATE TABLE IF NOT EXISTS MINDMAP (
   CHARACTER SET UTF8MB4;
 
 CREATE TABLE IF NOT EXISTS MINDMAP_XML (
-  mindmap_id INTEGER    NOT NULL PRIMARY KEY,
-  xml        MEDIUMBLOB NOT NULL,
+  mindmap_id       INTEGER    NOT NULL PRIMARY KEY,
+  xml              MEDIUMBLOB NOT NULL,
+  content_ref      VARCHAR(64),
+  content_checksum CHAR(8),
+  INDEX idx_mindmap_xml_content_ref (content_ref),
   FOREIGN KEY (mindmap_id) REFERENCES MINDMAP (id)
     ON DELETE CASCADE
     ON UPDATE NO ACTION
@@ -65,6 +70,7 @@ CREATE TABLE IF NOT EXISTS MINDMAP_SPAM_INFO (
   spam_description      TEXT               CHARACTER SET UTF8MB4,
   spam_detection_version INTEGER           NOT NULL DEFAULT 0,
   spam_type_code        CHAR(1),
+  strategy_versions     VARCHAR(64),
   created_at            DATETIME           NOT NULL DEFAULT CURRENT_TIMESTAMP,
   updated_at            DATETIME           NOT NULL DEFAULT CURRENT_TIMESTAMP ON UPDATE CURRENT_TIMESTAMP,
   FOREIGN KEY (mindmap_id) REFERENCES MINDMAP (id)
@@ -73,6 +79,48 @@ CREATE TABLE IF NOT EXISTS MINDMAP_SPAM_INFO (
 )
   CHARACTER SET UTF8MB4;
 
+CREATE TABLE IF NOT EXISTS SPAM_VERDICT (
+  content_hash          CHAR(64)           NOT NULL PRIMARY KEY,
+  strategy_set          VARCHAR(64)        NOT NULL,
+  spam_detected         BOOL               NOT NULL DEFAULT 0,
+  spam_reason           VARCHAR(255)       CHARACTER SET UTF8MB4,
+  spam_description      TEXT               CHARACTER SET UTF8MB4,
+  spam_type_code        CHAR(1),
+  updated_at            DATETIME           NOT NULL DEFAULT CURRENT_TIMESTAMP ON UPDATE CURRENT_TIMESTAMP
+)
+  CHARACTER SET UTF8MB4;
+
+CREATE TABLE IF NOT EXISTS BATCH_JOB_STATE (
+  job_name              VARCHAR(64)        NOT NULL PRIMARY KEY,
+  last_cursor           BIGINT             NOT NULL DEFAULT 0,
+  status                VARCHAR(16),
+  lease_owner           VARCHAR(128),
+  lease_expires_at      DATETIME,
+  processed_count       BIGINT             NOT NULL DEFAULT 0,
+  affected_count        BIGINT             NOT NULL DEFAULT 0,
+  failed_chunks         INTEGER            NOT NULL DEFAULT 0,
+  started_at            DATETIME,
+  finished_at           DATETIME,
+  updated_at            DATETIME           NOT NULL DEFAULT CURRENT_TIMESTAMP ON UPDATE CURRENT_TIMESTAMP
+)
+  CHARACTER SET UTF8MB4;
+
+CREATE TABLE IF NOT EXISTS MINDMAP_STATS (
+  mindmap_id            INTEGER            NOT NULL PRIMARY KEY,
+  topic_count           INTEGER            NOT NULL DEFAULT 0,
+  note_count            INTEGER            NOT NULL DEFAULT 0,
+  link_count            INTEGER            NOT NULL DEFAULT 0,
+  max_depth             INTEGER            NOT NULL DEFAULT 0,
+  raw_bytes             INTEGER            NOT NULL DEFAULT 0,
+  compressed_bytes      INTEGER            NOT NULL DEFAULT 0,
+  html_notes            BOOL               NOT NULL DEFAULT 0,
+  updated_at            DATETIME           NOT NULL DEFAULT CURRENT_TIMESTAMP ON UPDATE CURRENT_TIMESTAMP,
+  FOREIGN KEY (mindmap_id) REFERENCES MINDMAP (id)
+    ON DELETE CASCADE
+    ON UPDATE NO ACTION
+)
+  CHARACTER SET UTF8MB4;
+
 CREATE TABLE IF NOT EXISTS  MINDMAP_LABEL (
   id              INTEGER            NOT NULL PRIMARY KEY AUTO_INCREMENT,
   title           VARCHAR(30)
@@ -104,6 +152,9 @@ CREATE TABLE IF NOT EXISTS MINDMAP_HISTORY
  mindmap_id    INTEGER    NOT NULL,
  creation_date DATETIME,
  editor_id     INTEGER    NOT NULL,
+ content_ref      VARCHAR(64),
+ content_checksum CHAR(8),
+  INDEX idx_mindmap_history_content_ref (content_ref),
   FOREIGN KEY (mindmap_id) REFERENCES MINDMAP (id)
     ON DELETE CASCADE
     ON UPDATE NO ACTION
@@ -143,3 +194,36 @@ CREATE TABLE IF NOT EXISTS ACCESS_AUDITORY (
     ON UPDATE NO ACTION
 )
 CHARACTER SET UTF8MB4;
+
+CREATE TABLE IF NOT EXISTS ACCESS_AUDITORY_DAY (
+  user_id     INTEGER NOT NULL,
+  login_day   DATE    NOT NULL,
+  login_count INTEGER NOT NULL,
+  PRIMARY KEY (user_id, login_day),
+  FOREIGN KEY (user_id) REFERENCES ACCOUNT (collaborator_id)
+    ON DELETE CASCADE
+    ON UPDATE NO ACTION
+)
+CHARACTER SET UTF8MB4;
+
+CREATE TABLE IF NOT EXISTS MINDMAP_INACTIVE_USER (
+  id                  INTEGER    NOT NULL PRIMARY KEY AUTO_INCREMENT,
+  original_mindmap_id INTEGER    NOT NULL,
+  creation_date       DATETIME,
+  edition_date        DATETIME,
+  creator_id          INTEGER,
+  last_editor_id      INTEGER,
+  description         VARCHAR(255)
+                      CHARACTER SET utf8,
+  public              BOOL       NOT NULL DEFAULT 0,
+  title               VARCHAR(255)
+                      CHARACTER SET UTF8MB4,
+  xml                 MEDIUMBLOB NOT NULL,
+  content_ref         VARCHAR(64),
+  content_checksum    CHAR(8),
+  migration_date      DATETIME,
+  migration_reason    VARCHAR(255),
+  INDEX idx_mindmap_inactive_user_creator (creator_id),
+  INDEX idx_mindmap_inactive_user_content_ref (content_ref)
+)
+  CHARACTER SET UTF8MB4;
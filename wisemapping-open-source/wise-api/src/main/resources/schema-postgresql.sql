@@ -21,9 +21,12 @@ create TABLE IF NOT EXISTS ACCOUNT (
   suspended           BOOL         NOT NULL DEFAULT FALSE,
   suspended_date      TIMESTAMP,
   suspension_reason   CHAR(1),
+  last_activity_at    TIMESTAMP,
   FOREIGN KEY (collaborator_id) REFERENCES COLLABORATOR (id) ON delete CASCADE ON update NO ACTION
 );
 
+CREATE INDEX IF NOT EXISTS idx_account_last_activity ON ACCOUNT (suspended, last_activity_at);
+
 create TABLE IF NOT EXISTS MINDMAP_LABEL (
   id              INTEGER            GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
   title           VARCHAR(255),
@@ -46,17 +49,22 @@ create TABLE IF NOT EXISTS MINDMAP (
 );
 
 CREATE TABLE IF NOT EXISTS MINDMAP_XML (
-  mindmap_id INTEGER NOT NULL PRIMARY KEY,
-  xml        BYTEA   NOT NULL,
+  mindmap_id       INTEGER NOT NULL PRIMARY KEY,
+  xml              BYTEA   NOT NULL,
+  content_ref      VARCHAR(64),
+  content_checksum CHAR(8),
   FOREIGN KEY (mindmap_id) REFERENCES MINDMAP (id) ON delete CASCADE ON update NO ACTION
 );
 
+CREATE INDEX IF NOT EXISTS idx_mindmap_xml_content_ref ON MINDMAP_XML (content_ref);
+
 CREATE TABLE IF NOT EXISTS MINDMAP_SPAM_INFO (
   mindmap_id            INTEGER      NOT NULL PRIMARY KEY,
   spam_detected         BOOL         NOT NULL DEFAULT FALSE,
   spam_description      TEXT,
   spam_detection_version INTEGER     NOT NULL DEFAULT 0,
   spam_type_code        CHAR(1),
+  strategy_versions     VARCHAR(64),
   created_at            TIMESTAMP    NOT NULL DEFAULT CURRENT_TIMESTAMP,
   updated_at            TIMESTAMP    NOT NULL DEFAULT CURRENT_TIMESTAMP,
   FOREIGN KEY (mindmap_id) REFERENCES MINDMAP (id)
@@ -64,6 +72,45 @@ CREATE TABLE IF NOT EXISTS MINDMAP_SPAM_INFO (
     ON UPDATE NO ACTION
 );
 
+CREATE TABLE IF NOT EXISTS SPAM_VERDICT (
+  content_hash          CHAR(64)     NOT NULL PRIMARY KEY,
+  strategy_set          VARCHAR(64)  NOT NULL,
+  spam_detected         BOOL         NOT NULL DEFAULT FALSE,
+  spam_reason           VARCHAR(255),
+  spam_description      TEXT,
+  spam_type_code        CHAR(1),
+  updated_at            TIMESTAMP    NOT NULL DEFAULT CURRENT_TIMESTAMP
+);
+
+CREATE TABLE IF NOT EXISTS BATCH_JOB_STATE (
+  job_name              VARCHAR(64)  NOT NULL PRIMARY KEY,
+  last_cursor           BIGINT       NOT NULL DEFAULT 0,
+  status                VARCHAR(16),
+  lease_owner           VARCHAR(128),
+  lease_expires_at      TIMESTAMP,
+  processed_count       BIGINT       NOT NULL DEFAULT 0,
+  affected_count        BIGINT       NOT NULL DEFAULT 0,
+  failed_chunks         INTEGER      NOT NULL DEFAULT 0,
+  started_at            TIMESTAMP,
+  finished_at           TIMESTAMP,
+  updated_at            TIMESTAMP    NOT NULL DEFAULT CURRENT_TIMESTAMP
+);
+
+CREATE TABLE IF NOT EXISTS MINDMAP_STATS (
+  mindmap_id            INTEGER      NOT NULL PRIMARY KEY,
+  topic_count           INTEGER      NOT NULL DEFAULT 0,
+  note_count            INTEGER      NOT NULL DEFAULT 0,
+  link_count            INTEGER      NOT NULL DEFAULT 0,
+  max_depth             INTEGER      NOT NULL DEFAULT 0,
+  raw_bytes             INTEGER      NOT NULL DEFAULT 0,
+  compressed_bytes      INTEGER      NOT NULL DEFAULT 0,
+  html_notes            BOOL         NOT NULL DEFAULT FALSE,
+  updated_at            TIMESTAMP    NOT NULL DEFAULT CURRENT_TIMESTAMP,
+  FOREIGN KEY (mindmap_id) REFERENCES MINDMAP (id)
+    ON DELETE CASCADE
+    ON UPDATE NO ACTION
+);
+
 create TABLE IF NOT EXISTS R_LABEL_MINDMAP (
   mindmap_id       INTEGER            NOT NULL,
   label_id         INTEGER            NOT NULL,
@@ -78,9 +125,14 @@ create TABLE IF NOT EXISTS MINDMAP_HISTORY
  mindmap_id    INTEGER NOT NULL,
  creation_date TIMESTAMP,
  editor_id     INTEGER NOT NULL,
+ content_ref      VARCHAR(64),
+ content_checksum CHAR(8),
   FOREIGN KEY (mindmap_id) REFERENCES MINDMAP (id) ON delete CASCADE ON update NO ACTION
 );
 
+CREATE INDEX IF NOT EXISTS idx_mindmap_history_content_ref ON MINDMAP_HISTORY (content_ref);
+CREATE INDEX IF NOT EXISTS idx_mindmap_history_mindmap_id ON MINDMAP_HISTORY (mindmap_id);
+
 create TABLE IF NOT EXISTS COLLABORATION_PROPERTIES (
   id                 SERIAL NOT NULL PRIMARY KEY,
   starred            BOOL   NOT NULL DEFAULT FALSE,
@@ -105,6 +157,14 @@ create TABLE IF NOT EXISTS ACCESS_AUDITORY (
   FOREIGN KEY (user_id) REFERENCES ACCOUNT (collaborator_id) ON delete CASCADE ON update NO ACTION
 );
 
+CREATE TABLE IF NOT EXISTS ACCESS_AUDITORY_DAY (
+  user_id     INTEGER NOT NULL,
+  login_day   DATE    NOT NULL,
+  login_count INTEGER NOT NULL,
+  PRIMARY KEY (user_id, login_day),
+  FOREIGN KEY (user_id) REFERENCES ACCOUNT (collaborator_id) ON delete CASCADE ON update NO ACTION
+);
+
 CREATE TABLE IF NOT EXISTS mindmap_inactive_user (
   id                 SERIAL        PRIMARY KEY,
   original_mindmap_id INTEGER      NOT NULL,
@@ -116,6 +176,11 @@ CREATE TABLE IF NOT EXISTS mindmap_inactive_user (
   public             BOOLEAN       NOT NULL,
   title              VARCHAR(255),
   xml                BYTEA NOT NULL,
+  content_ref        VARCHAR(64),
+  content_checksum   CHAR(8),
   migration_date     TIMESTAMP,
   migration_reason   VARCHAR(255)
-)
+);
+
+CREATE INDEX IF NOT EXISTS idx_mindmap_inactive_user_creator ON mindmap_inactive_user (creator_id);
+CREATE INDEX IF NOT EXISTS idx_mindmap_inactive_user_content_ref ON mindmap_inactive_user (content_ref);
@@ -0,0 +1,143 @@
+package com.wisemapping.dao;
+
+import com.wisemapping.config.AppConfig;
+import com.wisemapping.model.Account;
+import com.wisemapping.model.SuspensionReason;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
+import jakarta.persistence.PersistenceContext;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.Calendar;
+import java.util.List;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Suspends accounts in bulk against a real database, checking already suspended accounts keep their reason and
+ * cached accounts are not served stale.
+ */
+@SpringBootTest(classes = {AppConfig.class})
+@ActiveProfiles("hsqldb")
+class AccountBulkSuspensionTest {
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private UserManager userManager;
+
+    private TransactionTemplate transactionTemplate;
+    private final List<Account> accounts = new ArrayList<>();
+
+    @BeforeEach
+    void setUp() {
+        transactionTemplate = new TransactionTemplate(transactionManager);
+    }
+
+    @AfterEach
+    void tearDown() {
+        transactionTemplate.executeWithoutResult(status -> {
+            for (Account account : accounts) {
+                final Account managed = entityManager.find(Account.class, account.getId());
+                if (managed != null) {
+                    entityManager.remove(managed);
+                }
+            }
+        });
+    }
+
+    @Test
+    void onlyAccountsNotSuspendedAreSuspended() {
+        final Account active = createAccount("active", false);
+        final Account alreadySuspended = createAccount("already-suspended", true);
+
+        final List<Integer> suspended = userManager.suspendUsers(
+                List.of(active.getId(), alreadySuspended.getId(), active.getId()), SuspensionReason.INACTIVITY);
+
+        assertEquals(List.of(active.getId()), suspended);
+        final Account reloaded = load(active);
+        assertTrue(reloaded.isSuspended());
+        assertEquals(SuspensionReason.INACTIVITY, reloaded.getSuspensionReason());
+        assertNotNull(reloaded.getSuspendedDate());
+        assertEquals(SuspensionReason.MANUAL_REVIEW, load(alreadySuspended).getSuspensionReason());
+    }
+
+    @Test
+    void accountsOfEveryChunkAreSuspended() {
+        final List<Integer> ids = IntStream.range(0, 3)
+                .mapToObj(i -> createAccount("chunk-" + i, false).getId())
+                .toList();
+        // Ids of missing accounts fill the first chunk, so the test accounts fall in the next ones
+        final List<Integer> requested = new ArrayList<>(IntStream.range(-600, 0).boxed().toList());
+        requested.addAll(ids);
+
+        assertEquals(ids, userManager.suspendUsers(requested, SuspensionReason.ABUSE));
+        for (Integer id : ids) {
+            assertTrue(transactionTemplate.execute(status -> entityManager.find(Account.class, id)).isSuspended());
+        }
+    }
+
+    @Test
+    void cachedAccountsAreEvicted() {
+        final Account account = createAccount("cached", false);
+        // Loading the account puts it in the second-level cache
+        assertFalse(load(account).isSuspended());
+
+        userManager.suspendUsers(List.of(account.getId()), SuspensionReason.ABUSE);
+
+        assertFalse(entityManagerFactory.getCache().contains(Account.class, account.getId()));
+        assertTrue(load(account).isSuspended());
+    }
+
+    @Test
+    void accountsCachedBeforeTheCommitAreEvicted() {
+        final Account account = createAccount("cached-before-commit", false);
+
+        transactionTemplate.executeWithoutResult(status -> {
+            userManager.suspendUsers(List.of(account.getId()), SuspensionReason.ABUSE);
+            // Reading the account again before the commit puts it back in the second-level cache
+            entityManager.find(Account.class, account.getId());
+            assertTrue(entityManagerFactory.getCache().contains(Account.class, account.getId()));
+        });
+
+        assertFalse(entityManagerFactory.getCache().contains(Account.class, account.getId()));
+    }
+
+    private Account load(Account account) {
+        return transactionTemplate.execute(status -> entityManager.find(Account.class, account.getId()));
+    }
+
+    private Account createAccount(String name, boolean suspended) {
+        final Account account = transactionTemplate.execute(status -> {
+            final Account result = new Account();
+            result.setEmail("bulk-suspension-" + name + "-" + System.nanoTime() + "@example.com");
+            result.setFirstname("Bulk");
+            result.setLastname("Suspension");
+            result.setPassword("secret");
+            result.setCreationDate(Calendar.getInstance());
+            if (suspended) {
+                result.suspend(SuspensionReason.MANUAL_REVIEW);
+            }
+            userManager.createUser(result);
+            return result;
+        });
+        accounts.add(account);
+        return account;
+    }
+}
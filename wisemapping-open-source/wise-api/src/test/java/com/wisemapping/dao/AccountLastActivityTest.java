@@ -0,0 +1,245 @@
+package com.wisemapping.dao;
+
+import com.wisemapping.config.AppConfig;
+import com.wisemapping.model.AccessAuditory;
+import com.wisemapping.model.Account;
+import com.wisemapping.model.InactiveUserResult;
+import com.wisemapping.model.Mindmap;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.Calendar;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Checks the last activity column against a real database: the backfill takes the latest login or map change,
+ * recording only raises it, and the inactive user queries read it. Logins are also rolled up per day.
+ */
+@SpringBootTest(classes = {AppConfig.class})
+@ActiveProfiles("hsqldb")
+class AccountLastActivityTest {
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private UserManager userManager;
+
+    @Autowired
+    private MindmapManager mindmapManager;
+
+    private TransactionTemplate transactionTemplate;
+    private final List<Account> accounts = new ArrayList<>();
+    private final List<Integer> createdMindmapIds = new ArrayList<>();
+
+    @BeforeEach
+    void setUp() {
+        transactionTemplate = new TransactionTemplate(transactionManager);
+    }
+
+    @AfterEach
+    void tearDown() {
+        transactionTemplate.executeWithoutResult(status -> {
+            for (Integer id : createdMindmapIds) {
+                final Mindmap mindmap = entityManager.find(Mindmap.class, id);
+                if (mindmap != null) {
+                    mindmapManager.removeMindmap(mindmap);
+                }
+            }
+            for (Account account : accounts) {
+                entityManager.createQuery("DELETE FROM com.wisemapping.model.AccessAuditory aa WHERE aa.user.id = :id")
+                        .setParameter("id", account.getId())
+                        .executeUpdate();
+                final Account managed = entityManager.find(Account.class, account.getId());
+                if (managed != null) {
+                    entityManager.remove(managed);
+                }
+            }
+        });
+    }
+
+    @Test
+    void backfillTakesTheLatestLoginOrMapChange() {
+        final Account withLogin = createAccount("login");
+        final Account withMindmap = createAccount("mindmap");
+        final Account withBoth = createAccount("both");
+        final Account withNothing = createAccount("nothing");
+        audit(withLogin, daysAgo(10));
+        audit(withLogin, daysAgo(40));
+        saveMindmap(withMindmap, daysAgo(20));
+        audit(withBoth, daysAgo(30));
+        saveMindmap(withBoth, daysAgo(5));
+
+        backfillAll();
+
+        // Login dates are kept without time of day
+        assertEquals(daysAgo(10).getTimeInMillis(), lastActivity(withLogin), 86_400_000);
+        assertEquals(daysAgo(20).getTimeInMillis(), lastActivity(withMindmap), 1000);
+        assertEquals(daysAgo(5).getTimeInMillis(), lastActivity(withBoth), 1000);
+        assertNull(lastActivityOrNull(withNothing));
+    }
+
+    @Test
+    void backfillKeepsMoreRecentActivity() {
+        final Account account = createAccount("recorded");
+        audit(account, daysAgo(30));
+        final Calendar recorded = daysAgo(1);
+        userManager.recordActivity(List.of(account.getId()), recorded, recorded);
+
+        backfillAll();
+
+        assertEquals(recorded.getTimeInMillis(), lastActivity(account), 1000);
+    }
+
+    @Test
+    void recordingIsSkippedWithinTheDebounceWindow() {
+        final Account account = createAccount("debounce");
+        final Calendar first = daysAgo(1);
+        assertEquals(1, userManager.recordActivity(List.of(account.getId()), first, first));
+
+        // Recorded after the cutoff, so not written again
+        assertEquals(0, userManager.recordActivity(List.of(account.getId()), Calendar.getInstance(), daysAgo(2)));
+        assertEquals(first.getTimeInMillis(), lastActivity(account), 1000);
+
+        final Calendar now = Calendar.getInstance();
+        assertEquals(1, userManager.recordActivity(List.of(account.getId()), now, now));
+        assertEquals(now.getTimeInMillis(), lastActivity(account), 1000);
+    }
+
+    @Test
+    void loginsAreRolledUpPerDay() {
+        final Account account = createAccount("rollup");
+        final AccessAuditory yesterday = new AccessAuditory();
+        yesterday.setUser(account);
+        yesterday.setLoginDate(daysAgo(1));
+        final AccessAuditory today = new AccessAuditory();
+        today.setUser(account);
+        today.setLoginDate(Calendar.getInstance());
+        userManager.auditLogins(List.of(yesterday, today, today));
+        audit(account, Calendar.getInstance());
+
+        assertEquals(4, count("SELECT COUNT(*) FROM ACCESS_AUDITORY WHERE user_id = " + account.getId()));
+        assertEquals(List.of(1, 3), transactionTemplate.execute(status -> entityManager.createQuery(
+                        "SELECT d.loginCount FROM com.wisemapping.model.AccessAuditoryDay d " +
+                                "WHERE d.userId = :userId ORDER BY d.loginDay", Integer.class)
+                .setParameter("userId", account.getId())
+                .getResultList()));
+        final Calendar lastLogin = userManager.findLastLoginDate(account.getId());
+        assertEquals(java.time.LocalDate.now(), java.time.LocalDate.ofInstant(lastLogin.toInstant(),
+                lastLogin.getTimeZone().toZoneId()));
+    }
+
+    @Test
+    void inactiveQueriesReadTheLastActivity() {
+        final Account active = createAccount("active");
+        final Account inactive = createAccount("inactive");
+        final Account neverSeen = createAccount("never-seen");
+        final Calendar recent = daysAgo(10);
+        userManager.recordActivity(List.of(active.getId()), recent, recent);
+        final Calendar old = daysAgo(800);
+        userManager.recordActivity(List.of(inactive.getId()), old, old);
+
+        final Calendar cutoff = daysAgo(365);
+        final List<Integer> inactiveIds = new ArrayList<>();
+        IdPage page = IdPage.first(1000);
+        while (true) {
+            final List<InactiveUserResult> results =
+                    userManager.findInactiveUsersWithActivity(cutoff, Calendar.getInstance(), page);
+            results.forEach(result -> inactiveIds.add(result.getUser().getId()));
+            if (!page.isFull(results)) {
+                break;
+            }
+            page = page.after(results.stream().map(result -> result.getUser().getId()).toList());
+        }
+
+        assertTrue(inactiveIds.contains(inactive.getId()));
+        assertTrue(inactiveIds.contains(neverSeen.getId()));
+        assertFalse(inactiveIds.contains(active.getId()));
+    }
+
+    private void backfillAll() {
+        for (Account account : accounts) {
+            userManager.backfillLastActivity(account.getId() - 1, account.getId());
+        }
+    }
+
+    private void audit(Account account, Calendar loginDate) {
+        transactionTemplate.executeWithoutResult(status -> {
+            final AccessAuditory accessAuditory = new AccessAuditory();
+            accessAuditory.setUser(entityManager.find(Account.class, account.getId()));
+            accessAuditory.setLoginDate(loginDate);
+            userManager.auditLogin(accessAuditory);
+        });
+    }
+
+    private void saveMindmap(Account account, Calendar edited) {
+        final int id = transactionTemplate.execute(status -> {
+            final Account managed = entityManager.find(Account.class, account.getId());
+            final Mindmap mindmap = new Mindmap();
+            mindmap.setCreator(managed);
+            mindmap.setLastEditor(managed);
+            mindmap.setTitle("Last Activity " + System.nanoTime());
+            mindmap.setCreationTime(edited);
+            mindmap.setLastModificationTime(edited);
+            mindmap.setUnzipXml("<map version=\"tango\"><topic central=\"true\" text=\"Root\"/></map>".getBytes());
+            mindmapManager.saveMindmap(mindmap);
+            return mindmap.getId();
+        });
+        createdMindmapIds.add(id);
+    }
+
+    private long lastActivity(Account account) {
+        final java.sql.Timestamp value = lastActivityOrNull(account);
+        assertNotNull(value);
+        return value.getTime();
+    }
+
+    private java.sql.Timestamp lastActivityOrNull(Account account) {
+        return transactionTemplate.execute(status -> (java.sql.Timestamp) entityManager.createNativeQuery(
+                        "SELECT last_activity_at FROM ACCOUNT WHERE collaborator_id = ?")
+                .setParameter(1, account.getId())
+                .getSingleResult());
+    }
+
+    private int count(String sql) {
+        return transactionTemplate.execute(status ->
+                ((Number) entityManager.createNativeQuery(sql).getSingleResult()).intValue());
+    }
+
+    private static Calendar daysAgo(int days) {
+        final Calendar result = Calendar.getInstance();
+        result.add(Calendar.DAY_OF_MONTH, -days);
+        return result;
+    }
+
+    private Account createAccount(String name) {
+        final Account account = transactionTemplate.execute(status -> {
+            final Account result = new Account();
+            result.setEmail("last-activity-" + name + "-" + System.nanoTime() + "@example.com");
+            result.setFirstname("Last");
+            result.setLastname("Activity");
+            result.setPassword("secret");
+            final Calendar created = daysAgo(1000);
+            result.setCreationDate(created);
+            result.setActivationDate(created);
+            userManager.createUser(result);
+            return result;
+        });
+        accounts.add(account);
+        return account;
+    }
+}
@@ -0,0 +1,273 @@
+package com.wisemapping.dao;
+
+import com.wisemapping.config.AppConfig;
+import com.wisemapping.model.Account;
+import com.wisemapping.model.Collaboration;
+import com.wisemapping.model.CollaborationProperties;
+import com.wisemapping.model.CollaborationRole;
+import com.wisemapping.model.InactiveMindmap;
+import com.wisemapping.model.MindMapHistory;
+import com.wisemapping.model.Mindmap;
+import com.wisemapping.model.MindmapLabel;
+import com.wisemapping.util.ZipUtils;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Calendar;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Moves maps to the inactive table and back with the set-based statements against a real database, checking the
+ * rows that hang off a map are removed with it and the content comes back unchanged.
+ */
+@SpringBootTest(classes = {AppConfig.class})
+@ActiveProfiles("hsqldb")
+class MindmapInactiveMoveTest {
+
+    private static final String REASON = "User suspended for at least 30 days";
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private MindmapManager mindmapManager;
+
+    @Autowired
+    private InactiveMindmapManager inactiveMindmapManager;
+
+    @Autowired
+    private UserManager userManager;
+
+    private TransactionTemplate transactionTemplate;
+    private Account creator;
+    private Account collaborator;
+    private final List<Integer> createdMindmapIds = new ArrayList<>();
+
+    @BeforeEach
+    void setUp() {
+        transactionTemplate = new TransactionTemplate(transactionManager);
+        creator = createAccount("creator");
+        collaborator = createAccount("collaborator");
+    }
+
+    @AfterEach
+    void tearDown() {
+        transactionTemplate.executeWithoutResult(status -> {
+            for (InactiveMindmap inactiveMindmap : inactiveMindmapManager.findByCreator(creator.getId())) {
+                entityManager.remove(inactiveMindmap);
+            }
+            for (Integer id : createdMindmapIds) {
+                final Mindmap mindmap = entityManager.find(Mindmap.class, id);
+                if (mindmap != null) {
+                    mindmapManager.removeHistoryByMindmapId(id);
+                    mindmapManager.removeMindmap(mindmap);
+                }
+            }
+            entityManager.createQuery("DELETE FROM com.wisemapping.model.MindmapLabel l WHERE l.creator.id = :id")
+                    .setParameter("id", creator.getId())
+                    .executeUpdate();
+            for (Account account : List.of(creator, collaborator)) {
+                final Account managed = entityManager.find(Account.class, account.getId());
+                if (managed != null) {
+                    entityManager.remove(managed);
+                }
+            }
+        });
+    }
+
+    @Test
+    void movedMapsLeaveNoRowsBehind() {
+        final int shared = createMindmap("Shared");
+        final int single = createMindmap("Single");
+        final int ofAnotherCreator = transactionTemplate.execute(status -> {
+            final Account managed = entityManager.find(Account.class, collaborator.getId());
+            return saveMindmap(managed, "Another Creator");
+        });
+        final List<Integer> propertiesIds = ids(
+                "SELECT properties_id FROM COLLABORATION WHERE properties_id IS NOT NULL AND mindmap_id = " + shared);
+
+        final List<Integer> moved = mindmapManager.moveMindmapsToInactive(creator.getId(),
+                List.of(shared, single, ofAnotherCreator), REASON);
+
+        assertEquals(List.of(shared, single), moved.stream().sorted().toList());
+        for (int id : List.of(shared, single)) {
+            assertEquals(0, count("SELECT COUNT(*) FROM MINDMAP WHERE id = " + id));
+            assertEquals(0, count("SELECT COUNT(*) FROM MINDMAP_XML WHERE mindmap_id = " + id));
+            assertEquals(0, count("SELECT COUNT(*) FROM MINDMAP_HISTORY WHERE mindmap_id = " + id));
+            assertEquals(0, count("SELECT COUNT(*) FROM R_LABEL_MINDMAP WHERE mindmap_id = " + id));
+            assertEquals(0, count("SELECT COUNT(*) FROM COLLABORATION WHERE mindmap_id = " + id));
+        }
+        assertFalse(propertiesIds.isEmpty());
+        assertEquals(0, count("SELECT COUNT(*) FROM COLLABORATION_PROPERTIES WHERE id = " + propertiesIds.get(0)));
+        assertEquals(1, count("SELECT COUNT(*) FROM MINDMAP WHERE id = " + ofAnotherCreator));
+
+        final InactiveMindmap inactive = transactionTemplate.execute(status ->
+                inactiveMindmapManager.findByOriginalMindmapId(shared));
+        assertEquals("Shared", inactive.getTitle());
+        assertEquals(REASON, inactive.getMigrationReason());
+        assertEquals(creator.getId(), inactive.getCreator().getId());
+        assertEquals(xmlText("Shared"), unzippedXml(inactive));
+    }
+
+    @Test
+    void restoredMapsKeepTheirIdAndContent() {
+        final int first = createMindmap("First");
+        final int second = createMindmap("Second");
+        mindmapManager.moveMindmapsToInactive(creator.getId(), List.of(first, second), REASON);
+        final List<Integer> inactiveIds = inactiveMindmapManager.findIdsByCreator(creator.getId(), IdPage.first(10));
+
+        final List<Integer> restored = mindmapManager.restoreInactiveMindmaps(creator.getId(), inactiveIds);
+
+        assertEquals(inactiveIds, restored);
+        assertTrue(inactiveMindmapManager.findByCreator(creator.getId()).isEmpty());
+        transactionTemplate.executeWithoutResult(status -> {
+            final Mindmap mindmap = mindmapManager.getMindmapById(first);
+            assertEquals("First", mindmap.getTitle());
+            assertEquals(creator.getId(), mindmap.getLastEditor().getId());
+            assertEquals(xmlText("First"), new String(mindmap.getUnzipXml()));
+            assertTrue(mindmap.getCollaborations().stream().anyMatch(collaboration ->
+                    collaboration.getRole() == CollaborationRole.OWNER
+                            && collaboration.getCollaborator().getId() == creator.getId()));
+        });
+        assertEquals(1, count("SELECT COUNT(*) FROM MINDMAP WHERE id = " + second));
+    }
+
+    @Test
+    void aTakenOriginalIdIsLeftToTheCaller() {
+        final int mindmapId = createMindmap("Taken");
+        mindmapManager.moveMindmapsToInactive(creator.getId(), List.of(mindmapId), REASON);
+        // Another map comes to use the original id
+        transactionTemplate.executeWithoutResult(status -> entityManager.createNativeQuery(
+                        "INSERT INTO MINDMAP (id, title, public, creator_id, last_editor_id) VALUES (?, 'Other', false, ?, ?)")
+                .setParameter(1, mindmapId)
+                .setParameter(2, collaborator.getId())
+                .setParameter(3, collaborator.getId())
+                .executeUpdate());
+        final List<Integer> inactiveIds = inactiveMindmapManager.findIdsByCreator(creator.getId(), IdPage.first(10));
+
+        assertEquals(List.of(), mindmapManager.restoreInactiveMindmaps(creator.getId(), inactiveIds));
+        assertEquals(1, inactiveMindmapManager.findByCreator(creator.getId()).size());
+    }
+
+    @Test
+    void externalizedContentIsMovedByReference() {
+        final int mindmapId = createMindmap("Externalized");
+        final String contentRef = "inactive-move-" + System.nanoTime();
+        transactionTemplate.executeWithoutResult(status -> entityManager.createNativeQuery(
+                        "UPDATE MINDMAP_XML SET content_ref = ?, content_checksum = 'abcd1234' WHERE mindmap_id = ?")
+                .setParameter(1, contentRef)
+                .setParameter(2, mindmapId)
+                .executeUpdate());
+
+        mindmapManager.moveMindmapsToInactive(creator.getId(), List.of(mindmapId), REASON);
+
+        final InactiveMindmap inactive = transactionTemplate.execute(status ->
+                inactiveMindmapManager.findByOriginalMindmapId(mindmapId));
+        assertEquals(contentRef, inactive.getContentRef());
+        assertEquals(Set.of(contentRef), mindmapManager.findReferencedContentRefs(List.of(contentRef)));
+
+        mindmapManager.restoreInactiveMindmaps(creator.getId(), List.of(inactive.getId()));
+        assertEquals(1, count("SELECT COUNT(*) FROM MINDMAP_XML WHERE content_ref = '" + contentRef + "'"));
+    }
+
+    /**
+     * Creates a map of the creator with an owner collaboration, an editor with properties, a label and history.
+     */
+    private int createMindmap(String title) {
+        final int id = transactionTemplate.execute(status -> {
+            final Account managedCreator = entityManager.find(Account.class, creator.getId());
+            final int mindmapId = saveMindmap(managedCreator, title);
+            final Mindmap mindmap = entityManager.find(Mindmap.class, mindmapId);
+            new Collaboration(CollaborationRole.OWNER, managedCreator, mindmap);
+            final Collaboration editor = new Collaboration(CollaborationRole.EDITOR,
+                    entityManager.find(Account.class, collaborator.getId()), mindmap);
+            editor.setCollaborationProperties(new CollaborationProperties());
+
+            final MindmapLabel label = new MindmapLabel();
+            label.setCreator(managedCreator);
+            label.setTitle("Label " + title);
+            label.setColor("#000000");
+            entityManager.persist(label);
+            mindmap.addLabel(label);
+            mindmap.getCollaborations().forEach(entityManager::persist);
+
+            final MindMapHistory history = new MindMapHistory();
+            history.setMindmapId(mindmapId);
+            history.setEditor(managedCreator);
+            history.setZippedXml(new byte[]{1});
+            entityManager.persist(history);
+            return mindmapId;
+        });
+        return id;
+    }
+
+    private int saveMindmap(Account mindmapCreator, String title) {
+        final Mindmap mindmap = new Mindmap();
+        mindmap.setCreator(mindmapCreator);
+        mindmap.setLastEditor(mindmapCreator);
+        mindmap.setTitle(title);
+        mindmap.setCreationTime(Calendar.getInstance());
+        mindmap.setLastModificationTime(Calendar.getInstance());
+        mindmap.setUnzipXml(xmlText(title).getBytes());
+        mindmapManager.saveMindmap(mindmap);
+        createdMindmapIds.add(mindmap.getId());
+        return mindmap.getId();
+    }
+
+    private static String xmlText(String title) {
+        return "<map version=\"tango\"><topic central=\"true\" text=\"" + title + "\"/></map>";
+    }
+
+    private String unzippedXml(InactiveMindmap inactiveMindmap) {
+        return transactionTemplate.execute(status -> {
+            try {
+                return new String(ZipUtils.zipToBytes(
+                        entityManager.find(InactiveMindmap.class, inactiveMindmap.getId()).getZippedXml()));
+            } catch (IOException e) {
+                throw new IllegalStateException(e);
+            }
+        });
+    }
+
+    private int count(String sql) {
+        return transactionTemplate.execute(status ->
+                ((Number) entityManager.createNativeQuery(sql).getSingleResult()).intValue());
+    }
+
+    private List<Integer> ids(String sql) {
+        return transactionTemplate.execute(status -> Arrays.stream(
+                        entityManager.createNativeQuery(sql).getResultList().toArray())
+                .map(value -> ((Number) value).intValue())
+                .toList());
+    }
+
+    private Account createAccount(String name) {
+        return transactionTemplate.execute(status -> {
+            final Account result = new Account();
+            result.setEmail("inactive-move-" + name + "-" + System.nanoTime() + "@example.com");
+            result.setFirstname("Inactive");
+            result.setLastname("Move");
+            result.setPassword("secret");
+            result.setCreationDate(Calendar.getInstance());
+            userManager.createUser(result);
+            return result;
+        });
+    }
+}
@@ -0,0 +1,186 @@
+package com.wisemapping.dao;
+
+import com.wisemapping.config.AppConfig;
+import com.wisemapping.model.Account;
+import com.wisemapping.model.Mindmap;
+import com.wisemapping.model.MindmapSpamInfo;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.Calendar;
+import java.util.List;
+import java.util.function.Function;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Runs the keyset paged batch queries against a real database: pages are ordered by id, and rows that leave the
+ * result set while a job walks it never make the following page skip rows.
+ */
+@SpringBootTest(classes = {AppConfig.class})
+@ActiveProfiles("hsqldb")
+class MindmapKeysetPagingTest {
+
+    private static final int MAPS = 5;
+    private static final int PAGE_SIZE = 2;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private MindmapManager mindmapManager;
+
+    @Autowired
+    private UserManager userManager;
+
+    private TransactionTemplate transactionTemplate;
+    private Account creator;
+    private final List<Integer> createdMindmapIds = new ArrayList<>();
+
+    @BeforeEach
+    void setUp() {
+        transactionTemplate = new TransactionTemplate(transactionManager);
+        creator = createAccount();
+        for (int i = 0; i < MAPS; i++) {
+            createdMindmapIds.add(createPublicMindmap());
+        }
+    }
+
+    @AfterEach
+    void tearDown() {
+        transactionTemplate.executeWithoutResult(status -> {
+            for (Integer id : createdMindmapIds) {
+                final Mindmap mindmap = entityManager.find(Mindmap.class, id);
+                if (mindmap != null) {
+                    mindmapManager.removeHistoryByMindmapId(id);
+                    mindmapManager.removeMindmap(mindmap);
+                }
+            }
+            final Account account = entityManager.find(Account.class, creator.getId());
+            if (account != null) {
+                entityManager.remove(account);
+            }
+        });
+    }
+
+    @Test
+    void creatorMapsArePagedByIdWhileTheyAreRemoved() {
+        final List<Integer> seen = readAllPages(page -> {
+            final List<Integer> ids = mindmapManager.findMindmapIdsByCreator(creator.getId(), page);
+            // The migration job deletes each page before reading the next one
+            transactionTemplate.executeWithoutResult(status ->
+                    ids.forEach(id -> mindmapManager.removeMindmap(entityManager.find(Mindmap.class, id))));
+            return ids;
+        });
+
+        assertEquals(createdMindmapIds, seen);
+    }
+
+    @Test
+    void spamDetectionPagesSkipNoMapWhenProcessedMapsLeaveTheResultSet() {
+        final Calendar cutoffDate = Calendar.getInstance();
+        cutoffDate.add(Calendar.DAY_OF_MONTH, -1);
+        final int currentVersion = Integer.MAX_VALUE;
+        final String strategyVersions = "F1,L1";
+
+        final List<Integer> seen = readAllPages(page -> {
+            final List<Integer> ids = transactionTemplate.execute(status -> mindmapManager
+                    .findPublicMindmapsNeedingSpamDetection(cutoffDate, currentVersion, strategyVersions, page)
+                    .stream().map(Mindmap::getId).toList());
+            // Writing the current version takes the page out of the result set
+            final List<MindmapSpamInfo> spamInfos = new ArrayList<>();
+            for (Integer id : ids) {
+                final MindmapSpamInfo spamInfo = new MindmapSpamInfo();
+                spamInfo.setMindmapId(id);
+                spamInfo.setSpamDetectionVersion(currentVersion);
+                spamInfo.setStrategyVersions(strategyVersions);
+                spamInfos.add(spamInfo);
+            }
+            mindmapManager.updateMindmapSpamInfoBatch(spamInfos);
+            return ids;
+        });
+
+        assertEquals(createdMindmapIds, seen.stream().filter(createdMindmapIds::contains).toList());
+        assertTrue(transactionTemplate.execute(status -> mindmapManager
+                .findPublicMindmapsNeedingSpamDetection(cutoffDate, currentVersion, strategyVersions, IdPage.first(100))).isEmpty());
+        // Bumping the version of a strategy brings the maps back
+        assertEquals(createdMindmapIds, transactionTemplate.execute(status -> mindmapManager
+                .findPublicMindmapsNeedingSpamDetection(cutoffDate, currentVersion, "F1,L2", IdPage.first(100))
+                .stream().map(Mindmap::getId).filter(createdMindmapIds::contains).toList()));
+    }
+
+    @Test
+    void mapsWithHistoryArePagedById() {
+        transactionTemplate.executeWithoutResult(status -> {
+            for (Integer id : createdMindmapIds) {
+                final Mindmap mindmap = mindmapManager.getMindmapById(id);
+                mindmap.setTitle(mindmap.getTitle() + " edited");
+                mindmapManager.updateMindmap(mindmap, true);
+            }
+        });
+
+        final List<Integer> seen = readAllPages(mindmapManager::getMindmapIdsWithHistory);
+
+        assertEquals(createdMindmapIds, seen.stream().filter(createdMindmapIds::contains).toList());
+    }
+
+    /**
+     * Walks the pages the way the batch jobs do, checking that ids only grow from one page to the next.
+     */
+    private List<Integer> readAllPages(Function<IdPage, List<Integer>> reader) {
+        final List<Integer> result = new ArrayList<>();
+        IdPage page = IdPage.first(PAGE_SIZE);
+        List<Integer> ids;
+        do {
+            ids = reader.apply(page);
+            for (Integer id : ids) {
+                assertTrue(id > page.afterId(), "Page must only return ids after " + page.afterId());
+                assertTrue(result.isEmpty() || id > result.get(result.size() - 1), "Ids must be ascending");
+                result.add(id);
+            }
+            page = page.after(ids);
+        } while (page.isFull(ids));
+        return result;
+    }
+
+    private Account createAccount() {
+        return transactionTemplate.execute(status -> {
+            final Account result = new Account();
+            result.setEmail("paging-" + System.nanoTime() + "@example.com");
+            result.setFirstname("Paging");
+            result.setLastname("Test");
+            result.setPassword("secret");
+            result.setCreationDate(Calendar.getInstance());
+            userManager.createUser(result);
+            return result;
+        });
+    }
+
+    private int createPublicMindmap() {
+        return transactionTemplate.execute(status -> {
+            final Account managedCreator = entityManager.find(Account.class, creator.getId());
+            final Mindmap mindmap = new Mindmap();
+            mindmap.setCreator(managedCreator);
+            mindmap.setLastEditor(managedCreator);
+            mindmap.setTitle("Keyset Paging " + System.nanoTime());
+            mindmap.setPublic(true);
+            mindmap.setCreationTime(Calendar.getInstance());
+            mindmap.setLastModificationTime(Calendar.getInstance());
+            mindmap.setUnzipXml("<map version=\"tango\"><topic central=\"true\" text=\"Root\"/></map>".getBytes());
+            mindmapManager.saveMindmap(mindmap);
+            return mindmap.getId();
+        });
+    }
+}
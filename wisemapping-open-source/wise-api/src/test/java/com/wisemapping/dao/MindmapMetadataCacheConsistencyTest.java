@@ -0,0 +1,242 @@
+package com.wisemapping.dao;
+
+import com.wisemapping.config.AppConfig;
+import com.wisemapping.model.Account;
+import com.wisemapping.model.Mindmap;
+import com.wisemapping.model.MindmapSpamInfo;
+import com.wisemapping.model.SuspensionReason;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
+import jakarta.persistence.PersistenceContext;
+import org.hibernate.Session;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.PreparedStatement;
+import java.util.ArrayList;
+import java.util.Calendar;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Verifies that cached map metadata never outlives a committed change made through the application write paths.
+ */
+@SpringBootTest(classes = {AppConfig.class})
+@ActiveProfiles("hsqldb")
+class MindmapMetadataCacheConsistencyTest {
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private MindmapManager mindmapManager;
+
+    @Autowired
+    private UserManager userManager;
+
+    private TransactionTemplate transactionTemplate;
+    private Statistics statistics;
+    private final List<Integer> createdMindmapIds = new ArrayList<>();
+    private final List<Integer> createdAccountIds = new ArrayList<>();
+
+    @BeforeEach
+    void setUp() {
+        transactionTemplate = new TransactionTemplate(transactionManager);
+        statistics = entityManagerFactory.unwrap(SessionFactoryImplementor.class).getStatistics();
+        statistics.setStatisticsEnabled(true);
+        entityManagerFactory.getCache().evictAll();
+    }
+
+    @AfterEach
+    void tearDown() {
+        transactionTemplate.executeWithoutResult(status -> {
+            for (Integer id : createdMindmapIds) {
+                final Mindmap mindmap = entityManager.find(Mindmap.class, id);
+                if (mindmap != null) {
+                    mindmapManager.removeMindmap(mindmap);
+                }
+            }
+            for (Integer id : createdAccountIds) {
+                final Account account = entityManager.find(Account.class, id);
+                if (account != null) {
+                    entityManager.remove(account);
+                }
+            }
+        });
+    }
+
+    @Test
+    void metadataLookupIsServedFromCache() {
+        final int mindmapId = createMindmap(createAccount());
+
+        readMetadata(mindmapId);
+        statistics.clear();
+        final Mindmap cached = readMetadata(mindmapId);
+
+        assertNotNull(cached);
+        assertEquals(0, statistics.getEntityStatistics(Mindmap.class.getName()).getLoadCount(),
+                "Second lookup must not hit the database");
+        assertTrue(statistics.getDomainDataRegionStatistics(Mindmap.class.getName()).getHitCount() > 0);
+    }
+
+    @Test
+    void updateIsVisibleAfterCommit() {
+        final int mindmapId = createMindmap(createAccount());
+        readMetadata(mindmapId);
+
+        transactionTemplate.executeWithoutResult(status -> {
+            final Mindmap mindmap = mindmapManager.getMindmapById(mindmapId);
+            mindmap.setTitle("Renamed");
+            mindmapManager.updateMindmap(mindmap, false);
+        });
+
+        assertEquals("Renamed", readMetadata(mindmapId).getTitle());
+    }
+
+    @Test
+    void spamFlagChangeIsVisibleAfterCommit() {
+        final int mindmapId = createMindmap(createAccount());
+        assertFalse(isSpamDetected(mindmapId));
+
+        final MindmapSpamInfo spamInfo = new MindmapSpamInfo();
+        spamInfo.setMindmapId(mindmapId);
+        spamInfo.setSpamDetected(true);
+        spamInfo.setSpamDescription("test");
+        mindmapManager.updateMindmapSpamInfo(spamInfo);
+
+        assertTrue(isSpamDetected(mindmapId));
+    }
+
+    @Test
+    void jdbcWriteIsVisibleAfterEviction() {
+        final int mindmapId = createMindmap(createAccount());
+        readMetadata(mindmapId);
+
+        transactionTemplate.executeWithoutResult(status -> {
+            entityManager.unwrap(Session.class).doWork(connection -> {
+                try (PreparedStatement statement = connection.prepareStatement("UPDATE MINDMAP SET title = ? WHERE id = ?")) {
+                    statement.setString(1, "Bulk Renamed");
+                    statement.setInt(2, mindmapId);
+                    statement.executeUpdate();
+                }
+            });
+            mindmapManager.evictMindmapMetadata(List.of(mindmapId));
+        });
+
+        assertEquals("Bulk Renamed", readMetadata(mindmapId).getTitle());
+    }
+
+    @Test
+    void creatorSuspensionIsVisibleThroughCachedMap() {
+        final Account creator = createAccount();
+        final int mindmapId = createMindmap(creator);
+        assertFalse(isCreatorSuspended(mindmapId));
+
+        transactionTemplate.executeWithoutResult(status ->
+                userManager.suspendUser(entityManager.find(Account.class, creator.getId()), SuspensionReason.ABUSE));
+
+        assertTrue(isCreatorSuspended(mindmapId));
+    }
+
+    @Test
+    void concurrentUpdatesLeaveCacheConsistentWithDatabase() throws Exception {
+        final int mindmapId = createMindmap(createAccount());
+        final int writers = 8;
+        final ExecutorService executor = Executors.newFixedThreadPool(writers);
+        final CountDownLatch start = new CountDownLatch(1);
+        try {
+            final List<Future<?>> futures = new ArrayList<>();
+            for (int i = 0; i < writers; i++) {
+                final String title = "Title " + i;
+                futures.add(executor.submit(() -> {
+                    start.await();
+                    transactionTemplate.executeWithoutResult(status -> {
+                        final Mindmap mindmap = mindmapManager.getMindmapById(mindmapId);
+                        mindmap.setTitle(title);
+                        mindmapManager.updateMindmap(mindmap, false);
+                    });
+                    // Readers racing with the writers must not leave an old row behind.
+                    return readMetadata(mindmapId);
+                }));
+            }
+            start.countDown();
+            for (Future<?> future : futures) {
+                future.get(30, TimeUnit.SECONDS);
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+
+        final String databaseTitle = transactionTemplate.execute(status -> (String) entityManager
+                .createNativeQuery("SELECT title FROM MINDMAP WHERE id = ?1")
+                .setParameter(1, mindmapId)
+                .getSingleResult());
+        assertEquals(databaseTitle, readMetadata(mindmapId).getTitle());
+    }
+
+    private Mindmap readMetadata(int mindmapId) {
+        return transactionTemplate.execute(status -> mindmapManager.getMindmapMetadataById(mindmapId));
+    }
+
+    private boolean isSpamDetected(int mindmapId) {
+        return Boolean.TRUE.equals(transactionTemplate.execute(
+                status -> mindmapManager.getMindmapMetadataById(mindmapId).isSpamDetected()));
+    }
+
+    private boolean isCreatorSuspended(int mindmapId) {
+        return Boolean.TRUE.equals(transactionTemplate.execute(
+                status -> mindmapManager.getMindmapMetadataById(mindmapId).getCreator().isSuspended()));
+    }
+
+    private Account createAccount() {
+        final Account account = transactionTemplate.execute(status -> {
+            final Account result = new Account();
+            result.setEmail("cache-" + System.nanoTime() + "@example.com");
+            result.setFirstname("Cache");
+            result.setLastname("Test");
+            result.setPassword("secret");
+            result.setCreationDate(Calendar.getInstance());
+            userManager.createUser(result);
+            return result;
+        });
+        createdAccountIds.add(account.getId());
+        return account;
+    }
+
+    private int createMindmap(Account creator) {
+        final int mindmapId = transactionTemplate.execute(status -> {
+            final Account managedCreator = entityManager.find(Account.class, creator.getId());
+            final Mindmap mindmap = new Mindmap();
+            mindmap.setCreator(managedCreator);
+            mindmap.setLastEditor(managedCreator);
+            mindmap.setTitle("Cache Consistency " + System.nanoTime());
+            mindmap.setCreationTime(Calendar.getInstance());
+            mindmap.setLastModificationTime(Calendar.getInstance());
+            mindmap.setUnzipXml("<map version=\"tango\"><topic central=\"true\" text=\"Root\"/></map>".getBytes());
+            mindmapManager.saveMindmap(mindmap);
+            return mindmap.getId();
+        });
+        createdMindmapIds.add(mindmapId);
+        return mindmapId;
+    }
+}
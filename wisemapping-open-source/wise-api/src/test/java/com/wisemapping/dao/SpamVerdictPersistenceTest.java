@@ -0,0 +1,52 @@
+package com.wisemapping.dao;
+
+import com.wisemapping.config.AppConfig;
+import com.wisemapping.model.SpamStrategyType;
+import com.wisemapping.model.SpamVerdict;
+import com.wisemapping.service.SpamVerdictCache;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Stores spam verdicts in a real SPAM_VERDICT table, checking the mapping of the hash, type code and timestamp.
+ */
+@SpringBootTest(classes = {AppConfig.class})
+@ActiveProfiles("hsqldb")
+class SpamVerdictPersistenceTest {
+
+    @Autowired
+    private MindmapManager mindmapManager;
+
+    @Test
+    void verdictsAreInsertedAndReplacedByContentHash() {
+        final String contentHash = SpamVerdictCache.contentHash("<map/>", "Title " + System.nanoTime(), null);
+        assertNull(mindmapManager.findSpamVerdict(contentHash));
+
+        final SpamVerdict spam = new SpamVerdict(contentHash, "8:FHLS");
+        spam.setSpamDetected(true);
+        spam.setSpamReason("Link farm");
+        spam.setSpamDescription("Strategy: LinkFarm, Details: 30 urls");
+        spam.setSpamTypeCode(SpamStrategyType.LINK_FARM);
+        mindmapManager.saveSpamVerdict(spam);
+
+        final SpamVerdict stored = mindmapManager.findSpamVerdict(contentHash);
+        assertNotNull(stored);
+        assertEquals("8:FHLS", stored.getStrategySet());
+        assertTrue(stored.isSpamDetected());
+        assertEquals("Link farm", stored.getSpamReason());
+        assertEquals(SpamStrategyType.LINK_FARM, stored.getSpamTypeCode());
+        assertNotNull(stored.getUpdatedAt());
+
+        // A later strategy set replaces the verdict
+        mindmapManager.saveSpamVerdict(new SpamVerdict(contentHash, "9:FHLS"));
+
+        final SpamVerdict replaced = mindmapManager.findSpamVerdict(contentHash);
+        assertEquals("9:FHLS", replaced.getStrategySet());
+        assertFalse(replaced.isSpamDetected());
+        assertNull(replaced.getSpamTypeCode());
+    }
+}
@@ -0,0 +1,87 @@
+package com.wisemapping.model;
+
+import com.wisemapping.mindmap.model.MapModel;
+import com.wisemapping.mindmap.parser.MindmapParser;
+import com.wisemapping.mindmap.utils.MindmapValidationException;
+import org.junit.jupiter.api.Test;
+
+import java.util.Calendar;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class MindmapStatsTest {
+
+    private static final String XML = """
+            <map name="Stats Map">
+                <topic id="1" text="Root" central="true">
+                    <topic id="2" text="Child 1">
+                        <note>Plain note</note>
+                        <link url="https://example.com"/>
+                    </topic>
+                    <topic id="3" text="Child 2">
+                        <topic id="4" text="Grandchild">
+                            <note><![CDATA[<p>HTML note</p>]]></note>
+                        </topic>
+                    </topic>
+                </topic>
+            </map>
+            """;
+
+    @Test
+    void computesDocumentStatistics() throws MindmapValidationException {
+        final MapModel model = MindmapParser.parseXml(XML);
+
+        final MindmapStats stats = MindmapStats.compute(7, model, 1200, 400, note -> note.contains("<p>"));
+
+        assertEquals(7, stats.getMindmapId());
+        assertEquals(4, stats.getTopicCount());
+        assertEquals(2, stats.getNoteCount());
+        assertEquals(1, stats.getLinkCount());
+        assertEquals(3, stats.getMaxDepth());
+        assertEquals(1200, stats.getRawBytes());
+        assertEquals(400, stats.getCompressedBytes());
+        assertTrue(stats.hasHtmlNotes());
+    }
+
+    @Test
+    void emptyDocumentHasNoStructure() {
+        final MindmapStats stats = MindmapStats.compute(7, new MapModel(), 0, 20, note -> true);
+
+        assertEquals(0, stats.getTopicCount());
+        assertEquals(0, stats.getMaxDepth());
+        assertFalse(stats.hasHtmlNotes());
+    }
+
+    @Test
+    void copyKeepsIdentity() throws MindmapValidationException {
+        final MindmapStats stored = MindmapStats.compute(7, new MapModel(), 0, 20, note -> false);
+        stored.copyFrom(MindmapStats.compute(8, MindmapParser.parseXml(XML), 1200, 400, note -> false));
+
+        assertEquals(7, stored.getMindmapId());
+        assertEquals(4, stored.getTopicCount());
+        assertFalse(stored.hasHtmlNotes());
+    }
+
+    @Test
+    void describesOnlyRevisionsSavedBeforeTheStats() {
+        final MindmapStats stats = MindmapStats.compute(7, new MapModel(), 0, 20, note -> false);
+        final Mindmap mindmap = new Mindmap();
+        mindmap.setId(7);
+        final Calendar edited = Calendar.getInstance();
+        edited.add(Calendar.HOUR, -1);
+        mindmap.setLastModificationTime(edited);
+        assertFalse(stats.describes(mindmap), "never stored");
+
+        stats.copyFrom(stats);
+        assertTrue(stats.describes(mindmap));
+
+        final Calendar laterEdition = Calendar.getInstance();
+        laterEdition.add(Calendar.HOUR, 1);
+        mindmap.setLastModificationTime(laterEdition);
+        assertFalse(stats.describes(mindmap), "map edited after the stats were written");
+
+        mindmap.setId(8);
+        mindmap.setLastModificationTime(edited);
+        assertFalse(stats.describes(mindmap), "another map");
+    }
+}
@@ -0,0 +1,219 @@
+package com.wisemapping.service;
+
+import com.wisemapping.config.AppConfig;
+import com.wisemapping.dao.BatchJobManager;
+import com.wisemapping.dao.MindmapManager;
+import com.wisemapping.dao.UserManager;
+import com.wisemapping.model.Account;
+import com.wisemapping.model.BatchJobState;
+import com.wisemapping.model.BatchJobStatus;
+import com.wisemapping.model.MindMapHistory;
+import com.wisemapping.model.Mindmap;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.Calendar;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Runs the set-based history purge against a real database and checks each phase removes the same entries the
+ * per-map cleanup did. Two workers purge small id ranges, so the maps of a test are spread over several of them.
+ */
+@SpringBootTest(classes = {AppConfig.class})
+@ActiveProfiles("hsqldb")
+@TestPropertySource(properties = {
+        "app.batch.history-cleanup.enabled=true",
+        "app.batch.history-cleanup.phase1-lower-boundary-years=3",
+        "app.batch.history-cleanup.phase1-upper-boundary-years=5",
+        "app.batch.history-cleanup.phase2-lower-boundary-years=1",
+        "app.batch.history-cleanup.phase2-upper-boundary-years=2",
+        "app.batch.history-cleanup.phase2-max-entries=2",
+        "app.batch.history-cleanup.batch-size=2",
+        "app.batch.history-cleanup.workers=2",
+        "app.batch.history-cleanup.range-size=3"
+})
+class HistoryPurgePhasesTest {
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private MindmapManager mindmapManager;
+
+    @Autowired
+    private UserManager userManager;
+
+    @Autowired
+    private HistoryPurgeService historyPurgeService;
+
+    @Autowired
+    private BatchJobManager batchJobManager;
+
+    private static final String JOB_NAME = "history-cleanup";
+
+    private TransactionTemplate transactionTemplate;
+    private Account creator;
+    private final List<Integer> createdMindmapIds = new ArrayList<>();
+
+    @BeforeEach
+    void setUp() {
+        transactionTemplate = new TransactionTemplate(transactionManager);
+        creator = transactionTemplate.execute(status -> {
+            final Account result = new Account();
+            result.setEmail("history-purge-" + System.nanoTime() + "@example.com");
+            result.setFirstname("History");
+            result.setLastname("Purge");
+            result.setPassword("secret");
+            result.setCreationDate(Calendar.getInstance());
+            userManager.createUser(result);
+            return result;
+        });
+    }
+
+    @AfterEach
+    void tearDown() {
+        batchJobManager.removeJobState(JOB_NAME);
+        transactionTemplate.executeWithoutResult(status -> {
+            for (Integer id : createdMindmapIds) {
+                final Mindmap mindmap = entityManager.find(Mindmap.class, id);
+                if (mindmap != null) {
+                    mindmapManager.removeHistoryByMindmapId(id);
+                    mindmapManager.removeMindmap(mindmap);
+                }
+            }
+            final Account account = entityManager.find(Account.class, creator.getId());
+            if (account != null) {
+                entityManager.remove(account);
+            }
+        });
+    }
+
+    @Test
+    void eachPhaseRemovesTheEntriesOfItsAgeRange() {
+        // Phase 1: all history removed
+        final int threeAndAHalfYearsOld = createMindmap(Calendar.MONTH, -42, 1, 2, 3);
+        final int fourYearsOld = createMindmap(Calendar.YEAR, -4, 1);
+        // Phase 2: only the two most recent entries kept, an entry without date being the oldest
+        final int fifteenMonthsOld = createMindmap(Calendar.MONTH, -15, 4, 1, 3, 2);
+        final int withUndatedEntry = createMindmap(Calendar.MONTH, -16, 0, 5, 6);
+        final int withFewEntries = createMindmap(Calendar.MONTH, -18, 1, 2);
+        // Outside both ranges
+        final int recent = createMindmap(Calendar.MONTH, -1, 1, 2, 3, 4);
+        final int ancient = createMindmap(Calendar.YEAR, -6, 1, 2, 3);
+
+        final int deleted = historyPurgeService.purgeHistory();
+
+        assertTrue(deleted >= 7, "Expected at least the 7 entries of the test maps, was " + deleted);
+        assertEquals(List.of(), historyDaysAgo(threeAndAHalfYearsOld));
+        assertEquals(List.of(), historyDaysAgo(fourYearsOld));
+        assertEquals(List.of(1, 2), historyDaysAgo(fifteenMonthsOld));
+        assertEquals(List.of(5, 6), historyDaysAgo(withUndatedEntry));
+        assertEquals(List.of(1, 2), historyDaysAgo(withFewEntries));
+        assertEquals(List.of(1, 2, 3, 4), historyDaysAgo(recent));
+        assertEquals(List.of(1, 2, 3), historyDaysAgo(ancient));
+    }
+
+    @Test
+    void purgingAgainKeepsTheMostRecentEntries() {
+        final int fifteenMonthsOld = createMindmap(Calendar.MONTH, -15, 3, 1, 2);
+
+        historyPurgeService.purgeHistory();
+        historyPurgeService.purgeHistory();
+
+        assertEquals(List.of(1, 2), historyDaysAgo(fifteenMonthsOld));
+    }
+
+    @Test
+    void anInterruptedRunResumesAfterTheCheckpoint() {
+        final int purgedBeforeInterruption = createMindmap(Calendar.MONTH, -15, 3, 1, 2);
+        final int notPurgedYet = createMindmap(Calendar.MONTH, -15, 3, 1, 2);
+        // A node stopped after purging the first map, and its lease has expired since
+        final Calendar expired = Calendar.getInstance();
+        expired.add(Calendar.MINUTE, -1);
+        final BatchJobState state = batchJobManager.acquireLease(JOB_NAME, "stopped-node", expired);
+        state.setStatus(BatchJobStatus.RUNNING);
+        state.setLastCursor(purgedBeforeInterruption);
+        assertTrue(batchJobManager.saveProgress(state, "stopped-node", expired));
+
+        historyPurgeService.purgeHistory();
+
+        assertEquals(List.of(1, 2, 3), historyDaysAgo(purgedBeforeInterruption));
+        assertEquals(List.of(1, 2), historyDaysAgo(notPurgedYet));
+        final BatchJobState completed = batchJobManager.findJobState(JOB_NAME);
+        assertEquals(BatchJobStatus.COMPLETED, completed.getStatus());
+        assertNull(completed.getLeaseOwner());
+        // A completed run starts the next one over
+        historyPurgeService.purgeHistory();
+        assertEquals(List.of(1, 2), historyDaysAgo(purgedBeforeInterruption));
+    }
+
+    /**
+     * Creates a map last modified the given amount of time ago, with one history entry created each given number
+     * of days before that; 0 stands for an entry without creation date.
+     */
+    private int createMindmap(int field, int amount, int... entryDaysAgo) {
+        final int id = transactionTemplate.execute(status -> {
+            final Account managedCreator = entityManager.find(Account.class, creator.getId());
+            final Calendar edited = Calendar.getInstance();
+            edited.add(field, amount);
+            final Mindmap mindmap = new Mindmap();
+            mindmap.setCreator(managedCreator);
+            mindmap.setLastEditor(managedCreator);
+            mindmap.setTitle("History Purge " + System.nanoTime());
+            mindmap.setCreationTime(edited);
+            mindmap.setLastModificationTime(edited);
+            mindmap.setUnzipXml("<map version=\"tango\"><topic central=\"true\" text=\"Root\"/></map>".getBytes());
+            mindmapManager.saveMindmap(mindmap);
+
+            for (int daysAgo : entryDaysAgo) {
+                final MindMapHistory history = new MindMapHistory();
+                history.setMindmapId(mindmap.getId());
+                history.setEditor(managedCreator);
+                history.setZippedXml(new byte[]{1});
+                if (daysAgo > 0) {
+                    final Calendar created = (Calendar) edited.clone();
+                    created.add(Calendar.DAY_OF_MONTH, -daysAgo);
+                    history.setCreationTime(created);
+                }
+                entityManager.persist(history);
+            }
+            return mindmap.getId();
+        });
+        createdMindmapIds.add(id);
+        return id;
+    }
+
+    /**
+     * The remaining history entries of a map, as days before its last modification, 0 for undated ones.
+     */
+    private List<Integer> historyDaysAgo(int mindmapId) {
+        return transactionTemplate.execute(status -> {
+            final Mindmap mindmap = entityManager.find(Mindmap.class, mindmapId);
+            final long edited = mindmap.getLastModificationTime().getTimeInMillis();
+            return entityManager.createQuery(
+                            "SELECT h FROM com.wisemapping.model.MindMapHistory h WHERE h.mindmapId = :mindmapId",
+                            MindMapHistory.class)
+                    .setParameter("mindmapId", mindmapId)
+                    .getResultList().stream()
+                    .map(history -> history.getCreationTime() == null ? 0
+                            : (int) Math.round((edited - history.getCreationTime().getTimeInMillis()) / 86_400_000d))
+                    .sorted()
+                    .toList();
+        });
+    }
+}
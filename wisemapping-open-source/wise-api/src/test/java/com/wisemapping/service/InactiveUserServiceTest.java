@@ -19,6 +19,7 @@
 package com.wisemapping.service;
 
 import com.wisemapping.config.AppConfig;
+import com.wisemapping.dao.IdPage;
 import com.wisemapping.dao.MindmapManager;
 import com.wisemapping.model.Account;
 import com.wisemapping.model.InactiveUserResult;
@@ -194,7 +195,7 @@ public class InactiveUserServiceTest {
             Calendar creationCutoffDate = Calendar.getInstance();
             creationCutoffDate.add(Calendar.YEAR, -1);
             
-            List<InactiveUserResult> batch = userManager.findInactiveUsersWithActivity(cutoffDate, creationCutoffDate, 0, 5);
+            List<InactiveUserResult> batch = userManager.findInactiveUsersWithActivity(cutoffDate, creationCutoffDate, IdPage.first(5));
             InactiveUserService.BatchResult result = inactiveUserService.processBatch(batch);
             assertNotNull(result, "Should return a valid result");
             assertTrue(result.processed >= 0, "Processed count should be non-negative");
@@ -239,7 +240,7 @@ public class InactiveUserServiceTest {
             assertTrue(count >= 0, "Count should be non-negative");
             
             // Process a batch - this is where the error occurred
-            List<InactiveUserResult> batch = userManager.findInactiveUsersWithActivity(cutoffDate, creationCutoffDate, 0, 10);
+            List<InactiveUserResult> batch = userManager.findInactiveUsersWithActivity(cutoffDate, creationCutoffDate, IdPage.first(10));
             InactiveUserService.BatchResult result = inactiveUserService.processBatch(batch);
             
             // If we get here, the transaction fix worked!
@@ -406,7 +407,7 @@ public class InactiveUserServiceTest {
         creationCutoffDate.add(Calendar.MONTH, -10); // 2.8 years ago
         
         // This should NOT throw TransactionRequiredException because we're in a transactional context
-        List<InactiveUserResult> batch = userManager.findInactiveUsersWithActivity(cutoffDate, creationCutoffDate, 0, 5);
+        List<InactiveUserResult> batch = userManager.findInactiveUsersWithActivity(cutoffDate, creationCutoffDate, IdPage.first(5));
         InactiveUserService.BatchResult result = inactiveUserService.processBatch(batch);
         
         // Verify the user was processed and suspended
@@ -501,7 +502,7 @@ public class InactiveUserServiceTest {
         creationCutoffDate.add(Calendar.YEAR, -1);
         
         // Process inactive users (should actually suspend since dryRun=false)
-        List<InactiveUserResult> batch = userManager.findInactiveUsersWithActivity(cutoffDate, creationCutoffDate, 0, 5);
+        List<InactiveUserResult> batch = userManager.findInactiveUsersWithActivity(cutoffDate, creationCutoffDate, IdPage.first(5));
         InactiveUserService.BatchResult result = inactiveUserService.processBatch(batch);
 
         // Verify result - should process the 2 inactive users we created
@@ -0,0 +1,191 @@
+/*
+ *    Copyright [2007-2025] [wisemapping]
+ *
+ *   Licensed under WiseMapping Public License, Version 1.0 (the "License").
+ *   It is basically the Apache License, Version 2.0 (the "License") plus the
+ *   "powered by wisemapping" text requirement on every single page;
+ *   you may not use this file except in compliance with the License.
+ *   You may obtain a copy of the license at
+ *
+ *       https://github.com/wisemapping/wisemapping-open-source/blob/main/LICENSE.md
+ *
+ *   Unless required by applicable law or agreed to in writing, software
+ *   distributed under the License is distributed on an "AS IS" BASIS,
+ *   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *   See the License for the specific language governing permissions and
+ *   limitations under the License.
+ */
+
+package com.wisemapping.service;
+
+import com.wisemapping.dao.UserManager;
+import com.wisemapping.model.AccessAuditory;
+import com.wisemapping.model.Account;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.ArrayList;
+import java.util.Calendar;
+import java.util.Collection;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class LoginAuditBufferTest {
+
+    @Mock
+    private UserManager userManager;
+
+    @InjectMocks
+    private LoginAuditBuffer loginAuditBuffer;
+
+    @AfterEach
+    void tearDown() {
+        loginAuditBuffer.shutdown();
+    }
+
+    @Test
+    void loginsAreWrittenInBatchesOnFlush() {
+        start(true, 60_000L, 2, 100);
+        final List<List<Integer>> batches = captureBatches();
+
+        for (int i = 1; i <= 5; i++) {
+            loginAuditBuffer.add(login(i));
+        }
+        loginAuditBuffer.flush();
+
+        verify(userManager, never()).auditLogin(any());
+        // The flushes started by a full batch may have written some of them already
+        assertEquals(List.of(1, 2, 3, 4, 5), batches.stream().flatMap(List::stream).toList());
+        assertTrue(batches.stream().allMatch(batch -> batch.size() <= 2));
+        assertEquals(0, loginAuditBuffer.getPendingCount());
+    }
+
+    @Test
+    void aFullBatchIsWrittenBeforeTheInterval() {
+        start(true, 60_000L, 2, 100);
+
+        loginAuditBuffer.add(login(1));
+        loginAuditBuffer.add(login(2));
+
+        verify(userManager, timeout(5000)).auditLogins(argThat(batch -> batch.size() == 2));
+    }
+
+    @Test
+    void theLoginThreadWritesAboveCapacity() {
+        start(true, 60_000L, 10, 3);
+        final List<List<Integer>> batches = captureBatches();
+
+        loginAuditBuffer.add(login(1));
+        loginAuditBuffer.add(login(2));
+        assertTrue(batches.isEmpty());
+        loginAuditBuffer.add(login(3));
+
+        assertEquals(List.of(List.of(1, 2, 3)), batches);
+    }
+
+    @Test
+    void pendingLoginsAreWrittenOnShutdown() {
+        start(true, 60_000L, 10, 100);
+        final List<List<Integer>> batches = captureBatches();
+        loginAuditBuffer.add(login(1));
+
+        loginAuditBuffer.shutdown();
+
+        assertEquals(List.of(List.of(1)), batches);
+    }
+
+    @Test
+    void aFailedBatchDoesNotStopTheNextOnes() {
+        start(true, 60_000L, 1, 100);
+        doThrow(new IllegalStateException("Database down"))
+                .doNothing()
+                .when(userManager).auditLogins(anyCollection());
+        loginAuditBuffer.add(login(1));
+        loginAuditBuffer.add(login(2));
+
+        loginAuditBuffer.flush();
+
+        verify(userManager, times(2)).auditLogins(anyCollection());
+        assertEquals(0, loginAuditBuffer.getPendingCount());
+    }
+
+    @Test
+    void entriesOfAFailedBatchAreWrittenOneByOne() {
+        start(true, 60_000L, 3, 100);
+        doThrow(new IllegalStateException("Unknown account")).when(userManager).auditLogins(anyCollection());
+        doThrow(new IllegalStateException("Unknown account"))
+                .when(userManager).auditLogin(argThat(entry -> entry.getUser().getId() == 2));
+        loginAuditBuffer.add(login(1));
+        loginAuditBuffer.add(login(2));
+        loginAuditBuffer.add(login(3));
+
+        loginAuditBuffer.flush();
+
+        verify(userManager).auditLogin(argThat(entry -> entry.getUser().getId() == 1));
+        verify(userManager).auditLogin(argThat(entry -> entry.getUser().getId() == 2));
+        verify(userManager).auditLogin(argThat(entry -> entry.getUser().getId() == 3));
+        assertEquals(0, loginAuditBuffer.getPendingCount());
+    }
+
+    @Test
+    void loginsAreWrittenRightAwayAfterShutdown() {
+        start(true, 60_000L, 10, 100);
+        loginAuditBuffer.shutdown();
+        final AccessAuditory accessAuditory = login(1);
+
+        loginAuditBuffer.add(accessAuditory);
+
+        verify(userManager).auditLogin(accessAuditory);
+        assertEquals(0, loginAuditBuffer.getPendingCount());
+    }
+
+    @Test
+    void loginsAreWrittenRightAwayWhenDisabled() {
+        start(false, 60_000L, 10, 100);
+        final AccessAuditory accessAuditory = login(1);
+
+        loginAuditBuffer.add(accessAuditory);
+
+        verify(userManager).auditLogin(accessAuditory);
+        verify(userManager, never()).auditLogins(anyCollection());
+    }
+
+    private void start(boolean enabled, long flushIntervalMs, int flushSize, int capacity) {
+        ReflectionTestUtils.setField(loginAuditBuffer, "enabled", enabled);
+        ReflectionTestUtils.setField(loginAuditBuffer, "flushIntervalMs", flushIntervalMs);
+        ReflectionTestUtils.setField(loginAuditBuffer, "flushSize", flushSize);
+        ReflectionTestUtils.setField(loginAuditBuffer, "capacity", capacity);
+        loginAuditBuffer.init();
+    }
+
+    /**
+     * Records the user ids of each batch written.
+     */
+    private List<List<Integer>> captureBatches() {
+        final List<List<Integer>> result = java.util.Collections.synchronizedList(new ArrayList<>());
+        doAnswer(invocation -> {
+            final Collection<AccessAuditory> batch = invocation.getArgument(0);
+            result.add(batch.stream().map(entry -> entry.getUser().getId()).toList());
+            return null;
+        }).when(userManager).auditLogins(anyCollection());
+        return result;
+    }
+
+    private static AccessAuditory login(int userId) {
+        final Account user = new Account();
+        user.setId(userId);
+        final AccessAuditory result = new AccessAuditory();
+        result.setUser(user);
+        result.setLoginDate(Calendar.getInstance());
+        return result;
+    }
+}
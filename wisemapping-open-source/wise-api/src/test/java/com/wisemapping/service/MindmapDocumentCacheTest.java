@@ -0,0 +1,221 @@
+package com.wisemapping.service;
+
+import com.wisemapping.model.Mindmap;
+import com.wisemapping.model.MindmapXml;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Calendar;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class MindmapDocumentCacheTest {
+
+    private static Mindmap createMindmap(int id, String xml) {
+        final Mindmap mindmap = new Mindmap();
+        mindmap.setId(id);
+        mindmap.setLastModificationTime(Calendar.getInstance());
+        mindmap.setUnzipXml(xml.getBytes(StandardCharsets.UTF_8));
+        // As if the map had been loaded from the database.
+        mindmap.getMindmapXml().markStored();
+        return mindmap;
+    }
+
+    private static String xmlOfSize(int size) {
+        final StringBuilder result = new StringBuilder("<map>");
+        while (result.length() < size - "</map>".length()) {
+            result.append('x');
+        }
+        return result.append("</map>").toString();
+    }
+
+    @Test
+    void cachesDocumentOnRead() {
+        final MindmapDocumentCache cache = new MindmapDocumentCache(1024 * 1024, false);
+        final Mindmap mindmap = createMindmap(1, "<map><topic central=\"true\"/></map>");
+
+        assertEquals("<map><topic central=\"true\"/></map>", cache.getXmlStr(mindmap));
+        assertEquals(1, cache.size());
+        assertEquals("<map><topic central=\"true\"/></map>", cache.getXmlStr(mindmap));
+        assertEquals(1, cache.size());
+    }
+
+    @Test
+    void unsavedContentIsNotServedFromCache() {
+        final MindmapDocumentCache cache = new MindmapDocumentCache(1024 * 1024, false);
+        final Mindmap mindmap = createMindmap(1, "<map>first</map>");
+        cache.getXmlStr(mindmap);
+
+        // Same edition date, content not saved yet: it must be read from the entity, not from the cache.
+        mindmap.setUnzipXml("<map>second</map>".getBytes(StandardCharsets.UTF_8));
+
+        assertEquals("<map>second</map>", cache.getXmlStr(mindmap));
+        assertEquals("<map>first</map>".length(), cache.getUsedBytes());
+    }
+
+    @Test
+    void newEditionInvalidatesEntry() {
+        final MindmapDocumentCache cache = new MindmapDocumentCache(1024 * 1024, false);
+        final Mindmap mindmap = createMindmap(1, "<map>first</map>");
+        cache.getXmlStr(mindmap);
+
+        final Mindmap saved = createMindmap(1, "<map>second</map>");
+        saved.getLastModificationTime().add(Calendar.SECOND, 1);
+
+        assertEquals("<map>second</map>", cache.getXmlStr(saved));
+        assertEquals("<map>second</map>".length(), cache.getUsedBytes());
+    }
+
+    @Test
+    void cacheHitDoesNotReadStoredContent() {
+        final MindmapDocumentCache cache = new MindmapDocumentCache(1024 * 1024, false);
+        final AtomicInteger reads = new AtomicInteger();
+        final Mindmap mindmap = new Mindmap();
+        mindmap.setId(1);
+        mindmap.setLastModificationTime(Calendar.getInstance());
+        mindmap.setMindmapXml(new MindmapXml(mindmap) {
+            @Override
+            public byte[] getZippedXml() {
+                reads.incrementAndGet();
+                return super.getZippedXml();
+            }
+        });
+        mindmap.setUnzipXml("<map>content</map>".getBytes(StandardCharsets.UTF_8));
+        mindmap.getMindmapXml().markStored();
+
+        cache.getXmlStr(mindmap);
+        cache.getXmlStr(mindmap);
+        cache.getUnzipXml(mindmap);
+
+        assertEquals(1, reads.get());
+    }
+
+    @Test
+    void returnedBytesAreACopy() {
+        final MindmapDocumentCache cache = new MindmapDocumentCache(1024 * 1024, false);
+        final Mindmap mindmap = createMindmap(1, "<map>content</map>");
+        cache.getUnzipXml(mindmap)[0] = 'X';
+
+        final byte[] cached = cache.getUnzipXml(mindmap);
+        cached[1] = 'X';
+
+        assertEquals("<map>content</map>", cache.getXmlStr(mindmap));
+    }
+
+    @Test
+    void evictsLeastRecentlyUsedWhenFull() {
+        final MindmapDocumentCache cache = new MindmapDocumentCache(4096, false);
+        final Mindmap first = createMindmap(1, xmlOfSize(1000));
+        final Mindmap second = createMindmap(2, xmlOfSize(1000));
+        final Mindmap third = createMindmap(3, xmlOfSize(1000));
+        final Mindmap fourth = createMindmap(4, xmlOfSize(1000));
+        final Mindmap fifth = createMindmap(5, xmlOfSize(1000));
+
+        cache.getXmlStr(first);
+        cache.getXmlStr(second);
+        cache.getXmlStr(third);
+        cache.getXmlStr(fourth);
+        cache.getXmlStr(first);
+        cache.getXmlStr(fifth);
+
+        assertEquals(4, cache.size());
+        assertTrue(cache.getUsedBytes() <= 4096);
+        cache.evict(2);
+        assertEquals(4, cache.size(), "second map should have been evicted first");
+    }
+
+    @Test
+    void skipsDocumentsLargerThanEntryLimit() {
+        final MindmapDocumentCache cache = new MindmapDocumentCache(4096, false);
+        final Mindmap mindmap = createMindmap(1, xmlOfSize(2000));
+
+        assertEquals(2000, cache.getUnzipXml(mindmap).length);
+        assertEquals(0, cache.size());
+    }
+
+    @Test
+    void offHeapRoundTrip() {
+        final MindmapDocumentCache cache = new MindmapDocumentCache(1024 * 1024, true);
+        final String xml = "<map><topic text=\"ñandú\"/></map>";
+        final Mindmap mindmap = createMindmap(1, xml);
+
+        cache.put(mindmap, xml.getBytes(StandardCharsets.UTF_8));
+
+        assertEquals(xml, cache.getXmlStr(mindmap));
+        assertArrayEquals(xml.getBytes(StandardCharsets.UTF_8), cache.getUnzipXml(mindmap));
+        assertEquals(xml.getBytes(StandardCharsets.UTF_8).length, cache.getUsedBytes());
+    }
+
+    @Test
+    void concurrentReadsOfSameRevisionShareOneLoad() throws Exception {
+        // No cache capacity, so every read that is not coalesced has to load the document itself.
+        final MindmapDocumentCache cache = new MindmapDocumentCache(0, false);
+        final String xml = "<map><topic central=\"true\"/></map>";
+        final int readers = 6;
+        final AtomicInteger loads = new AtomicInteger();
+        final Mindmap mindmap = new Mindmap() {
+            @Override
+            public byte[] getUnzipXml() {
+                loads.incrementAndGet();
+                // Complete the load only once every other reader is blocked on this in-flight load.
+                awaitWaitingReaders(cache, readers - 1);
+                return super.getUnzipXml();
+            }
+        };
+        mindmap.setId(1);
+        mindmap.setLastModificationTime(Calendar.getInstance());
+        mindmap.setUnzipXml(xml.getBytes(StandardCharsets.UTF_8));
+        mindmap.getMindmapXml().markStored();
+
+        final ExecutorService executor = Executors.newFixedThreadPool(readers);
+        try {
+            final List<Future<String>> results = new ArrayList<>();
+            for (int i = 0; i < readers; i++) {
+                results.add(executor.submit(() -> cache.getXmlStr(mindmap)));
+            }
+            for (Future<String> result : results) {
+                assertEquals(xml, result.get(30, TimeUnit.SECONDS));
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+        assertEquals(1, loads.get());
+    }
+
+    /**
+     * Blocks until the given number of readers are joined on the in-flight loads of the cache.
+     */
+    private static void awaitWaitingReaders(MindmapDocumentCache cache, int expected) {
+        @SuppressWarnings("unchecked")
+        final Map<String, CompletableFuture<?>> inFlight =
+                (Map<String, CompletableFuture<?>>) ReflectionTestUtils.getField(cache, "inFlight");
+        final long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(20);
+        while (inFlight.values().stream().mapToInt(CompletableFuture::getNumberOfDependents).sum() < expected) {
+            if (System.nanoTime() > deadline) {
+                fail("Readers did not join the in-flight load");
+            }
+            Thread.onSpinWait();
+        }
+    }
+
+    @Test
+    void modifiedContentIsNotCoalesced() {
+        final MindmapDocumentCache cache = new MindmapDocumentCache(0, false);
+        final Mindmap mindmap = createMindmap(1, "<map>first</map>");
+        assertEquals("<map>first</map>", cache.getXmlStr(mindmap));
+
+        mindmap.setUnzipXml("<map>second</map>".getBytes(StandardCharsets.UTF_8));
+
+        assertEquals("<map>second</map>", cache.getXmlStr(mindmap));
+    }
+}
@@ -0,0 +1,226 @@
+/*
+ *    Copyright [2007-2025] [wisemapping]
+ *
+ *   Licensed under WiseMapping Public License, Version 1.0 (the "License").
+ *   It is basically the Apache License, Version 2.0 (the "License") plus the
+ *   "powered by wisemapping" text requirement on every single page;
+ *   you may not use this file except in compliance with the License.
+ *   You may obtain a copy of the license at
+ *
+ *       https://github.com/wisemapping/wisemapping-open-source/blob/main/LICENSE.md
+ *
+ *   Unless required by applicable law or agreed to in writing, software
+ *   distributed under the License is distributed on an "AS IS" BASIS,
+ *   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *   See the License for the specific language governing permissions and
+ *   limitations under the License.
+ */
+
+package com.wisemapping.service;
+
+import com.wisemapping.dao.MindmapManager;
+import com.wisemapping.model.Account;
+import com.wisemapping.model.Mindmap;
+import com.wisemapping.model.MindmapSpamInfo;
+import com.wisemapping.model.SpamStrategyType;
+import com.wisemapping.service.spam.SpamDetectionResult;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class SpamAnalysisQueueTest {
+
+    private static final int MINDMAP_ID = 7;
+
+    @Mock
+    private SpamDetectionService spamDetectionService;
+
+    @Mock
+    private SpamDetectionBatchService spamDetectionBatchService;
+
+    @Mock
+    private MindmapManager mindmapManager;
+
+    @Mock
+    private MetricsService metricsService;
+
+    @InjectMocks
+    private SpamAnalysisQueue spamAnalysisQueue;
+
+    private final CountDownLatch release = new CountDownLatch(1);
+    private Account user;
+    private Mindmap mindmap;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        ReflectionTestUtils.setField(spamAnalysisQueue, "enabled", true);
+        ReflectionTestUtils.setField(spamAnalysisQueue, "workers", 1);
+        ReflectionTestUtils.setField(spamAnalysisQueue, "queueCapacity", 1);
+        ReflectionTestUtils.setField(spamAnalysisQueue, "slaMs", 100L);
+        spamAnalysisQueue.init();
+
+        user = new Account();
+        user.setId(1);
+        user.setEmail("test@example.com");
+        mindmap = new Mindmap();
+        mindmap.setId(MINDMAP_ID);
+        mindmap.setTitle("Queued Map");
+        mindmap.setCreator(user);
+        mindmap.setXmlStr("<map version=\"tango\"><topic central=\"true\" text=\"Root\"/></map>");
+    }
+
+    @AfterEach
+    void tearDown() {
+        release.countDown();
+        spamAnalysisQueue.shutdown();
+    }
+
+    @Test
+    void resultWithinSlaIsReturnedToTheRequest() {
+        when(spamDetectionService.detectSpam(any(Mindmap.class), eq("publish"))).thenReturn(SpamDetectionResult.notSpam());
+
+        final SpamDetectionResult result = spamAnalysisQueue.submit(mindmap, "publish").awaitWithinSla();
+
+        assertNotNull(result);
+        assertFalse(result.isSpam());
+        verify(metricsService).trackSpamAnalysisWait(eq("within_sla"), anyLong());
+        verifyNoInteractions(mindmapManager);
+    }
+
+    @Test
+    void deferredCleanResultIsWrittenAndPublishesTheMap() {
+        blockAnalysesUntilReleased(SpamDetectionResult.notSpam());
+        when(spamDetectionBatchService.getCurrentSpamDetectionVersion()).thenReturn(3);
+        when(spamDetectionService.getStrategyVersions()).thenReturn("F1,H1");
+        when(mindmapManager.updateMindmapPublicState(MINDMAP_ID, true)).thenReturn(true);
+
+        final SpamAnalysisQueue.Analysis analysis = spamAnalysisQueue.submit(mindmap, "publish");
+        assertNull(analysis.awaitWithinSla());
+        analysis.applyWhenDone(MINDMAP_ID, user);
+        assertTrue(spamAnalysisQueue.isDeferred(MINDMAP_ID));
+        release.countDown();
+
+        @SuppressWarnings("unchecked")
+        final ArgumentCaptor<List<MindmapSpamInfo>> captor = ArgumentCaptor.forClass(List.class);
+        verify(mindmapManager, timeout(5000)).updateMindmapSpamInfoBatch(captor.capture());
+        verify(mindmapManager, timeout(5000)).updateMindmapPublicState(MINDMAP_ID, true);
+        final MindmapSpamInfo spamInfo = captor.getValue().get(0);
+        assertEquals(MINDMAP_ID, spamInfo.getMindmapId());
+        assertFalse(spamInfo.isSpamDetected());
+        assertEquals(3, spamInfo.getSpamDetectionVersion());
+        assertEquals("F1,H1", spamInfo.getStrategyVersions());
+        verify(metricsService).trackSpamAnalysisWait(eq("deferred"), anyLong());
+        assertFalse(spamAnalysisQueue.isDeferred(MINDMAP_ID));
+    }
+
+    @Test
+    void deferredSpamResultFlagsTheMapAndLeavesItPrivate() {
+        blockAnalysesUntilReleased(SpamDetectionResult.spam("Link farm", "Too many links", SpamStrategyType.LINK_FARM));
+
+        final SpamAnalysisQueue.Analysis analysis = spamAnalysisQueue.submit(mindmap, "publish");
+        assertNull(analysis.awaitWithinSla());
+        analysis.applyWhenDone(MINDMAP_ID, user);
+        release.countDown();
+
+        @SuppressWarnings("unchecked")
+        final ArgumentCaptor<List<MindmapSpamInfo>> captor = ArgumentCaptor.forClass(List.class);
+        verify(mindmapManager, timeout(5000)).updateMindmapSpamInfoBatch(captor.capture());
+        assertTrue(captor.getValue().get(0).isSpamDetected());
+        verify(metricsService, timeout(5000)).trackSpamPrevention(any(Mindmap.class), eq("publish"));
+        verify(mindmapManager, never()).updateMindmapPublicState(anyInt(), anyBoolean());
+    }
+
+    @Test
+    void cancelledAnalysisIsNotApplied() {
+        final CountDownLatch done = new CountDownLatch(1);
+        when(spamDetectionService.detectSpam(any(Mindmap.class), anyString())).thenAnswer(invocation -> {
+            release.await(5, TimeUnit.SECONDS);
+            done.countDown();
+            return SpamDetectionResult.notSpam();
+        });
+
+        final SpamAnalysisQueue.Analysis analysis = spamAnalysisQueue.submit(mindmap, "publish");
+        assertNull(analysis.awaitWithinSla());
+        analysis.applyWhenDone(MINDMAP_ID, user);
+        // Made private again before the analysis completes
+        spamAnalysisQueue.cancel(MINDMAP_ID);
+        release.countDown();
+
+        verify(mindmapManager, after(500).never()).updateMindmapSpamInfoBatch(anyList());
+        verify(mindmapManager, never()).updateMindmapPublicState(anyInt(), anyBoolean());
+    }
+
+    @Test
+    void fullQueueRunsTheAnalysisOnTheRequestThread() {
+        final Thread requestThread = Thread.currentThread();
+        when(spamDetectionService.detectSpam(any(Mindmap.class), anyString())).thenAnswer(invocation -> {
+            if (Thread.currentThread() != requestThread) {
+                release.await(5, TimeUnit.SECONDS);
+            }
+            return SpamDetectionResult.notSpam();
+        });
+
+        // One analysis keeps the only worker busy and another fills the queue
+        spamAnalysisQueue.submit(mindmap, "creation");
+        spamAnalysisQueue.submit(new Mindmap(), "creation");
+        final SpamDetectionResult result = spamAnalysisQueue.submit(new Mindmap(), "creation").awaitWithinSla();
+
+        assertNotNull(result);
+        verify(metricsService).trackSpamAnalysisWait(eq("caller_runs"), anyLong());
+    }
+
+    @Test
+    void analysesSubmittedAfterShutdownRunOnTheRequestThread() {
+        when(spamDetectionService.detectSpam(any(Mindmap.class), eq("publish"))).thenReturn(SpamDetectionResult.notSpam());
+        spamAnalysisQueue.shutdown();
+
+        final SpamDetectionResult result = spamAnalysisQueue.submit(mindmap, "publish").awaitWithinSla();
+
+        assertNotNull(result);
+        verify(metricsService).trackSpamAnalysisWait(eq("caller_runs"), anyLong());
+    }
+
+    @Test
+    void queuedAnalysesFailWhenTheQueueStops() throws InterruptedException {
+        final CountDownLatch started = new CountDownLatch(1);
+        when(spamDetectionService.detectSpam(any(Mindmap.class), anyString())).thenAnswer(invocation -> {
+            started.countDown();
+            release.await(5, TimeUnit.SECONDS);
+            return SpamDetectionResult.notSpam();
+        });
+        // One analysis keeps the only worker busy, the next one waits in the queue
+        spamAnalysisQueue.submit(new Mindmap(), "creation");
+        assertTrue(started.await(5, TimeUnit.SECONDS));
+        final SpamAnalysisQueue.Analysis queued = spamAnalysisQueue.submit(mindmap, "publish");
+        queued.applyWhenDone(MINDMAP_ID, user);
+
+        spamAnalysisQueue.shutdown();
+
+        assertThrows(RejectedExecutionException.class, queued::awaitWithinSla);
+        assertFalse(spamAnalysisQueue.isDeferred(MINDMAP_ID));
+        verify(mindmapManager, never()).updateMindmapPublicState(anyInt(), anyBoolean());
+    }
+
+    private void blockAnalysesUntilReleased(SpamDetectionResult result) {
+        when(spamDetectionService.detectSpam(any(Mindmap.class), anyString())).thenAnswer(invocation -> {
+            release.await(5, TimeUnit.SECONDS);
+            return result;
+        });
+    }
+}
@@ -18,23 +18,33 @@
 
 package com.wisemapping.service;
 
+import com.wisemapping.dao.BatchJobManager;
+import com.wisemapping.dao.IdPage;
 import com.wisemapping.dao.MindmapManager;
 import com.wisemapping.model.Account;
+import com.wisemapping.model.BatchJobState;
 import com.wisemapping.model.Mindmap;
 import com.wisemapping.model.MindmapSpamInfo;
+import com.wisemapping.model.SpamStrategyType;
+import com.wisemapping.service.batch.BatchJobRunner;
 
 import jakarta.persistence.EntityManager;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 import org.springframework.test.util.ReflectionTestUtils;
 import org.springframework.transaction.support.TransactionTemplate;
 
+import java.util.Arrays;
 import java.util.Calendar;
 import java.util.Collections;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.TreeMap;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.*;
@@ -59,6 +69,9 @@ class SpamDetectionBatchServiceUnitTest {
     @Mock
     private EntityManager entityManager;
 
+    @Mock
+    private BatchJobManager batchJobManager;
+
     @InjectMocks
     private SpamDetectionBatchService spamDetectionBatchService;
 
@@ -103,6 +116,15 @@ class SpamDetectionBatchServiceUnitTest {
         // Set up EntityManager mock for native SQL queries
         lenient().when(entityManager.createNativeQuery(anyString())).thenReturn(mock(jakarta.persistence.Query.class));
 
+        // Run the job on a runner that always holds the lease
+        lenient().when(batchJobManager.acquireLease(anyString(), anyString(), any(Calendar.class)))
+                .thenAnswer(invocation -> new BatchJobState(invocation.getArgument(0)));
+        lenient().when(batchJobManager.saveProgress(any(BatchJobState.class), anyString(), any())).thenReturn(true);
+        BatchJobRunner batchJobRunner = new BatchJobRunner();
+        ReflectionTestUtils.setField(batchJobRunner, "batchJobManager", batchJobManager);
+        ReflectionTestUtils.setField(batchJobRunner, "maxAttempts", 1);
+        ReflectionTestUtils.setField(spamDetectionBatchService, "batchJobRunner", batchJobRunner);
+
         // Set up service configuration
         ReflectionTestUtils.setField(spamDetectionBatchService, "enabled", true);
         ReflectionTestUtils.setField(spamDetectionBatchService, "metricsService", metricsService);
@@ -126,69 +148,154 @@ class SpamDetectionBatchServiceUnitTest {
     @Test
     void testProcessPublicMapsSpamDetection_WhenEnabled_ShouldExecute() {
         // Arrange
-        when(mindmapManager.countPublicMindmapsNeedingSpamDetection(any(Calendar.class), anyInt())).thenReturn(1L);
-        when(mindmapManager.findPublicMindmapsNeedingSpamDetection(any(Calendar.class), anyInt(), anyInt(), anyInt()))
+        when(mindmapManager.countPublicMindmapsNeedingSpamDetection(any(Calendar.class), anyInt(), any())).thenReturn(1L);
+        when(mindmapManager.findPublicMindmapsNeedingSpamDetection(any(Calendar.class), anyInt(), any(), any(IdPage.class)))
                 .thenReturn(Collections.singletonList(testMindmap));
-        when(spamDetectionService.detectSpam(testMindmap, "batch_scan")).thenReturn(
+        when(spamDetectionService.detectSpam(eq(testMindmap), eq("batch_scan"), any(), any())).thenReturn(
             com.wisemapping.service.spam.SpamDetectionResult.notSpam());
 
         // Act
         spamDetectionBatchService.processPublicMapsSpamDetection();
 
         // Assert
-        verify(mindmapManager, atLeastOnce()).countPublicMindmapsNeedingSpamDetection(any(Calendar.class), anyInt());
+        verify(mindmapManager, atLeastOnce()).countPublicMindmapsNeedingSpamDetection(any(Calendar.class), anyInt(), any());
     }
 
     @Test
     void testProcessBatch_WithSpamDetected_ShouldMarkAsSpam() {
         // Arrange
         Calendar cutoffDate = Calendar.getInstance();
-        when(mindmapManager.findPublicMindmapsNeedingSpamDetection(eq(cutoffDate), anyInt(), anyInt(), anyInt()))
+        when(mindmapManager.findPublicMindmapsNeedingSpamDetection(eq(cutoffDate), anyInt(), any(), any(IdPage.class)))
                 .thenReturn(Collections.singletonList(testMindmap));
-        when(spamDetectionService.detectSpam(testMindmap, "batch_scan")).thenReturn(
+        when(spamDetectionService.detectSpam(eq(testMindmap), eq("batch_scan"), any(), any())).thenReturn(
             com.wisemapping.service.spam.SpamDetectionResult.spam("Test spam", "Test details", com.wisemapping.model.SpamStrategyType.CONTACT_INFO));
 
         // Act
-        SpamDetectionBatchService.BatchResult result = spamDetectionBatchService.processBatch(cutoffDate, 0, 10);
+        SpamDetectionBatchService.BatchResult result = spamDetectionBatchService.processBatch(cutoffDate, IdPage.first(10));
 
         // Assert
         assertNotNull(result);
         assertEquals(1, result.processedCount);
         assertEquals(1, result.spamDetectedCount);
-        // Verify that updateMindmapSpamInfo was called with spam detected
-        verify(mindmapManager, times(1)).updateMindmapSpamInfo(any(MindmapSpamInfo.class));
+        // Verify that the spam info was written with spam detected
+        verify(mindmapManager, times(1)).updateMindmapSpamInfoBatch(argThat(spamInfos ->
+                spamInfos.size() == 1 && spamInfos.iterator().next().isSpamDetected()));
+    }
+
+    @Test
+    void testProcessBatch_ShouldPassStoredStatsToDetection() {
+        // Arrange
+        Calendar cutoffDate = Calendar.getInstance();
+        com.wisemapping.model.MindmapStats stats = new com.wisemapping.model.MindmapStats();
+        stats.setMindmapId(testMindmap.getId());
+        when(mindmapManager.findPublicMindmapsNeedingSpamDetection(eq(cutoffDate), anyInt(), any(), any(IdPage.class)))
+                .thenReturn(Collections.singletonList(testMindmap));
+        when(mindmapManager.findMindmapStats(argThat(ids -> ids.contains(testMindmap.getId()))))
+                .thenReturn(Collections.singletonList(stats));
+        when(spamDetectionService.detectSpam(eq(testMindmap), eq("batch_scan"), any(), any())).thenReturn(
+            com.wisemapping.service.spam.SpamDetectionResult.notSpam());
+
+        // Act
+        spamDetectionBatchService.processBatch(cutoffDate, IdPage.first(10));
+
+        // Assert
+        verify(spamDetectionService).detectSpam(testMindmap, "batch_scan", stats, null);
+        verify(mindmapManager, times(1)).findMindmapStats(anyCollection());
+    }
+
+    @Test
+    void testProcessBatch_WhenDetectionNeedsReview_ShouldLeaveMapForNextRun() {
+        // Arrange
+        Calendar cutoffDate = Calendar.getInstance();
+        when(mindmapManager.findPublicMindmapsNeedingSpamDetection(eq(cutoffDate), anyInt(), any(), any(IdPage.class)))
+                .thenReturn(Collections.singletonList(testMindmap));
+        when(spamDetectionService.detectSpam(eq(testMindmap), eq("batch_scan"), any(), any())).thenReturn(
+            com.wisemapping.service.spam.SpamDetectionResult.needsReview("Spam detection exceeded its CPU budget",
+                    "Strategy: HtmlContent", com.wisemapping.model.SpamStrategyType.HTML_CONTENT));
+
+        // Act
+        SpamDetectionBatchService.BatchResult result = spamDetectionBatchService.processBatch(cutoffDate, IdPage.first(10));
+
+        // Assert
+        assertEquals(1, result.processedCount);
+        assertEquals(0, result.spamDetectedCount);
+        // Neither marked clean nor moved to the current version, so the next run checks it again
+        verify(mindmapManager, never()).updateMindmapSpamInfoBatch(anyCollection());
+        verify(mindmapManager, never()).updateMindmapSpamInfo(any(MindmapSpamInfo.class));
+    }
+
+    @Test
+    void testProcessBatch_MapThatPassed_ShouldOnlyRunChangedStrategies() {
+        // Arrange
+        Calendar cutoffDate = Calendar.getInstance();
+        testMindmap.setSpamDetectionVersion(1);
+        testMindmap.getSpamInfo().setStrategyVersions("F1,L1");
+        when(spamDetectionService.getStrategyVersions()).thenReturn("F1,L2");
+        when(spamDetectionService.changedStrategies("F1,L1")).thenReturn(EnumSet.of(SpamStrategyType.LINK_FARM));
+        when(mindmapManager.findPublicMindmapsNeedingSpamDetection(eq(cutoffDate), eq(1), eq("F1,L2"), any(IdPage.class)))
+                .thenReturn(Collections.singletonList(testMindmap));
+        when(spamDetectionService.detectSpam(eq(testMindmap), eq("batch_scan"), any(), any())).thenReturn(
+            com.wisemapping.service.spam.SpamDetectionResult.notSpam());
+
+        // Act
+        spamDetectionBatchService.processBatch(cutoffDate, IdPage.first(10));
+
+        // Assert
+        verify(spamDetectionService).detectSpam(testMindmap, "batch_scan", null, EnumSet.of(SpamStrategyType.LINK_FARM));
+        verify(mindmapManager).updateMindmapSpamInfoBatch(argThat(spamInfos -> "F1,L2".equals(
+                spamInfos.iterator().next().getStrategyVersions())));
+    }
+
+    @Test
+    void testProcessBatch_MapMarkedAsSpam_ShouldRunAllStrategies() {
+        // Arrange
+        Calendar cutoffDate = Calendar.getInstance();
+        testMindmap.setSpamDetected(true);
+        testMindmap.setSpamDetectionVersion(1);
+        testMindmap.getSpamInfo().setStrategyVersions("F1,L1");
+        when(mindmapManager.findPublicMindmapsNeedingSpamDetection(eq(cutoffDate), anyInt(), any(), any(IdPage.class)))
+                .thenReturn(Collections.singletonList(testMindmap));
+        when(spamDetectionService.detectSpam(eq(testMindmap), eq("batch_scan"), any(), any())).thenReturn(
+            com.wisemapping.service.spam.SpamDetectionResult.notSpam());
+
+        // Act
+        spamDetectionBatchService.processBatch(cutoffDate, IdPage.first(10));
+
+        // Assert
+        verify(spamDetectionService).detectSpam(testMindmap, "batch_scan", null, null);
+        verify(spamDetectionService, never()).changedStrategies(any());
     }
 
     @Test
     void testProcessBatch_WithNoSpamDetected_ShouldUpdateVersion() {
         // Arrange
         Calendar cutoffDate = Calendar.getInstance();
-        when(mindmapManager.findPublicMindmapsNeedingSpamDetection(eq(cutoffDate), anyInt(), anyInt(), anyInt()))
+        when(mindmapManager.findPublicMindmapsNeedingSpamDetection(eq(cutoffDate), anyInt(), any(), any(IdPage.class)))
                 .thenReturn(Collections.singletonList(testMindmap));
-        when(spamDetectionService.detectSpam(testMindmap, "batch_scan")).thenReturn(
+        when(spamDetectionService.detectSpam(eq(testMindmap), eq("batch_scan"), any(), any())).thenReturn(
             com.wisemapping.service.spam.SpamDetectionResult.notSpam());
 
         // Act
-        SpamDetectionBatchService.BatchResult result = spamDetectionBatchService.processBatch(cutoffDate, 0, 10);
+        SpamDetectionBatchService.BatchResult result = spamDetectionBatchService.processBatch(cutoffDate, IdPage.first(10));
 
         // Assert
         assertNotNull(result);
         assertEquals(1, result.processedCount);
         assertEquals(0, result.spamDetectedCount);
-        // Verify that updateMindmapSpamInfo was called to track processing version even when no spam is detected
-        verify(mindmapManager, times(1)).updateMindmapSpamInfo(any(MindmapSpamInfo.class));
+        // Verify that the spam info was written to track processing version even when no spam is detected
+        verify(mindmapManager, times(1)).updateMindmapSpamInfoBatch(argThat(spamInfos -> spamInfos.size() == 1));
     }
 
     @Test
     void testProcessBatch_WithSpamDetectionException_ShouldContinueProcessing() {
         // Arrange
         Calendar cutoffDate = Calendar.getInstance();
-        when(mindmapManager.findPublicMindmapsNeedingSpamDetection(eq(cutoffDate), anyInt(), anyInt(), anyInt()))
+        when(mindmapManager.findPublicMindmapsNeedingSpamDetection(eq(cutoffDate), anyInt(), any(), any(IdPage.class)))
                 .thenReturn(Collections.singletonList(testMindmap));
-        when(spamDetectionService.detectSpam(testMindmap, "batch_scan")).thenThrow(new RuntimeException("Spam detection error"));
+        when(spamDetectionService.detectSpam(eq(testMindmap), eq("batch_scan"), any(), any())).thenThrow(new RuntimeException("Spam detection error"));
 
         // Act
-        SpamDetectionBatchService.BatchResult result = spamDetectionBatchService.processBatch(cutoffDate, 0, 10);
+        SpamDetectionBatchService.BatchResult result = spamDetectionBatchService.processBatch(cutoffDate, IdPage.first(10));
 
         // Assert
         assertNotNull(result);
@@ -203,14 +310,14 @@ class SpamDetectionBatchServiceUnitTest {
         // Arrange
         Calendar cutoffDate = Calendar.getInstance();
         long expectedCount = 5L;
-        when(mindmapManager.countPublicMindmapsNeedingSpamDetection(cutoffDate, 1)).thenReturn(expectedCount);
+        when(mindmapManager.countPublicMindmapsNeedingSpamDetection(cutoffDate, 1, null)).thenReturn(expectedCount);
 
         // Act
         long actualCount = spamDetectionBatchService.getTotalMapsCount(cutoffDate);
 
         // Assert
         assertEquals(expectedCount, actualCount);
-        verify(mindmapManager, times(1)).countPublicMindmapsNeedingSpamDetection(cutoffDate, 1);
+        verify(mindmapManager, times(1)).countPublicMindmapsNeedingSpamDetection(cutoffDate, 1, null);
     }
 
     @Test
@@ -250,13 +357,13 @@ class SpamDetectionBatchServiceUnitTest {
         // Arrange - suspended users are now handled the same as regular users
         testUser.setSuspended(true);
         Calendar cutoffDate = Calendar.getInstance();
-        when(mindmapManager.findPublicMindmapsNeedingSpamDetection(eq(cutoffDate), anyInt(), anyInt(), anyInt()))
+        when(mindmapManager.findPublicMindmapsNeedingSpamDetection(eq(cutoffDate), anyInt(), any(), any(IdPage.class)))
                 .thenReturn(Collections.singletonList(testMindmap));
-        when(spamDetectionService.detectSpam(testMindmap, "batch_scan")).thenReturn(
+        when(spamDetectionService.detectSpam(eq(testMindmap), eq("batch_scan"), any(), any())).thenReturn(
             com.wisemapping.service.spam.SpamDetectionResult.notSpam());
 
         // Act
-        SpamDetectionBatchService.BatchResult result = spamDetectionBatchService.processBatch(cutoffDate, 0, 10);
+        SpamDetectionBatchService.BatchResult result = spamDetectionBatchService.processBatch(cutoffDate, IdPage.first(10));
 
         // Assert
         assertNotNull(result);
@@ -264,7 +371,7 @@ class SpamDetectionBatchServiceUnitTest {
         assertEquals(0, result.spamDetectedCount);
         // Verify that no special handling is done for suspended users
         // The mindmap should be processed normally for spam detection and version tracking
-        verify(mindmapManager, times(1)).updateMindmapSpamInfo(any(MindmapSpamInfo.class));
+        verify(mindmapManager, times(1)).updateMindmapSpamInfoBatch(argThat(spamInfos -> spamInfos.size() == 1));
     }
 
     @Test
@@ -272,11 +379,11 @@ class SpamDetectionBatchServiceUnitTest {
         // Arrange
         testMindmap.setSpamDetectionVersion(2); // Higher than current version (1)
         Calendar cutoffDate = Calendar.getInstance();
-        when(mindmapManager.findPublicMindmapsNeedingSpamDetection(eq(cutoffDate), anyInt(), anyInt(), anyInt()))
+        when(mindmapManager.findPublicMindmapsNeedingSpamDetection(eq(cutoffDate), anyInt(), any(), any(IdPage.class)))
                 .thenReturn(Collections.emptyList()); // No mindmaps returned because version >= current
 
         // Act
-        SpamDetectionBatchService.BatchResult result = spamDetectionBatchService.processBatch(cutoffDate, 0, 10);
+        SpamDetectionBatchService.BatchResult result = spamDetectionBatchService.processBatch(cutoffDate, IdPage.first(10));
 
         // Assert
         assertNotNull(result);
@@ -305,4 +412,135 @@ class SpamDetectionBatchServiceUnitTest {
         ReflectionTestUtils.setField(spamDetectionBatchService, "batchSize", 0);
         assertEquals(1, spamDetectionBatchService.getBatchSize());
     }
+
+    @Test
+    void testProcessBatch_InParallel_ShouldWriteResultsInOneBatch() {
+        ReflectionTestUtils.setField(spamDetectionBatchService, "parallelism", 3);
+        ReflectionTestUtils.setField(spamDetectionBatchService, "queueCapacity", 1);
+        spamDetectionBatchService.init();
+        try {
+            Mindmap spamMindmap = createPublicMindmap(2);
+            Mindmap failingMindmap = createPublicMindmap(3);
+            Calendar cutoffDate = Calendar.getInstance();
+            when(mindmapManager.findPublicMindmapsNeedingSpamDetection(eq(cutoffDate), anyInt(), any(), any(IdPage.class)))
+                    .thenReturn(Arrays.asList(testMindmap, spamMindmap, failingMindmap));
+            when(spamDetectionService.detectSpam(argThat(withId(1)), eq("batch_scan"), any(), any())).thenReturn(
+                com.wisemapping.service.spam.SpamDetectionResult.notSpam());
+            when(spamDetectionService.detectSpam(argThat(withId(2)), eq("batch_scan"), any(), any())).thenReturn(
+                com.wisemapping.service.spam.SpamDetectionResult.spam("Test spam", "Test details", com.wisemapping.model.SpamStrategyType.CONTACT_INFO));
+            when(spamDetectionService.detectSpam(argThat(withId(3)), eq("batch_scan"), any(), any())).thenThrow(new RuntimeException("Spam detection error"));
+
+            SpamDetectionBatchService.BatchResult result = spamDetectionBatchService.processBatch(cutoffDate, IdPage.first(10));
+
+            assertEquals(3, result.processedCount);
+            assertEquals(1, result.spamDetectedCount);
+            @SuppressWarnings("unchecked")
+            ArgumentCaptor<java.util.Collection<MindmapSpamInfo>> captor = ArgumentCaptor.forClass(java.util.Collection.class);
+            verify(mindmapManager, times(1)).updateMindmapSpamInfoBatch(captor.capture());
+            verify(mindmapManager, never()).updateMindmapSpamInfo(any(MindmapSpamInfo.class));
+            List<MindmapSpamInfo> spamInfos = List.copyOf(captor.getValue());
+            assertEquals(2, spamInfos.size());
+            assertFalse(spamInfos.get(0).isSpamDetected());
+            assertTrue(spamInfos.get(1).isSpamDetected());
+            assertEquals(2, spamInfos.get(1).getMindmapId());
+            verify(metricsService).trackSpamBatch(eq("parallel"), eq(3), anyLong());
+            // Workers get unmanaged copies holding what detection reads
+            verify(spamDetectionService).detectSpam(argThat(mindmap -> mindmap != testMindmap
+                    && mindmap.getId() == testMindmap.getId()
+                    && "Test Mindmap".equals(mindmap.getTitle())
+                    && mindmap.getCreator() != testUser
+                    && "test@example.com".equals(mindmap.getCreator().getEmail())
+                    && Arrays.equals(testMindmap.getZippedXml(), mindmap.getZippedXml())), eq("batch_scan"), any(), any());
+        } finally {
+            spamDetectionBatchService.shutdown();
+        }
+    }
+
+    @Test
+    void testProcessBatch_InParallel_WhenBatchedUpdateFails_ShouldUpdateOneByOne() {
+        ReflectionTestUtils.setField(spamDetectionBatchService, "parallelism", 2);
+        spamDetectionBatchService.init();
+        try {
+            Calendar cutoffDate = Calendar.getInstance();
+            when(mindmapManager.findPublicMindmapsNeedingSpamDetection(eq(cutoffDate), anyInt(), any(), any(IdPage.class)))
+                    .thenReturn(Arrays.asList(testMindmap, createPublicMindmap(2)));
+            when(spamDetectionService.detectSpam(any(Mindmap.class), eq("batch_scan"), any(), any())).thenReturn(
+                com.wisemapping.service.spam.SpamDetectionResult.notSpam());
+            doThrow(new RuntimeException("Batch failed")).when(mindmapManager).updateMindmapSpamInfoBatch(anyCollection());
+
+            SpamDetectionBatchService.BatchResult result = spamDetectionBatchService.processBatch(cutoffDate, IdPage.first(10));
+
+            assertEquals(2, result.processedCount);
+            verify(mindmapManager, times(2)).updateMindmapSpamInfo(any(MindmapSpamInfo.class));
+        } finally {
+            spamDetectionBatchService.shutdown();
+        }
+    }
+
+    @Test
+    void testProcessBatch_Serially_ShouldTrackSerialMode() {
+        Calendar cutoffDate = Calendar.getInstance();
+        when(mindmapManager.findPublicMindmapsNeedingSpamDetection(eq(cutoffDate), anyInt(), any(), any(IdPage.class)))
+                .thenReturn(Collections.singletonList(testMindmap));
+        when(spamDetectionService.detectSpam(eq(testMindmap), eq("batch_scan"), any(), any())).thenReturn(
+            com.wisemapping.service.spam.SpamDetectionResult.notSpam());
+
+        spamDetectionBatchService.processBatch(cutoffDate, IdPage.first(10));
+
+        assertEquals(1, spamDetectionBatchService.getParallelism());
+        verify(mindmapManager, times(1)).updateMindmapSpamInfoBatch(anyCollection());
+        verify(metricsService).trackSpamBatch(eq("serial"), eq(1), anyLong());
+        // The page transaction is opened programmatically, self-invocation would bypass @Transactional
+        verify(transactionTemplate, times(1)).execute(any());
+    }
+
+    @Test
+    void testProcessPublicMapsSpamDetection_ProcessedMapsLeavingResultSet_ShouldNotSkipMaps() {
+        ReflectionTestUtils.setField(spamDetectionBatchService, "batchSize", 3);
+        // Maps needing detection, keyed by id. Updating the spam info removes a map from the set, as the
+        // version filter does in the database, while the job is still paging through it.
+        TreeMap<Integer, Mindmap> pending = new TreeMap<>();
+        for (int id = 1; id <= 10; id++) {
+            pending.put(id, createPublicMindmap(id));
+        }
+        List<Integer> processed = new java.util.ArrayList<>();
+
+        when(mindmapManager.countPublicMindmapsNeedingSpamDetection(any(Calendar.class), anyInt(), any()))
+                .thenAnswer(invocation -> (long) pending.size());
+        when(mindmapManager.findPublicMindmapsNeedingSpamDetection(any(Calendar.class), anyInt(), any(), any(IdPage.class)))
+                .thenAnswer(invocation -> {
+                    IdPage page = invocation.getArgument(3);
+                    return pending.tailMap(page.afterId(), false).values().stream().limit(page.limit()).toList();
+                });
+        when(spamDetectionService.detectSpam(any(Mindmap.class), eq("batch_scan"), any(), any())).thenReturn(
+            com.wisemapping.service.spam.SpamDetectionResult.notSpam());
+        doAnswer(invocation -> {
+            java.util.Collection<MindmapSpamInfo> spamInfos = invocation.getArgument(0);
+            for (MindmapSpamInfo spamInfo : spamInfos) {
+                processed.add(spamInfo.getMindmapId());
+                pending.remove(spamInfo.getMindmapId());
+            }
+            return null;
+        }).when(mindmapManager).updateMindmapSpamInfoBatch(anyCollection());
+
+        spamDetectionBatchService.processPublicMapsSpamDetection();
+
+        assertEquals(List.of(1, 2, 3, 4, 5, 6, 7, 8, 9, 10), processed);
+        assertTrue(pending.isEmpty());
+    }
+
+    private Mindmap createPublicMindmap(int id) {
+        Mindmap mindmap = new Mindmap();
+        mindmap.setId(id);
+        mindmap.setTitle("Mindmap " + id);
+        mindmap.setPublic(true);
+        mindmap.setCreator(testUser);
+        mindmap.setCreationTime(Calendar.getInstance());
+        mindmap.setLastModificationTime(Calendar.getInstance());
+        return mindmap;
+    }
+
+    private static org.mockito.ArgumentMatcher<Mindmap> withId(int id) {
+        return mindmap -> mindmap != null && mindmap.getId() == id;
+    }
 }
@@ -0,0 +1,244 @@
+package com.wisemapping.service;
+
+import com.wisemapping.dao.MindmapManager;
+import com.wisemapping.model.Mindmap;
+import com.wisemapping.model.SpamStrategyType;
+import com.wisemapping.model.SpamVerdict;
+import com.wisemapping.service.spam.SpamContentExtractor;
+import com.wisemapping.service.spam.SpamDetectionContext;
+import com.wisemapping.service.spam.SpamDetectionResult;
+import com.wisemapping.service.spam.SpamDetectionStrategy;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.Predicate;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+class SpamDetectionServiceTest {
+
+    private final MetricsService metricsService = mock(MetricsService.class);
+
+    private static SpamDetectionStrategy strategy(SpamStrategyType type, long costNanos, Predicate<Mindmap> isSpam) {
+        return strategy(type, costNanos, isSpam, true);
+    }
+
+    private static SpamDetectionStrategy strategy(SpamStrategyType type, long costNanos, Predicate<Mindmap> isSpam,
+                                                  boolean contentBased) {
+        return new SpamDetectionStrategy() {
+            @Override
+            public SpamDetectionResult detectSpam(SpamDetectionContext context) {
+                if (costNanos > 0) {
+                    LockSupport.parkNanos(costNanos);
+                }
+                return isSpam.test(context.getMindmap())
+                        ? SpamDetectionResult.spam("test", "test", type)
+                        : SpamDetectionResult.notSpam();
+            }
+
+            @Override
+            public SpamStrategyType getType() {
+                return type;
+            }
+
+            @Override
+            public boolean isContentBased() {
+                return contentBased;
+            }
+        };
+    }
+
+    private SpamDetectionService service(boolean adaptiveOrdering, SpamDetectionStrategy... strategies) {
+        final SpamDetectionService service = new SpamDetectionService(List.of(strategies));
+        final MindmapDocumentCache documentCache = mock(MindmapDocumentCache.class);
+        when(documentCache.getXmlStr(any(Mindmap.class))).thenReturn("<map><topic central=\"true\" text=\"Home\"/></map>");
+        ReflectionTestUtils.setField(service, "metricsService", metricsService);
+        ReflectionTestUtils.setField(service, "documentCache", documentCache);
+        ReflectionTestUtils.setField(service, "spamContentExtractor", mock(SpamContentExtractor.class));
+        ReflectionTestUtils.setField(service, "cpuBudgetMs", 0L);
+        ReflectionTestUtils.setField(service, "adaptiveOrdering", adaptiveOrdering);
+        return service;
+    }
+
+    /**
+     * Backs the verdict cache of the service with an in-memory table.
+     */
+    private static Map<String, SpamVerdict> withVerdictCache(SpamDetectionService service, int detectionVersion) {
+        final Map<String, SpamVerdict> verdicts = new HashMap<>();
+        final MindmapManager mindmapManager = mock(MindmapManager.class);
+        when(mindmapManager.findSpamVerdict(anyString())).thenAnswer(invocation -> verdicts.get(invocation.getArgument(0)));
+        doAnswer(invocation -> {
+            final SpamVerdict verdict = invocation.getArgument(0);
+            verdicts.put(verdict.getContentHash(), verdict);
+            return null;
+        }).when(mindmapManager).saveSpamVerdict(any(SpamVerdict.class));
+
+        final SpamVerdictCache verdictCache = new SpamVerdictCache();
+        ReflectionTestUtils.setField(verdictCache, "enabled", true);
+        ReflectionTestUtils.setField(verdictCache, "detectionVersion", detectionVersion);
+        ReflectionTestUtils.setField(verdictCache, "mindmapManager", mindmapManager);
+        ReflectionTestUtils.setField(service, "verdictCache", verdictCache);
+        return verdicts;
+    }
+
+    private static SpamDetectionStrategy counting(SpamStrategyType type, AtomicInteger runs, boolean spam) {
+        return strategy(type, 0, map -> {
+            runs.incrementAndGet();
+            return spam;
+        });
+    }
+
+    private static Mindmap mindmap(int id) {
+        final Mindmap mindmap = new Mindmap();
+        mindmap.setId(id);
+        return mindmap;
+    }
+
+    @Test
+    void tracksTimeAndHitsPerStrategy() {
+        final SpamDetectionService service = service(false,
+                strategy(SpamStrategyType.HTML_CONTENT, 0, map -> false),
+                strategy(SpamStrategyType.LINK_FARM, 0, map -> true),
+                strategy(SpamStrategyType.FEW_NODES, 0, map -> true));
+
+        final SpamDetectionResult result = service.detectSpam(mindmap(1), "test");
+
+        assertTrue(result.isSpam());
+        assertEquals(SpamStrategyType.LINK_FARM, result.getStrategyType());
+        verify(metricsService).trackSpamStrategy(eq(SpamStrategyType.HTML_CONTENT), anyLong(), eq(false));
+        verify(metricsService).trackSpamStrategy(eq(SpamStrategyType.LINK_FARM), anyLong(), eq(true));
+        verify(metricsService, never()).trackSpamStrategy(eq(SpamStrategyType.FEW_NODES), anyLong(), anyBoolean());
+    }
+
+    @Test
+    void adaptiveOrderingRunsCheapHighYieldStrategiesFirst() {
+        final SpamDetectionStrategy slowAndRare = strategy(SpamStrategyType.HTML_CONTENT, 1_000_000, map -> map.getId() % 50 == 0);
+        final SpamDetectionStrategy fastAndFrequent = strategy(SpamStrategyType.LINK_FARM, 0, map -> map.getId() % 3 == 0);
+        final SpamDetectionService fixed = service(false, slowAndRare, fastAndFrequent);
+        final SpamDetectionService adaptive = service(true, slowAndRare, fastAndFrequent);
+
+        for (int id = 1; id <= 300; id++) {
+            assertEquals(fixed.detectSpam(mindmap(id), "test").isSpam(), adaptive.detectSpam(mindmap(id), "test").isSpam(),
+                    "map " + id);
+        }
+
+        assertSame(fastAndFrequent, adaptive.strategiesInOrder().get(0));
+        assertSame(slowAndRare, fixed.strategiesInOrder().get(0));
+    }
+
+    @Test
+    void identicalContentReusesTheStoredVerdict() {
+        final AtomicInteger runs = new AtomicInteger();
+        final SpamDetectionService service = service(false, counting(SpamStrategyType.LINK_FARM, runs, true));
+        final Map<String, SpamVerdict> verdicts = withVerdictCache(service, 1);
+
+        final SpamDetectionResult first = service.detectSpam(mindmap(1), "test");
+        // A duplicate keeping the title and description of its source
+        final SpamDetectionResult duplicate = service.detectSpam(mindmap(2), "duplicate");
+
+        assertEquals(1, runs.get());
+        assertEquals(1, verdicts.size());
+        assertTrue(duplicate.isSpam());
+        assertEquals(first.getReason(), duplicate.getReason());
+        assertEquals(first.getDetails(), duplicate.getDetails());
+        assertEquals(SpamStrategyType.LINK_FARM, duplicate.getStrategyType());
+    }
+
+    @Test
+    void changedTitleOrStrategySetIsAnalyzedAgain() {
+        final AtomicInteger runs = new AtomicInteger();
+        final SpamDetectionService service = service(false, counting(SpamStrategyType.LINK_FARM, runs, false));
+        final Map<String, SpamVerdict> verdicts = withVerdictCache(service, 1);
+
+        service.detectSpam(mindmap(1), "test");
+        final Mindmap renamed = mindmap(2);
+        renamed.setTitle("Renamed");
+        service.detectSpam(renamed, "test");
+        assertEquals(2, runs.get());
+
+        // Bumping the detection version discards the verdicts of the previous one
+        final SpamDetectionService bumped = service(false, counting(SpamStrategyType.LINK_FARM, runs, false));
+        withVerdictCache(bumped, 2).putAll(verdicts);
+        bumped.detectSpam(mindmap(3), "test");
+        assertEquals(3, runs.get());
+    }
+
+    @Test
+    void strategiesThatAreNotContentBasedRunOnEveryCheck() {
+        final AtomicInteger contentRuns = new AtomicInteger();
+        final AtomicInteger entityRuns = new AtomicInteger();
+        final SpamDetectionService service = service(false,
+                counting(SpamStrategyType.LINK_FARM, contentRuns, false),
+                strategy(SpamStrategyType.USER_BEHAVIOR, 0, map -> entityRuns.incrementAndGet() > 1, false));
+        final Map<String, SpamVerdict> verdicts = withVerdictCache(service, 1);
+
+        assertFalse(service.detectSpam(mindmap(1), "test").isSpam());
+        final SpamDetectionResult second = service.detectSpam(mindmap(2), "test");
+
+        assertTrue(second.isSpam());
+        assertEquals(SpamStrategyType.USER_BEHAVIOR, second.getStrategyType());
+        assertEquals(1, contentRuns.get());
+        assertEquals(2, entityRuns.get());
+        // The stored verdict only covers the content
+        assertFalse(verdicts.values().iterator().next().isSpamDetected());
+    }
+
+    @Test
+    void spamOfAStrategyThatIsNotContentBasedIsNotStored() {
+        final SpamDetectionService service = service(false,
+                strategy(SpamStrategyType.USER_BEHAVIOR, 0, map -> true, false),
+                strategy(SpamStrategyType.LINK_FARM, 0, map -> false));
+        final Map<String, SpamVerdict> verdicts = withVerdictCache(service, 1);
+
+        assertTrue(service.detectSpam(mindmap(1), "test").isSpam());
+        assertTrue(verdicts.isEmpty());
+    }
+
+    @Test
+    void contentHashSeparatesTitleAndDescription() {
+        final String xml = "<map/>";
+        assertEquals(SpamVerdictCache.contentHash(xml, "ab", "c"), SpamVerdictCache.contentHash(xml, "ab", "c"));
+        assertNotEquals(SpamVerdictCache.contentHash(xml, "ab", "c"), SpamVerdictCache.contentHash(xml, "a", "bc"));
+        assertNotEquals(SpamVerdictCache.contentHash(xml, null, "c"), SpamVerdictCache.contentHash(xml, "", "c"));
+        assertEquals(64, SpamVerdictCache.contentHash(xml, null, null).length());
+    }
+
+    @Test
+    void changedStrategiesFollowTheConfiguredVersions() {
+        final SpamDetectionService service = service(false,
+                strategy(SpamStrategyType.LINK_FARM, 0, map -> false),
+                strategy(SpamStrategyType.HTML_CONTENT, 0, map -> false),
+                strategy(SpamStrategyType.FEW_NODES, 0, map -> false));
+        ReflectionTestUtils.setField(service, "strategyVersions", "LinkFarm:2, unknown:3, HtmlContent:x");
+
+        assertEquals("F1,H1,L2", service.getStrategyVersions());
+        assertEquals(Set.of(SpamStrategyType.LINK_FARM), service.changedStrategies("F1,H1,L1"));
+        // A strategy added since the last check is new to the map
+        assertEquals(Set.of(SpamStrategyType.HTML_CONTENT), service.changedStrategies("F1,L2"));
+        assertEquals(Set.of(SpamStrategyType.LINK_FARM, SpamStrategyType.HTML_CONTENT, SpamStrategyType.FEW_NODES),
+                service.changedStrategies(null));
+    }
+
+    @Test
+    void onlyTheGivenStrategiesRunAndPartialRunsAreNotStored() {
+        final AtomicInteger linkFarmRuns = new AtomicInteger();
+        final AtomicInteger fewNodesRuns = new AtomicInteger();
+        final SpamDetectionService service = service(false,
+                counting(SpamStrategyType.LINK_FARM, linkFarmRuns, false),
+                counting(SpamStrategyType.FEW_NODES, fewNodesRuns, false));
+        final Map<String, SpamVerdict> verdicts = withVerdictCache(service, 1);
+
+        assertFalse(service.detectSpam(mindmap(1), "test", null, Set.of(SpamStrategyType.LINK_FARM)).isSpam());
+
+        assertEquals(1, linkFarmRuns.get());
+        assertEquals(0, fewNodesRuns.get());
+        assertTrue(verdicts.isEmpty());
+    }
+}
@@ -325,6 +325,28 @@ class TelemetryMetricsTest {
         assertEquals(1.0, spamSuspensions);
     }
 
+    @Test
+    void testBatchUserSuspensionMetrics() {
+        Account gmailUser = createTestUser("first@gmail.com", AuthenticationType.DATABASE);
+        Account otherGmailUser = createTestUser("second@gmail.com", AuthenticationType.DATABASE);
+        Account otherUser = createTestUser("third@example.com", AuthenticationType.DATABASE);
+
+        metricsService.trackUserSuspensions(java.util.List.of(gmailUser, otherGmailUser, otherUser), "INACTIVITY");
+
+        // One counter per email provider, incremented by its number of users
+        Double gmailSuspensions = meterRegistry.find("wisemapping.api.user.suspensions")
+                .tag("reason", "inactivity")
+                .tag("email_provider", "gmail")
+                .counter().count();
+        Double otherSuspensions = meterRegistry.find("wisemapping.api.user.suspensions")
+                .tag("reason", "inactivity")
+                .tag("email_provider", "other")
+                .counter().count();
+
+        assertEquals(2.0, gmailSuspensions);
+        assertEquals(1.0, otherSuspensions);
+    }
+
     @Test
     void testSpamAnalysisMetrics() {
         Mindmap mindmap = createTestMindmap();
@@ -37,6 +37,7 @@ class UserBehaviorStrategyTest {
     @BeforeEach
     void setUp() {
         strategy = new UserBehaviorStrategy(mindmapService);
+        lenient().when(mindmap.getId()).thenReturn(1);
     }
     
     /**
@@ -103,6 +104,7 @@ class UserBehaviorStrategyTest {
         currentMapModificationTime.add(Calendar.MINUTE, -7);
         
         Mindmap mostRecentMap = mock(Mindmap.class);
+        lenient().when(mostRecentMap.getId()).thenReturn(2);
         when(mostRecentMap.getCreationTime()).thenReturn(mostRecentCreationTime);
         
         when(mindmap.getCreator()).thenReturn(user);
@@ -227,6 +229,7 @@ class UserBehaviorStrategyTest {
         modificationTime.add(Calendar.MINUTE, -8);
         
         Mindmap recentMap = mock(Mindmap.class);
+        lenient().when(recentMap.getId()).thenReturn(2);
         when(recentMap.getCreationTime()).thenReturn(recentCreationTime);
         
         when(mindmap.getCreator()).thenReturn(user);
@@ -254,6 +257,7 @@ class UserBehaviorStrategyTest {
         modificationTime.add(Calendar.MINUTE, -5);
         
         Mindmap recentMap = mock(Mindmap.class);
+        lenient().when(recentMap.getId()).thenReturn(2);
         when(recentMap.getCreationTime()).thenReturn(recentCreationTime);
         
         when(mindmap.getCreator()).thenReturn(user);
@@ -281,6 +285,7 @@ class UserBehaviorStrategyTest {
         modificationTime.add(Calendar.MINUTE, -14);
         
         Mindmap recentMap = mock(Mindmap.class);
+        lenient().when(recentMap.getId()).thenReturn(2);
         when(recentMap.getCreationTime()).thenReturn(recentCreationTime);
         
         when(mindmap.getCreator()).thenReturn(user);
@@ -306,6 +311,7 @@ class UserBehaviorStrategyTest {
         modificationTime.add(Calendar.MINUTE, -12);
         
         Mindmap recentMap = mock(Mindmap.class);
+        lenient().when(recentMap.getId()).thenReturn(2);
         when(recentMap.getCreationTime()).thenReturn(recentCreationTime);
         
         when(mindmap.getCreator()).thenReturn(user);
@@ -372,4 +378,30 @@ class UserBehaviorStrategyTest {
         SpamDetectionResult result = strategy.detectSpam(context);
         assertFalse(result.isSpam());
     }
-}
\ No newline at end of file
+
+    @Test
+    void testRule2_CurrentMapLoadedAsAnotherInstance_ShouldBeExcluded() {
+        // Current map created 1 hour ago and modified 3 minutes later
+        Calendar creationTime = Calendar.getInstance();
+        creationTime.add(Calendar.HOUR, -1);
+        Calendar modificationTime = (Calendar) creationTime.clone();
+        modificationTime.add(Calendar.MINUTE, 3);
+        Calendar olderCreationTime = Calendar.getInstance();
+        olderCreationTime.add(Calendar.HOUR, -2);
+
+        // The user's maps are loaded in another session, so the current map comes back as a different instance
+        Mindmap currentMapCopy = mock(Mindmap.class);
+        when(currentMapCopy.getId()).thenReturn(1);
+        Mindmap olderMap = mock(Mindmap.class);
+        when(olderMap.getId()).thenReturn(2);
+        when(olderMap.getCreationTime()).thenReturn(olderCreationTime);
+
+        when(mindmap.getCreator()).thenReturn(user);
+        when(mindmap.getCreationTime()).thenReturn(creationTime);
+        when(mindmap.getLastModificationTime()).thenReturn(modificationTime);
+        when(mindmapService.findMindmapsByUser(user)).thenReturn(Arrays.asList(currentMapCopy, olderMap));
+
+        SpamDetectionResult result = strategy.detectSpam(createContext(mindmap));
+        assertFalse(result.isSpam());
+    }
+}
@@ -0,0 +1,139 @@
+package com.wisemapping.service.batch;
+
+import com.wisemapping.config.AppConfig;
+import com.wisemapping.dao.BatchJobManager;
+import com.wisemapping.model.BatchJobState;
+import com.wisemapping.model.BatchJobStatus;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.TestPropertySource;
+
+import java.util.ArrayList;
+import java.util.Calendar;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Runs jobs counting up to a limit in chunks against the job state table: progress is saved after each chunk,
+ * failed chunks are retried and resumed, and a job leased by another node is left alone until its lease expires.
+ */
+@SpringBootTest(classes = {AppConfig.class})
+@ActiveProfiles("hsqldb")
+@TestPropertySource(properties = {
+        "app.batch.jobs.max-attempts=2",
+        "app.batch.jobs.retry-backoff-ms=1"
+})
+class BatchJobRunnerTest {
+
+    private static final int CHUNK_SIZE = 3;
+    private static final int LIMIT = 10;
+
+    @Autowired
+    private BatchJobRunner batchJobRunner;
+
+    @Autowired
+    private BatchJobManager batchJobManager;
+
+    private final String jobName = "test-job-" + System.nanoTime();
+    private final List<Long> chunkCursors = new ArrayList<>();
+
+    @AfterEach
+    void tearDown() {
+        batchJobManager.removeJobState(jobName);
+    }
+
+    @Test
+    void runsAllChunksAndRecordsTheProgress() {
+        final BatchJobRun run = batchJobRunner.run(jobName, this::countUp);
+
+        assertEquals(BatchJobRun.Outcome.COMPLETED, run.outcome());
+        assertEquals(LIMIT, run.processed());
+        assertEquals(List.of(0L, 3L, 6L, 9L), chunkCursors);
+        final BatchJobState state = batchJobManager.findJobState(jobName);
+        assertEquals(BatchJobStatus.COMPLETED, state.getStatus());
+        assertEquals(LIMIT, state.getLastCursor());
+        assertEquals(LIMIT, state.getProcessedCount());
+        assertNotNull(state.getStartedAt());
+        assertNotNull(state.getFinishedAt());
+        assertNull(state.getLeaseOwner());
+
+        // A completed job starts over
+        chunkCursors.clear();
+        batchJobRunner.run(jobName, this::countUp);
+        assertEquals(List.of(0L, 3L, 6L, 9L), chunkCursors);
+    }
+
+    @Test
+    void retriesAFailedChunk() {
+        final boolean[] failed = {false};
+        final BatchJobRun run = batchJobRunner.run(jobName, afterCursor -> {
+            if (afterCursor == 3 && !failed[0]) {
+                failed[0] = true;
+                throw new IllegalStateException("Deadlock");
+            }
+            return countUp(afterCursor);
+        });
+
+        assertEquals(BatchJobRun.Outcome.COMPLETED, run.outcome());
+        assertEquals(List.of(0L, 3L, 6L, 9L), chunkCursors);
+        assertEquals(0, batchJobManager.findJobState(jobName).getFailedChunks());
+    }
+
+    @Test
+    void aChunkThatKeepsFailingIsResumedByTheNextRun() {
+        final BatchJobRun failedRun = batchJobRunner.run(jobName, afterCursor -> {
+            if (afterCursor == 6) {
+                throw new IllegalStateException("Database unavailable");
+            }
+            return countUp(afterCursor);
+        });
+
+        assertEquals(BatchJobRun.Outcome.FAILED, failedRun.outcome());
+        assertEquals("Database unavailable", failedRun.error().getMessage());
+        BatchJobState state = batchJobManager.findJobState(jobName);
+        assertEquals(BatchJobStatus.FAILED, state.getStatus());
+        assertEquals(6, state.getLastCursor());
+        assertEquals(1, state.getFailedChunks());
+        assertNull(state.getLeaseOwner());
+
+        chunkCursors.clear();
+        final BatchJobRun resumedRun = batchJobRunner.run(jobName, this::countUp);
+
+        assertEquals(BatchJobRun.Outcome.COMPLETED, resumedRun.outcome());
+        assertEquals(List.of(6L, 9L), chunkCursors);
+        state = batchJobManager.findJobState(jobName);
+        assertEquals(LIMIT, state.getProcessedCount());
+        assertEquals(1, state.getFailedChunks());
+    }
+
+    @Test
+    void aJobLeasedByAnotherNodeRunsOnceTheLeaseExpires() {
+        final Calendar leaseExpiresAt = Calendar.getInstance();
+        leaseExpiresAt.add(Calendar.MINUTE, 1);
+        final BatchJobState state = batchJobManager.acquireLease(jobName, "other-node", leaseExpiresAt);
+        state.setStatus(BatchJobStatus.RUNNING);
+        state.setLastCursor(3);
+        batchJobManager.saveProgress(state, "other-node", leaseExpiresAt);
+
+        assertEquals(BatchJobRun.Outcome.LEASE_HELD, batchJobRunner.run(jobName, this::countUp).outcome());
+        assertTrue(chunkCursors.isEmpty());
+
+        leaseExpiresAt.add(Calendar.MINUTE, -2);
+        batchJobManager.saveProgress(state, "other-node", leaseExpiresAt);
+
+        assertEquals(BatchJobRun.Outcome.COMPLETED, batchJobRunner.run(jobName, this::countUp).outcome());
+        assertEquals(List.of(3L, 6L, 9L), chunkCursors);
+        // The node that stopped can no longer save its progress
+        assertFalse(batchJobManager.saveProgress(state, "other-node", leaseExpiresAt));
+    }
+
+    private BatchJob.Chunk countUp(long afterCursor) {
+        chunkCursors.add(afterCursor);
+        final long lastCursor = Math.min(afterCursor + CHUNK_SIZE, LIMIT);
+        return new BatchJob.Chunk(lastCursor, lastCursor - afterCursor, 0, lastCursor < LIMIT);
+    }
+}
@@ -0,0 +1,95 @@
+package com.wisemapping.service.blob;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class FileSystemMindmapBlobStoreTest {
+
+    @TempDir
+    Path root;
+
+    private FileSystemMindmapBlobStore store;
+
+    @BeforeEach
+    void setUp() {
+        store = new FileSystemMindmapBlobStore(root, true, 1024);
+    }
+
+    @Test
+    void writeAndReadRoundTrip() throws IOException {
+        final byte[] content = "<map><topic central=\"true\"/></map>".getBytes(StandardCharsets.UTF_8);
+
+        final MindmapBlobStore.BlobPointer pointer = store.write(content);
+
+        assertEquals(64, pointer.contentRef().length());
+        assertEquals(8, pointer.checksum().length());
+        assertArrayEquals(content, store.read(pointer.contentRef(), pointer.checksum()));
+    }
+
+    @Test
+    void largeContentIsReadThroughMemoryMapping() throws IOException {
+        final byte[] content = "x".repeat(10_000).getBytes(StandardCharsets.UTF_8);
+
+        final MindmapBlobStore.BlobPointer pointer = store.write(content);
+
+        assertArrayEquals(content, store.read(pointer.contentRef(), pointer.checksum()));
+    }
+
+    @Test
+    void identicalContentIsStoredOnce() throws IOException {
+        final byte[] content = "same".getBytes(StandardCharsets.UTF_8);
+
+        final MindmapBlobStore.BlobPointer first = store.write(content);
+        final MindmapBlobStore.BlobPointer second = store.write(content.clone());
+
+        assertEquals(first, second);
+        try (Stream<String> refs = store.listContentRefs(Instant.now().plusSeconds(60))) {
+            assertEquals(List.of(first.contentRef()), refs.toList());
+        }
+    }
+
+    @Test
+    void corruptedContentIsRejected() throws IOException {
+        final MindmapBlobStore.BlobPointer pointer = store.write("original".getBytes(StandardCharsets.UTF_8));
+        final Path file = root.resolve(pointer.contentRef().substring(0, 2))
+                .resolve(pointer.contentRef().substring(2, 4))
+                .resolve(pointer.contentRef());
+        Files.write(file, "tampered".getBytes(StandardCharsets.UTF_8));
+
+        assertThrows(IOException.class, () -> store.read(pointer.contentRef(), pointer.checksum()));
+    }
+
+    @Test
+    void invalidReferencesAreRejected() {
+        assertThrows(IOException.class, () -> store.read("../../etc/passwd", null));
+    }
+
+    @Test
+    void deleteKeepsRecentlyTouchedContent() throws IOException {
+        final MindmapBlobStore.BlobPointer pointer = store.write("content".getBytes(StandardCharsets.UTF_8));
+        final Instant cutoff = Instant.now().minus(Duration.ofHours(1));
+
+        assertFalse(store.delete(pointer.contentRef(), cutoff));
+
+        final Path file = root.resolve(pointer.contentRef().substring(0, 2))
+                .resolve(pointer.contentRef().substring(2, 4))
+                .resolve(pointer.contentRef());
+        Files.setLastModifiedTime(file, FileTime.from(cutoff.minus(Duration.ofHours(1))));
+
+        assertTrue(store.delete(pointer.contentRef(), cutoff));
+        assertThrows(IOException.class, () -> store.read(pointer.contentRef(), pointer.checksum()));
+    }
+}
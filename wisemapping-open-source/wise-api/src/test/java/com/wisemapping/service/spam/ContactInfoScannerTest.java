@@ -0,0 +1,129 @@
+package com.wisemapping.service.spam;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.wisemapping.service.spam.ContactInfoScanner.ContactType;
+import org.junit.jupiter.api.Test;
+
+import java.net.URL;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.regex.Pattern;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ContactInfoScannerTest {
+
+    private static final String COUNTRIES = "Canada|USA|United States|Ghana|UK|United Kingdom|Australia|New Zealand|South Africa|India|Brazil|Mexico|Germany|France|Italy|Spain|Netherlands|Belgium|Switzerland|Schweiz|Suisse|Svizzera|Austria|Sweden|Norway|Denmark|Finland|Poland|Portugal|Greece|Ireland|Japan|China|South Korea|Singapore|Malaysia|Thailand|Philippines|Indonesia|Vietnam|Taiwan|Hong Kong|UAE|Saudi Arabia|Israel|Turkey|Egypt|Kenya|Nigeria|Argentina|Chile|Colombia|Peru|Venezuela|Ecuador|Uruguay|Paraguay|Bolivia";
+
+    // The patterns as ServiceDirectorySpamStrategy ran them before the scanner, one after the other.
+    private static final List<Pattern> REFERENCE = Stream.of(
+            "https?://[a-zA-Z0-9.-]+\\.[a-zA-Z]{2,}",
+            "www\\.[a-zA-Z0-9.-]+\\.[a-zA-Z]{2,}",
+            "\\+?[1-9]\\d{1,3}[-.\\s]?\\d{3,4}[-.\\s]?\\d{3,4}[-.\\s]?\\d{3,4}",
+            "\\+?[1-9]\\d{9,14}",
+            "\\(?[0-9]{3}\\)?[-.\\s]?[0-9]{3}[-.\\s]?[0-9]{4}",
+            "[0-9]{3}[-.\\s]?[0-9]{3}[-.\\s]?[0-9]{4}",
+            "0\\d{2,4}[-.\\s]?\\d{3,4}[-.\\s]?\\d{3,4}",
+            "\\+44[-.\\s]?\\d{2,4}[-.\\s]?\\d{3,4}[-.\\s]?\\d{3,4}",
+            "\\+41[-.\\s]?\\d{2}[-.\\s]?\\d{3}[-.\\s]?\\d{2}[-.\\s]?\\d{2}",
+            "0\\d{2}[-.\\s]?\\d{3}[-.\\s]?\\d{2}[-.\\s]?\\d{2}",
+            "\\+[1-9]\\d{1,3}[-.\\s]?\\d{2,4}(?:[-.\\s]?\\d{2,4}){2,3}",
+            "\\d+\\s+[a-zA-Z0-9\\s,.-]+\\s+(?:street|st|avenue|ave|road|rd|boulevard|blvd|lane|ln|drive|dr|court|ct|place|pl|way|blvd)\\b",
+            "\\d{5}(?:-\\d{4})?",
+            "[a-zA-Z]\\d[a-zA-Z]\\s?\\d[a-zA-Z]\\d",
+            "\\b\\d{4}\\s?[a-zA-Z]{2}\\b",
+            "\\b\\d{4}\\s+[A-ZÄÖÜ][a-zäöüß]+(?:\\s+[A-ZÄÖÜ][a-zäöüß]+)*\\b",
+            "\\b[a-zA-Z]+\\s+(?:road|rd|street|st|avenue|ave|boulevard|blvd|lane|ln|drive|dr)\\b",
+            "\\b(?:[A-Z][a-z]+\\s+){1,3}(?:[A-Z][a-z]+\\s+)*(?:" + COUNTRIES + ")\\b",
+            "\\b(?:" + COUNTRIES + ")\\b",
+            "[a-zA-Z0-9._%+-]+@[a-zA-Z0-9.-]+\\.[a-zA-Z]{2,}"
+    ).map(regex -> Pattern.compile(regex, Pattern.CASE_INSENSITIVE)).toList();
+
+    private static boolean referenceHas(String text, int from, int to) {
+        for (int i = from; i <= to; i++) {
+            if (REFERENCE.get(i).matcher(text).find()) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static long referenceCount(String text) {
+        return REFERENCE.stream().mapToLong(pattern -> pattern.matcher(text).results().count()).sum();
+    }
+
+    private static void assertSameAsReference(String text) {
+        final ContactInfoScanner.Scan scan = ContactInfoScanner.scan(text);
+        assertEquals(referenceHas(text, 0, 1), scan.has(ContactType.WEBSITE), () -> "website: " + text);
+        assertEquals(referenceHas(text, 2, 10), scan.has(ContactType.PHONE), () -> "phone: " + text);
+        assertEquals(referenceHas(text, 11, 18), scan.has(ContactType.ADDRESS), () -> "address: " + text);
+        assertEquals(referenceHas(text, 19, 19), scan.has(ContactType.EMAIL), () -> "email: " + text);
+        assertEquals(referenceCount(text), scan.countMatches(), () -> "count: " + text);
+    }
+
+    @Test
+    void detectsEachContactType() {
+        final ContactInfoScanner.Scan scan = ContactInfoScanner.scan(
+                "Call +41 44 499 00 75 or visit www.example.ch, 8001 Zürich Schweiz, info@example.ch");
+
+        assertTrue(scan.has(ContactType.PHONE));
+        assertTrue(scan.has(ContactType.WEBSITE));
+        assertTrue(scan.has(ContactType.ADDRESS));
+        assertTrue(scan.has(ContactType.EMAIL));
+    }
+
+    @Test
+    void plainTextHasNoContactInfo() {
+        final ContactInfoScanner.Scan scan = ContactInfoScanner.scan("Chapter 1 - Introduction to algebra, vectors and 12 exercises");
+
+        for (ContactType type : ContactType.values()) {
+            assertFalse(scan.has(type), type.name());
+        }
+        assertEquals(0, scan.countMatches());
+    }
+
+    @Test
+    void matchesReferencePatternsOnFixtures() throws Exception {
+        final ObjectMapper objectMapper = new ObjectMapper();
+        final List<Path> fixtures = new ArrayList<>();
+        for (String dir : List.of("spam", "non-spam")) {
+            final URL url = getClass().getClassLoader().getResource(dir);
+            assertNotNull(url, dir);
+            try (Stream<Path> files = Files.list(Paths.get(url.toURI()))) {
+                files.filter(file -> file.getFileName().toString().matches("map-\\d+\\.json")).forEach(fixtures::add);
+            }
+        }
+        assertFalse(fixtures.isEmpty());
+
+        for (Path fixture : fixtures) {
+            final JsonNode json = objectMapper.readTree(Files.readString(fixture));
+            final String text = json.path("title").asText("") + " " + json.path("description").asText("")
+                    + " " + json.path("xml").asText("");
+            assertSameAsReference(text);
+            assertSameAsReference(text.replaceAll("\\s+", " ").trim());
+        }
+    }
+
+    @Test
+    void matchesReferencePatternsOnRandomText() {
+        final String[] tokens = {" ", "  ", "\n", "-", ".", ",", "(", ")", "+", "+44", "+41", "@", "0", "1", "12",
+                "123", "4567", "89", "8001", "a", "B", "x1y", "Main", "st", "St.", "road", "Way", "drive", "Zürich",
+                "united", "Kingdom", "UK", "canada", "Hong Kong", "http://", "https://", "www.", "example", "com",
+                "_", "ñ", "Street", "lane"};
+        final Random random = new Random(42);
+        for (int i = 0; i < 5000; i++) {
+            final StringBuilder text = new StringBuilder();
+            final int length = 1 + random.nextInt(40);
+            for (int j = 0; j < length; j++) {
+                text.append(tokens[random.nextInt(tokens.length)]);
+            }
+            assertSameAsReference(text.toString());
+        }
+    }
+}
@@ -4,6 +4,7 @@ import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.wisemapping.model.Mindmap;
 import com.wisemapping.service.MetricsService;
+import com.wisemapping.service.MindmapDocumentCache;
 import com.wisemapping.service.SpamDetectionService;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.junit.jupiter.params.ParameterizedTest;
@@ -54,7 +55,7 @@ class FullSpamDetectionIntegrationTest {
 
     @Configuration
     @ComponentScan("com.wisemapping.service.spam")
-    @Import(SpamDetectionService.class)
+    @Import({SpamDetectionService.class, MindmapDocumentCache.class})
     static class TestConfig {
         @Bean
         public ObjectMapper objectMapper() {
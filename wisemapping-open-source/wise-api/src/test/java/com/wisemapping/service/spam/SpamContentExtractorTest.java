@@ -1,5 +1,7 @@
 package com.wisemapping.service.spam;
 
+import com.wisemapping.model.Account;
+import com.wisemapping.model.Mindmap;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -181,4 +183,27 @@ class SpamContentExtractorTest {
         // Then
         assertFalse(result);
     }
+
+    @Test
+    void testHasEduOrOrgEmail_EducationalDomains() {
+        assertTrue(extractor.hasEduOrOrgEmail(mapCreatedBy("student@cs.mit.edu")));
+        assertTrue(extractor.hasEduOrOrgEmail(mapCreatedBy("teacher@uni.edu.au")));
+        assertTrue(extractor.hasEduOrOrgEmail(mapCreatedBy("teacher@usp.edu.com.br")));
+        assertTrue(extractor.hasEduOrOrgEmail(mapCreatedBy("student@ox.ac.uk")));
+        assertTrue(extractor.hasEduOrOrgEmail(mapCreatedBy("pupil@school.sch.uk")));
+        assertTrue(extractor.hasEduOrOrgEmail(mapCreatedBy("dean@harvard.university")));
+
+        assertFalse(extractor.hasEduOrOrgEmail(mapCreatedBy("user@education.com")));
+        assertFalse(extractor.hasEduOrOrgEmail(mapCreatedBy("user@edu.au")));
+        assertFalse(extractor.hasEduOrOrgEmail(mapCreatedBy("user@x.edu.spammer.com")));
+        assertFalse(extractor.hasEduOrOrgEmail(mapCreatedBy("user@x.ac.a1")));
+    }
+
+    private static Mindmap mapCreatedBy(String email) {
+        final Account creator = new Account();
+        creator.setEmail(email);
+        final Mindmap mindmap = new Mindmap();
+        mindmap.setCreator(creator);
+        return mindmap;
+    }
 }
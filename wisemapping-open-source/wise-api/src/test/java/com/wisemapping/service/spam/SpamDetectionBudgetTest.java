@@ -0,0 +1,114 @@
+package com.wisemapping.service.spam;
+
+import com.wisemapping.mindmap.model.MapModel;
+import com.wisemapping.model.Mindmap;
+import com.wisemapping.model.SpamStrategyType;
+import com.wisemapping.service.MetricsService;
+import com.wisemapping.service.MindmapDocumentCache;
+import com.wisemapping.service.SpamDetectionService;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.List;
+import java.util.regex.Pattern;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+class SpamDetectionBudgetTest {
+
+    // HtmlContentStrategy's excessive links pattern. Nine links followed by unclosed anchors take it tens of
+    // seconds to reject.
+    private static final Pattern CATASTROPHIC = Pattern.compile("(<a[^>]*href[^>]*>.*?</a>.*?){10,}",
+            Pattern.CASE_INSENSITIVE | Pattern.DOTALL);
+    private static final String ADVERSARIAL = "<a href=x>y</a> ".repeat(9) + "<a href=x>".repeat(400);
+
+    @Test
+    void abortsCatastrophicBacktracking() {
+        final SpamDetectionBudget budget = SpamDetectionBudget.start(100);
+        final long start = System.nanoTime();
+
+        assertThrows(SpamDetectionBudget.ExceededException.class,
+                () -> CATASTROPHIC.matcher(budget.guard(ADVERSARIAL)).find());
+
+        assertTrue(budget.isExceeded());
+        assertTrue(System.nanoTime() - start < 10_000_000_000L, "the match should stop close to its budget");
+        // Once spent, any further guarded match fails straight away.
+        assertThrows(SpamDetectionBudget.ExceededException.class,
+                () -> Pattern.compile("x").matcher(budget.guard("xyz")).find());
+    }
+
+    @Test
+    void guardedTextMatchesLikePlainText() {
+        final SpamDetectionBudget budget = SpamDetectionBudget.start(1000);
+        final String text = "Visit https://example.com or www.example.org today";
+        final Pattern pattern = Pattern.compile("(?:https?://|www\\.)[a-z.]+");
+
+        assertEquals(pattern.matcher(text).results().map(m -> m.group()).toList(),
+                pattern.matcher(budget.guard(text)).results().map(m -> m.group()).toList());
+        assertFalse(budget.isExceeded());
+    }
+
+    @Test
+    void unlimitedBudgetDoesNotWrap() {
+        final String text = "plain";
+
+        assertSame(text, SpamDetectionBudget.unlimited().guard(text));
+        assertSame(text, SpamDetectionBudget.start(0).guard(text));
+    }
+
+    @Test
+    void exceededBudgetLeavesMapForReview() {
+        // Like the real strategies, this one swallows its exceptions.
+        final SpamDetectionStrategy slowStrategy = new SpamDetectionStrategy() {
+            @Override
+            public SpamDetectionResult detectSpam(SpamDetectionContext context) {
+                try {
+                    CATASTROPHIC.matcher(context.guard(ADVERSARIAL)).find();
+                } catch (Exception e) {
+                    // Ignored
+                }
+                return SpamDetectionResult.notSpam();
+            }
+
+            @Override
+            public SpamStrategyType getType() {
+                return SpamStrategyType.HTML_CONTENT;
+            }
+        };
+        final SpamDetectionStrategy nextStrategy = mock(SpamDetectionStrategy.class);
+        when(nextStrategy.detectSpam(any(SpamDetectionContext.class))).thenReturn(SpamDetectionResult.notSpam());
+        final MetricsService metricsService = mock(MetricsService.class);
+        final MindmapDocumentCache documentCache = mock(MindmapDocumentCache.class);
+        final SpamContentExtractor contentExtractor = mock(SpamContentExtractor.class);
+
+        final SpamDetectionService service = new SpamDetectionService(List.of(slowStrategy, nextStrategy));
+        ReflectionTestUtils.setField(service, "metricsService", metricsService);
+        ReflectionTestUtils.setField(service, "documentCache", documentCache);
+        ReflectionTestUtils.setField(service, "spamContentExtractor", contentExtractor);
+        ReflectionTestUtils.setField(service, "cpuBudgetMs", 100L);
+
+        final Mindmap mindmap = new Mindmap();
+        mindmap.setId(7);
+        when(documentCache.getXmlStr(mindmap)).thenReturn("<map><topic central=\"true\" text=\"Home\"/></map>");
+
+        final SpamDetectionResult result = service.detectSpam(mindmap, "batch_scan");
+
+        assertFalse(result.isSpam());
+        assertTrue(result.needsReview());
+        assertEquals(SpamStrategyType.HTML_CONTENT, result.getStrategyType());
+        verify(metricsService).trackSpamBudgetExceeded(mindmap, SpamStrategyType.HTML_CONTENT, "batch_scan");
+        verify(nextStrategy, never()).detectSpam(any(SpamDetectionContext.class));
+        verify(metricsService).trackSpamAnalysis(eq(mindmap), eq(result), eq("batch_scan"));
+    }
+
+    @Test
+    void contextWithoutBudgetIsUnlimited() {
+        final SpamDetectionContext context = new SpamDetectionContext(new Mindmap(), new MapModel());
+        final String text = "plain";
+
+        assertSame(text, context.guard(text));
+    }
+}
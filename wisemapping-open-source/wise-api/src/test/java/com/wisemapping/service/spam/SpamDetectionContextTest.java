@@ -0,0 +1,70 @@
+package com.wisemapping.service.spam;
+
+import com.wisemapping.mindmap.model.MapModel;
+import com.wisemapping.mindmap.parser.MindmapParser;
+import com.wisemapping.model.Mindmap;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SpamDetectionContextTest {
+
+    private static final String HTML_NOTE = "<p>Call <a href=\"https://plumber.example.com\">us</a> now</p>";
+
+    private final SpamContentExtractor extractor = new SpamContentExtractor();
+    private MapModel mapModel;
+    private SpamDetectionContext context;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        mapModel = MindmapParser.parseXml("<map version=\"tango\">"
+                + "<topic central=\"true\" text=\"Plumbing\">"
+                + "<topic text=\"• Emergency   repairs\"><note><![CDATA[" + HTML_NOTE + "]]></note></topic>"
+                + "<topic text=\"Contact\"><note><![CDATA[" + HTML_NOTE + "]]></note></topic>"
+                + "<topic text=\"Hours\"><link url=\"https://plumber.example.com/hours\"/><note><![CDATA[Open 24/7]]></note></topic>"
+                + "</topic></map>");
+        final Mindmap mindmap = new Mindmap();
+        mindmap.setTitle("Best Plumber");
+        mindmap.setDescription("Plumbing services");
+        context = new SpamDetectionContext(mindmap, mapModel);
+    }
+
+    @Test
+    void textViewsMatchTheExtractor() {
+        final String text = extractor.extractTextContent(mapModel, "Best Plumber", "Plumbing services");
+
+        assertEquals(text, context.getTextContent());
+        assertEquals(text.toLowerCase(), context.getLowerCaseTextContent());
+        assertEquals(extractor.normalizeForPatternMatching(text), context.getPatternText());
+        assertEquals(extractor.normalizeForPatternMatching(text).toLowerCase(), context.getLowerCasePatternText());
+        assertEquals(List.of("https://plumber.example.com/hours"), context.getLinkUrls());
+    }
+
+    @Test
+    void notesKeepTheirHtmlFlagAndText() {
+        final List<SpamDetectionContext.Note> notes = context.getNotes();
+
+        assertEquals(3, notes.size());
+        assertTrue(notes.get(0).html());
+        assertEquals("Call us now", notes.get(0).plainText());
+        // A repeated note is extracted once
+        assertSame(notes.get(0), notes.get(1));
+        assertFalse(notes.get(2).html());
+        assertTrue(context.hasHtmlNotes());
+        assertEquals(HTML_NOTE + " " + HTML_NOTE + " ", context.getHtmlNotesContent());
+        assertEquals(extractor.sanitizeHtmlContent(context.getHtmlNotesContent()), context.getHtmlNotesText());
+    }
+
+    @Test
+    void viewsAreBuiltOnce() {
+        assertSame(context.getNotes(), context.getNotes());
+        assertSame(context.getTextContent(), context.getTextContent());
+        assertSame(context.getLowerCaseTextContent(), context.getLowerCaseTextContent());
+        assertSame(context.getPatternText(), context.getPatternText());
+        assertSame(context.getLinkUrls(), context.getLinkUrls());
+        assertSame(context.getHtmlNotesText(), context.getHtmlNotesText());
+    }
+}
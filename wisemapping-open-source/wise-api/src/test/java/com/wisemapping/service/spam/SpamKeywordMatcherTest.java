@@ -0,0 +1,94 @@
+package com.wisemapping.service.spam;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SpamKeywordMatcherTest {
+
+    private static SpamKeywordMatcher matcher(String... keywords) {
+        final Map<String, String> categoryByKeyword = new LinkedHashMap<>();
+        for (String keyword : keywords) {
+            categoryByKeyword.put(keyword, "category-" + keyword);
+        }
+        return SpamKeywordMatcher.compile(categoryByKeyword);
+    }
+
+    @Test
+    void findsOverlappingAndNestedKeywords() {
+        final SpamKeywordMatcher matcher = matcher("he", "she", "his", "hers", "income", "passive income");
+
+        final List<SpamKeywordMatcher.Match> matches = matcher.findAll("ushers earn passive income");
+
+        assertEquals(List.of("he", "she", "hers", "income", "passive income"),
+                matches.stream().map(SpamKeywordMatcher.Match::keyword).toList());
+        assertEquals("category-hers", matches.get(2).category());
+    }
+
+    @Test
+    void countsEachKeywordOnce() {
+        final SpamKeywordMatcher matcher = matcher("profit", "bonus");
+
+        assertEquals(2, matcher.countDistinct("profit profit bonus profit"));
+        assertEquals(0, matcher.countDistinct(""));
+        assertTrue(matcher.containsAny("no bonus"));
+        assertFalse(matcher.containsAny("nothing to see"));
+    }
+
+    @Test
+    void ignoresEmptyAndDuplicateKeywords() {
+        final Map<String, String> categoryByKeyword = new LinkedHashMap<>();
+        categoryByKeyword.put("", "empty");
+        categoryByKeyword.put("forex", "Financial");
+        final SpamKeywordMatcher matcher = SpamKeywordMatcher.compile(categoryByKeyword);
+
+        assertEquals(1, matcher.size());
+        assertFalse(matcher.containsAny("anything"));
+    }
+
+    @Test
+    void compilesKeywordsWithoutCategories() {
+        final SpamKeywordMatcher matcher = SpamKeywordMatcher.compile(List.of("forex", "", "forex", "bonus"));
+
+        assertEquals(2, matcher.size());
+        assertEquals(2, matcher.countDistinct("forex bonus"));
+    }
+
+    @Test
+    void matchesLikeStringContains() throws IOException {
+        final List<String> keywords;
+        try (InputStream input = getClass().getResourceAsStream("/spam-keywords.properties")) {
+            assertNotNull(input);
+            keywords = new String(input.readAllBytes(), StandardCharsets.UTF_8).lines()
+                    .map(String::trim)
+                    .filter(line -> !line.isEmpty() && !line.startsWith("#"))
+                    .distinct()
+                    .toList();
+        }
+        final SpamKeywordMatcher matcher = matcher(keywords.toArray(new String[0]));
+        final Random random = new Random(42);
+        final String[] words = {"make", "money", "fast", "ceo", "earn", "free", "trial", "the", "map", "topic",
+                "passive", "income", "bit", "coin", "bitcoin", "now", "click", "here", " ", "\n"};
+
+        for (int run = 0; run < 200; run++) {
+            final StringBuilder text = new StringBuilder();
+            for (int i = 0; i < 60; i++) {
+                text.append(words[random.nextInt(words.length)]).append(random.nextBoolean() ? " " : "");
+            }
+            final String content = text.toString();
+            final List<String> expected = keywords.stream().filter(content::contains).toList();
+
+            assertEquals(expected, matcher.findAll(content).stream().map(SpamKeywordMatcher.Match::keyword).toList());
+            assertEquals(expected.size(), matcher.countDistinct(content));
+            assertEquals(!expected.isEmpty(), matcher.containsAny(content));
+        }
+    }
+}
@@ -24,8 +24,14 @@ import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.params.ParameterizedTest;
 import org.junit.jupiter.params.provider.ValueSource;
+import org.junit.jupiter.api.io.TempDir;
 import org.springframework.test.util.ReflectionTestUtils;
 
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.time.Instant;
+
 import static org.junit.jupiter.api.Assertions.*;
 
 @DisplayName("Disposable Email Service Tests")
@@ -121,4 +127,61 @@ class DisposableEmailServiceTest {
         assertTrue(disposableEmailService.isDisposableEmail("user.name+tag@10minutemail.com"));
         assertTrue(disposableEmailService.isDisposableEmail("test.email@tempmail.us"));
     }
-}
\ No newline at end of file
+
+    @Test
+    @DisplayName("Should detect subdomains of disposable email domains")
+    void shouldDetectSubdomainsOfDisposableEmailDomains() {
+        ReflectionTestUtils.setField(disposableEmailService, "blockingEnabled", true);
+        disposableEmailService.loadDisposableDomains();
+
+        assertTrue(disposableEmailService.isDisposableEmail("user@x.mailinator.com"));
+        assertTrue(disposableEmailService.isDisposableEmail("user@a.b.10minutemail.com"));
+        assertFalse(disposableEmailService.isDisposableEmail("user@mailinator.com.example.org"));
+    }
+
+    @Test
+    @DisplayName("Should reload the external domains list when it changes")
+    void shouldReloadExternalDomainsListWhenItChanges(@TempDir Path directory) throws Exception {
+        final Path file = directory.resolve("domains.txt");
+        Files.writeString(file, "# disposable\ntrashmail.test\n");
+        ReflectionTestUtils.setField(disposableEmailService, "blockingEnabled", true);
+        ReflectionTestUtils.setField(disposableEmailService, "domainsFile", file.toString());
+        disposableEmailService.loadDisposableDomains();
+
+        assertTrue(disposableEmailService.isDisposableEmail("user@trashmail.test"));
+        assertFalse(disposableEmailService.isDisposableEmail("user@10minutemail.com"));
+        assertFalse(disposableEmailService.reloadIfChanged());
+
+        Files.writeString(file, "burner.test\n");
+        Files.setLastModifiedTime(file, FileTime.from(Instant.now().plusSeconds(60)));
+
+        assertTrue(disposableEmailService.reloadIfChanged());
+        assertTrue(disposableEmailService.isDisposableEmail("user@mail.burner.test"));
+        assertFalse(disposableEmailService.isDisposableEmail("user@trashmail.test"));
+    }
+
+    @Test
+    @DisplayName("Should keep the current list when the external list cannot be read")
+    void shouldKeepCurrentListWhenExternalListCannotBeRead(@TempDir Path directory) throws Exception {
+        final Path file = directory.resolve("domains.txt");
+        Files.writeString(file, "trashmail.test\n");
+        ReflectionTestUtils.setField(disposableEmailService, "blockingEnabled", true);
+        ReflectionTestUtils.setField(disposableEmailService, "domainsFile", file.toString());
+        disposableEmailService.loadDisposableDomains();
+
+        Files.delete(file);
+
+        assertFalse(disposableEmailService.reloadIfChanged());
+        assertTrue(disposableEmailService.isDisposableEmail("user@trashmail.test"));
+    }
+
+    @Test
+    @DisplayName("Should fall back to the bundled list when the external list is missing")
+    void shouldFallBackToBundledListWhenExternalListIsMissing(@TempDir Path directory) {
+        ReflectionTestUtils.setField(disposableEmailService, "blockingEnabled", true);
+        ReflectionTestUtils.setField(disposableEmailService, "domainsFile", directory.resolve("missing.txt").toString());
+        disposableEmailService.loadDisposableDomains();
+
+        assertTrue(disposableEmailService.isDisposableEmail("user@10minutemail.com"));
+    }
+}
@@ -0,0 +1,52 @@
+package com.wisemapping.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class AdaptiveThrottleTest {
+
+    private static final long SLOW = TimeUnit.MILLISECONDS.toNanos(200);
+    private static final long FAST = TimeUnit.MILLISECONDS.toNanos(5);
+
+    @Test
+    void slowStatementsDoubleThePauseUpToTheMaximum() {
+        final AdaptiveThrottle throttle = new AdaptiveThrottle(100, 50);
+
+        throttle.record(SLOW);
+        assertEquals(10, throttle.getPauseMs());
+        throttle.record(SLOW);
+        assertEquals(20, throttle.getPauseMs());
+        throttle.record(SLOW);
+        throttle.record(SLOW);
+        assertEquals(50, throttle.getPauseMs());
+    }
+
+    @Test
+    void fastStatementsHalveThePauseDownToNone() {
+        final AdaptiveThrottle throttle = new AdaptiveThrottle(100, 1000);
+        for (int i = 0; i < 4; i++) {
+            throttle.record(SLOW);
+        }
+        assertEquals(80, throttle.getPauseMs());
+
+        throttle.record(FAST);
+        assertEquals(40, throttle.getPauseMs());
+        throttle.record(FAST);
+        throttle.record(FAST);
+        assertEquals(10, throttle.getPauseMs());
+        throttle.record(FAST);
+        assertEquals(0, throttle.getPauseMs());
+    }
+
+    @Test
+    void noTargetNeverPauses() {
+        final AdaptiveThrottle throttle = new AdaptiveThrottle(0, 1000);
+
+        throttle.record(SLOW);
+
+        assertEquals(0, throttle.getPauseMs());
+    }
+}
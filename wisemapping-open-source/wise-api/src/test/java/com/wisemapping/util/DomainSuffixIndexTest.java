@@ -0,0 +1,47 @@
+package com.wisemapping.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class DomainSuffixIndexTest {
+
+    private final DomainSuffixIndex index = DomainSuffixIndex.of(
+            List.of("mailinator.com", "10minutemail.com", "Guerrillamail.COM.", " ", "mailinator.com", "yopmail.fr"));
+
+    @Test
+    void listedDomainsAndTheirSubdomainsMatch() {
+        assertTrue(index.matches("mailinator.com"));
+        assertTrue(index.matches("x.mailinator.com"));
+        assertTrue(index.matches("a.b.yopmail.fr"));
+        assertTrue(index.matches("GUERRILLAMAIL.com"));
+    }
+
+    @Test
+    void otherDomainsDoNotMatch() {
+        assertFalse(index.matches("gmail.com"));
+        assertFalse(index.matches("notmailinator.com"));
+        assertFalse(index.matches("mailinator.com.evil.net"));
+        assertFalse(index.matches("com"));
+        assertFalse(index.matches(""));
+        assertFalse(index.matches(null));
+    }
+
+    @Test
+    void blankAndDuplicateEntriesAreDropped() {
+        assertEquals(4, index.size());
+        assertEquals(0, DomainSuffixIndex.empty().size());
+        assertFalse(DomainSuffixIndex.empty().matches("mailinator.com"));
+    }
+
+    @Test
+    void internationalizedDomainsMatchInEitherForm() {
+        final DomainSuffixIndex idn = DomainSuffixIndex.of(List.of("correo-desechable.es", "bücher.example"));
+
+        assertTrue(idn.matches("mail.bücher.example"));
+        assertTrue(idn.matches("xn--bcher-kva.example"));
+        assertTrue(idn.matches("Correo-Desechable.ES."));
+    }
+}
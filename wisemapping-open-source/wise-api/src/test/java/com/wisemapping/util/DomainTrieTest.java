@@ -0,0 +1,67 @@
+package com.wisemapping.util;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class DomainTrieTest {
+
+    @Test
+    void domainsMatchThemselvesAndTheirSubdomains() {
+        final DomainTrie trie = DomainTrie.builder().addDomain("google.com").addDomain("mailinator.com").build();
+
+        assertTrue(trie.matches("google.com"));
+        assertTrue(trie.matches("maps.google.com"));
+        assertTrue(trie.matches("x.y.mailinator.com"));
+        assertFalse(trie.matches("notgoogle.com"));
+        assertFalse(trie.matches("google.com.evil.net"));
+        assertFalse(trie.matches("com"));
+        assertEquals(2, trie.size());
+    }
+
+    @Test
+    void leadingWildcardMatchesSubdomainsOnly() {
+        final DomainTrie trie = DomainTrie.builder().addPattern("*.edu").build();
+
+        assertTrue(trie.matches("mit.edu"));
+        assertTrue(trie.matches("cs.mit.edu"));
+        assertFalse(trie.matches("edu"));
+        assertFalse(trie.matches("mit.edu.au"));
+    }
+
+    @Test
+    void innerWildcardMatchesOneOrMoreLabels() {
+        final DomainTrie trie = DomainTrie.builder().addPattern("*.edu.*").build();
+
+        assertTrue(trie.matches("uni.edu.au"));
+        assertTrue(trie.matches("cs.uni.edu.com.au"));
+        assertFalse(trie.matches("edu.au"));
+        assertFalse(trie.matches("uni.edu"));
+    }
+
+    @Test
+    void questionMarksStandForOneLetter() {
+        final DomainTrie trie = DomainTrie.builder().addPattern("*.ac.??").build();
+
+        assertTrue(trie.matches("ox.ac.uk"));
+        assertFalse(trie.matches("ox.ac.u1"));
+        assertFalse(trie.matches("ox.ac.com"));
+        assertFalse(trie.matches("ox.ac.uk.evil.net"));
+    }
+
+    @Test
+    void caseAndTrailingDotAreIgnored() {
+        final DomainTrie trie = DomainTrie.builder().add("Wikipedia.ORG").add("*.Gov").build();
+
+        assertTrue(trie.matches("EN.wikipedia.org."));
+        assertTrue(trie.matches("www.usa.GOV"));
+        assertFalse(trie.matches(""));
+        assertFalse(trie.matches(null));
+    }
+
+    @Test
+    void emptyTrieMatchesNothing() {
+        assertTrue(DomainTrie.empty().isEmpty());
+        assertFalse(DomainTrie.empty().matches("google.com"));
+    }
+}